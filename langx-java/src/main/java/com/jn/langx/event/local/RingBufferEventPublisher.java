@@ -0,0 +1,307 @@
+package com.jn.langx.event.local;
+
+import com.jn.langx.event.DomainEvent;
+import com.jn.langx.event.EventListener;
+import com.jn.langx.lifecycle.Lifecycle;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.concurrent.CommonThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Dispatches the events to the listeners of their domain asynchronously, through ring buffers in the style of the
+ * LMAX Disruptor.
+ * <p>
+ * There is one ring per consumer thread, and the events of a domain always go to the same ring, so the listeners of
+ * a domain receive its events in the order they were published, while several domains are dispatched in parallel.
+ * The slots of a ring are allocated once: a publisher claims a sequence with a CAS, stores the event in its slot and
+ * marks it available; the consumer dispatches all the available events in one batch before it releases their slots,
+ * and parks only when its ring stays empty. A publisher waits while the ring is full, until the shutdown; a listener
+ * publishing into the full ring of its own consumer dispatches the event at once instead.
+ * <p>
+ * The rings are created by {@link #startup()}, called by the first {@link #publish(DomainEvent)} if needed.
+ * {@link #shutdown()} dispatches the pending events, then stops the consumers. An exception thrown by a listener is
+ * logged, it does not stop the dispatching.
+ */
+public class RingBufferEventPublisher extends SimpleEventPublisher implements Lifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(RingBufferEventPublisher.class);
+    public static final int DEFAULT_RING_SIZE = 8192;
+    private static final int SPIN_TRIES = 100;
+    private static final long PARK_NANOS = 1000000L;
+
+    private int ringSize = DEFAULT_RING_SIZE;
+    private int consumers = 1;
+    private int maxBatchSize = DEFAULT_RING_SIZE;
+    private ThreadFactory threadFactory;
+
+    private volatile Ring[] rings;
+    private volatile boolean running;
+    private volatile boolean shutdown;
+
+    @Override
+    public void publish(DomainEvent event) {
+        if (shutdown) {
+            throw new IllegalStateException("the event publisher is shut down");
+        }
+        Ring[] rings = this.rings;
+        if (rings == null) {
+            startup();
+            rings = this.rings;
+            if (rings == null) {
+                // shut down meanwhile
+                throw new IllegalStateException("the event publisher is shut down");
+            }
+        }
+        String domain = event.getDomain();
+        if (!hasListeners(domain)) {
+            return;
+        }
+        rings[rings.length == 1 ? 0 : (domain.hashCode() & 0x7fffffff) % rings.length].publish(event);
+    }
+
+    @Override
+    public synchronized void startup() {
+        if (running || shutdown) {
+            return;
+        }
+        ThreadFactory factory = threadFactory != null ? threadFactory : new CommonThreadFactory("EventPublisher", true);
+        Ring[] rings = new Ring[consumers];
+        for (int i = 0; i < consumers; i++) {
+            rings[i] = new Ring(ringSize);
+        }
+        running = true;
+        for (Ring ring : rings) {
+            ring.consumer = factory.newThread(ring);
+            ring.consumer.start();
+        }
+        this.rings = rings;
+    }
+
+    /**
+     * Dispatches the pending events, then stops the consumer threads; the events published later are rejected.
+     */
+    @Override
+    public void shutdown() {
+        Ring[] rings;
+        synchronized (this) {
+            if (shutdown) {
+                return;
+            }
+            shutdown = true;
+            running = false;
+            rings = this.rings;
+        }
+        if (rings == null) {
+            return;
+        }
+        for (Ring ring : rings) {
+            LockSupport.unpark(ring.consumer);
+        }
+        for (Ring ring : rings) {
+            try {
+                ring.consumer.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the count of events published but not dispatched yet
+     */
+    public long getPendingEvents() {
+        Ring[] rings = this.rings;
+        long pending = 0;
+        if (rings != null) {
+            for (Ring ring : rings) {
+                pending += ring.claimed.get() - ring.consumed.get();
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * @return the count of events dispatched
+     */
+    public long getDispatchedEvents() {
+        Ring[] rings = this.rings;
+        long dispatched = 0;
+        if (rings != null) {
+            for (Ring ring : rings) {
+                dispatched += ring.consumed.get() + 1;
+            }
+        }
+        return dispatched;
+    }
+
+    /**
+     * @param ringSize the count of slots of each ring, rounded up to a power of two
+     */
+    public void setRingSize(int ringSize) {
+        Preconditions.checkArgument(ringSize > 0, "ringSize must be > 0");
+        int size = 1;
+        while (size < ringSize) {
+            size <<= 1;
+        }
+        this.ringSize = size;
+    }
+
+    public int getRingSize() {
+        return ringSize;
+    }
+
+    /**
+     * @param consumers the count of consumer threads, each one dispatches the events of its share of the domains
+     */
+    public void setConsumers(int consumers) {
+        Preconditions.checkArgument(consumers > 0, "consumers must be > 0");
+        this.consumers = consumers;
+    }
+
+    public int getConsumers() {
+        return consumers;
+    }
+
+    /**
+     * @param maxBatchSize how many events a consumer dispatches at most before it releases their slots
+     */
+    public void setMaxBatchSize(int maxBatchSize) {
+        Preconditions.checkArgument(maxBatchSize > 0, "maxBatchSize must be > 0");
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public void setThreadFactory(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    }
+
+    private final class Ring implements Runnable {
+        private final int mask;
+        private final int indexShift;
+        private final DomainEvent[] slots;
+        /**
+         * the lap of the sequence last published in each slot
+         */
+        private final AtomicIntegerArray available;
+        /**
+         * the last sequence claimed by a publisher
+         */
+        private final AtomicLong claimed = new AtomicLong(-1);
+        /**
+         * the last sequence dispatched by the consumer
+         */
+        private final AtomicLong consumed = new AtomicLong(-1);
+        private volatile boolean sleeping;
+        private Thread consumer;
+
+        private Ring(int size) {
+            this.mask = size - 1;
+            this.indexShift = Integer.numberOfTrailingZeros(size);
+            this.slots = new DomainEvent[size];
+            this.available = new AtomicIntegerArray(size);
+            for (int i = 0; i < size; i++) {
+                available.set(i, -1);
+            }
+        }
+
+        private void publish(DomainEvent event) {
+            long sequence;
+            int tries = 0;
+            while (true) {
+                long current = claimed.get();
+                sequence = current + 1;
+                if (sequence - slots.length > consumed.get()) {
+                    if (Thread.currentThread() == consumer) {
+                        // a listener publishing into its own full ring, waiting would never end
+                        dispatch(event);
+                        return;
+                    }
+                    if (!running) {
+                        throw new IllegalStateException("the event publisher is shut down");
+                    }
+                    // full, wait for the consumer
+                    tries = backOff(tries);
+                    continue;
+                }
+                if (claimed.compareAndSet(current, sequence)) {
+                    break;
+                }
+            }
+            int index = (int) (sequence & mask);
+            slots[index] = event;
+            available.set(index, (int) (sequence >>> indexShift));
+            if (sleeping) {
+                LockSupport.unpark(consumer);
+            }
+        }
+
+        private boolean isAvailable(long sequence) {
+            return available.get((int) (sequence & mask)) == (int) (sequence >>> indexShift);
+        }
+
+        @Override
+        public void run() {
+            int tries = 0;
+            while (true) {
+                long next = consumed.get() + 1;
+                if (isAvailable(next)) {
+                    tries = 0;
+                    long last = next;
+                    long limit = next + maxBatchSize;
+                    while (last + 1 < limit && isAvailable(last + 1)) {
+                        last++;
+                    }
+                    for (long sequence = next; sequence <= last; sequence++) {
+                        int index = (int) (sequence & mask);
+                        DomainEvent event = slots[index];
+                        slots[index] = null;
+                        dispatch(event);
+                    }
+                    consumed.set(last);
+                } else if (!running && claimed.get() < next) {
+                    return;
+                } else if (tries < SPIN_TRIES) {
+                    tries++;
+                } else if (tries < SPIN_TRIES * 2) {
+                    tries++;
+                    Thread.yield();
+                } else {
+                    // the publishers read the flag after they mark the slot available
+                    sleeping = true;
+                    if (!isAvailable(next) && running) {
+                        LockSupport.parkNanos(this, PARK_NANOS);
+                    }
+                    sleeping = false;
+                }
+            }
+        }
+
+        private void dispatch(DomainEvent event) {
+            EventListener[] listeners = getListeners(event.getDomain());
+            for (EventListener listener : listeners) {
+                try {
+                    listener.on(event);
+                } catch (Throwable ex) {
+                    logger.warn("An exception was thrown by the listener {} of the event {}", listener, event, ex);
+                }
+            }
+        }
+    }
+
+    private static int backOff(int tries) {
+        if (tries < SPIN_TRIES) {
+            return tries + 1;
+        }
+        if (tries < SPIN_TRIES * 2) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(1000L);
+        }
+        return tries + 1;
+    }
+}
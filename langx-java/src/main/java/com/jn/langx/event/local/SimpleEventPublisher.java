@@ -3,40 +3,75 @@ package com.jn.langx.event.local;
 import com.jn.langx.event.DomainEvent;
 import com.jn.langx.event.EventListener;
 import com.jn.langx.event.EventPublisher;
-import com.jn.langx.util.collection.Collects;
-import com.jn.langx.util.collection.WrappedNonAbsentMap;
-import com.jn.langx.util.function.Consumer;
-import com.jn.langx.util.function.Supplier;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Dispatches the events to the listeners of their domain, in the publishing thread.
+ * <p>
+ * The listeners of a domain are kept in a copy-on-write array: a registration copies it, a publish only reads it, so
+ * listeners can be registered while events are published.
+ */
 public class SimpleEventPublisher implements EventPublisher {
-    private WrappedNonAbsentMap<String, List<EventListener>> listenerMap = Collects.wrapAsNonAbsentMap(new ConcurrentHashMap<String, List<EventListener>>(), new Supplier<String, List<EventListener>>() {
-        @Override
-        public List<EventListener> get(String input) {
-            return new ArrayList<EventListener>();
-        }
-    });
+    private static final EventListener[] NO_LISTENERS = new EventListener[0];
+    private final ConcurrentHashMap<String, EventListener[]> listenerMap = new ConcurrentHashMap<String, EventListener[]>();
 
     @Override
     public void publish(final DomainEvent event) {
-        Collects.forEach(listenerMap.getIfPresent(event.getDomain()), new Consumer<EventListener>() {
-            @Override
-            public void accept(EventListener listener) {
-                listener.on(event);
-            }
-        });
+        EventListener[] listeners = getListeners(event.getDomain());
+        for (EventListener listener : listeners) {
+            listener.on(event);
+        }
     }
 
     @Override
     public void addEventListener(String eventDomain, EventListener listener) {
-        listenerMap.get(eventDomain).add(listener);
+        add(eventDomain, listener, false);
     }
 
     @Override
     public void addFirst(String eventDomain, EventListener listener) {
-        listenerMap.get(eventDomain).add(0, listener);
+        add(eventDomain, listener, true);
+    }
+
+    private synchronized void add(String eventDomain, EventListener listener, boolean first) {
+        EventListener[] listeners = getListeners(eventDomain);
+        EventListener[] copy = new EventListener[listeners.length + 1];
+        System.arraycopy(listeners, 0, copy, first ? 1 : 0, listeners.length);
+        copy[first ? 0 : listeners.length] = listener;
+        listenerMap.put(eventDomain, copy);
+    }
+
+    /**
+     * @return true if the listener was registered
+     */
+    public synchronized boolean removeEventListener(String eventDomain, EventListener listener) {
+        EventListener[] listeners = getListeners(eventDomain);
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                if (listeners.length == 1) {
+                    listenerMap.remove(eventDomain);
+                } else {
+                    EventListener[] copy = new EventListener[listeners.length - 1];
+                    System.arraycopy(listeners, 0, copy, 0, i);
+                    System.arraycopy(listeners, i + 1, copy, i, copy.length - i);
+                    listenerMap.put(eventDomain, copy);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the listeners of a domain, the array must not be modified
+     */
+    protected EventListener[] getListeners(String eventDomain) {
+        EventListener[] listeners = eventDomain == null ? null : listenerMap.get(eventDomain);
+        return listeners == null ? NO_LISTENERS : listeners;
+    }
+
+    public boolean hasListeners(String eventDomain) {
+        return getListeners(eventDomain).length > 0;
     }
 }
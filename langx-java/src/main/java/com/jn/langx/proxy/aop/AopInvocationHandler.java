@@ -7,15 +7,37 @@ import java.util.List;
 
 public class AopInvocationHandler extends SimpleInvocationHandler {
     private MethodInterceptorChainProvider interceptorChainProvider;
+    private final boolean poolInvocations;
 
     public AopInvocationHandler(Object target, MethodInterceptorChainProvider interceptorChainProvider) {
+        this(target, interceptorChainProvider, false);
+    }
+
+    /**
+     * @param poolInvocations true to take the invocations from a pool, and give them back after each call; only when
+     *                        no interceptor keeps an invocation after the call, to proceed it later for example
+     */
+    public AopInvocationHandler(Object target, MethodInterceptorChainProvider interceptorChainProvider, boolean poolInvocations) {
         super(target);
         this.interceptorChainProvider = interceptorChainProvider;
+        this.poolInvocations = poolInvocations;
     }
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        DefaultMethodInvocation methodInvocation = new DefaultMethodInvocation(proxy, target, method, args);
+        if (!poolInvocations) {
+            DefaultMethodInvocation methodInvocation = new DefaultMethodInvocation(proxy, target, method, args);
+            return proceed(methodInvocation);
+        }
+        DefaultMethodInvocation methodInvocation = DefaultMethodInvocation.newInstance(proxy, target, method, args);
+        try {
+            return proceed(methodInvocation);
+        } finally {
+            methodInvocation.recycle();
+        }
+    }
+
+    private Object proceed(DefaultMethodInvocation methodInvocation) throws Throwable {
         List<MethodInterceptor> interceptorChain = interceptorChainProvider.get(methodInvocation);
         methodInvocation.setInterceptors(interceptorChain);
         return methodInvocation.proceed();
@@ -1,6 +1,7 @@
 package com.jn.langx.proxy.aop;
 
 import com.jn.langx.util.Emptys;
+import com.jn.langx.util.Recycler;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -8,11 +9,53 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class DefaultMethodInvocation extends com.jn.langx.proxy.MethodInvocation implements MethodInvocation {
+    private static final Recycler<DefaultMethodInvocation> RECYCLER = new Recycler<DefaultMethodInvocation>() {
+        @Override
+        protected DefaultMethodInvocation newObject(Handle<DefaultMethodInvocation> handle) {
+            return new DefaultMethodInvocation(handle);
+        }
+    };
+
+    private final Recycler.Handle<DefaultMethodInvocation> handle;
     private List<MethodInterceptor> interceptors = new ArrayList<MethodInterceptor>();
     private int currentInterceptorIndex = -1;
 
     public DefaultMethodInvocation(Object proxy, Object target, Method method, Object[] arguments) {
         super(proxy, target, method, arguments);
+        this.handle = null;
+    }
+
+    private DefaultMethodInvocation(Recycler.Handle<DefaultMethodInvocation> handle) {
+        super(null, null, null, null);
+        this.handle = handle;
+    }
+
+    /**
+     * @return a pooled invocation, to {@link #recycle()} when it is proceeded
+     */
+    public static DefaultMethodInvocation newInstance(Object proxy, Object target, Method method, Object[] arguments) {
+        DefaultMethodInvocation invocation = RECYCLER.get();
+        invocation.proxy = proxy;
+        invocation.target = target;
+        invocation.method = method;
+        invocation.arguments = arguments;
+        return invocation;
+    }
+
+    /**
+     * Gives a pooled invocation back, it must not be used anymore; no effect on an invocation that is not pooled.
+     */
+    public void recycle() {
+        if (handle == null) {
+            return;
+        }
+        proxy = null;
+        target = null;
+        method = null;
+        arguments = null;
+        interceptors.clear();
+        currentInterceptorIndex = -1;
+        handle.recycle(this);
     }
 
     public void setInterceptors(List<MethodInterceptor> interceptors) {
@@ -1,6 +1,7 @@
 package com.jn.langx.text.csv;
 
 import com.jn.langx.util.io.IOs;
+import com.jn.langx.util.io.PooledStringBuilder;
 
 import java.io.*;
 import java.nio.charset.Charset;
@@ -1272,12 +1273,20 @@ public final class CsvFormat implements Serializable {
     }
 
     private void printWithEscapes(final Reader reader, final Appendable out) throws IOException {
+        final PooledStringBuilder pooled = PooledStringBuilder.acquire();
+        try {
+            printWithEscapes(reader, out, pooled.get());
+        } finally {
+            pooled.release();
+        }
+    }
+
+    private void printWithEscapes(final Reader reader, final Appendable out, final StringBuilder builder) throws IOException {
         int start = 0;
         int pos = 0;
 
         final char delim = getDelimiter();
         final char escape = getEscapeCharacter().charValue();
-        final StringBuilder builder = new StringBuilder(CsvIOs.DEFAULT_BUFFER_SIZE);
 
         int c;
         while (-1 != (c = reader.read())) {
@@ -1430,10 +1439,18 @@ public final class CsvFormat implements Serializable {
             return;
         }
 
+        final PooledStringBuilder pooled = PooledStringBuilder.acquire();
+        try {
+            printWithQuotes(reader, out, pooled.get());
+        } finally {
+            pooled.release();
+        }
+    }
+
+    private void printWithQuotes(final Reader reader, final Appendable out, final StringBuilder builder) throws IOException {
         int pos = 0;
 
         final char quote = getQuoteCharacter().charValue();
-        final StringBuilder builder = new StringBuilder(CsvIOs.DEFAULT_BUFFER_SIZE);
 
         out.append(quote);
 
@@ -0,0 +1,270 @@
+package com.jn.langx.util;
+
+import com.jn.langx.util.leak.ResourceLeakDetector;
+import com.jn.langx.util.leak.ResourceLeakDetectorFactory;
+import com.jn.langx.util.leak.ResourceLeakTracker;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A light-weight object pool in the manner of the Netty Recycler, for the short-lived helper objects of the hot
+ * paths.
+ * <p>
+ * Each thread has its own stack of free objects: {@link #get()} pops one, or creates one with
+ * {@link #newObject(Handle)}, and the owner thread recycling it pushes it back, without any synchronization. An
+ * object recycled by another thread is pushed on a lock-free list of its stack, which the owner thread takes back
+ * when its stack is empty. The stacks and the lists are bounded, the objects recycled beyond are dropped for the
+ * garbage collector; and only one of {@code ratio} new objects is retained at its first recycling, so a burst of
+ * allocations does not fill the pools.
+ * <p>
+ * Usage:
+ * <pre>
+ *  private static final Recycler&lt;Buffer&gt; RECYCLER = new Recycler&lt;Buffer&gt;() {
+ *      protected Buffer newObject(Handle&lt;Buffer&gt; handle) {
+ *          return new Buffer(handle);
+ *      }
+ *  };
+ *
+ *  Buffer buffer = RECYCLER.get();
+ *  ...
+ *  buffer.clear();
+ *  buffer.handle.recycle(buffer);
+ * </pre>
+ * An object must not be used after it is recycled, and is recycled once; recycling it twice throws an
+ * {@link IllegalStateException}. When a resource type is given, the objects taken out are sampled by a
+ * {@link ResourceLeakDetector}, which reports the ones that are garbage collected without being recycled.
+ *
+ * @param <T> the pooled object type
+ */
+public abstract class Recycler<T> {
+    public static final int DEFAULT_MAX_CAPACITY_PER_THREAD;
+    public static final int DEFAULT_RATIO;
+
+    static {
+        DEFAULT_MAX_CAPACITY_PER_THREAD = Math.max(0, SystemPropertys.getAccessor().getInteger("langx.recycler.maxCapacityPerThread", 4096));
+        DEFAULT_RATIO = Math.max(1, SystemPropertys.getAccessor().getInteger("langx.recycler.ratio", 8));
+    }
+
+    private static final int STATE_CLAIMED = 0;
+    private static final int STATE_AVAILABLE = 1;
+
+    @SuppressWarnings("rawtypes")
+    private static final Handle NOOP_HANDLE = new Handle() {
+        @Override
+        public void recycle(Object object) {
+        }
+    };
+
+    private final int maxCapacityPerThread;
+    private final int maxForeignCapacity;
+    private final int ratioMask;
+    private final ResourceLeakDetector<Object> leakDetector;
+
+    private final ThreadLocal<Stack<T>> threadLocal = new ThreadLocal<Stack<T>>() {
+        @Override
+        protected Stack<T> initialValue() {
+            return new Stack<T>(Recycler.this, Thread.currentThread());
+        }
+    };
+
+    protected Recycler() {
+        this(DEFAULT_MAX_CAPACITY_PER_THREAD);
+    }
+
+    protected Recycler(int maxCapacityPerThread) {
+        this(maxCapacityPerThread, DEFAULT_RATIO, null);
+    }
+
+    /**
+     * @param maxCapacityPerThread the count of free objects kept by a thread at most, 0 disables the pooling
+     * @param ratio                one of ratio new objects is retained when it is first recycled, rounded up to
+     *                             a power of two
+     * @param resourceType         the type reported by the leak detection, null disables it
+     */
+    @SuppressWarnings("unchecked")
+    protected Recycler(int maxCapacityPerThread, int ratio, Class<?> resourceType) {
+        Preconditions.checkArgument(ratio > 0, "ratio must be > 0");
+        this.maxCapacityPerThread = Math.max(0, maxCapacityPerThread);
+        this.maxForeignCapacity = Math.max(1, this.maxCapacityPerThread / 2);
+        int size = 1;
+        while (size < ratio) {
+            size <<= 1;
+        }
+        this.ratioMask = size - 1;
+        this.leakDetector = resourceType == null ? null : (ResourceLeakDetector<Object>) ResourceLeakDetectorFactory.instance().newResourceLeakDetector(resourceType);
+    }
+
+    /**
+     * @return a free object of the thread, or a new one
+     */
+    @SuppressWarnings("unchecked")
+    public final T get() {
+        if (maxCapacityPerThread == 0) {
+            return newObject((Handle<T>) NOOP_HANDLE);
+        }
+        Stack<T> stack = threadLocal.get();
+        DefaultHandle<T> handle = stack.pop();
+        if (handle == null) {
+            handle = new DefaultHandle<T>(stack);
+            handle.value = newObject(handle);
+        }
+        if (leakDetector != null) {
+            handle.tracker = leakDetector.track(handle.value);
+        }
+        return handle.value;
+    }
+
+    /**
+     * @return the count of free objects of the current thread
+     */
+    public final int threadLocalSize() {
+        return threadLocal.get().size;
+    }
+
+    /**
+     * Creates an object which gives itself to {@link Handle#recycle(Object)} when it is not used anymore.
+     */
+    protected abstract T newObject(Handle<T> handle);
+
+    public interface Handle<T> {
+        /**
+         * Gives the object back to the pool, the object must not be used anymore.
+         */
+        void recycle(T object);
+    }
+
+    private static final class DefaultHandle<T> implements Handle<T> {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<DefaultHandle> STATE_UPDATER = AtomicIntegerFieldUpdater.newUpdater(DefaultHandle.class, "state");
+
+        private final Stack<T> stack;
+        private volatile int state = STATE_CLAIMED;
+        private boolean hasBeenRecycled;
+        private T value;
+        private ResourceLeakTracker<Object> tracker;
+        /**
+         * the link in the list of the objects recycled by the other threads
+         */
+        private DefaultHandle<T> next;
+
+        private DefaultHandle(Stack<T> stack) {
+            this.stack = stack;
+        }
+
+        @Override
+        public void recycle(T object) {
+            if (object != value) {
+                throw new IllegalArgumentException("the object is not the one of the handle");
+            }
+            if (!STATE_UPDATER.compareAndSet(this, STATE_CLAIMED, STATE_AVAILABLE)) {
+                throw new IllegalStateException("the object is recycled already");
+            }
+            ResourceLeakTracker<Object> tracker = this.tracker;
+            if (tracker != null) {
+                this.tracker = null;
+                tracker.close(object);
+            }
+            stack.push(this);
+        }
+    }
+
+    private static final class Stack<T> {
+        private final Recycler<T> parent;
+        private final WeakReference<Thread> owner;
+        @SuppressWarnings("unchecked")
+        private DefaultHandle<T>[] elements = new DefaultHandle[16];
+        private int size;
+        private int newHandleCount = -1;
+        /**
+         * the objects recycled by the other threads, a Treiber stack
+         */
+        private final AtomicReference<DefaultHandle<T>> foreign = new AtomicReference<DefaultHandle<T>>();
+        private final AtomicInteger foreignSize = new AtomicInteger();
+
+        private Stack(Recycler<T> parent, Thread owner) {
+            this.parent = parent;
+            this.owner = new WeakReference<Thread>(owner);
+        }
+
+        private DefaultHandle<T> pop() {
+            if (size == 0 && !scavenge()) {
+                return null;
+            }
+            DefaultHandle<T> handle = elements[--size];
+            elements[size] = null;
+            handle.state = STATE_CLAIMED;
+            return handle;
+        }
+
+        /**
+         * Takes back the objects recycled by the other threads.
+         */
+        private boolean scavenge() {
+            if (foreign.get() == null) {
+                return false;
+            }
+            DefaultHandle<T> handle = foreign.getAndSet(null);
+            int count = 0;
+            while (handle != null) {
+                DefaultHandle<T> next = handle.next;
+                handle.next = null;
+                count++;
+                pushNow(handle);
+                handle = next;
+            }
+            foreignSize.addAndGet(-count);
+            return size > 0;
+        }
+
+        private void push(DefaultHandle<T> handle) {
+            Thread thread = owner.get();
+            if (Thread.currentThread() == thread) {
+                pushNow(handle);
+            } else if (thread != null && thread.isAlive()) {
+                pushLater(handle);
+            }
+            // else the owner is dead, nobody would take the object back
+        }
+
+        private void pushNow(DefaultHandle<T> handle) {
+            if (size >= parent.maxCapacityPerThread || dropHandle(handle)) {
+                return;
+            }
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, Math.min(size << 1, parent.maxCapacityPerThread));
+            }
+            elements[size++] = handle;
+        }
+
+        private void pushLater(DefaultHandle<T> handle) {
+            if (foreignSize.incrementAndGet() > parent.maxForeignCapacity) {
+                foreignSize.decrementAndGet();
+                return;
+            }
+            while (true) {
+                DefaultHandle<T> head = foreign.get();
+                handle.next = head;
+                if (foreign.compareAndSet(head, handle)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * @return true to drop a new object, retaining one of ratio at its first recycling
+         */
+        private boolean dropHandle(DefaultHandle<T> handle) {
+            if (!handle.hasBeenRecycled) {
+                if ((++newHandleCount & parent.ratioMask) != 0) {
+                    return true;
+                }
+                handle.hasBeenRecycled = true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.jn.langx.util.bloom;
+
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.io.Writable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A cache-line blocked <i>Bloom filter</i>: the vector is split into blocks of 512 bits (8 <code>long</code>s,
+ * one 64-byte cache line), the 64-bit hash of a key selects one block and all the <code>k</code> probes of
+ * the key fall into that block.
+ * <p>
+ * A lookup therefore touches a single block, that is one memory access instead of <code>k</code> random ones
+ * (two at most, since Java arrays are only 8-byte aligned). The price is a slightly higher false positive
+ * probability than a standard filter of the same size, see {@link BloomFilters#newBlockedBloomFilter(long, double)}.
+ * <p>
+ * Like {@link ConcurrentBloomFilter}, it is thread-safe and does not allocate.
+ *
+ * @see <a href="https://algo2.iti.kit.edu/documents/cacheefficientbloomfilters-jea.pdf">Cache-, Hash- and Space-Efficient Bloom Filters</a>
+ */
+public class BlockedBloomFilter extends Hash64Filter implements Writable {
+    private static final int VERSION = 1;
+    private static final int BLOCK_WORDS = 8;
+    private static final int BLOCK_BITS = BLOCK_WORDS * 64;
+    private static final int BITS_PER_PROBE = 9;
+    /**
+     * More probes than that in a 512-bit block only raise the false positive probability
+     */
+    static final int MAX_HASH = 16;
+
+    private long numBlocks;
+    private int nbHash;
+    private AtomicLongArray words;
+
+    /**
+     * Default constructor - use with readFields
+     */
+    public BlockedBloomFilter() {
+    }
+
+    /**
+     * @param vectorSize The number of bits in the vector, rounded up to a multiple of 512.
+     * @param nbHash     The number of hash functions to consider.
+     */
+    public BlockedBloomFilter(long vectorSize, int nbHash) {
+        this(vectorSize, nbHash, 0);
+    }
+
+    public BlockedBloomFilter(long vectorSize, int nbHash, long seed) {
+        super(seed);
+        Preconditions.checkArgument(vectorSize > 0, "vectorSize must be > 0");
+        Preconditions.checkArgument(nbHash > 0 && nbHash <= MAX_HASH, "nbHash must be in [1, " + MAX_HASH + "]");
+        long blocks = (vectorSize + BLOCK_BITS - 1) / BLOCK_BITS;
+        Preconditions.checkArgument(blocks * BLOCK_WORDS <= Integer.MAX_VALUE, "vectorSize is too large");
+        this.numBlocks = blocks;
+        this.nbHash = nbHash;
+        this.words = new AtomicLongArray((int) (blocks * BLOCK_WORDS));
+    }
+
+    @Override
+    protected boolean addHash(long hash64) {
+        int base = (int) ((hash64 & Long.MAX_VALUE) % numBlocks) * BLOCK_WORDS;
+        long probes = secondHash(hash64);
+        int available = 64;
+        boolean changed = false;
+        for (int i = 0; i < nbHash; i++) {
+            if (available < BITS_PER_PROBE) {
+                probes = secondHash(probes);
+                available = 64;
+            }
+            int bit = (int) probes & (BLOCK_BITS - 1);
+            probes >>>= BITS_PER_PROBE;
+            available -= BITS_PER_PROBE;
+            changed |= setBit(base + (bit >>> 6), 1L << bit);
+        }
+        return changed;
+    }
+
+    @Override
+    protected boolean testHash(long hash64) {
+        int base = (int) ((hash64 & Long.MAX_VALUE) % numBlocks) * BLOCK_WORDS;
+        long probes = secondHash(hash64);
+        int available = 64;
+        for (int i = 0; i < nbHash; i++) {
+            if (available < BITS_PER_PROBE) {
+                probes = secondHash(probes);
+                available = 64;
+            }
+            int bit = (int) probes & (BLOCK_BITS - 1);
+            probes >>>= BITS_PER_PROBE;
+            available -= BITS_PER_PROBE;
+            if ((words.get(base + (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean setBit(int wordIndex, long mask) {
+        while (true) {
+            long word = words.get(wordIndex);
+            if ((word & mask) != 0) {
+                return false;
+            }
+            if (words.compareAndSet(wordIndex, word, word | mask)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Performs a logical OR with a filter of the same shape, the result is assigned to <i>this</i> filter.
+     */
+    public void or(BlockedBloomFilter filter) {
+        if (filter == null
+                || filter.numBlocks != this.numBlocks
+                || filter.nbHash != this.nbHash
+                || filter.seed != this.seed) {
+            throw new IllegalArgumentException("filters cannot be or-ed");
+        }
+        for (int i = 0; i < words.length(); i++) {
+            long other = filter.words.get(i);
+            long word;
+            do {
+                word = words.get(i);
+            } while ((word | other) != word && !words.compareAndSet(i, word, word | other));
+        }
+    }
+
+    /**
+     * @return the number of bits set
+     */
+    public long cardinality() {
+        long count = 0;
+        for (int i = 0; i < words.length(); i++) {
+            count += Long.bitCount(words.get(i));
+        }
+        return count;
+    }
+
+    public long getVectorSize() {
+        return numBlocks * BLOCK_BITS;
+    }
+
+    public int getNbHash() {
+        return nbHash;
+    }
+
+    // Writable
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(VERSION);
+        out.writeInt(nbHash);
+        out.writeLong(seed);
+        out.writeLong(numBlocks);
+        for (int i = 0; i < words.length(); i++) {
+            out.writeLong(words.get(i));
+        }
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        int ver = in.readInt();
+        if (ver != VERSION) {
+            throw new IOException("Unsupported version: " + ver);
+        }
+        int nbHash = in.readInt();
+        long seed = in.readLong();
+        long numBlocks = in.readLong();
+        if (nbHash <= 0 || nbHash > MAX_HASH) {
+            throw new IOException("Illegal nbHash: " + nbHash);
+        }
+        if (numBlocks <= 0 || numBlocks > Integer.MAX_VALUE / BLOCK_WORDS) {
+            throw new IOException("Illegal block count: " + numBlocks);
+        }
+        this.nbHash = nbHash;
+        this.seed = seed;
+        this.numBlocks = numBlocks;
+        int wordCount = (int) (numBlocks * BLOCK_WORDS);
+        AtomicLongArray newWords = new AtomicLongArray(wordCount);
+        for (int i = 0; i < wordCount; i++) {
+            newWords.set(i, in.readLong());
+        }
+        this.words = newWords;
+    }
+}
@@ -0,0 +1,78 @@
+package com.jn.langx.util.bloom;
+
+import com.jn.langx.util.Preconditions;
+
+/**
+ * Sizing helpers and factories for the Bloom filters, from the expected number of insertions
+ * and the wanted false positive probability (fpp).
+ */
+public class BloomFilters {
+    private static final double LN2 = Math.log(2);
+
+    private BloomFilters() {
+    }
+
+    /**
+     * @return the number of bits <code>m = -n * ln(p) / ln(2)<sup>2</sup></code> that gives the false positive
+     * probability <code>p</code> after <code>n</code> insertions, with the optimal number of hash functions
+     */
+    public static long optimalNumOfBits(long expectedInsertions, double fpp) {
+        checkSizing(expectedInsertions, fpp);
+        return Math.max(64, (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (LN2 * LN2)));
+    }
+
+    /**
+     * @return the number of hash functions <code>k = m / n * ln(2)</code> that minimizes the false positive probability
+     */
+    public static int optimalNumOfHashFunctions(long expectedInsertions, long numBits) {
+        Preconditions.checkArgument(expectedInsertions > 0, "expectedInsertions must be > 0");
+        return Math.max(1, (int) Math.round((double) numBits / expectedInsertions * LN2));
+    }
+
+    /**
+     * @return the false positive probability <code>(1 - e<sup>-k * n / m</sup>)<sup>k</sup></code>
+     * of a standard Bloom filter of <code>m</code> bits and <code>k</code> hash functions after <code>n</code> insertions
+     */
+    public static double falsePositiveProbability(long insertions, long numBits, int nbHash) {
+        return Math.pow(1 - Math.exp(-(double) nbHash * insertions / numBits), nbHash);
+    }
+
+    public static ConcurrentBloomFilter newConcurrentBloomFilter(long expectedInsertions, double fpp) {
+        long numBits = optimalNumOfBits(expectedInsertions, fpp);
+        return new ConcurrentBloomFilter(numBits, optimalNumOfHashFunctions(expectedInsertions, numBits));
+    }
+
+    /**
+     * The keys are not spread evenly over the blocks, the most loaded blocks raise the false positive
+     * probability above the one of a standard filter of the same size. The filter is sized for
+     * <code>fpp / 2</code> to compensate.
+     */
+    public static BlockedBloomFilter newBlockedBloomFilter(long expectedInsertions, double fpp) {
+        long numBits = optimalNumOfBits(expectedInsertions, fpp / 2);
+        return new BlockedBloomFilter(numBits, Math.min(BlockedBloomFilter.MAX_HASH, optimalNumOfHashFunctions(expectedInsertions, numBits)));
+    }
+
+    /**
+     * @param initialCapacity the number of insertions of the first sub-filter, the next ones are twice larger each
+     * @param fpp             the false positive probability to keep, whatever the number of insertions
+     */
+    public static ScalableBloomFilter newScalableBloomFilter(long initialCapacity, double fpp) {
+        return new ScalableBloomFilter(initialCapacity, fpp);
+    }
+
+    /**
+     * Creates a classic {@link BloomFilter}.
+     *
+     * @param hashType type of the hashing function (see {@link com.jn.langx.util.hash.Hash}).
+     */
+    public static BloomFilter newBloomFilter(int expectedInsertions, double fpp, int hashType) {
+        long numBits = optimalNumOfBits(expectedInsertions, fpp);
+        Preconditions.checkArgument(numBits <= Integer.MAX_VALUE, "too many bits for a BloomFilter, use a ConcurrentBloomFilter");
+        return new BloomFilter((int) numBits, optimalNumOfHashFunctions(expectedInsertions, numBits), hashType);
+    }
+
+    private static void checkSizing(long expectedInsertions, double fpp) {
+        Preconditions.checkArgument(expectedInsertions > 0, "expectedInsertions must be > 0");
+        Preconditions.checkArgument(fpp > 0 && fpp < 1, "fpp must be in (0, 1)");
+    }
+}
@@ -0,0 +1,226 @@
+package com.jn.langx.util.bloom;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.hash.XxHash64;
+import com.jn.langx.util.io.Writable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe <i>Bloom filter</i> that does not allocate on <code>add</code> and <code>membershipTest</code>.
+ * <p>
+ * Compared to {@link BloomFilter}:
+ * <ul>
+ * <li>keys are hashed once with the 64-bit {@link XxHash64}, the <code>k</code> bit positions are derived with the
+ * Kirsch-Mitzenmacher double hashing <code>g<sub>i</sub>(x) = h<sub>1</sub>(x) + i * h<sub>2</sub>(x)</code>,
+ * so no <code>int[]</code> is created per call and there is no shared hashing state;</li>
+ * <li><code>byte[]</code> ranges, {@link CharSequence}s and <code>long</code>s are hashed directly,
+ * no {@link Key} needs to be created;</li>
+ * <li>the bits are kept in <code>long</code> words, updated with compare-and-set, so any number of threads
+ * can add and test concurrently;</li>
+ * <li>the vector size is a <code>long</code>, it is not limited to 2<sup>31</sup> bits.</li>
+ * </ul>
+ *
+ * @see BloomFilter
+ * @see BloomFilters#newConcurrentBloomFilter(long, double)
+ */
+public class ConcurrentBloomFilter extends Hash64Filter implements Writable {
+    static final int VERSION = 1;
+
+    private long vectorSize;
+    private int nbHash;
+    private AtomicLongArray words;
+
+    /**
+     * Default constructor - use with readFields
+     */
+    public ConcurrentBloomFilter() {
+    }
+
+    /**
+     * @param vectorSize The number of bits in the vector.
+     * @param nbHash     The number of hash functions to consider.
+     */
+    public ConcurrentBloomFilter(long vectorSize, int nbHash) {
+        this(vectorSize, nbHash, 0);
+    }
+
+    /**
+     * @param vectorSize The number of bits in the vector.
+     * @param nbHash     The number of hash functions to consider.
+     * @param seed       the hash seed, filters can only be combined when they use the same seed
+     */
+    public ConcurrentBloomFilter(long vectorSize, int nbHash, long seed) {
+        super(seed);
+        Preconditions.checkArgument(vectorSize > 0, "vectorSize must be > 0");
+        Preconditions.checkArgument(nbHash > 0, "nbHash must be > 0");
+        long wordCount = (vectorSize + 63) >>> 6;
+        Preconditions.checkArgument(wordCount <= Integer.MAX_VALUE, "vectorSize is too large");
+        this.vectorSize = vectorSize;
+        this.nbHash = nbHash;
+        this.words = new AtomicLongArray((int) wordCount);
+    }
+
+    @Override
+    protected boolean addHash(long hash64) {
+        long h2 = secondHash(hash64);
+        long combined = hash64;
+        boolean changed = false;
+        for (int i = 0; i < nbHash; i++) {
+            long bitIndex = (combined & Long.MAX_VALUE) % vectorSize;
+            changed |= setBit(bitIndex);
+            combined += h2;
+        }
+        return changed;
+    }
+
+    @Override
+    protected boolean testHash(long hash64) {
+        long h2 = secondHash(hash64);
+        long combined = hash64;
+        for (int i = 0; i < nbHash; i++) {
+            long bitIndex = (combined & Long.MAX_VALUE) % vectorSize;
+            if ((words.get((int) (bitIndex >>> 6)) & (1L << bitIndex)) == 0) {
+                return false;
+            }
+            combined += h2;
+        }
+        return true;
+    }
+
+    private boolean setBit(long bitIndex) {
+        int wordIndex = (int) (bitIndex >>> 6);
+        long mask = 1L << bitIndex;
+        while (true) {
+            long word = words.get(wordIndex);
+            if ((word & mask) != 0) {
+                return false;
+            }
+            if (words.compareAndSet(wordIndex, word, word | mask)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Performs a logical OR with a filter of the same shape, the result is assigned to <i>this</i> filter.
+     * Safe to call while other threads add keys to <i>this</i> filter.
+     */
+    public void or(@NonNull ConcurrentBloomFilter filter) {
+        checkCompatible(filter, "or-ed");
+        for (int i = 0; i < words.length(); i++) {
+            long other = filter.words.get(i);
+            long word;
+            do {
+                word = words.get(i);
+            } while ((word | other) != word && !words.compareAndSet(i, word, word | other));
+        }
+    }
+
+    /**
+     * Performs a logical AND with a filter of the same shape, the result is assigned to <i>this</i> filter.
+     */
+    public void and(@NonNull ConcurrentBloomFilter filter) {
+        checkCompatible(filter, "and-ed");
+        for (int i = 0; i < words.length(); i++) {
+            long other = filter.words.get(i);
+            long word;
+            do {
+                word = words.get(i);
+            } while ((word & other) != word && !words.compareAndSet(i, word, word & other));
+        }
+    }
+
+    private void checkCompatible(ConcurrentBloomFilter filter, String operation) {
+        if (filter == null
+                || filter.vectorSize != this.vectorSize
+                || filter.nbHash != this.nbHash
+                || filter.seed != this.seed) {
+            throw new IllegalArgumentException("filters cannot be " + operation);
+        }
+    }
+
+    /**
+     * @return the number of bits set
+     */
+    public long cardinality() {
+        long count = 0;
+        for (int i = 0; i < words.length(); i++) {
+            count += Long.bitCount(words.get(i));
+        }
+        return count;
+    }
+
+    /**
+     * @return the probability that {@link #membershipTest(long)} returns true for a key that was never added,
+     * estimated from the ratio of bits set
+     */
+    public double expectedFalsePositiveProbability() {
+        return Math.pow((double) cardinality() / vectorSize, nbHash);
+    }
+
+    public void clear() {
+        for (int i = 0; i < words.length(); i++) {
+            words.set(i, 0L);
+        }
+    }
+
+    public long getVectorSize() {
+        return vectorSize;
+    }
+
+    public int getNbHash() {
+        return nbHash;
+    }
+
+    int wordCount() {
+        return words.length();
+    }
+
+    long getWord(int index) {
+        return words.get(index);
+    }
+
+    // Writable
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(VERSION);
+        out.writeInt(nbHash);
+        out.writeLong(seed);
+        out.writeLong(vectorSize);
+        for (int i = 0; i < words.length(); i++) {
+            out.writeLong(words.get(i));
+        }
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        int ver = in.readInt();
+        if (ver != VERSION) {
+            throw new IOException("Unsupported version: " + ver);
+        }
+        int nbHash = in.readInt();
+        long seed = in.readLong();
+        long vectorSize = in.readLong();
+        if (nbHash <= 0) {
+            throw new IOException("Illegal nbHash: " + nbHash);
+        }
+        if (vectorSize <= 0 || ((vectorSize + 63) >>> 6) > Integer.MAX_VALUE) {
+            throw new IOException("Illegal vectorSize: " + vectorSize);
+        }
+        this.nbHash = nbHash;
+        this.seed = seed;
+        this.vectorSize = vectorSize;
+        int wordCount = (int) ((vectorSize + 63) >>> 6);
+        AtomicLongArray newWords = new AtomicLongArray(wordCount);
+        for (int i = 0; i < wordCount; i++) {
+            newWords.set(i, in.readLong());
+        }
+        this.words = newWords;
+    }
+}
@@ -0,0 +1,207 @@
+package com.jn.langx.util.bloom;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe {@link CuckooFilter} with striped bucket locks.
+ * <p>
+ * Adds, tests and deletes lock the stripes of the two candidate buckets of the key only, so operations on
+ * different buckets run in parallel. The rare adds that need to relocate fingerprints, when both buckets are
+ * full, lock all the stripes.
+ * <p>
+ * Neighbouring buckets may share a <code>long</code> word, the buckets are therefore locked by groups that start
+ * and end on word boundaries.
+ */
+public class ConcurrentCuckooFilter extends CuckooFilter {
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] locks;
+    private int groupShift;
+
+    /**
+     * Default constructor - use with readFields
+     */
+    public ConcurrentCuckooFilter() {
+        this.locks = newLocks();
+    }
+
+    /**
+     * @param capacity the number of keys to hold
+     */
+    public ConcurrentCuckooFilter(long capacity) {
+        this(capacity, DEFAULT_FINGERPRINT_BITS, DEFAULT_BUCKET_SIZE, 0);
+    }
+
+    /**
+     * @param capacity        the number of keys to hold
+     * @param fingerprintBits the number of bits of a fingerprint, from 2 to 32
+     * @param bucketSize      the number of fingerprints in a bucket, from 1 to 16
+     * @param seed            the hash seed
+     */
+    public ConcurrentCuckooFilter(long capacity, int fingerprintBits, int bucketSize, long seed) {
+        super(capacity, fingerprintBits, bucketSize, seed);
+        this.locks = newLocks();
+        this.groupShift = groupShift(getBucketBits());
+    }
+
+    private static ReentrantLock[] newLocks() {
+        ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    /**
+     * @return log2 of the smallest number of buckets that fills whole words
+     */
+    private static int groupShift(int bucketBits) {
+        return 6 - Math.min(6, Integer.numberOfTrailingZeros(bucketBits));
+    }
+
+    private int stripeOf(int bucket) {
+        return (bucket >>> groupShift) & (STRIPES - 1);
+    }
+
+    private void lockPair(int s1, int s2) {
+        if (s1 == s2) {
+            locks[s1].lock();
+        } else if (s1 < s2) {
+            locks[s1].lock();
+            locks[s2].lock();
+        } else {
+            locks[s2].lock();
+            locks[s1].lock();
+        }
+    }
+
+    private void unlockPair(int s1, int s2) {
+        locks[s1].unlock();
+        if (s1 != s2) {
+            locks[s2].unlock();
+        }
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = locks.length - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+
+    @Override
+    protected boolean addHash(long hash64) {
+        long fp = fingerprint(hash64);
+        int i1 = index(hash64);
+        int i2 = altIndex(i1, fp);
+        int s1 = stripeOf(i1);
+        int s2 = stripeOf(i2);
+        lockPair(s1, s2);
+        try {
+            if (hasVictim()) {
+                return false;
+            }
+            if (insertIntoBucket(i1, fp) || insertIntoBucket(i2, fp)) {
+                incrementCount();
+                return true;
+            }
+        } finally {
+            unlockPair(s1, s2);
+        }
+        lockAll();
+        try {
+            return super.addHash(hash64);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    protected boolean testHash(long hash64) {
+        long fp = fingerprint(hash64);
+        int i1 = index(hash64);
+        int i2 = altIndex(i1, fp);
+        int s1 = stripeOf(i1);
+        int s2 = stripeOf(i2);
+        lockPair(s1, s2);
+        try {
+            return bucketContains(i1, fp) || bucketContains(i2, fp) || isVictim(i1, i2, fp);
+        } finally {
+            unlockPair(s1, s2);
+        }
+    }
+
+    @Override
+    protected boolean deleteHash(long hash64) {
+        long fp = fingerprint(hash64);
+        int i1 = index(hash64);
+        int i2 = altIndex(i1, fp);
+        int s1 = stripeOf(i1);
+        int s2 = stripeOf(i2);
+        boolean deleted;
+        boolean victim;
+        lockPair(s1, s2);
+        try {
+            deleted = deleteFromBucket(i1, fp) || deleteFromBucket(i2, fp);
+            if (deleted) {
+                decrementCount();
+            }
+            victim = hasVictim();
+        } finally {
+            unlockPair(s1, s2);
+        }
+        if (!victim) {
+            return deleted;
+        }
+        lockAll();
+        try {
+            if (deleted) {
+                // room was made, the victim may fit now
+                reinsertVictim();
+                return true;
+            }
+            return super.deleteHash(hash64);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lockAll();
+        try {
+            super.clear();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        lockAll();
+        try {
+            super.write(out);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        lockAll();
+        try {
+            super.readFields(in);
+            this.groupShift = groupShift(getBucketBits());
+        } finally {
+            unlockAll();
+        }
+    }
+}
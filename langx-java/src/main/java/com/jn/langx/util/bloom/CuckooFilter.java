@@ -0,0 +1,463 @@
+package com.jn.langx.util.bloom;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.hash.XxHash64;
+import com.jn.langx.util.io.Writable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A <i>cuckoo filter</i>: an approximate set membership structure, like a Bloom filter, that also supports
+ * deletion.
+ * <p>
+ * Every key is stored as an <code>f</code>-bit fingerprint in one of two candidate buckets of <code>b</code>
+ * slots, the second bucket is derived from the first one and the fingerprint (partial-key cuckoo hashing), so
+ * fingerprints can be moved between their buckets to make room. The fingerprints are bit-packed in
+ * <code>long</code> words.
+ * <p>
+ * With <code>b = 4</code> the table fills up to about 95%, the false positive probability is close to
+ * <code>2b / 2<sup>f</sup></code>: 12-bit fingerprints give about 0.2% for 12.6 bits per key, where a
+ * {@link CountingBloomFilter} needs more than 50 bits per key. Unlike the {@link RetouchedBloomFilter},
+ * deleting a key that was added never causes false negatives.
+ * <p>
+ * A key may be added several times (at most <code>2b</code>), it must then be deleted as many times.
+ * Only delete keys that were added: deleting a key that was never added may remove the fingerprint of
+ * another key.
+ * <p>
+ * This class is not thread-safe, see {@link ConcurrentCuckooFilter}.
+ *
+ * @see <a href="https://www.cs.cmu.edu/~dga/papers/cuckoo-conext2014.pdf">Cuckoo Filter: Practically Better Than Bloom</a>
+ */
+public class CuckooFilter extends Hash64Filter implements Writable {
+    private static final int VERSION = 1;
+    public static final int DEFAULT_FINGERPRINT_BITS = 12;
+    public static final int DEFAULT_BUCKET_SIZE = 4;
+    private static final int MAX_KICKS = 500;
+    private static final double MAX_LOAD_FACTOR = 0.95;
+
+    private int fingerprintBits;
+    private long fingerprintMask;
+    private int bucketSize;
+    private int bucketBits;
+    private int numBuckets;
+    private long[] table;
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * A fingerprint that could not be placed after {@link #MAX_KICKS} relocations is kept here,
+     * so that no key is lost; the filter is full while it is used.
+     */
+    private volatile boolean hasVictim;
+    private int victimIndex;
+    private long victimFingerprint;
+    private long kickRandom = 0x2545F4914F6CDD1DL;
+
+    /**
+     * Default constructor - use with readFields
+     */
+    public CuckooFilter() {
+    }
+
+    /**
+     * @param capacity the number of keys to hold
+     */
+    public CuckooFilter(long capacity) {
+        this(capacity, DEFAULT_FINGERPRINT_BITS, DEFAULT_BUCKET_SIZE, 0);
+    }
+
+    /**
+     * @param capacity        the number of keys to hold
+     * @param fingerprintBits the number of bits of a fingerprint, from 2 to 32
+     * @param bucketSize      the number of fingerprints in a bucket, from 1 to 16
+     * @param seed            the hash seed
+     */
+    public CuckooFilter(long capacity, int fingerprintBits, int bucketSize, long seed) {
+        super(seed);
+        Preconditions.checkArgument(capacity > 0, "capacity must be > 0");
+        Preconditions.checkArgument(fingerprintBits >= 2 && fingerprintBits <= 32, "fingerprintBits must be in [2, 32]");
+        Preconditions.checkArgument(bucketSize >= 1 && bucketSize <= 16, "bucketSize must be in [1, 16]");
+        long buckets = 1;
+        long minBuckets = (long) Math.ceil(capacity / MAX_LOAD_FACTOR / bucketSize);
+        while (buckets < minBuckets) {
+            buckets <<= 1;
+        }
+        Preconditions.checkArgument(buckets <= (1 << 30), "capacity is too large");
+        init(fingerprintBits, bucketSize, (int) buckets);
+    }
+
+    private void init(int fingerprintBits, int bucketSize, int numBuckets) {
+        long words = wordCount(fingerprintBits, bucketSize, numBuckets);
+        Preconditions.checkArgument(words <= Integer.MAX_VALUE, "capacity is too large");
+        init(fingerprintBits, bucketSize, numBuckets, new long[(int) words]);
+    }
+
+    private void init(int fingerprintBits, int bucketSize, int numBuckets, long[] table) {
+        this.fingerprintBits = fingerprintBits;
+        this.fingerprintMask = (1L << fingerprintBits) - 1;
+        this.bucketSize = bucketSize;
+        this.bucketBits = fingerprintBits * bucketSize;
+        this.numBuckets = numBuckets;
+        this.table = table;
+    }
+
+    private static long wordCount(int fingerprintBits, int bucketSize, int numBuckets) {
+        return ((long) numBuckets * fingerprintBits * bucketSize + 63) >>> 6;
+    }
+
+    // key hashing
+
+    final int index(long hash64) {
+        return (int) hash64 & (numBuckets - 1);
+    }
+
+    /**
+     * @return a non zero fingerprint, zero marks an empty slot
+     */
+    final long fingerprint(long hash64) {
+        long fp = (hash64 >>> 32) & fingerprintMask;
+        return fp == 0 ? 1 : fp;
+    }
+
+    final int altIndex(int index, long fingerprint) {
+        long h = fingerprint * 0xC6A4A7935BD1E995L;
+        return (index ^ (int) (h ^ (h >>> 32))) & (numBuckets - 1);
+    }
+
+    // bucket operations
+
+    private long getSlot(int bucket, int slot) {
+        long bitPos = (long) bucket * bucketBits + (long) slot * fingerprintBits;
+        int word = (int) (bitPos >>> 6);
+        int shift = (int) (bitPos & 63);
+        long value = table[word] >>> shift;
+        if (shift + fingerprintBits > 64) {
+            value |= table[word + 1] << (64 - shift);
+        }
+        return value & fingerprintMask;
+    }
+
+    private void setSlot(int bucket, int slot, long fingerprint) {
+        long bitPos = (long) bucket * bucketBits + (long) slot * fingerprintBits;
+        int word = (int) (bitPos >>> 6);
+        int shift = (int) (bitPos & 63);
+        table[word] = (table[word] & ~(fingerprintMask << shift)) | (fingerprint << shift);
+        if (shift + fingerprintBits > 64) {
+            int written = 64 - shift;
+            table[word + 1] = (table[word + 1] & ~(fingerprintMask >>> written)) | (fingerprint >>> written);
+        }
+    }
+
+    final boolean insertIntoBucket(int bucket, long fingerprint) {
+        for (int slot = 0; slot < bucketSize; slot++) {
+            if (getSlot(bucket, slot) == 0) {
+                setSlot(bucket, slot, fingerprint);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    final boolean bucketContains(int bucket, long fingerprint) {
+        for (int slot = 0; slot < bucketSize; slot++) {
+            if (getSlot(bucket, slot) == fingerprint) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    final boolean deleteFromBucket(int bucket, long fingerprint) {
+        for (int slot = 0; slot < bucketSize; slot++) {
+            if (getSlot(bucket, slot) == fingerprint) {
+                setSlot(bucket, slot, 0);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves fingerprints to their alternate bucket until the given one finds a free slot.
+     * When it does not after {@link #MAX_KICKS} moves, the fingerprint left over becomes the victim.
+     */
+    final void relocate(int bucket, long fingerprint) {
+        int index = bucket;
+        long fp = fingerprint;
+        for (int kick = 0; kick < MAX_KICKS; kick++) {
+            int slot = nextKickSlot();
+            long evicted = getSlot(index, slot);
+            setSlot(index, slot, fp);
+            fp = evicted;
+            index = altIndex(index, fp);
+            if (insertIntoBucket(index, fp)) {
+                return;
+            }
+        }
+        victimIndex = index;
+        victimFingerprint = fp;
+        hasVictim = true;
+    }
+
+    private int nextKickSlot() {
+        // xorshift, the choice of the evicted slot only needs to be unpredictable enough to avoid cycles
+        long x = kickRandom;
+        x ^= x << 13;
+        x ^= x >>> 7;
+        x ^= x << 17;
+        kickRandom = x;
+        return (int) ((x >>> 33) % bucketSize);
+    }
+
+    final boolean isVictim(int i1, int i2, long fingerprint) {
+        return hasVictim && victimFingerprint == fingerprint && (victimIndex == i1 || victimIndex == i2);
+    }
+
+    final boolean hasVictim() {
+        return hasVictim;
+    }
+
+    /**
+     * Tries to place the victim again, after a deletion made room.
+     */
+    final void reinsertVictim() {
+        if (hasVictim) {
+            hasVictim = false;
+            int index = victimIndex;
+            long fp = victimFingerprint;
+            if (!insertIntoBucket(index, fp) && !insertIntoBucket(altIndex(index, fp), fp)) {
+                relocate(index, fp);
+            }
+        }
+    }
+
+    final void incrementCount() {
+        count.incrementAndGet();
+    }
+
+    final void decrementCount() {
+        count.decrementAndGet();
+    }
+
+    // Filter operations
+
+    /**
+     * @return false if the filter is full
+     */
+    @Override
+    protected boolean addHash(long hash64) {
+        if (hasVictim) {
+            return false;
+        }
+        long fp = fingerprint(hash64);
+        int i1 = index(hash64);
+        int i2 = altIndex(i1, fp);
+        if (!insertIntoBucket(i1, fp) && !insertIntoBucket(i2, fp)) {
+            relocate((kickRandom & 1) == 0 ? i1 : i2, fp);
+        }
+        incrementCount();
+        return true;
+    }
+
+    @Override
+    protected boolean testHash(long hash64) {
+        long fp = fingerprint(hash64);
+        int i1 = index(hash64);
+        int i2 = altIndex(i1, fp);
+        return bucketContains(i1, fp) || bucketContains(i2, fp) || isVictim(i1, i2, fp);
+    }
+
+    /**
+     * @return true if a fingerprint of the key was removed
+     */
+    protected boolean deleteHash(long hash64) {
+        long fp = fingerprint(hash64);
+        int i1 = index(hash64);
+        int i2 = altIndex(i1, fp);
+        if (deleteFromBucket(i1, fp) || deleteFromBucket(i2, fp)) {
+            decrementCount();
+            reinsertVictim();
+            return true;
+        }
+        if (isVictim(i1, i2, fp)) {
+            hasVictim = false;
+            decrementCount();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @return true if the key was removed, false if it was not in the filter
+     */
+    public boolean delete(@NonNull byte[] bytes, int offset, int length) {
+        return deleteHash(XxHash64.getInstance().hash64(bytes, offset, length, seed));
+    }
+
+    public boolean delete(@NonNull byte[] bytes) {
+        return delete(bytes, 0, bytes.length);
+    }
+
+    public boolean delete(@NonNull CharSequence chars) {
+        return deleteHash(XxHash64.getInstance().hash64(chars, seed));
+    }
+
+    public boolean delete(long value) {
+        return deleteHash(XxHash64.getInstance().hash64(value, seed));
+    }
+
+    public boolean delete(@NonNull Key key) {
+        Preconditions.checkNotNull(key, "key cannot be null");
+        return delete(key.getBytes());
+    }
+
+    /**
+     * Removes a collection of keys.
+     *
+     * @return the number of keys removed
+     */
+    public int delete(@NonNull Collection<Key> keys) {
+        Preconditions.checkNotNull(keys, "keys cannot be null");
+        int deleted = 0;
+        for (Key key : keys) {
+            if (delete(key)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Removes an array of keys.
+     *
+     * @return the number of keys removed
+     */
+    public int delete(@NonNull Key[] keys) {
+        Preconditions.checkNotNull(keys, "keys cannot be null");
+        int deleted = 0;
+        for (Key key : keys) {
+            if (delete(key)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    public void clear() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = 0;
+        }
+        hasVictim = false;
+        count.set(0);
+    }
+
+    /**
+     * @return the number of keys in the filter
+     */
+    public long size() {
+        return count.get();
+    }
+
+    /**
+     * @return the number of fingerprint slots
+     */
+    public long getCapacity() {
+        return (long) numBuckets * bucketSize;
+    }
+
+    public double loadFactor() {
+        return (double) size() / getCapacity();
+    }
+
+    /**
+     * @return the upper bound <code>2b / 2<sup>f</sup></code> of the false positive probability, reached when the filter is full
+     */
+    public double falsePositiveProbability() {
+        return 2.0 * bucketSize / (1L << fingerprintBits);
+    }
+
+    public int getFingerprintBits() {
+        return fingerprintBits;
+    }
+
+    public int getBucketSize() {
+        return bucketSize;
+    }
+
+    public int getNumBuckets() {
+        return numBuckets;
+    }
+
+    final int getBucketBits() {
+        return bucketBits;
+    }
+
+    // Writable
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(VERSION);
+        out.writeLong(seed);
+        out.writeInt(fingerprintBits);
+        out.writeInt(bucketSize);
+        out.writeInt(numBuckets);
+        out.writeLong(count.get());
+        out.writeBoolean(hasVictim);
+        out.writeInt(victimIndex);
+        out.writeLong(victimFingerprint);
+        for (long word : table) {
+            out.writeLong(word);
+        }
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        int ver = in.readInt();
+        if (ver != VERSION) {
+            throw new IOException("Unsupported version: " + ver);
+        }
+        long seed = in.readLong();
+        int fingerprintBits = in.readInt();
+        int bucketSize = in.readInt();
+        int numBuckets = in.readInt();
+        long count = in.readLong();
+        boolean victim = in.readBoolean();
+        int victimIndex = in.readInt();
+        long victimFingerprint = in.readLong();
+        if (fingerprintBits < 2 || fingerprintBits > 32) {
+            throw new IOException("Illegal fingerprintBits: " + fingerprintBits);
+        }
+        if (bucketSize < 1 || bucketSize > 16) {
+            throw new IOException("Illegal bucketSize: " + bucketSize);
+        }
+        // index() masks the hash with numBuckets - 1
+        if (numBuckets <= 0 || numBuckets > (1 << 30) || (numBuckets & (numBuckets - 1)) != 0) {
+            throw new IOException("Illegal numBuckets: " + numBuckets);
+        }
+        if (count < 0) {
+            throw new IOException("Illegal count: " + count);
+        }
+        if (victimIndex < 0 || victimIndex >= numBuckets) {
+            throw new IOException("Illegal victimIndex: " + victimIndex);
+        }
+        if (victim && (victimFingerprint <= 0 || victimFingerprint > (1L << fingerprintBits) - 1)) {
+            throw new IOException("Illegal victimFingerprint: " + victimFingerprint);
+        }
+        long[] table = new long[(int) wordCount(fingerprintBits, bucketSize, numBuckets)];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = in.readLong();
+        }
+        this.seed = seed;
+        init(fingerprintBits, bucketSize, numBuckets, table);
+        this.count.set(count);
+        this.victimIndex = victimIndex;
+        this.victimFingerprint = victimFingerprint;
+        this.hasVictim = victim;
+    }
+}
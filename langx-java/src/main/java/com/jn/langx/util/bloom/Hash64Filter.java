@@ -0,0 +1,138 @@
+package com.jn.langx.util.bloom;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.hash.XxHash64;
+
+import java.util.Collection;
+
+/**
+ * The base of the filters that hash every key once into a 64-bit {@link XxHash64} value
+ * and derive all probe positions from it.
+ * <p>
+ * Keys may be <code>byte[]</code> ranges, {@link CharSequence}s (hashed as their UTF-16 chars, so they do not
+ * match the same text added as UTF-8 bytes), <code>long</code>s or {@link Key}s, none of them is copied.
+ * <p>
+ * The heap filters are {@link com.jn.langx.util.io.Writable}, the {@link MappedBloomFilter} is persistent by itself.
+ *
+ * @see ConcurrentBloomFilter
+ * @see CuckooFilter
+ */
+public abstract class Hash64Filter {
+    /**
+     * The hash seed, filters can only be combined when they use the same seed.
+     */
+    protected long seed;
+
+    protected Hash64Filter() {
+    }
+
+    protected Hash64Filter(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Adds a key.
+     *
+     * @return true if the key was stored. A Bloom filter stores only the keys that set a new bit, so false means the
+     * key was probably in the filter already; a cuckoo filter stores every key, duplicates included, and returns
+     * false only when it is full
+     */
+    public boolean add(@NonNull byte[] bytes, int offset, int length) {
+        return addHash(XxHash64.getInstance().hash64(bytes, offset, length, seed));
+    }
+
+    public boolean add(@NonNull byte[] bytes) {
+        return add(bytes, 0, bytes.length);
+    }
+
+    public boolean add(@NonNull CharSequence chars) {
+        return addHash(XxHash64.getInstance().hash64(chars, seed));
+    }
+
+    public boolean add(long value) {
+        return addHash(XxHash64.getInstance().hash64(value, seed));
+    }
+
+    public boolean add(@NonNull Key key) {
+        Preconditions.checkNotNull(key, "key cannot be null");
+        return add(key.getBytes());
+    }
+
+    /**
+     * Adds a collection of keys.
+     *
+     * @return the number of keys stored
+     */
+    public int add(@NonNull Collection<Key> keys) {
+        Preconditions.checkNotNull(keys, "keys cannot be null");
+        int stored = 0;
+        for (Key key : keys) {
+            if (add(key)) {
+                stored++;
+            }
+        }
+        return stored;
+    }
+
+    /**
+     * Adds an array of keys.
+     *
+     * @return the number of keys stored
+     */
+    public int add(@NonNull Key[] keys) {
+        Preconditions.checkNotNull(keys, "keys cannot be null");
+        int stored = 0;
+        for (Key key : keys) {
+            if (add(key)) {
+                stored++;
+            }
+        }
+        return stored;
+    }
+
+    /**
+     * Determines whether a key may be in the filter.
+     *
+     * @return false if the key is definitely not in the filter, true if it probably is
+     */
+    public boolean membershipTest(@NonNull byte[] bytes, int offset, int length) {
+        return testHash(XxHash64.getInstance().hash64(bytes, offset, length, seed));
+    }
+
+    public boolean membershipTest(@NonNull byte[] bytes) {
+        return membershipTest(bytes, 0, bytes.length);
+    }
+
+    public boolean membershipTest(@NonNull CharSequence chars) {
+        return testHash(XxHash64.getInstance().hash64(chars, seed));
+    }
+
+    public boolean membershipTest(long value) {
+        return testHash(XxHash64.getInstance().hash64(value, seed));
+    }
+
+    public boolean membershipTest(@NonNull Key key) {
+        Preconditions.checkNotNull(key, "key cannot be null");
+        return membershipTest(key.getBytes());
+    }
+
+    protected abstract boolean addHash(long hash64);
+
+    protected abstract boolean testHash(long hash64);
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * The second hash of the double hashing, derived from the 64-bit hash with a different mix,
+     * forced odd so that it never degenerates to a single position.
+     */
+    protected static long secondHash(long hash64) {
+        long h = hash64 + 0x9E3779B97F4A7C15L;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return (h ^ (h >>> 31)) | 1L;
+    }
+}
@@ -0,0 +1,405 @@
+package com.jn.langx.util.bloom;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.hash.Hash;
+import com.jn.langx.util.io.IOs;
+
+import java.io.Closeable;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A <i>Bloom filter</i> that lives in a memory-mapped file.
+ * <p>
+ * Opening a filter only maps the file: there is no deserialization and the bits are not copied into the heap,
+ * so a multi-gigabyte filter opens in constant time and its pages are loaded lazily by the operating system.
+ * Any number of processes can open the same file and share its pages, read-only or not.
+ * <p>
+ * The file starts with a 64-byte header followed by the bit vector as little-endian <code>long</code> words:
+ * <pre>
+ *  offset  size  field
+ *       0     4  magic "LXBF"
+ *       4     4  format version
+ *       8     4  hash type, 64-bit xxHash with double hashing
+ *      12     4  k, the number of hash functions
+ *      16     8  m, the number of bits
+ *      24     8  hash seed
+ *      32    32  reserved
+ * </pre>
+ * The bit positions are the ones of {@link ConcurrentBloomFilter}, so both filters answer the same for the same
+ * keys and a {@link ConcurrentBloomFilter} can be saved with {@link #create(File, ConcurrentBloomFilter)}.
+ * <p>
+ * Adds are thread-safe within a process. Several processes may read a file while a single one adds keys to it,
+ * changes are visible to them as soon as they reach the shared pages; concurrent adds from several processes
+ * may lose bits. Call {@link #flush()} to write the changes to the disk.
+ * <p>
+ * The mapping is released when the filter is garbage collected, not by {@link #close()}: on some platforms the
+ * file cannot be deleted before.
+ */
+public class MappedBloomFilter extends Hash64Filter implements Closeable {
+    private static final int MAGIC = 0x4C584246;
+    private static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    /**
+     * A single mapping is limited to 2 GB, the file is mapped in chunks of 1 GB. Since the header size and the
+     * chunk size are multiples of 8, a word never spans two chunks.
+     */
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+    private static final int LOCK_STRIPES = 64;
+
+    private final File file;
+    private final boolean readOnly;
+    private final long vectorSize;
+    private final int nbHash;
+    private final long wordCount;
+    private final RandomAccessFile raf;
+    private final MappedByteBuffer[] chunks;
+    private final Object[] locks;
+
+    private MappedBloomFilter(File file, RandomAccessFile raf, boolean readOnly, int nbHash, long vectorSize, long seed) throws IOException {
+        super(seed);
+        this.file = file;
+        this.raf = raf;
+        this.readOnly = readOnly;
+        this.nbHash = nbHash;
+        this.vectorSize = vectorSize;
+        this.wordCount = wordCountOf(vectorSize);
+
+        long length = HEADER_SIZE + wordCount * 8;
+        int chunkCount = (int) ((length + CHUNK_MASK) >>> CHUNK_SHIFT);
+        this.chunks = new MappedByteBuffer[chunkCount];
+        FileChannel channel = raf.getChannel();
+        FileChannel.MapMode mode = readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE;
+        for (int i = 0; i < chunkCount; i++) {
+            long position = (long) i << CHUNK_SHIFT;
+            MappedByteBuffer chunk = channel.map(mode, position, Math.min(CHUNK_MASK + 1, length - position));
+            chunk.order(ByteOrder.LITTLE_ENDIAN);
+            chunks[i] = chunk;
+        }
+        this.locks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Creates a new filter file, an existing file is overwritten.
+     *
+     * @param vectorSize The number of bits in the vector.
+     * @param nbHash     The number of hash functions to consider.
+     * @param seed       the hash seed, filters can only be combined when they use the same seed
+     */
+    public static MappedBloomFilter create(@NonNull File file, long vectorSize, int nbHash, long seed) throws IOException {
+        Preconditions.checkNotNull(file, "file cannot be null");
+        Preconditions.checkArgument(vectorSize > 0, "vectorSize must be > 0");
+        Preconditions.checkArgument(nbHash > 0, "nbHash must be > 0");
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(0);
+            raf.setLength(HEADER_SIZE + wordCountOf(vectorSize) * 8);
+            MappedBloomFilter filter = new MappedBloomFilter(file, raf, false, nbHash, vectorSize, seed);
+            filter.writeHeader();
+            return filter;
+        } catch (IOException ex) {
+            IOs.close(raf);
+            throw ex;
+        } catch (RuntimeException ex) {
+            IOs.close(raf);
+            throw ex;
+        }
+    }
+
+    /**
+     * Creates a new filter file sized for the expected number of keys and false positive probability.
+     */
+    public static MappedBloomFilter create(@NonNull File file, long expectedInsertions, double fpp) throws IOException {
+        long numBits = BloomFilters.optimalNumOfBits(expectedInsertions, fpp);
+        return create(file, numBits, BloomFilters.optimalNumOfHashFunctions(expectedInsertions, numBits), 0);
+    }
+
+    /**
+     * Saves a {@link ConcurrentBloomFilter} into a new filter file.
+     */
+    public static MappedBloomFilter create(@NonNull File file, @NonNull ConcurrentBloomFilter source) throws IOException {
+        MappedBloomFilter filter = create(file, source.getVectorSize(), source.getNbHash(), source.getSeed());
+        for (int i = 0; i < source.wordCount(); i++) {
+            filter.putWord(i, source.getWord(i));
+        }
+        return filter;
+    }
+
+    /**
+     * Opens an existing filter file read-only.
+     */
+    public static MappedBloomFilter open(@NonNull File file) throws IOException {
+        return open(file, true);
+    }
+
+    /**
+     * Opens an existing filter file.
+     *
+     * @param readOnly whether the filter is mapped read-only, keys cannot be added then
+     */
+    public static MappedBloomFilter open(@NonNull File file, boolean readOnly) throws IOException {
+        Preconditions.checkNotNull(file, "file cannot be null");
+        RandomAccessFile raf = new RandomAccessFile(file, readOnly ? "r" : "rw");
+        try {
+            if (raf.length() < HEADER_SIZE) {
+                throw new IOException("Not a bloom filter file: " + file);
+            }
+            MappedByteBuffer header = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a bloom filter file: " + file);
+            }
+            int version = header.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported version: " + version);
+            }
+            int hashType = header.getInt(8);
+            if (hashType != Hash.XXHASH64_HASH) {
+                throw new IOException("Unsupported hash type: " + hashType);
+            }
+            int nbHash = header.getInt(12);
+            long vectorSize = header.getLong(16);
+            long seed = header.getLong(24);
+            // the length of any positive size fits a long, with at most 2^57 words
+            if (nbHash <= 0 || vectorSize <= 0 || raf.length() != HEADER_SIZE + wordCountOf(vectorSize) * 8) {
+                throw new IOException("Corrupted bloom filter file: " + file);
+            }
+            return new MappedBloomFilter(file, raf, readOnly, nbHash, vectorSize, seed);
+        } catch (IOException ex) {
+            IOs.close(raf);
+            throw ex;
+        } catch (RuntimeException ex) {
+            IOs.close(raf);
+            throw ex;
+        }
+    }
+
+    /**
+     * @return the count of words of a positive vector size, computed without the overflow of
+     * <code>(vectorSize + 63) &gt;&gt;&gt; 6</code>
+     */
+    private static long wordCountOf(long vectorSize) {
+        return (vectorSize >>> 6) + ((vectorSize & 63) == 0 ? 0 : 1);
+    }
+
+    private void writeHeader() {
+        MappedByteBuffer header = chunks[0];
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putInt(8, Hash.XXHASH64_HASH);
+        header.putInt(12, nbHash);
+        header.putLong(16, vectorSize);
+        header.putLong(24, seed);
+    }
+
+    private long getWord(long wordIndex) {
+        long offset = HEADER_SIZE + (wordIndex << 3);
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].getLong((int) (offset & CHUNK_MASK));
+    }
+
+    private void putWord(long wordIndex, long word) {
+        long offset = HEADER_SIZE + (wordIndex << 3);
+        chunks[(int) (offset >>> CHUNK_SHIFT)].putLong((int) (offset & CHUNK_MASK), word);
+    }
+
+    @Override
+    protected boolean addHash(long hash64) {
+        checkWritable();
+        long h2 = secondHash(hash64);
+        long combined = hash64;
+        boolean changed = false;
+        for (int i = 0; i < nbHash; i++) {
+            long bitIndex = (combined & Long.MAX_VALUE) % vectorSize;
+            changed |= setBit(bitIndex);
+            combined += h2;
+        }
+        return changed;
+    }
+
+    @Override
+    protected boolean testHash(long hash64) {
+        long h2 = secondHash(hash64);
+        long combined = hash64;
+        for (int i = 0; i < nbHash; i++) {
+            long bitIndex = (combined & Long.MAX_VALUE) % vectorSize;
+            if ((getWord(bitIndex >>> 6) & (1L << bitIndex)) == 0) {
+                return false;
+            }
+            combined += h2;
+        }
+        return true;
+    }
+
+    private boolean setBit(long bitIndex) {
+        long wordIndex = bitIndex >>> 6;
+        long mask = 1L << bitIndex;
+        if ((getWord(wordIndex) & mask) != 0) {
+            return false;
+        }
+        synchronized (locks[(int) (wordIndex & (LOCK_STRIPES - 1))]) {
+            long word = getWord(wordIndex);
+            if ((word & mask) != 0) {
+                return false;
+            }
+            putWord(wordIndex, word | mask);
+            return true;
+        }
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("the bloom filter is read-only: " + file);
+        }
+    }
+
+    /**
+     * Performs a logical OR with a filter of the same shape, the result is assigned to <i>this</i> filter.
+     */
+    public void or(@NonNull MappedBloomFilter filter) {
+        checkCompatible(filter, "or-ed");
+        for (long i = 0; i < wordCount; i++) {
+            long other = filter.getWord(i);
+            if (other != 0) {
+                synchronized (locks[(int) (i & (LOCK_STRIPES - 1))]) {
+                    putWord(i, getWord(i) | other);
+                }
+            }
+        }
+    }
+
+    /**
+     * Performs a logical AND with a filter of the same shape, the result is assigned to <i>this</i> filter.
+     */
+    public void and(@NonNull MappedBloomFilter filter) {
+        checkCompatible(filter, "and-ed");
+        for (long i = 0; i < wordCount; i++) {
+            long other = filter.getWord(i);
+            if (other != -1L) {
+                synchronized (locks[(int) (i & (LOCK_STRIPES - 1))]) {
+                    putWord(i, getWord(i) & other);
+                }
+            }
+        }
+    }
+
+    private void checkCompatible(MappedBloomFilter filter, String operation) {
+        checkWritable();
+        if (filter == null
+                || filter.vectorSize != this.vectorSize
+                || filter.nbHash != this.nbHash
+                || filter.seed != this.seed) {
+            throw new IllegalArgumentException("filters cannot be " + operation);
+        }
+    }
+
+    /**
+     * Merges filter files offline: the target file is or-ed with every source file, then flushed.
+     */
+    public static void or(@NonNull File target, @NonNull File... sources) throws IOException {
+        merge(target, sources, true);
+    }
+
+    /**
+     * Merges filter files offline: the target file is and-ed with every source file, then flushed.
+     */
+    public static void and(@NonNull File target, @NonNull File... sources) throws IOException {
+        merge(target, sources, false);
+    }
+
+    private static void merge(File target, File[] sources, boolean or) throws IOException {
+        MappedBloomFilter filter = open(target, false);
+        try {
+            for (File source : sources) {
+                MappedBloomFilter other = open(source, true);
+                try {
+                    if (or) {
+                        filter.or(other);
+                    } else {
+                        filter.and(other);
+                    }
+                } finally {
+                    other.close();
+                }
+            }
+            filter.flush();
+        } finally {
+            filter.close();
+        }
+    }
+
+    /**
+     * @return the number of bits set
+     */
+    public long cardinality() {
+        long count = 0;
+        for (long i = 0; i < wordCount; i++) {
+            count += Long.bitCount(getWord(i));
+        }
+        return count;
+    }
+
+    /**
+     * @return the probability that {@link #membershipTest(long)} returns true for a key that was never added,
+     * estimated from the ratio of bits set
+     */
+    public double expectedFalsePositiveProbability() {
+        return Math.pow((double) cardinality() / vectorSize, nbHash);
+    }
+
+    /**
+     * Writes the changes to the disk.
+     */
+    public void flush() {
+        if (!readOnly) {
+            for (MappedByteBuffer chunk : chunks) {
+                chunk.force();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        raf.close();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    public long getVectorSize() {
+        return vectorSize;
+    }
+
+    public int getNbHash() {
+        return nbHash;
+    }
+
+    /**
+     * Writes the filter in the format of {@link ConcurrentBloomFilter#write(DataOutput)},
+     * to move it to a heap filter or over the network.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(ConcurrentBloomFilter.VERSION);
+        out.writeInt(nbHash);
+        out.writeLong(seed);
+        out.writeLong(vectorSize);
+        for (long i = 0; i < wordCount; i++) {
+            out.writeLong(getWord(i));
+        }
+    }
+}
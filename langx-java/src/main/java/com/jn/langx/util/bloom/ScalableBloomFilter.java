@@ -0,0 +1,232 @@
+package com.jn.langx.util.bloom;
+
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.io.Writable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A <i>Bloom filter</i> that grows with the number of keys while keeping a bounded false positive probability.
+ * <p>
+ * It is a chain of {@link ConcurrentBloomFilter}s: when the current one holds its capacity, a new one is appended,
+ * <code>growth</code> times larger and with a false positive probability <code>tightening</code> times smaller.
+ * The probabilities form a geometric series <code>P<sub>0</sub> * r<sup>i</sup></code>
+ * with <code>P<sub>0</sub> = P * (1 - r)</code>, whose sum never exceeds the wanted probability <code>P</code>.
+ * <p>
+ * Keys are hashed once, whatever the number of sub-filters. Adds and tests are thread-safe, only the
+ * creation of a sub-filter takes a lock. The capacity is counted with the keys that changed the
+ * current sub-filter, it is approximate while a sub-filter is being appended.
+ *
+ * @see <a href="https://gsd.di.uminho.pt/members/cbm/ps/dbloom.pdf">Scalable Bloom Filters</a>
+ * @see DynamicBloomFilter
+ */
+public class ScalableBloomFilter extends Hash64Filter implements Writable {
+    private static final int VERSION = 1;
+    public static final int DEFAULT_GROWTH = 2;
+    public static final double DEFAULT_TIGHTENING = 0.85;
+
+    private long initialCapacity;
+    private double fpp;
+    private int growth;
+    private double tightening;
+
+    private volatile ConcurrentBloomFilter[] filters;
+    private volatile long currentCapacity;
+    private final AtomicLong currentCount = new AtomicLong();
+    private final Object growLock = new Object();
+
+    /**
+     * Default constructor - use with readFields
+     */
+    public ScalableBloomFilter() {
+    }
+
+    public ScalableBloomFilter(long initialCapacity, double fpp) {
+        this(initialCapacity, fpp, DEFAULT_GROWTH, DEFAULT_TIGHTENING, 0);
+    }
+
+    /**
+     * @param initialCapacity the number of keys of the first sub-filter
+     * @param fpp             the false positive probability of the whole filter
+     * @param growth          the capacity ratio between a sub-filter and the previous one
+     * @param tightening      the false positive probability ratio between a sub-filter and the previous one
+     * @param seed            the hash seed
+     */
+    public ScalableBloomFilter(long initialCapacity, double fpp, int growth, double tightening, long seed) {
+        super(seed);
+        Preconditions.checkArgument(initialCapacity > 0, "initialCapacity must be > 0");
+        Preconditions.checkArgument(fpp > 0 && fpp < 1, "fpp must be in (0, 1)");
+        Preconditions.checkArgument(growth >= 1, "growth must be >= 1");
+        Preconditions.checkArgument(tightening > 0 && tightening < 1, "tightening must be in (0, 1)");
+        this.initialCapacity = initialCapacity;
+        this.fpp = fpp;
+        this.growth = growth;
+        this.tightening = tightening;
+        this.filters = new ConcurrentBloomFilter[]{newSubFilter(0)};
+        this.currentCapacity = initialCapacity;
+    }
+
+    private long capacityOf(int index) {
+        double capacity = initialCapacity * Math.pow(growth, index);
+        return capacity >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) capacity;
+    }
+
+    private ConcurrentBloomFilter newSubFilter(int index) {
+        long capacity = capacityOf(index);
+        double subFpp = fpp * (1 - tightening) * Math.pow(tightening, index);
+        long numBits = BloomFilters.optimalNumOfBits(capacity, Math.max(subFpp, Double.MIN_NORMAL));
+        return new ConcurrentBloomFilter(numBits, BloomFilters.optimalNumOfHashFunctions(capacity, numBits), seed);
+    }
+
+    @Override
+    protected boolean addHash(long hash64) {
+        ConcurrentBloomFilter[] fs = filters;
+        int last = fs.length - 1;
+        for (int i = 0; i < last; i++) {
+            if (fs[i].testHash(hash64)) {
+                return false;
+            }
+        }
+        if (!fs[last].addHash(hash64)) {
+            return false;
+        }
+        if (currentCount.incrementAndGet() >= currentCapacity) {
+            grow(fs);
+        }
+        return true;
+    }
+
+    private void grow(ConcurrentBloomFilter[] expected) {
+        synchronized (growLock) {
+            ConcurrentBloomFilter[] fs = filters;
+            if (fs != expected) {
+                // another thread has already appended a sub-filter
+                return;
+            }
+            ConcurrentBloomFilter[] newFilters = new ConcurrentBloomFilter[fs.length + 1];
+            System.arraycopy(fs, 0, newFilters, 0, fs.length);
+            newFilters[fs.length] = newSubFilter(fs.length);
+            currentCount.set(0);
+            currentCapacity = capacityOf(fs.length);
+            filters = newFilters;
+        }
+    }
+
+    @Override
+    protected boolean testHash(long hash64) {
+        ConcurrentBloomFilter[] fs = filters;
+        // the newest sub-filters hold most of the keys
+        for (int i = fs.length - 1; i >= 0; i--) {
+            if (fs[i].testHash(hash64)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of sub-filters
+     */
+    public int getFilterCount() {
+        return filters.length;
+    }
+
+    /**
+     * @return the total number of bits of the sub-filters
+     */
+    public long getVectorSize() {
+        long size = 0;
+        for (ConcurrentBloomFilter filter : filters) {
+            size += filter.getVectorSize();
+        }
+        return size;
+    }
+
+    /**
+     * @return the probability that a key that was never added is reported as present,
+     * estimated from the ratio of bits set in every sub-filter
+     */
+    public double expectedFalsePositiveProbability() {
+        double notFalsePositive = 1;
+        for (ConcurrentBloomFilter filter : filters) {
+            notFalsePositive *= 1 - filter.expectedFalsePositiveProbability();
+        }
+        return 1 - notFalsePositive;
+    }
+
+    public double getFpp() {
+        return fpp;
+    }
+
+    // Writable
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        synchronized (growLock) {
+            ConcurrentBloomFilter[] fs = filters;
+            out.writeInt(VERSION);
+            out.writeLong(seed);
+            out.writeLong(initialCapacity);
+            out.writeDouble(fpp);
+            out.writeInt(growth);
+            out.writeDouble(tightening);
+            out.writeLong(currentCount.get());
+            out.writeInt(fs.length);
+            for (ConcurrentBloomFilter filter : fs) {
+                filter.write(out);
+            }
+        }
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        int ver = in.readInt();
+        if (ver != VERSION) {
+            throw new IOException("Unsupported version: " + ver);
+        }
+        long seed = in.readLong();
+        long initialCapacity = in.readLong();
+        double fpp = in.readDouble();
+        int growth = in.readInt();
+        double tightening = in.readDouble();
+        long count = in.readLong();
+        int filterCount = in.readInt();
+        if (initialCapacity <= 0) {
+            throw new IOException("Illegal initialCapacity: " + initialCapacity);
+        }
+        if (!(fpp > 0 && fpp < 1)) {
+            throw new IOException("Illegal fpp: " + fpp);
+        }
+        if (growth < 1) {
+            throw new IOException("Illegal growth: " + growth);
+        }
+        if (!(tightening > 0 && tightening < 1)) {
+            throw new IOException("Illegal tightening: " + tightening);
+        }
+        if (count < 0) {
+            throw new IOException("Illegal count: " + count);
+        }
+        if (filterCount <= 0) {
+            throw new IOException("Illegal filter count: " + filterCount);
+        }
+        // the sub-filters validate their own headers
+        ConcurrentBloomFilter[] fs = new ConcurrentBloomFilter[filterCount];
+        for (int i = 0; i < fs.length; i++) {
+            fs[i] = new ConcurrentBloomFilter();
+            fs[i].readFields(in);
+        }
+        synchronized (growLock) {
+            this.seed = seed;
+            this.initialCapacity = initialCapacity;
+            this.fpp = fpp;
+            this.growth = growth;
+            this.tightening = tightening;
+            this.currentCount.set(count);
+            this.currentCapacity = capacityOf(fs.length - 1);
+            this.filters = fs;
+        }
+    }
+}
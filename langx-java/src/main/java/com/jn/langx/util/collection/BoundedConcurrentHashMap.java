@@ -1,11 +1,19 @@
 package com.jn.langx.util.collection;
 
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.function.Consumer2;
+import com.jn.langx.util.function.Function2;
+import com.jn.langx.util.function.Operator2;
+import com.jn.langx.util.function.Predicate2;
 
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static java.util.Collections.singletonMap;
@@ -1304,6 +1312,96 @@ public class BoundedConcurrentHashMap<K, V> extends AbstractMap<K, V>
             return false;
         }
 
+        /* Bulk operations, weakly consistent like the iterators */
+
+        void forEach(Consumer2<? super K, ? super V> action) {
+            if (count != 0) { // read-volatile
+                HashEntry<K, V>[] tab = table;
+                for (int i = 0; i < tab.length; i++) {
+                    for (HashEntry<K, V> e = tab[i]; e != null; e = e.next) {
+                        V v = e.value;
+                        if (v == null) {
+                            v = readValueUnderLock(e);
+                        }
+                        if (v != null) {
+                            action.accept(e.key, v);
+                        }
+                    }
+                }
+            }
+        }
+
+        <U> U search(Function2<? super K, ? super V, ? extends U> searchFunction, AtomicReference<U> found) {
+            if (count != 0) { // read-volatile
+                HashEntry<K, V>[] tab = table;
+                for (int i = 0; i < tab.length && found.get() == null; i++) {
+                    for (HashEntry<K, V> e = tab[i]; e != null; e = e.next) {
+                        V v = e.value;
+                        if (v == null) {
+                            v = readValueUnderLock(e);
+                        }
+                        if (v != null) {
+                            U u = searchFunction.apply(e.key, v);
+                            if (u != null) {
+                                found.compareAndSet(null, u);
+                                return u;
+                            }
+                        }
+                    }
+                }
+            }
+            return null;
+        }
+
+        <U> U reduce(Function2<? super K, ? super V, ? extends U> transformer, Operator2<U> reducer) {
+            U result = null;
+            if (count != 0) { // read-volatile
+                HashEntry<K, V>[] tab = table;
+                for (int i = 0; i < tab.length; i++) {
+                    for (HashEntry<K, V> e = tab[i]; e != null; e = e.next) {
+                        V v = e.value;
+                        if (v == null) {
+                            v = readValueUnderLock(e);
+                        }
+                        if (v != null) {
+                            U u = transformer.apply(e.key, v);
+                            if (u != null) {
+                                result = result == null ? u : reducer.apply(result, u);
+                            }
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+
+        int removeIf(Predicate2<? super K, ? super V> filter) {
+            if (count == 0) { // read-volatile
+                return 0;
+            }
+            // match without the lock, then remove each match only if it is still mapped to the tested value
+            List<HashEntry<K, V>> matched = new ArrayList<HashEntry<K, V>>();
+            HashEntry<K, V>[] tab = table;
+            for (int i = 0; i < tab.length; i++) {
+                for (HashEntry<K, V> e = tab[i]; e != null; e = e.next) {
+                    V v = e.value;
+                    if (v == null) {
+                        v = readValueUnderLock(e);
+                    }
+                    if (v != null && filter.test(e.key, v)) {
+                        matched.add(new HashEntry<K, V>(e.key, e.hash, null, v));
+                    }
+                }
+            }
+            int removed = 0;
+            for (HashEntry<K, V> e : matched) {
+                if (remove(e.key, e.hash, e.value) != null) {
+                    removed++;
+                }
+            }
+            return removed;
+        }
+
         boolean replace(K key, int hash, V oldValue, V newValue) {
             lock();
             Set<HashEntry<K, V>> evicted = null;
@@ -2023,6 +2121,123 @@ public class BoundedConcurrentHashMap<K, V> extends AbstractMap<K, V>
         }
     }
 
+    /* ---------------- Parallel bulk operations -------------- */
+
+    /**
+     * Returns the sum of the segment counts, without the retries and locking used by {@link #size()}.
+     */
+    private long approximateSize() {
+        long sum = 0;
+        for (int i = 0; i < segments.length; ++i) {
+            sum += segments[i].count;
+        }
+        return sum;
+    }
+
+    /**
+     * Performs the given action for each (key, value).
+     * <p/>
+     * <p>Segments are visited in parallel on the given executor (which may be a fork-join pool)
+     * when the map holds at least <tt>parallelismThreshold</tt> mappings, otherwise sequentially
+     * in the calling thread. The calling thread always takes part in the work and returns when
+     * all segments are done. Like the iterators, the traversal is weakly consistent and does not
+     * count as an access for the eviction policy.
+     *
+     * @param parallelismThreshold the (estimated) number of mappings needed for this operation
+     *                             to be executed in parallel, use {@link Long#MAX_VALUE} to suppress parallelism
+     * @param executor             the executor used to run segments concurrently, <tt>null</tt> to run sequentially
+     * @param action               the action
+     */
+    public void forEach(long parallelismThreshold, Executor executor, final Consumer2<? super K, ? super V> action) {
+        Preconditions.checkNotNull(action);
+        SegmentedBulkTasks.invoke(executor, segments.length, new SegmentedBulkTasks.SegmentTask() {
+            @Override
+            public void run(int segmentIndex) {
+                segments[segmentIndex].forEach(action);
+            }
+        }, SegmentedBulkTasks.shouldParallelize(executor, parallelismThreshold, segments.length, approximateSize()));
+    }
+
+    /**
+     * Returns a non-null result from applying the given search function on each (key, value),
+     * or null if none. Upon success, further element processing is suppressed, so when several
+     * mappings match, which one is returned is not determined.
+     *
+     * @param parallelismThreshold the (estimated) number of mappings needed for this operation to be executed in parallel
+     * @param executor             the executor used to run segments concurrently, <tt>null</tt> to run sequentially
+     * @param searchFunction       a function returning a non-null result on success, else null
+     * @see #forEach(long, Executor, Consumer2)
+     */
+    public <U> U search(long parallelismThreshold, Executor executor, final Function2<? super K, ? super V, ? extends U> searchFunction) {
+        Preconditions.checkNotNull(searchFunction);
+        final AtomicReference<U> found = new AtomicReference<U>();
+        SegmentedBulkTasks.invoke(executor, segments.length, new SegmentedBulkTasks.SegmentTask() {
+            @Override
+            public void run(int segmentIndex) {
+                if (found.get() == null) {
+                    segments[segmentIndex].search(searchFunction, found);
+                }
+            }
+        }, SegmentedBulkTasks.shouldParallelize(executor, parallelismThreshold, segments.length, approximateSize()));
+        return found.get();
+    }
+
+    /**
+     * Returns the result of accumulating the given transformation of all (key, value) pairs
+     * using the given reducer to combine values, or null if none. Null transformations are skipped.
+     * The reducer must be associative, since the partial result of each segment is combined
+     * in no particular grouping.
+     *
+     * @param parallelismThreshold the (estimated) number of mappings needed for this operation to be executed in parallel
+     * @param executor             the executor used to run segments concurrently, <tt>null</tt> to run sequentially
+     * @param transformer          a function returning the transformation for an element, or null if there is no transformation
+     * @param reducer              a commutative associative combining function
+     * @see #forEach(long, Executor, Consumer2)
+     */
+    public <U> U reduce(long parallelismThreshold, Executor executor, final Function2<? super K, ? super V, ? extends U> transformer, final Operator2<U> reducer) {
+        Preconditions.checkNotNull(transformer);
+        Preconditions.checkNotNull(reducer);
+        final Object[] partials = new Object[segments.length];
+        SegmentedBulkTasks.invoke(executor, segments.length, new SegmentedBulkTasks.SegmentTask() {
+            @Override
+            public void run(int segmentIndex) {
+                partials[segmentIndex] = segments[segmentIndex].reduce(transformer, reducer);
+            }
+        }, SegmentedBulkTasks.shouldParallelize(executor, parallelismThreshold, segments.length, approximateSize()));
+        // the latch in SegmentedBulkTasks makes the partials visible here
+        U result = null;
+        for (Object partial : partials) {
+            if (partial != null) {
+                @SuppressWarnings("unchecked")
+                U u = (U) partial;
+                result = result == null ? u : reducer.apply(result, u);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes all of the mappings that satisfy the given predicate. A mapping is only removed
+     * if it is still mapped to the value the predicate was tested with.
+     *
+     * @param parallelismThreshold the (estimated) number of mappings needed for this operation to be executed in parallel
+     * @param executor             the executor used to run segments concurrently, <tt>null</tt> to run sequentially
+     * @param filter               a predicate which returns <tt>true</tt> for mappings to be removed
+     * @return the number of removed mappings
+     * @see #forEach(long, Executor, Consumer2)
+     */
+    public int removeIf(long parallelismThreshold, Executor executor, final Predicate2<? super K, ? super V> filter) {
+        Preconditions.checkNotNull(filter);
+        final AtomicInteger removed = new AtomicInteger();
+        SegmentedBulkTasks.invoke(executor, segments.length, new SegmentedBulkTasks.SegmentTask() {
+            @Override
+            public void run(int segmentIndex) {
+                removed.addAndGet(segments[segmentIndex].removeIf(filter));
+            }
+        }, SegmentedBulkTasks.shouldParallelize(executor, parallelismThreshold, segments.length, approximateSize()));
+        return removed.get();
+    }
+
     /**
      * Returns a {@link Set} view of the keys contained in this map.
      * The set is backed by the map, so changes to the map are
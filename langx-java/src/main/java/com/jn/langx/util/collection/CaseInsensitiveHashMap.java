@@ -0,0 +1,425 @@
+package com.jn.langx.util.collection;
+
+import com.jn.langx.annotation.Nullable;
+import com.jn.langx.util.Objects;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * A hash map with case-insensitive String keys that keeps the insertion order and the original casing of the keys.
+ * <p>
+ * Unlike {@link LinkedCaseInsensitiveMap}, no lower-cased copy of the key is created: keys are hashed with a
+ * case-folding hash and compared with {@link String#regionMatches(boolean, int, String, int, int)}, so
+ * <code>get</code>, <code>containsKey</code> and <code>remove</code> do not allocate. ASCII characters are folded
+ * without any table lookup, which makes HTTP-header-style lookups cheap.
+ * <p>
+ * The keys are compared like {@link String#equalsIgnoreCase(String)}, independently from the default Locale.
+ * When a key is put again with a different casing, the value is replaced but the key keeps its first casing.
+ * <p>
+ * This class is not thread-safe. <code>null</code> keys are not supported, <code>null</code> values are.
+ *
+ * @param <V> the value type
+ * @see CaseInsensitiveHashSet
+ */
+public class CaseInsensitiveHashMap<V> extends AbstractMap<String, V> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private transient Node<V>[] table;
+    /**
+     * the head of the insertion-ordered list, it is a sentinel node
+     */
+    private transient Node<V> header;
+    private transient int size;
+    private transient int threshold;
+    private transient int modCount;
+    private transient Set<Map.Entry<String, V>> entrySet;
+
+    public CaseInsensitiveHashMap() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public CaseInsensitiveHashMap(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Illegal initial capacity: " + initialCapacity);
+        }
+        init(tableSizeFor((int) (initialCapacity / LOAD_FACTOR) + 1));
+    }
+
+    public CaseInsensitiveHashMap(Map<String, ? extends V> map) {
+        this(map.size());
+        putAll(map);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void init(int capacity) {
+        table = new Node[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+        header = new Node<V>(null, 0, null, null);
+        header.before = header.after = header;
+        size = 0;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = 1;
+        while (n < capacity && n < MAXIMUM_CAPACITY) {
+            n <<= 1;
+        }
+        return n;
+    }
+
+    /**
+     * A hash code that is equal for any two strings that are {@link String#equalsIgnoreCase(String) equal ignoring case}.
+     */
+    public static int caseInsensitiveHash(String key) {
+        int h = 0;
+        int length = key.length();
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + foldCase(key.charAt(i));
+        }
+        // spread the higher bits, the table index uses the lower ones
+        return h ^ (h >>> 16);
+    }
+
+    private static int foldCase(char c) {
+        if (c < 128) {
+            // ASCII fast path
+            return (c >= 'A' && c <= 'Z') ? c + ('a' - 'A') : c;
+        }
+        // the same folding as String.regionMatches(true, ...)
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static boolean keyEquals(String key, String other) {
+        return key == other || (key.length() == other.length() && key.regionMatches(true, 0, other, 0, key.length()));
+    }
+
+    private Node<V> getNode(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        String k = (String) key;
+        int hash = caseInsensitiveHash(k);
+        Node<V>[] tab = table;
+        for (Node<V> e = tab[hash & (tab.length - 1)]; e != null; e = e.next) {
+            if (e.hash == hash && keyEquals(e.key, k)) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return getNode(key) != null;
+    }
+
+    @Override
+    @Nullable
+    public V get(Object key) {
+        Node<V> e = getNode(key);
+        return e == null ? null : e.value;
+    }
+
+    @Nullable
+    public V getOrDefault(Object key, V defaultValue) {
+        Node<V> e = getNode(key);
+        return e == null ? defaultValue : e.value;
+    }
+
+    /**
+     * @return the key as it was first put, or null if there is no mapping for the key
+     */
+    @Nullable
+    public String getOriginalKey(String key) {
+        Node<V> e = getNode(key);
+        return e == null ? null : e.key;
+    }
+
+    @Override
+    @Nullable
+    public V put(String key, @Nullable V value) {
+        return put(key, value, false);
+    }
+
+    @Nullable
+    public V putIfAbsent(String key, @Nullable V value) {
+        return put(key, value, true);
+    }
+
+    private V put(String key, V value, boolean onlyIfAbsent) {
+        if (key == null) {
+            throw new NullPointerException("the key is null");
+        }
+        int hash = caseInsensitiveHash(key);
+        Node<V>[] tab = table;
+        int index = hash & (tab.length - 1);
+        for (Node<V> e = tab[index]; e != null; e = e.next) {
+            if (e.hash == hash && keyEquals(e.key, key)) {
+                V oldValue = e.value;
+                if (!onlyIfAbsent || oldValue == null) {
+                    e.value = value;
+                }
+                return oldValue;
+            }
+        }
+
+        modCount++;
+        Node<V> node = new Node<V>(key, hash, value, tab[index]);
+        tab[index] = node;
+        node.addBefore(header);
+        if (++size > threshold) {
+            resize();
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize() {
+        Node<V>[] oldTable = table;
+        if (oldTable.length >= MAXIMUM_CAPACITY) {
+            threshold = Integer.MAX_VALUE;
+            return;
+        }
+        int newCapacity = oldTable.length << 1;
+        Node<V>[] newTable = new Node[newCapacity];
+        for (Node<V> e = header.after; e != header; e = e.after) {
+            int index = e.hash & (newCapacity - 1);
+            e.next = newTable[index];
+            newTable[index] = e;
+        }
+        table = newTable;
+        threshold = (int) (newCapacity * LOAD_FACTOR);
+    }
+
+    @Override
+    @Nullable
+    public V remove(Object key) {
+        Node<V> e = removeNode(key);
+        return e == null ? null : e.value;
+    }
+
+    private Node<V> removeNode(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        String k = (String) key;
+        int hash = caseInsensitiveHash(k);
+        Node<V>[] tab = table;
+        int index = hash & (tab.length - 1);
+        Node<V> prev = null;
+        for (Node<V> e = tab[index]; e != null; prev = e, e = e.next) {
+            if (e.hash == hash && keyEquals(e.key, k)) {
+                if (prev == null) {
+                    tab[index] = e.next;
+                } else {
+                    prev.next = e.next;
+                }
+                e.remove();
+                modCount++;
+                size--;
+                return e;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(table, null);
+            header.before = header.after = header;
+            size = 0;
+            modCount++;
+        }
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (Node<V> e = header.after; e != header; e = e.after) {
+            if (Objects.equals(value, e.value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+        Set<Map.Entry<String, V>> es = entrySet;
+        return es != null ? es : (entrySet = new EntrySet());
+    }
+
+    private static final class Node<V> implements Map.Entry<String, V> {
+        final String key;
+        final int hash;
+        V value;
+        Node<V> next;
+        Node<V> before;
+        Node<V> after;
+
+        Node(String key, int hash, V value, Node<V> next) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+            this.next = next;
+        }
+
+        void addBefore(Node<V> existing) {
+            after = existing;
+            before = existing.before;
+            before.after = this;
+            after.before = this;
+        }
+
+        void remove() {
+            before.after = after;
+            after.before = before;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V oldValue = this.value;
+            this.value = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return Objects.equals(key, e.getKey()) && Objects.equals(value, e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<String, V>> {
+        private Node<V> next = header.after;
+        private Node<V> lastReturned;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next != header;
+        }
+
+        @Override
+        public Map.Entry<String, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next == header) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = next;
+            next = next.after;
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            CaseInsensitiveHashMap.this.removeNode(lastReturned.key);
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<String, V>> {
+        @Override
+        public Iterator<Map.Entry<String, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            Node<V> node = getNode(e.getKey());
+            return node != null && Objects.equals(node.value, e.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (contains(o)) {
+                removeNode(((Map.Entry<?, ?>) o).getKey());
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void clear() {
+            CaseInsensitiveHashMap.this.clear();
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (Node<V> e = header.after; e != header; e = e.after) {
+            out.writeObject(e.key);
+            out.writeObject(e.value);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int count = in.readInt();
+        init(tableSizeFor((int) (count / LOAD_FACTOR) + 1));
+        for (int i = 0; i < count; i++) {
+            put((String) in.readObject(), (V) in.readObject());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.jn.langx.util.collection;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * A set of case-insensitive Strings, backed by a {@link CaseInsensitiveHashMap}: it keeps the insertion order
+ * and the original casing of the elements, and lookups do not allocate.
+ *
+ * @see LinkedCaseInsensitiveSet
+ */
+public class CaseInsensitiveHashSet extends AbstractSet<String> implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final Object PRESENT = Boolean.TRUE;
+
+    private final CaseInsensitiveHashMap<Object> map;
+
+    public CaseInsensitiveHashSet() {
+        this.map = new CaseInsensitiveHashMap<Object>();
+    }
+
+    public CaseInsensitiveHashSet(int initialCapacity) {
+        this.map = new CaseInsensitiveHashMap<Object>(initialCapacity);
+    }
+
+    public CaseInsensitiveHashSet(Collection<String> source) {
+        this(source.size());
+        addAll(source);
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return map.keySet().iterator();
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return map.containsKey(o);
+    }
+
+    /**
+     * @return the element as it was first added, or null if there is no such element
+     */
+    public String getOriginal(String element) {
+        return map.getOriginalKey(element);
+    }
+
+    @Override
+    public boolean add(String element) {
+        return map.putIfAbsent(element, PRESENT) == null;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return map.remove(o) != null;
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+}
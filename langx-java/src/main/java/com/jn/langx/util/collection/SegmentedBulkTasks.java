@@ -0,0 +1,96 @@
+package com.jn.langx.util.collection;
+
+import com.jn.langx.util.Throwables;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs a per-segment task over all segments of a segmented concurrent map
+ * ({@link BoundedConcurrentHashMap}, {@link ConcurrentReferenceHashMap}).
+ * <p>
+ * When running in parallel, segments are claimed one at a time from a shared cursor by
+ * the helper tasks submitted to the executor <em>and</em> by the calling thread, so the
+ * call always completes even if the executor is saturated or rejects the helpers.
+ */
+class SegmentedBulkTasks {
+
+    interface SegmentTask {
+        void run(int segmentIndex);
+    }
+
+    private SegmentedBulkTasks() {
+    }
+
+    /**
+     * @return whether a bulk operation over a map with <code>size</code> mappings should be split across the executor
+     */
+    static boolean shouldParallelize(Executor executor, long parallelismThreshold, int segmentCount, long size) {
+        return executor != null && segmentCount > 1 && size >= parallelismThreshold;
+    }
+
+    static void invoke(Executor executor, int segmentCount, final SegmentTask task, boolean parallel) {
+        if (!parallel) {
+            for (int i = 0; i < segmentCount; i++) {
+                task.run(i);
+            }
+            return;
+        }
+
+        final AtomicInteger cursor = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(segmentCount);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final int total = segmentCount;
+
+        Runnable drainer = new Runnable() {
+            @Override
+            public void run() {
+                int index;
+                while ((index = cursor.getAndIncrement()) < total) {
+                    try {
+                        if (failure.get() == null) {
+                            task.run(index);
+                        }
+                    } catch (Throwable ex) {
+                        failure.compareAndSet(null, ex);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }
+        };
+
+        int helpers = Math.min(segmentCount, Runtime.getRuntime().availableProcessors()) - 1;
+        for (int i = 0; i < helpers; i++) {
+            try {
+                executor.execute(drainer);
+            } catch (RejectedExecutionException ex) {
+                // the caller thread drains what is left
+                break;
+            }
+        }
+        drainer.run();
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                done.await();
+                break;
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        Throwable ex = failure.get();
+        if (ex != null) {
+            Throwables.throwIfError(ex);
+            throw Throwables.wrapAsRuntimeException(ex);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.jn.langx.util.collection.diff;
+
+/**
+ * Receives the differences found by the streaming differs, one event per element,
+ * so the diff result never has to be held in memory.
+ *
+ * @param <E> the element type
+ * @author jinuo.fang
+ * @see SortedCollectionDiffer
+ * @see PartitionedCollectionDiffer
+ */
+public interface DiffListener<E> {
+    void onAdded(E newElement);
+
+    void onRemoved(E oldElement);
+
+    void onUpdated(E oldElement, E newElement);
+
+    void onEqual(E oldElement, E newElement);
+}
@@ -0,0 +1,25 @@
+package com.jn.langx.util.collection.diff;
+
+/**
+ * An empty {@link DiffListener}, override the events you are interested in.
+ *
+ * @param <E> the element type
+ * @author jinuo.fang
+ */
+public class DiffListenerAdapter<E> implements DiffListener<E> {
+    @Override
+    public void onAdded(E newElement) {
+    }
+
+    @Override
+    public void onRemoved(E oldElement) {
+    }
+
+    @Override
+    public void onUpdated(E oldElement, E newElement) {
+    }
+
+    @Override
+    public void onEqual(E oldElement, E newElement) {
+    }
+}
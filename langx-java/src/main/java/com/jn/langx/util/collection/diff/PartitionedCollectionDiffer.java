@@ -0,0 +1,191 @@
+package com.jn.langx.util.collection.diff;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.annotation.Nullable;
+import com.jn.langx.util.Objects;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.Throwables;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Diffs two unsorted inputs by hash partitioning them on the element key and diffing the
+ * partitions concurrently, each partition only indexes its own slice of the old input.
+ * <p>
+ * Compared to {@link CollectionDiffer#diffUsingMap(KeyBuilder)} the keys do not have to be strings
+ * and the result is streamed to a {@link DiffListener}. The listener is called from the executor
+ * threads, so it must be thread safe. When the inputs can be produced in key order,
+ * prefer {@link SortedCollectionDiffer} which needs no index at all.
+ *
+ * @param <K> the key type, keys must be unique within each input
+ * @param <E> the element type
+ * @author jinuo.fang
+ */
+public class PartitionedCollectionDiffer<K, E> {
+    private KeyBuilder<K, E> keyBuilder;
+    @Nullable
+    private Comparator<E> valueComparator;
+    private int partitions = Runtime.getRuntime().availableProcessors();
+    @Nullable
+    private Executor executor;
+
+    public void setKeyBuilder(@NonNull KeyBuilder<K, E> keyBuilder) {
+        this.keyBuilder = keyBuilder;
+    }
+
+    public void setValueComparator(@Nullable Comparator<E> valueComparator) {
+        this.valueComparator = valueComparator;
+    }
+
+    public void setPartitions(int partitions) {
+        Preconditions.checkArgument(partitions > 0, "the partitions must be positive");
+        this.partitions = partitions;
+    }
+
+    /**
+     * @param executor runs the partitions, when <code>null</code> all partitions are diffed in the caller thread
+     */
+    public void setExecutor(@Nullable Executor executor) {
+        this.executor = executor;
+    }
+
+    public StreamingDiffResult diff(@Nullable Iterable<E> oldCollection, @Nullable Iterable<E> newCollection, @NonNull final DiffListener<E> listener) {
+        Preconditions.checkNotNull(keyBuilder, "the key builder is required");
+        Preconditions.checkNotNull(listener);
+
+        final List<List<E>> oldPartitions = partition(oldCollection);
+        final List<List<E>> newPartitions = partition(newCollection);
+        final StreamingDiffResult[] results = new StreamingDiffResult[partitions];
+
+        final CountDownLatch done = new CountDownLatch(partitions);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        for (int i = 0; i < partitions; i++) {
+            final int index = i;
+            Runnable task = new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (failure.get() == null) {
+                            results[index] = diffPartition(oldPartitions.get(index), newPartitions.get(index), listener, failure);
+                        }
+                    } catch (Throwable ex) {
+                        failure.compareAndSet(null, ex);
+                    } finally {
+                        // release the partition as soon as it is diffed
+                        oldPartitions.set(index, null);
+                        newPartitions.set(index, null);
+                        done.countDown();
+                    }
+                }
+            };
+            if (executor == null || i == partitions - 1) {
+                task.run();
+            } else {
+                try {
+                    executor.execute(task);
+                } catch (RejectedExecutionException rejected) {
+                    task.run();
+                }
+            }
+        }
+
+        try {
+            done.await();
+        } catch (InterruptedException ex) {
+            // stop the partitions, and wait for them: the listener is not called after the return
+            failure.compareAndSet(null, ex);
+            awaitUninterruptibly(done);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for the partitions to be diffed", ex);
+        }
+        Throwable ex = failure.get();
+        if (ex != null) {
+            Throwables.throwIfError(ex);
+            throw Throwables.wrapAsRuntimeException(ex);
+        }
+
+        StreamingDiffResult result = new StreamingDiffResult();
+        for (StreamingDiffResult partitionResult : results) {
+            result.merge(partitionResult);
+        }
+        return result;
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await();
+                return;
+            } catch (InterruptedException ignored) {
+                // the interruption is restored by the caller
+            }
+        }
+    }
+
+    private List<List<E>> partition(Iterable<E> elements) {
+        List<List<E>> result = new ArrayList<List<E>>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            result.add(new ArrayList<E>());
+        }
+        if (elements != null) {
+            for (E element : elements) {
+                result.get(partitionOf(keyBuilder.getKey(element))).add(element);
+            }
+        }
+        // the partition lists are nulled out concurrently, so the outer list must be thread safe
+        return Collections.synchronizedList(result);
+    }
+
+    private int partitionOf(K key) {
+        int h = Objects.hashCode(key);
+        // spread the higher bits, as HashMap does
+        h ^= (h >>> 16);
+        return (h & 0x7fffffff) % partitions;
+    }
+
+    /**
+     * @param stop set when the diff is stopped, the partition stops too
+     */
+    private StreamingDiffResult diffPartition(List<E> oldElements, List<E> newElements, DiffListener<E> listener, AtomicReference<Throwable> stop) {
+        StreamingDiffResult result = new StreamingDiffResult();
+        Map<K, E> oldIndex = new HashMap<K, E>(Math.max(16, (int) (oldElements.size() / 0.75f) + 1));
+        for (E oldElement : oldElements) {
+            oldIndex.put(keyBuilder.getKey(oldElement), oldElement);
+        }
+        for (E newElement : newElements) {
+            if (stop.get() != null) {
+                return result;
+            }
+            E oldElement = oldIndex.remove(keyBuilder.getKey(newElement));
+            if (oldElement == null) {
+                listener.onAdded(newElement);
+                result.incrementAdds();
+            } else if (isSameValue(oldElement, newElement)) {
+                listener.onEqual(oldElement, newElement);
+                result.incrementEquals();
+            } else {
+                listener.onUpdated(oldElement, newElement);
+                result.incrementUpdates();
+            }
+        }
+        for (E oldElement : oldIndex.values()) {
+            if (stop.get() != null) {
+                return result;
+            }
+            listener.onRemoved(oldElement);
+            result.incrementRemoves();
+        }
+        return result;
+    }
+
+    private boolean isSameValue(E oldElement, E newElement) {
+        if (valueComparator == null) {
+            return Objects.equals(oldElement, newElement);
+        }
+        return valueComparator.compare(oldElement, newElement) == 0;
+    }
+}
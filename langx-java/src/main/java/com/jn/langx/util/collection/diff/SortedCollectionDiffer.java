@@ -0,0 +1,106 @@
+package com.jn.langx.util.collection.diff;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.annotation.Nullable;
+import com.jn.langx.util.Objects;
+import com.jn.langx.util.Preconditions;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+
+/**
+ * Diffs two inputs that are both sorted by the same key in a single merge pass.
+ * <p>
+ * Unlike {@link CollectionDiffer}, nothing is buffered: each difference is handed to a
+ * {@link DiffListener} as soon as it is found, so the memory used is constant whatever the
+ * size of the inputs (for example two database cursors ordered by primary key).
+ * <p>
+ * The key comparator defines both the order of the inputs and which elements are the "same" element;
+ * the value comparator (or {@link Object#equals(Object)} when absent) decides whether a same element was updated.
+ * An {@link IllegalArgumentException} is thrown as soon as an input is found out of order.
+ *
+ * @param <E> the element type, the inputs must not contain <code>null</code>
+ * @author jinuo.fang
+ */
+public class SortedCollectionDiffer<E> {
+    private Comparator<E> keyComparator;
+    @Nullable
+    private Comparator<E> valueComparator;
+
+    public void setKeyComparator(@NonNull Comparator<E> keyComparator) {
+        this.keyComparator = keyComparator;
+    }
+
+    public void setValueComparator(@Nullable Comparator<E> valueComparator) {
+        this.valueComparator = valueComparator;
+    }
+
+    public StreamingDiffResult diff(@Nullable Iterable<E> oldSorted, @Nullable Iterable<E> newSorted, @NonNull DiffListener<E> listener) {
+        return diff(oldSorted == null ? null : oldSorted.iterator(), newSorted == null ? null : newSorted.iterator(), listener);
+    }
+
+    public StreamingDiffResult diff(@Nullable Iterator<E> oldSorted, @Nullable Iterator<E> newSorted, @NonNull DiffListener<E> listener) {
+        Preconditions.checkNotNull(keyComparator, "the key comparator is required");
+        Preconditions.checkNotNull(listener);
+        if (oldSorted == null) {
+            oldSorted = Collections.<E>emptyList().iterator();
+        }
+        if (newSorted == null) {
+            newSorted = Collections.<E>emptyList().iterator();
+        }
+
+        StreamingDiffResult result = new StreamingDiffResult();
+        E oldElement = next(oldSorted, null, "old");
+        E newElement = next(newSorted, null, "new");
+        while (oldElement != null || newElement != null) {
+            int c;
+            if (oldElement == null) {
+                c = 1;
+            } else if (newElement == null) {
+                c = -1;
+            } else {
+                c = keyComparator.compare(oldElement, newElement);
+            }
+
+            if (c < 0) {
+                listener.onRemoved(oldElement);
+                result.incrementRemoves();
+                oldElement = next(oldSorted, oldElement, "old");
+            } else if (c > 0) {
+                listener.onAdded(newElement);
+                result.incrementAdds();
+                newElement = next(newSorted, newElement, "new");
+            } else {
+                if (isSameValue(oldElement, newElement)) {
+                    listener.onEqual(oldElement, newElement);
+                    result.incrementEquals();
+                } else {
+                    listener.onUpdated(oldElement, newElement);
+                    result.incrementUpdates();
+                }
+                oldElement = next(oldSorted, oldElement, "old");
+                newElement = next(newSorted, newElement, "new");
+            }
+        }
+        return result;
+    }
+
+    private boolean isSameValue(E oldElement, E newElement) {
+        if (valueComparator == null) {
+            return Objects.equals(oldElement, newElement);
+        }
+        return valueComparator.compare(oldElement, newElement) == 0;
+    }
+
+    private E next(Iterator<E> iterator, E previous, String side) {
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        E element = Preconditions.checkNotNull(iterator.next(), "the " + side + " input contains null");
+        if (previous != null && keyComparator.compare(previous, element) > 0) {
+            throw new IllegalArgumentException("the " + side + " input is not sorted: " + previous + " is before " + element);
+        }
+        return element;
+    }
+}
@@ -0,0 +1,79 @@
+package com.jn.langx.util.collection.diff;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.annotation.Nullable;
+import com.jn.langx.util.Objects;
+import com.jn.langx.util.comparator.ComparableComparator;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * The streaming counterpart of {@link MapDiffer}: diffs two entry streams sorted by key
+ * in one pass with constant memory.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @author jinuo.fang
+ * @see SortedCollectionDiffer
+ */
+public class SortedMapDiffer<K, V> {
+    @Nullable
+    private Comparator<K> keyComparator;
+    @Nullable
+    private Comparator<V> valueComparator;
+
+    /**
+     * @param comparator the key order of the inputs, the natural order is used when absent
+     */
+    public void setKeyComparator(@Nullable Comparator<K> comparator) {
+        this.keyComparator = comparator;
+    }
+
+    public void setValueComparator(@Nullable Comparator<V> comparator) {
+        this.valueComparator = comparator;
+    }
+
+    public StreamingDiffResult diff(@Nullable SortedMap<K, V> oldMap, @Nullable SortedMap<K, V> newMap, @NonNull DiffListener<Map.Entry<K, V>> listener) {
+        return diff(oldMap == null ? null : oldMap.entrySet().iterator(), newMap == null ? null : newMap.entrySet().iterator(), listener);
+    }
+
+    public StreamingDiffResult diff(@Nullable Iterator<Map.Entry<K, V>> oldSorted, @Nullable Iterator<Map.Entry<K, V>> newSorted, @NonNull DiffListener<Map.Entry<K, V>> listener) {
+        SortedCollectionDiffer<Map.Entry<K, V>> differ = new SortedCollectionDiffer<Map.Entry<K, V>>();
+        differ.setKeyComparator(new EntryKeyComparator<K, V>(keyComparator));
+        differ.setValueComparator(new EntryValueComparator<K, V>(valueComparator));
+        return differ.diff(oldSorted, newSorted, listener);
+    }
+
+    private static class EntryKeyComparator<K, V> implements Comparator<Map.Entry<K, V>> {
+        private final Comparator<K> delegate;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        EntryKeyComparator(Comparator<K> delegate) {
+            this.delegate = delegate == null ? new ComparableComparator() : delegate;
+        }
+
+        @Override
+        public int compare(Map.Entry<K, V> e1, Map.Entry<K, V> e2) {
+            return delegate.compare(e1.getKey(), e2.getKey());
+        }
+    }
+
+    private static class EntryValueComparator<K, V> implements Comparator<Map.Entry<K, V>> {
+        private final Comparator<V> delegate;
+
+        EntryValueComparator(Comparator<V> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int compare(Map.Entry<K, V> e1, Map.Entry<K, V> e2) {
+            if (delegate == null) {
+                return Objects.equals(e1.getValue(), e2.getValue()) ? 0 : 1;
+            }
+            return delegate.compare(e1.getValue(), e2.getValue());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.jn.langx.util.collection.diff;
+
+import com.jn.langx.util.collection.DiffResult;
+
+/**
+ * The result of a streaming diff: the elements themselves were handed to a {@link DiffListener},
+ * only the counts are kept.
+ *
+ * @author jinuo.fang
+ */
+public class StreamingDiffResult implements DiffResult {
+    private long adds;
+    private long removes;
+    private long updates;
+    private long equals;
+
+    public long getAdds() {
+        return adds;
+    }
+
+    public long getRemoves() {
+        return removes;
+    }
+
+    public long getUpdates() {
+        return updates;
+    }
+
+    public long getEquals() {
+        return equals;
+    }
+
+    void incrementAdds() {
+        adds++;
+    }
+
+    void incrementRemoves() {
+        removes++;
+    }
+
+    void incrementUpdates() {
+        updates++;
+    }
+
+    void incrementEquals() {
+        equals++;
+    }
+
+    void merge(StreamingDiffResult other) {
+        adds += other.adds;
+        removes += other.removes;
+        updates += other.updates;
+        equals += other.equals;
+    }
+
+    @Override
+    public boolean hasDifference() {
+        return adds > 0 || removes > 0 || updates > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "adds: " + adds + ", removes: " + removes + ", updates: " + updates + ", equals: " + equals;
+    }
+}
@@ -1,4 +1,9 @@
 /**
  * Differ APIs
+ *
+ * @see com.jn.langx.util.collection.diff.CollectionDiffer diff two collections in memory
+ * @see com.jn.langx.util.collection.diff.MapDiffer diff two maps in memory
+ * @see com.jn.langx.util.collection.diff.SortedCollectionDiffer stream the diff of two sorted inputs with constant memory
+ * @see com.jn.langx.util.collection.diff.PartitionedCollectionDiffer diff two unsorted inputs partition by partition, concurrently
  */
-package com.jn.langx.util.collection.diff;
\ No newline at end of file
+package com.jn.langx.util.collection.diff;
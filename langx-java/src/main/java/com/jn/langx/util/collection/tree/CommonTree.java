@@ -9,6 +9,10 @@ public class CommonTree implements Tree<TreeNode> {
     private static final long serialVersionUID = 8663945462770387472L;
     private transient Map<String, TreeNode> nodeMap = new HashMap();
     private List<TreeNode> nodes = new LinkedList<TreeNode>();
+    /**
+     * Lazily built on the first indexed query, dropped on every structural change made through this tree
+     */
+    private transient EulerTourIndex index;
 
     public CommonTree() {
         this(null);
@@ -20,6 +24,14 @@ public class CommonTree implements Tree<TreeNode> {
         }
     }
 
+    /**
+     * Used by {@link CommonTreeBuilder}, the nodes are already linked
+     */
+    CommonTree(List<TreeNode> rootNodes, Map<String, TreeNode> nodeMap) {
+        this.nodes = rootNodes;
+        this.nodeMap = nodeMap;
+    }
+
     @Override
     public void addNode(TreeNode node) {
         String pid = node.getPid();
@@ -32,6 +44,7 @@ public class CommonTree implements Tree<TreeNode> {
             pid = node.getPid();
         }
         node.setPid(pid);
+        this.index = null;
 
         TreeNode parentNode = (TreeNode) this.nodeMap.get(pid);
         if (parentNode != null) {
@@ -84,6 +97,7 @@ public class CommonTree implements Tree<TreeNode> {
 
     @Override
     public void addNodes(String pid, List<TreeNode> nodes) {
+        this.index = null;
         TreeNode parentNode = (TreeNode) this.nodeMap.get(pid);
         if (parentNode != null) {
             for (TreeNode node : nodes) {
@@ -102,6 +116,7 @@ public class CommonTree implements Tree<TreeNode> {
 
     @Override
     public void removeNode(TreeNode node, boolean recursion) {
+        this.index = null;
         String pid = node.getPid();
         TreeNode parentNode = (TreeNode) this.nodeMap.get(pid);
 
@@ -233,6 +248,82 @@ public class CommonTree implements Tree<TreeNode> {
     public void clear() {
         this.nodes.clear();
         this.nodeMap.clear();
+        this.index = null;
+    }
+
+    EulerTourIndex getIndex() {
+        EulerTourIndex idx = this.index;
+        if (idx == null) {
+            idx = new EulerTourIndex(this.nodes, this.nodeMap.size());
+            this.index = idx;
+        }
+        return idx;
+    }
+
+    /**
+     * Whether a node is a proper ancestor of another node, in O(1).
+     * <p>
+     * The first indexed query after a structural change of the tree takes O(n) to rebuild the index.
+     * Changes made directly on the {@link TreeNode}s are not seen by the index.
+     *
+     * @return false if any node does not exist in the tree
+     */
+    public boolean isAncestor(String ancestorId, String descendantId) {
+        EulerTourIndex idx = getIndex();
+        return idx.isAncestor(idx.positionOf(ancestorId), idx.positionOf(descendantId));
+    }
+
+    /**
+     * Whether a node is in the subtree of another node (itself excluded), in O(1).
+     *
+     * @see #isAncestor(String, String)
+     */
+    public boolean isDescendant(String descendantId, String ancestorId) {
+        return isAncestor(ancestorId, descendantId);
+    }
+
+    /**
+     * @return the ancestors of a node, its parent first
+     * @throws TreeNodeNotFoundException if the node does not exist in the tree
+     */
+    public List<TreeNode> getAncestors(String id) {
+        TreeNode node = getNodeById(id);
+        if (node == null) {
+            throw new TreeNodeNotFoundException(id);
+        }
+        List<TreeNode> ancestors = new ArrayList<TreeNode>();
+        TreeNode parent = getParentNode(node);
+        while (parent != null && ancestors.size() < this.nodeMap.size()) {
+            ancestors.add(parent);
+            parent = getParentNode(parent);
+        }
+        return ancestors;
+    }
+
+    /**
+     * @return the descendants of a node in pre-order, taken from the index in O(subtree size)
+     * @throws TreeNodeNotFoundException if the node does not exist in the tree
+     */
+    public List<TreeNode> getDescendants(String id, boolean containsSelf) {
+        EulerTourIndex idx = getIndex();
+        int position = idx.positionOf(id);
+        if (position < 0) {
+            throw new TreeNodeNotFoundException(id);
+        }
+        return idx.descendants(position, containsSelf);
+    }
+
+    /**
+     * @return the depth of a node, 0 for a root node
+     * @throws TreeNodeNotFoundException if the node does not exist in the tree
+     */
+    public int getDepth(String id) {
+        EulerTourIndex idx = getIndex();
+        int position = idx.positionOf(id);
+        if (position < 0) {
+            throw new TreeNodeNotFoundException(id);
+        }
+        return idx.depth(position);
     }
 
 }
\ No newline at end of file
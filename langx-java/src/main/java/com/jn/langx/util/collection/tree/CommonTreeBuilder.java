@@ -0,0 +1,68 @@
+package com.jn.langx.util.collection.tree;
+
+import com.jn.langx.Builder;
+import com.jn.langx.util.Preconditions;
+
+import java.util.*;
+
+/**
+ * Builds a {@link CommonTree} from a flat node list in O(n).
+ * <p>
+ * {@link CommonTree#addNode(TreeNode)} scans the root nodes on every insert, so adding n nodes one by one
+ * is O(n^2). The builder indexes all nodes by id first and then links every node to its parent with a single
+ * lookup, whatever the order of the nodes. Nodes whose parent is not in the list become root nodes.
+ * The children keep the order of the input list.
+ *
+ * @author jinuo.fang
+ */
+public class CommonTreeBuilder implements Builder<CommonTree> {
+    private final List<TreeNode> nodes = new ArrayList<TreeNode>();
+
+    public CommonTreeBuilder addNode(TreeNode node) {
+        Preconditions.checkNotNull(node);
+        nodes.add(node);
+        return this;
+    }
+
+    public CommonTreeBuilder addNodes(Collection<? extends TreeNode> nodes) {
+        if (nodes != null) {
+            for (TreeNode node : nodes) {
+                addNode(node);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @throws IllegalArgumentException if two nodes have the same id, or the parent links contain a cycle
+     */
+    @Override
+    public CommonTree build() {
+        Map<String, TreeNode> nodeMap = new HashMap<String, TreeNode>(Math.max(16, (int) (nodes.size() / 0.75f) + 1));
+        for (TreeNode node : nodes) {
+            if (nodeMap.put(node.getId(), node) != null) {
+                throw new IllegalArgumentException("duplicated tree node id: " + node.getId());
+            }
+        }
+
+        List<TreeNode> rootNodes = new LinkedList<TreeNode>();
+        for (TreeNode node : nodes) {
+            String pid = node.getPid();
+            TreeNode parent = pid == null ? null : nodeMap.get(pid);
+            if (parent == null || parent == node) {
+                rootNodes.add(node);
+            } else {
+                parent.setIsParent(true);
+                parent.addChildNode(node);
+            }
+        }
+
+        CommonTree tree = new CommonTree(rootNodes, nodeMap);
+        // every node is reachable from a root unless the parent links contain a cycle
+        int reachable = tree.getIndex().size();
+        if (reachable != nodeMap.size()) {
+            throw new IllegalArgumentException("the parent links of " + (nodeMap.size() - reachable) + " tree nodes form a cycle");
+        }
+        return tree;
+    }
+}
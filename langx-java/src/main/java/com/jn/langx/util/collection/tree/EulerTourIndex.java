@@ -0,0 +1,87 @@
+package com.jn.langx.util.collection.tree;
+
+import java.util.*;
+
+/**
+ * A pre-order (Euler tour) numbering of a tree: every node gets the interval
+ * <code>[enter, exit]</code> of the pre-order positions of its subtree, so a node
+ * is a descendant of another one iff its position lies inside the other's interval.
+ * <p>
+ * The index is a snapshot, it must be rebuilt after the tree structure changes.
+ */
+class EulerTourIndex {
+    private final Map<String, Integer> positions;
+    private final TreeNode[] order;
+    private final int[] exits;
+    private final int[] depths;
+
+    EulerTourIndex(Collection<TreeNode> rootNodes, int expectedSize) {
+        positions = new HashMap<String, Integer>(Math.max(16, (int) (expectedSize / 0.75f) + 1));
+        List<TreeNode> orderList = new ArrayList<TreeNode>(expectedSize);
+        List<Integer> depthList = new ArrayList<Integer>(expectedSize);
+
+        // iterative DFS, organization trees can be deeper than the thread stack allows
+        Deque<Iterator<TreeNode>> stack = new ArrayDeque<Iterator<TreeNode>>();
+        Deque<Integer> enterStack = new ArrayDeque<Integer>();
+        List<int[]> intervals = new ArrayList<int[]>(expectedSize);
+        stack.push(rootNodes.iterator());
+        while (!stack.isEmpty()) {
+            Iterator<TreeNode> iter = stack.peek();
+            if (iter.hasNext()) {
+                TreeNode node = iter.next();
+                if (positions.containsKey(node.getId())) {
+                    // a node linked twice, keep the first occurrence
+                    continue;
+                }
+                int position = orderList.size();
+                positions.put(node.getId(), position);
+                orderList.add(node);
+                depthList.add(enterStack.size());
+                intervals.add(new int[]{position, position});
+                enterStack.push(position);
+                Collection<TreeNode> children = node.getChildren();
+                stack.push(children == null ? Collections.<TreeNode>emptyList().iterator() : children.iterator());
+            } else {
+                stack.pop();
+                if (!enterStack.isEmpty()) {
+                    int enter = enterStack.pop();
+                    intervals.get(enter)[1] = orderList.size() - 1;
+                }
+            }
+        }
+
+        int size = orderList.size();
+        order = orderList.toArray(new TreeNode[size]);
+        exits = new int[size];
+        depths = new int[size];
+        for (int i = 0; i < size; i++) {
+            exits[i] = intervals.get(i)[1];
+            depths[i] = depthList.get(i);
+        }
+    }
+
+    int size() {
+        return order.length;
+    }
+
+    int positionOf(String id) {
+        Integer position = id == null ? null : positions.get(id);
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * @return whether the node at <code>ancestor</code> is a proper ancestor of the node at <code>descendant</code>
+     */
+    boolean isAncestor(int ancestor, int descendant) {
+        return ancestor >= 0 && descendant >= 0 && ancestor < descendant && descendant <= exits[ancestor];
+    }
+
+    int depth(int position) {
+        return depths[position];
+    }
+
+    List<TreeNode> descendants(int position, boolean containsSelf) {
+        int from = containsSelf ? position : position + 1;
+        return Collections.unmodifiableList(Arrays.asList(order).subList(from, exits[position] + 1));
+    }
+}
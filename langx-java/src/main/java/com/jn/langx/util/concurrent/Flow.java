@@ -130,7 +130,7 @@ import java.util.concurrent.Executor;
  *
  * @author Doug Lea
  */
-final class Flow {
+public final class Flow {
 
     private Flow() {
     } // uninstantiable
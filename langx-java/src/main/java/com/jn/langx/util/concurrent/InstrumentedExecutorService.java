@@ -0,0 +1,393 @@
+package com.jn.langx.util.concurrent;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.concurrent.interceptor.InstrumentationInterceptor;
+import com.jn.langx.util.concurrent.interceptor.TaskMetrics;
+import com.jn.langx.util.concurrent.interceptor.TaskStats;
+import com.jn.langx.util.struct.counter.LongAdder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * An executor service that records the statistics of the tasks it runs, decorating another one.
+ * <p>
+ * Each task is wrapped with {@link WrappedTasks} and an {@link InstrumentationInterceptor} of its type, the class
+ * name of the task by default, see {@link #getTaskType(Object)}. The executor exposes its rejected tasks, its queue
+ * depth and its saturation, the pool details being read from the delegate when it is a {@link ThreadPoolExecutor}.
+ * <p>
+ * The submitted tasks are wrapped in futures created here and given to {@link ExecutorService#execute(Runnable)} of
+ * the delegate, so a task that does not run is recorded as abandoned: a task rejected, cancelled before it starts,
+ * drained by {@link #shutdownNow()}, or discarded by the {@link ThreadPoolExecutor.DiscardPolicy} or the
+ * {@link ThreadPoolExecutor.DiscardOldestPolicy} of a {@link ThreadPoolExecutor} delegate, whose rejection handler is
+ * decorated for that. The tasks of the invokes which did not start when the invoke returns, those cancelled at its
+ * timeout or the losers of an invokeAny, are recorded as abandoned too.
+ */
+public class InstrumentedExecutorService implements ExecutorService {
+    private final String name;
+    private final ExecutorService delegate;
+    private final TaskMetrics metrics;
+    private final LongAdder rejected = new LongAdder();
+
+    public InstrumentedExecutorService(@NonNull String name, @NonNull ExecutorService delegate) {
+        this(name, delegate, new TaskMetrics());
+    }
+
+    /**
+     * @param metrics the metrics to record into, they can be shared by several executors
+     */
+    public InstrumentedExecutorService(@NonNull String name, @NonNull ExecutorService delegate, @NonNull TaskMetrics metrics) {
+        Preconditions.checkNotNull(name, "name cannot be null");
+        Preconditions.checkNotNull(delegate, "delegate cannot be null");
+        Preconditions.checkNotNull(metrics, "metrics cannot be null");
+        this.name = name;
+        this.delegate = delegate;
+        this.metrics = metrics;
+        if (delegate instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) delegate;
+            pool.setRejectedExecutionHandler(new DiscardTracker(pool.getRejectedExecutionHandler()));
+        }
+    }
+
+    /**
+     * @return the type of a task, its statistics are recorded with the other tasks of the type
+     */
+    protected String getTaskType(Object task) {
+        return task.getClass().getName();
+    }
+
+    private InstrumentedRunnable instrument(Runnable task, InstrumentationInterceptor interceptor) {
+        InstrumentedRunnable wrapped = new InstrumentedRunnable(task, interceptor);
+        wrapped.addInterceptor(interceptor);
+        return wrapped;
+    }
+
+    private <T> WrappedCallable<T> instrument(Callable<T> task, InstrumentationInterceptor interceptor) {
+        WrappedCallable<T> wrapped = new WrappedCallable<T>(task);
+        wrapped.addInterceptor(interceptor);
+        return wrapped;
+    }
+
+    private <T> List<Callable<T>> instrument(Collection<? extends Callable<T>> tasks, List<InstrumentationInterceptor> interceptors) {
+        List<Callable<T>> wrapped = new ArrayList<Callable<T>>(tasks.size());
+        for (Callable<T> task : tasks) {
+            InstrumentationInterceptor interceptor = metrics.newInterceptor(getTaskType(task));
+            interceptors.add(interceptor);
+            wrapped.add(instrument(task, interceptor));
+        }
+        return wrapped;
+    }
+
+    /**
+     * Records the tasks of an invoke which did not start, the delegate has cancelled them; the started ones are left
+     * to their run.
+     */
+    private static void abandonAll(List<InstrumentationInterceptor> interceptors) {
+        for (InstrumentationInterceptor interceptor : interceptors) {
+            interceptor.abandon();
+        }
+    }
+
+    private RejectedExecutionException rejected(RejectedExecutionException ex, InstrumentationInterceptor interceptor) {
+        rejected.add(1L);
+        interceptor.abandon();
+        return ex;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        InstrumentationInterceptor interceptor = metrics.newInterceptor(getTaskType(command));
+        try {
+            delegate.execute(instrument(command, interceptor));
+        } catch (RejectedExecutionException ex) {
+            throw rejected(ex, interceptor);
+        }
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return submit(task, null);
+    }
+
+    @Override
+    public <T> Future<T> submit(Runnable task, T result) {
+        Preconditions.checkNotNull(task, "task cannot be null");
+        InstrumentationInterceptor interceptor = metrics.newInterceptor(getTaskType(task));
+        return execute(new InstrumentedFuture<T>(instrument(task, interceptor), result, interceptor));
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        Preconditions.checkNotNull(task, "task cannot be null");
+        InstrumentationInterceptor interceptor = metrics.newInterceptor(getTaskType(task));
+        return execute(new InstrumentedFuture<T>(instrument(task, interceptor), interceptor));
+    }
+
+    private <T> Future<T> execute(InstrumentedFuture<T> future) {
+        try {
+            delegate.execute(future);
+        } catch (RejectedExecutionException ex) {
+            throw rejected(ex, future.interceptor);
+        }
+        return future;
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+        List<InstrumentationInterceptor> interceptors = new ArrayList<InstrumentationInterceptor>(tasks.size());
+        try {
+            return delegate.invokeAll(instrument(tasks, interceptors));
+        } finally {
+            abandonAll(interceptors);
+        }
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit) throws InterruptedException {
+        List<InstrumentationInterceptor> interceptors = new ArrayList<InstrumentationInterceptor>(tasks.size());
+        try {
+            return delegate.invokeAll(instrument(tasks, interceptors), timeout, unit);
+        } finally {
+            abandonAll(interceptors);
+        }
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
+        List<InstrumentationInterceptor> interceptors = new ArrayList<InstrumentationInterceptor>(tasks.size());
+        try {
+            return delegate.invokeAny(instrument(tasks, interceptors));
+        } finally {
+            abandonAll(interceptors);
+        }
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        List<InstrumentationInterceptor> interceptors = new ArrayList<InstrumentationInterceptor>(tasks.size());
+        try {
+            return delegate.invokeAny(instrument(tasks, interceptors), timeout, unit);
+        } finally {
+            abandonAll(interceptors);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    /**
+     * @return the tasks which never started: the runnables given to {@link #execute(Runnable)}, and the futures
+     * returned by the submits
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> drained = delegate.shutdownNow();
+        List<Runnable> tasks = new ArrayList<Runnable>(drained.size());
+        for (Runnable runnable : drained) {
+            InstrumentationInterceptor interceptor = interceptorOf(runnable);
+            if (interceptor != null) {
+                interceptor.abandon();
+            }
+            tasks.add(runnable instanceof InstrumentedRunnable ? ((InstrumentedRunnable) runnable).task : runnable);
+        }
+        return tasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ExecutorService getDelegate() {
+        return delegate;
+    }
+
+    public TaskMetrics getMetrics() {
+        return metrics;
+    }
+
+    public TaskStats getStats(Class<?> taskType) {
+        return metrics.getStats(taskType.getName());
+    }
+
+    /**
+     * @return the count of tasks rejected or discarded by the delegate
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return the count of tasks running now
+     */
+    public int getActive() {
+        if (delegate instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) delegate).getActiveCount();
+        }
+        return metrics.getRunning();
+    }
+
+    /**
+     * @return the count of tasks waiting for a thread
+     */
+    public long getQueueDepth() {
+        if (delegate instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) delegate).getQueue().size();
+        }
+        return metrics.getWaiting();
+    }
+
+    /**
+     * @return the count of threads of the pool, -1 if the delegate does not tell
+     */
+    public int getPoolSize() {
+        return delegate instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) delegate).getPoolSize() : -1;
+    }
+
+    /**
+     * @return the maximum count of threads of the pool, -1 if the delegate does not tell
+     */
+    public int getMaximumPoolSize() {
+        return delegate instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) delegate).getMaximumPoolSize() : -1;
+    }
+
+    /**
+     * @return the part of the threads which are busy, in [0, 1]; -1 if the delegate does not tell its pool size. An
+     * executor saturated with a growing queue depth is a bottleneck
+     */
+    public double getSaturation() {
+        int max = getMaximumPoolSize();
+        if (max <= 0) {
+            return -1;
+        }
+        return Math.min(1.0d, (double) getActive() / max);
+    }
+
+    private static InstrumentationInterceptor interceptorOf(Runnable runnable) {
+        if (runnable instanceof InstrumentedRunnable) {
+            return ((InstrumentedRunnable) runnable).interceptor;
+        }
+        if (runnable instanceof InstrumentedFuture) {
+            return ((InstrumentedFuture<?>) runnable).interceptor;
+        }
+        return null;
+    }
+
+    /**
+     * Throws the runtime exceptions of the task as they are, so the futures report them.
+     */
+    private static class InstrumentedRunnable extends WrappedRunable {
+        private final Runnable task;
+        private final InstrumentationInterceptor interceptor;
+
+        private InstrumentedRunnable(Runnable task, InstrumentationInterceptor interceptor) {
+            super(task);
+            this.task = task;
+            this.interceptor = interceptor;
+        }
+
+        @Override
+        public void run() {
+            try {
+                runInternal();
+            } catch (RuntimeException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+    }
+
+    private static class InstrumentedFuture<T> extends FutureTask<T> {
+        private final InstrumentationInterceptor interceptor;
+
+        private InstrumentedFuture(Callable<T> task, InstrumentationInterceptor interceptor) {
+            super(task);
+            this.interceptor = interceptor;
+        }
+
+        private InstrumentedFuture(Runnable task, T result, InstrumentationInterceptor interceptor) {
+            super(task, result);
+            this.interceptor = interceptor;
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                // a no-op once the task has started
+                interceptor.abandon();
+            }
+        }
+    }
+
+    /**
+     * Records the tasks that the rejection handler of the pool discards without a word.
+     */
+    private class DiscardTracker implements RejectedExecutionHandler {
+        private final RejectedExecutionHandler handler;
+
+        private DiscardTracker(RejectedExecutionHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (handler instanceof ThreadPoolExecutor.DiscardOldestPolicy) {
+                // done here to know the discarded task
+                if (executor.isShutdown()) {
+                    discarded(r);
+                } else {
+                    discarded(executor.getQueue().poll());
+                    executor.execute(r);
+                }
+                return;
+            }
+            handler.rejectedExecution(r, executor);
+            if (handler instanceof ThreadPoolExecutor.DiscardPolicy) {
+                discarded(r);
+            }
+        }
+
+        private void discarded(Runnable runnable) {
+            InstrumentationInterceptor interceptor = runnable == null ? null : interceptorOf(runnable);
+            if (interceptor != null) {
+                rejected.add(1L);
+                interceptor.abandon();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "InstrumentedExecutorService[name=" + name + ", active=" + getActive() + ", queueDepth=" + getQueueDepth()
+                + ", saturation=" + getSaturation() + ", rejected=" + getRejected() + "]";
+    }
+}
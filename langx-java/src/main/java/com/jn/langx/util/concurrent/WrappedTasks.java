@@ -19,4 +19,30 @@ public class WrappedTasks {
         }
         return ((target instanceof WrappedCallable) ? (WrappedCallable) target : new WrappedCallable(target));
     }
+
+    /**
+     * Wraps a task, then adds the interceptors to it.
+     */
+    public static WrappedRunable wrap(Runnable target, TaskInterceptor... interceptors) {
+        WrappedRunable task = wrap(target);
+        if (task != null) {
+            for (TaskInterceptor interceptor : interceptors) {
+                task.addInterceptor(interceptor);
+            }
+        }
+        return task;
+    }
+
+    /**
+     * Wraps a task, then adds the interceptors to it.
+     */
+    public static <V> WrappedCallable<V> wrap(Callable<V> target, TaskInterceptor... interceptors) {
+        WrappedCallable<V> task = wrap(target);
+        if (task != null) {
+            for (TaskInterceptor interceptor : interceptors) {
+                task.addInterceptor(interceptor);
+            }
+        }
+        return task;
+    }
 }
@@ -9,6 +9,10 @@
 package com.jn.langx.util.concurrent.completion;
 
 import com.jn.langx.util.function.*;
+import com.jn.langx.util.timing.timer.HashedWheelTimer;
+import com.jn.langx.util.timing.timer.Timeout;
+import com.jn.langx.util.timing.timer.TimerTask;
+import com.jn.langx.util.timing.timer.WheelTimers;
 
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -2464,6 +2468,303 @@ public class CompletableFuture<T> implements Future<T>, CompletionStep<T> {
         return orTree(cfs, 0, cfs.length - 1);
     }
 
+    /**
+     * Returns a new CompletableFuture that is completed when all of
+     * the given CompletableFutures complete normally, or as soon as one
+     * of them completes exceptionally, with a CompletionException
+     * holding this exception as its cause. Unlike {@link #allOf}, the
+     * returned CompletableFuture does not wait for the others, and when
+     * it completes exceptionally, by a failure, a timeout or a
+     * cancellation, the given CompletableFutures not completed yet are
+     * cancelled.
+     *
+     * @param cfs the CompletableFutures
+     * @return a new CompletableFuture that is completed when all of the
+     * given CompletableFutures complete, or the first one fails
+     * @throws NullPointerException if the array or any of its elements are
+     *                              {@code null}
+     */
+    public static CompletableFuture<Void> allOfFailFast(final CompletableFuture<?>... cfs) {
+        final CompletableFuture<Void> d = new CompletableFuture<Void>();
+        if (cfs.length == 0) {
+            d.result.compareAndSet(null, NIL);
+            return d;
+        }
+        final AtomicInteger remaining = new AtomicInteger(cfs.length);
+        Consumer2<Object, Throwable> action = new Consumer2<Object, Throwable>() {
+            @Override
+            public void accept(Object v, Throwable ex) {
+                if (ex != null) {
+                    if (d.completeThrowable(ex)) {
+                        d.postComplete();
+                    }
+                } else if (remaining.decrementAndGet() == 0) {
+                    d.complete(null);
+                }
+            }
+        };
+        for (CompletableFuture<?> f : cfs) {
+            if (f == null) {
+                throw new NullPointerException();
+            }
+            f.whenComplete(action);
+        }
+        d.whenComplete(new Canceller(cfs, true));
+        return d;
+    }
+
+    /**
+     * Returns a new CompletableFuture that is completed when any of
+     * the given CompletableFutures complete, with the same result, as
+     * {@link #anyOf}; then the given CompletableFutures not completed
+     * yet, the losers, are cancelled. They are also cancelled if the
+     * returned CompletableFuture is completed otherwise, by a timeout or
+     * a cancellation.
+     *
+     * @param cfs the CompletableFutures
+     * @return a new CompletableFuture that is completed with the
+     * result or exception of the first of the given CompletableFutures
+     * which completes
+     * @throws NullPointerException if the array or any of its elements are
+     *                              {@code null}
+     */
+    public static CompletableFuture<Object> anyOfCancelOthers(final CompletableFuture<?>... cfs) {
+        final CompletableFuture<Object> d = new CompletableFuture<Object>();
+        Consumer2<Object, Throwable> action = new Consumer2<Object, Throwable>() {
+            @Override
+            public void accept(Object v, Throwable ex) {
+                if (ex != null) {
+                    if (d.completeThrowable(ex)) {
+                        d.postComplete();
+                    }
+                } else {
+                    d.complete(v);
+                }
+            }
+        };
+        for (CompletableFuture<?> f : cfs) {
+            if (f == null) {
+                throw new NullPointerException();
+            }
+            f.whenComplete(action);
+        }
+        d.whenComplete(new Canceller(cfs, false));
+        return d;
+    }
+
+    /* ------------- Timeouts and delays -------------- */
+
+    /**
+     * Exceptionally completes this CompletableFuture with a
+     * {@link TimeoutException} if not otherwise completed before the
+     * given timeout.
+     * <p>
+     * The timeout is registered in the shared {@link HashedWheelTimer},
+     * no thread waits for it, and it is cancelled when this
+     * CompletableFuture completes, both in constant time. The timeout
+     * completes this CompletableFuture in the thread of the timer, so
+     * the dependents that do not run quickly should be async.
+     *
+     * @param timeout how long to wait before completing exceptionally
+     *                with a TimeoutException, in units of {@code unit}
+     * @param unit    a {@code TimeUnit} determining how to interpret the
+     *                {@code timeout} parameter
+     * @return this CompletableFuture
+     */
+    public CompletableFuture<T> orTimeout(long timeout, TimeUnit unit) {
+        if (unit == null) {
+            throw new NullPointerException();
+        }
+        if (result.get() == null) {
+            whenComplete(new Canceller(Delayer.delay(new TimeoutTask(this), timeout, unit)));
+        }
+        return this;
+    }
+
+    /**
+     * Completes this CompletableFuture with the given value if not
+     * otherwise completed before the given timeout, the timeout being
+     * registered as by {@link #orTimeout}.
+     *
+     * @param value   the value to use upon timeout
+     * @param timeout how long to wait before completing normally
+     *                with the given value, in units of {@code unit}
+     * @param unit    a {@code TimeUnit} determining how to interpret the
+     *                {@code timeout} parameter
+     * @return this CompletableFuture
+     */
+    public CompletableFuture<T> completeOnTimeout(T value, long timeout, TimeUnit unit) {
+        if (unit == null) {
+            throw new NullPointerException();
+        }
+        if (result.get() == null) {
+            whenComplete(new Canceller(Delayer.delay(new DelayedCompleter<T>(this, value), timeout, unit)));
+        }
+        return this;
+    }
+
+    /**
+     * Exceptionally completes this CompletableFuture with a
+     * {@link TimeoutException} if not otherwise completed before the
+     * given deadline, at once if it is expired. The CompletableFutures
+     * of the stages of a call bound to the same deadline time out
+     * together.
+     *
+     * @param deadline the deadline of the call
+     * @return this CompletableFuture
+     */
+    public CompletableFuture<T> orDeadline(Deadline deadline) {
+        long nanos = deadline.remaining(TimeUnit.NANOSECONDS);
+        if (nanos <= 0) {
+            completeExceptionally(new TimeoutException());
+            return this;
+        }
+        return orTimeout(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns a new Executor that submits a task to the given base
+     * executor after the given delay (or no delay if non-positive).
+     * Each delay is registered in the shared {@link HashedWheelTimer},
+     * so its precision is the tick of the timer, 10 milliseconds.
+     *
+     * @param delay    how long to delay, in units of {@code unit}
+     * @param unit     a {@code TimeUnit} determining how to interpret the
+     *                 {@code delay} parameter
+     * @param executor the base executor
+     * @return the new delayed executor
+     * @throws NullPointerException if either {@code unit} or {@code executor} is null
+     */
+    public static Executor delayedExecutor(long delay, TimeUnit unit, Executor executor) {
+        if (unit == null || executor == null) {
+            throw new NullPointerException();
+        }
+        return new DelayedExecutor(delay, unit, executor);
+    }
+
+    /**
+     * Returns a new Executor that submits a task to the default
+     * executor after the given delay (or no delay if non-positive).
+     *
+     * @param delay how long to delay, in units of {@code unit}
+     * @param unit  a {@code TimeUnit} determining how to interpret the
+     *              {@code delay} parameter
+     * @return the new delayed executor
+     */
+    public static Executor delayedExecutor(long delay, TimeUnit unit) {
+        if (unit == null) {
+            throw new NullPointerException();
+        }
+        return new DelayedExecutor(delay, unit, asyncPool);
+    }
+
+    /**
+     * Singleton delay scheduling, on the shared wheel timer.
+     */
+    static final class Delayer {
+        static Timeout delay(TimerTask task, long delay, TimeUnit unit) {
+            return WheelTimers.sharedTimer().newTimeout(task, delay, unit);
+        }
+    }
+
+    static final class DelayedExecutor implements Executor {
+        final long delay;
+        final TimeUnit unit;
+        final Executor executor;
+
+        DelayedExecutor(long delay, TimeUnit unit, Executor executor) {
+            this.delay = delay;
+            this.unit = unit;
+            this.executor = executor;
+        }
+
+        public void execute(final Runnable r) {
+            if (r == null) {
+                throw new NullPointerException();
+            }
+            if (delay <= 0) {
+                executor.execute(r);
+                return;
+            }
+            Delayer.delay(new TimerTask() {
+                @Override
+                public void run(Timeout timeout) {
+                    executor.execute(r);
+                }
+            }, delay, unit);
+        }
+    }
+
+    /**
+     * Action to completeExceptionally on timeout
+     */
+    static final class TimeoutTask implements TimerTask {
+        final CompletableFuture<?> f;
+
+        TimeoutTask(CompletableFuture<?> f) {
+            this.f = f;
+        }
+
+        public void run(Timeout timeout) {
+            if (f != null && !f.isDone()) {
+                f.completeExceptionally(new TimeoutException());
+            }
+        }
+    }
+
+    /**
+     * Action to complete on timeout
+     */
+    static final class DelayedCompleter<U> implements TimerTask {
+        final CompletableFuture<U> f;
+        final U u;
+
+        DelayedCompleter(CompletableFuture<U> f, U u) {
+            this.f = f;
+            this.u = u;
+        }
+
+        public void run(Timeout timeout) {
+            if (f != null) {
+                f.complete(u);
+            }
+        }
+    }
+
+    /**
+     * Action to cancel unneeded timeouts, or the losers of a race
+     */
+    static final class Canceller implements Consumer2<Object, Throwable> {
+        final Timeout timeout;
+        final CompletableFuture<?>[] cfs;
+        final boolean onFailureOnly;
+
+        Canceller(Timeout timeout) {
+            this.timeout = timeout;
+            this.cfs = null;
+            this.onFailureOnly = false;
+        }
+
+        Canceller(CompletableFuture<?>[] cfs, boolean onFailureOnly) {
+            this.timeout = null;
+            this.cfs = cfs;
+            this.onFailureOnly = onFailureOnly;
+        }
+
+        public void accept(Object ignore, Throwable ex) {
+            if (timeout != null) {
+                timeout.cancel();
+            }
+            if (cfs != null && (ex != null || !onFailureOnly)) {
+                for (CompletableFuture<?> f : cfs) {
+                    if (!f.isDone()) {
+                        f.cancel(false);
+                    }
+                }
+            }
+        }
+    }
+
     /* ------------- Control and status methods -------------- */
 
     /**
@@ -0,0 +1,74 @@
+package com.jn.langx.util.concurrent.completion;
+
+import com.jn.langx.annotation.NonNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An absolute point in time, on the {@link System#nanoTime()} scale, by which a call must complete.
+ * <p>
+ * A deadline is created once at the entry of a call and passed down to the calls it makes, which bind their futures
+ * to it with {@link CompletableFuture#orDeadline(Deadline)}: every stage then times out at the same instant, instead
+ * of each one starting a new timeout of its own. A nested call with a shorter budget uses the
+ * {@link #earliest(Deadline) earliest} of both deadlines.
+ */
+public final class Deadline implements Comparable<Deadline> {
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * @return a deadline after a timeout from now
+     */
+    public static Deadline after(long timeout, @NonNull TimeUnit unit) {
+        long now = System.nanoTime();
+        long nanos = unit.toNanos(timeout);
+        long deadline = now + nanos;
+        // guard against overflow
+        if (nanos > 0 && deadline - now < 0) {
+            deadline = now + Long.MAX_VALUE;
+        }
+        return new Deadline(deadline);
+    }
+
+    /**
+     * @return the earliest of this deadline and the other one
+     */
+    public Deadline earliest(@NonNull Deadline other) {
+        return compareTo(other) <= 0 ? this : other;
+    }
+
+    /**
+     * @return the time left before the deadline, 0 or negative when it is expired
+     */
+    public long remaining(@NonNull TimeUnit unit) {
+        return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    @Override
+    public int compareTo(Deadline other) {
+        long diff = deadlineNanos - other.deadlineNanos;
+        return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Deadline && ((Deadline) obj).deadlineNanos == deadlineNanos;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (deadlineNanos ^ (deadlineNanos >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline[remaining=" + remaining(TimeUnit.MILLISECONDS) + "ms]";
+    }
+}
@@ -0,0 +1,101 @@
+package com.jn.langx.util.concurrent.flow;
+
+import com.jn.langx.util.concurrent.Flow;
+
+import java.util.concurrent.Executor;
+
+/**
+ * The base of the processors: a {@link SubmissionPublisher} of the processed items, subscribed to one upstream
+ * publisher.
+ * <p>
+ * The upstream items are requested by chunks of the buffer capacity, and requested again when half of a chunk is
+ * processed. With the {@link OverflowPolicy#BLOCK} policy, a full downstream buffer blocks {@link #onNext(Object)},
+ * which stops the upstream deliveries: the back pressure goes up the pipeline. A blocked processor holds a thread of
+ * the upstream executor, so the executors of a pipeline must not be small fixed pools shared by its stages.
+ * <p>
+ * The processor completes or fails its subscribers when its upstream does.
+ *
+ * @param <T> the subscribed item type
+ * @param <R> the published item type
+ */
+public abstract class AbstractProcessor<T, R> extends SubmissionPublisher<R> implements Flow.Processor<T, R> {
+    private volatile Flow.Subscription upstream;
+    // accessed by onNext only
+    private long remaining;
+
+    protected AbstractProcessor() {
+        super();
+    }
+
+    protected AbstractProcessor(Executor executor, int maxBufferCapacity, OverflowPolicy overflowPolicy) {
+        super(executor, maxBufferCapacity, overflowPolicy);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (upstream != null) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        onUpstreamSubscribed(subscription);
+    }
+
+    /**
+     * Requests the first chunk of items.
+     */
+    protected void onUpstreamSubscribed(Flow.Subscription subscription) {
+        long chunk = getMaxBufferCapacity();
+        remaining = chunk - chunk / 2;
+        subscription.request(chunk);
+    }
+
+    @Override
+    public void onNext(T item) {
+        process(item);
+        onProcessed();
+    }
+
+    /**
+     * Requests the next half chunk of items once half of the previous chunk is processed.
+     */
+    protected void onProcessed() {
+        if (--remaining <= 0) {
+            long chunk = getMaxBufferCapacity();
+            remaining = chunk - chunk / 2;
+            upstream.request(remaining);
+        }
+    }
+
+    /**
+     * Processes an upstream item, usually by submitting the items it gives.
+     */
+    protected abstract void process(T item);
+
+    @Override
+    public void onError(Throwable throwable) {
+        closeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        close();
+    }
+
+    /**
+     * @return the subscription to the upstream publisher, null before it is subscribed
+     */
+    protected Flow.Subscription getUpstream() {
+        return upstream;
+    }
+
+    /**
+     * Cancels the upstream subscription.
+     */
+    public void cancel() {
+        Flow.Subscription subscription = upstream;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+}
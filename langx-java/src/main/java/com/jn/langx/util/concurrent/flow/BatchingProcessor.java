@@ -0,0 +1,178 @@
+package com.jn.langx.util.concurrent.flow;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.timing.timer.Timeout;
+import com.jn.langx.util.timing.timer.Timer;
+import com.jn.langx.util.timing.timer.TimerTask;
+import com.jn.langx.util.timing.timer.WheelTimers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the upstream items in lists of a batch size. A batch is also published when its first item waited for the
+ * max delay, if there is one, and when the upstream completes; it is discarded when the upstream fails.
+ */
+public class BatchingProcessor<T> extends AbstractProcessor<T, List<T>> {
+    private final int batchSize;
+    private final long maxDelayMillis;
+    private final Timer timer;
+    private final Object submitLock = new Object();
+    // guarded by this
+    private List<T> batch;
+    private long batchNumber;
+    private Timeout flushTimeout;
+    private long taken;
+    // guarded by submitLock
+    private long submitted;
+
+    public BatchingProcessor(int batchSize) {
+        this(batchSize, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param maxDelay how long the first item of a batch waits at most, 0 to wait for a full batch
+     */
+    public BatchingProcessor(int batchSize, long maxDelay, @NonNull TimeUnit unit) {
+        super();
+        Preconditions.checkArgument(batchSize > 0, "batchSize must be > 0");
+        Preconditions.checkArgument(maxDelay >= 0, "maxDelay must be >= 0");
+        this.batchSize = batchSize;
+        this.maxDelayMillis = unit.toMillis(maxDelay);
+        this.timer = WheelTimers.sharedTimer();
+    }
+
+    public BatchingProcessor(Executor executor, int maxBufferCapacity, OverflowPolicy overflowPolicy, @NonNull Timer timer, int batchSize, long maxDelay, @NonNull TimeUnit unit) {
+        super(executor, maxBufferCapacity, overflowPolicy);
+        Preconditions.checkNotNull(timer, "timer cannot be null");
+        Preconditions.checkArgument(batchSize > 0, "batchSize must be > 0");
+        Preconditions.checkArgument(maxDelay >= 0, "maxDelay must be >= 0");
+        this.batchSize = batchSize;
+        this.maxDelayMillis = unit.toMillis(maxDelay);
+        this.timer = timer;
+    }
+
+    @Override
+    protected void process(T item) {
+        List<T> items;
+        long ticket;
+        synchronized (this) {
+            if (batch == null) {
+                batch = new ArrayList<T>(batchSize);
+                final long number = ++batchNumber;
+                if (maxDelayMillis > 0) {
+                    flushTimeout = timer.newTimeout(new TimerTask() {
+                        @Override
+                        public void run(Timeout timeout) {
+                            // the batch is submitted on the executor, not to block the timer
+                            getExecutor().execute(new Runnable() {
+                                @Override
+                                public void run() {
+                                    flush(number);
+                                }
+                            });
+                        }
+                    }, maxDelayMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+            batch.add(item);
+            if (batch.size() < batchSize) {
+                return;
+            }
+            items = takeBatch();
+            ticket = taken++;
+        }
+        submitInOrder(items, ticket);
+    }
+
+    /**
+     * Submits the current batch if it is still the given one.
+     */
+    private void flush(long number) {
+        List<T> items;
+        long ticket;
+        synchronized (this) {
+            if (batch == null || batchNumber != number) {
+                return;
+            }
+            items = takeBatch();
+            ticket = taken++;
+        }
+        submitInOrder(items, ticket);
+    }
+
+    // guarded by this
+    private List<T> takeBatch() {
+        List<T> items = batch;
+        batch = null;
+        if (flushTimeout != null) {
+            flushTimeout.cancel();
+            flushTimeout = null;
+        }
+        return items;
+    }
+
+    /**
+     * Submits the batches in the order they were taken, outside the lock of the batch: a submit blocked by a full
+     * buffer does not stop the processing of the next items.
+     */
+    private void submitInOrder(List<T> items, long ticket) {
+        boolean interrupted = false;
+        synchronized (submitLock) {
+            while (submitted != ticket) {
+                try {
+                    submitLock.wait();
+                } catch (InterruptedException ex) {
+                    // the turn must be taken, else the next batches would wait forever
+                    interrupted = true;
+                }
+            }
+        }
+        try {
+            if (!isClosed()) {
+                submit(items);
+            }
+        } finally {
+            synchronized (submitLock) {
+                submitted++;
+                submitLock.notifyAll();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        List<T> items = null;
+        long ticket = 0;
+        synchronized (this) {
+            if (batch != null) {
+                items = takeBatch();
+                ticket = taken++;
+            }
+        }
+        if (items != null) {
+            submitInOrder(items, ticket);
+        }
+        super.onComplete();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        synchronized (this) {
+            if (batch != null) {
+                takeBatch();
+            }
+        }
+        super.onError(throwable);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+}
@@ -0,0 +1,33 @@
+package com.jn.langx.util.concurrent.flow;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.function.Predicate;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Publishes the upstream items accepted by a predicate.
+ */
+public class FilteringProcessor<T> extends AbstractProcessor<T, T> {
+    private final Predicate<? super T> predicate;
+
+    public FilteringProcessor(@NonNull Predicate<? super T> predicate) {
+        super();
+        Preconditions.checkNotNull(predicate, "predicate cannot be null");
+        this.predicate = predicate;
+    }
+
+    public FilteringProcessor(Executor executor, int maxBufferCapacity, OverflowPolicy overflowPolicy, @NonNull Predicate<? super T> predicate) {
+        super(executor, maxBufferCapacity, overflowPolicy);
+        Preconditions.checkNotNull(predicate, "predicate cannot be null");
+        this.predicate = predicate;
+    }
+
+    @Override
+    protected void process(T item) {
+        if (predicate.test(item)) {
+            submit(item);
+        }
+    }
+}
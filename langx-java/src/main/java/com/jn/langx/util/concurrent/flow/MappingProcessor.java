@@ -0,0 +1,34 @@
+package com.jn.langx.util.concurrent.flow;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.function.Function;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Publishes the upstream items transformed by a function, the null results are skipped.
+ */
+public class MappingProcessor<T, R> extends AbstractProcessor<T, R> {
+    private final Function<? super T, ? extends R> mapper;
+
+    public MappingProcessor(@NonNull Function<? super T, ? extends R> mapper) {
+        super();
+        Preconditions.checkNotNull(mapper, "mapper cannot be null");
+        this.mapper = mapper;
+    }
+
+    public MappingProcessor(Executor executor, int maxBufferCapacity, OverflowPolicy overflowPolicy, @NonNull Function<? super T, ? extends R> mapper) {
+        super(executor, maxBufferCapacity, overflowPolicy);
+        Preconditions.checkNotNull(mapper, "mapper cannot be null");
+        this.mapper = mapper;
+    }
+
+    @Override
+    protected void process(T item) {
+        R result = mapper.apply(item);
+        if (result != null) {
+            submit(result);
+        }
+    }
+}
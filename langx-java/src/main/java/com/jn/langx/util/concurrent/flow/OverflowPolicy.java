@@ -0,0 +1,15 @@
+package com.jn.langx.util.concurrent.flow;
+
+/**
+ * What a {@link SubmissionPublisher} does with an item submitted while the buffer of a subscriber is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * the item is dropped for that subscriber, the submitter goes on
+     */
+    DROP,
+    /**
+     * the submitter waits until the subscriber consumes an item or cancels
+     */
+    BLOCK
+}
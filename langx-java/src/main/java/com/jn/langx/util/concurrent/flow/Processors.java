@@ -0,0 +1,52 @@
+package com.jn.langx.util.concurrent.flow;
+
+import com.jn.langx.util.concurrent.Flow;
+import com.jn.langx.util.function.Function;
+import com.jn.langx.util.function.Predicate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Factories of the processors, on the shared executor of {@link SubmissionPublisher} and the shared timer:
+ * <pre>
+ * SubmissionPublisher&lt;String&gt; lines = new SubmissionPublisher&lt;String&gt;();
+ * FilteringProcessor&lt;String&gt; nonEmpty = Processors.filter(predicate);
+ * BatchingProcessor&lt;String&gt; batches = Processors.batch(100, 1, TimeUnit.SECONDS);
+ * Processors.pipe(lines, nonEmpty);
+ * Processors.pipe(nonEmpty, batches).subscribe(writer);
+ * </pre>
+ */
+public class Processors {
+    private Processors() {
+    }
+
+    public static <T, R> MappingProcessor<T, R> map(Function<? super T, ? extends R> mapper) {
+        return new MappingProcessor<T, R>(mapper);
+    }
+
+    public static <T> FilteringProcessor<T> filter(Predicate<? super T> predicate) {
+        return new FilteringProcessor<T>(predicate);
+    }
+
+    public static <T> BatchingProcessor<T> batch(int batchSize) {
+        return new BatchingProcessor<T>(batchSize);
+    }
+
+    public static <T> BatchingProcessor<T> batch(int batchSize, long maxDelay, TimeUnit unit) {
+        return new BatchingProcessor<T>(batchSize, maxDelay, unit);
+    }
+
+    public static <T> ThrottlingProcessor<T> throttle(int permits, long period, TimeUnit unit) {
+        return new ThrottlingProcessor<T>(permits, period, unit);
+    }
+
+    /**
+     * Subscribes a processor to a publisher.
+     *
+     * @return the processor, to go on with the pipeline
+     */
+    public static <T, R, P extends Flow.Processor<T, R>> P pipe(Flow.Publisher<? extends T> publisher, P processor) {
+        publisher.subscribe(processor);
+        return processor;
+    }
+}
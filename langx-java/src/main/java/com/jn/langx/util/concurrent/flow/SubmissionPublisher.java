@@ -0,0 +1,446 @@
+package com.jn.langx.util.concurrent.flow;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.concurrent.CommonThreadFactory;
+import com.jn.langx.util.concurrent.Flow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link Flow.Publisher} that delivers the submitted items to its current subscribers asynchronously, on an
+ * executor, like the <code>java.util.concurrent.SubmissionPublisher</code> of Java 9.
+ * <p>
+ * Each subscriber has its own bounded lock-free buffer. An item submitted while a buffer is full is dropped or waits,
+ * according to the {@link OverflowPolicy}. The items of a buffer are delivered only on demand, that is as requested by
+ * {@link Flow.Subscription#request(long)}, in batches: one executor task delivers up to {@link #setMaxBatchSize(int)}
+ * items, then gives its thread back to the executor if more are pending.
+ * <p>
+ * The methods of a subscriber are called in order, never concurrently. A subscriber that throws an exception is
+ * cancelled and then receives it with {@link Flow.Subscriber#onError(Throwable)}.
+ *
+ * @param <T> the published item type
+ */
+public class SubmissionPublisher<T> implements Flow.Publisher<T>, Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionPublisher.class);
+    public static final int DEFAULT_MAX_BATCH_SIZE = 64;
+
+    private final Executor executor;
+    private final int maxBufferCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private volatile int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    private final CopyOnWriteArrayList<BufferedSubscription> subscriptions = new CopyOnWriteArrayList<BufferedSubscription>();
+    private final AtomicLong droppedItems = new AtomicLong();
+    private volatile boolean closed;
+    private volatile Throwable closedException;
+
+    /**
+     * Creates a publisher on a shared pool of daemon threads, of {@link Flow#defaultBufferSize()} items buffers, its
+     * submitters wait for full buffers.
+     */
+    public SubmissionPublisher() {
+        this(DefaultExecutorHolder.EXECUTOR, Flow.defaultBufferSize(), OverflowPolicy.BLOCK);
+    }
+
+    public SubmissionPublisher(@NonNull Executor executor, int maxBufferCapacity) {
+        this(executor, maxBufferCapacity, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * @param executor          the executor of the deliveries
+     * @param maxBufferCapacity the capacity of the buffer of each subscriber, rounded up to a power of two
+     * @param overflowPolicy    what is done with an item submitted to a full buffer
+     */
+    public SubmissionPublisher(@NonNull Executor executor, int maxBufferCapacity, @NonNull OverflowPolicy overflowPolicy) {
+        Preconditions.checkNotNull(executor, "executor cannot be null");
+        Preconditions.checkNotNull(overflowPolicy, "overflowPolicy cannot be null");
+        Preconditions.checkArgument(maxBufferCapacity > 0, "maxBufferCapacity must be > 0");
+        this.executor = executor;
+        this.maxBufferCapacity = new BoundedBuffer<Object>(maxBufferCapacity).capacity();
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Adds a subscriber, its {@link Flow.Subscriber#onSubscribe(Flow.Subscription)} is called on the executor. A
+     * subscriber of a closed publisher is completed at once, a subscriber already subscribed receives an
+     * {@link IllegalStateException}.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Preconditions.checkNotNull(subscriber, "subscriber cannot be null");
+        BufferedSubscription subscription;
+        synchronized (this) {
+            for (BufferedSubscription s : subscriptions) {
+                if (s.subscriber == subscriber) {
+                    subscriber.onError(new IllegalStateException("Duplicate subscribe"));
+                    return;
+                }
+            }
+            subscription = new BufferedSubscription(subscriber);
+            if (closed) {
+                subscription.complete();
+            } else {
+                subscriptions.add(subscription);
+            }
+        }
+        subscription.signal();
+    }
+
+    /**
+     * Publishes an item to every current subscriber, waiting for full buffers or dropping the item for them,
+     * according to the overflow policy.
+     *
+     * @return the count of subscribers the item was dropped for
+     * @throws IllegalStateException if the publisher is closed
+     */
+    public int submit(@NonNull T item) {
+        Preconditions.checkNotNull(item, "item cannot be null");
+        if (closed) {
+            throw new IllegalStateException("Closed");
+        }
+        int drops = 0;
+        for (BufferedSubscription subscription : subscriptions) {
+            if (!subscription.offer(item)) {
+                drops++;
+            }
+        }
+        if (drops > 0) {
+            droppedItems.addAndGet(drops);
+        }
+        return drops;
+    }
+
+    /**
+     * Completes the current subscribers once they consumed their buffers, later submits fail.
+     */
+    @Override
+    public void close() {
+        closeExceptionally(null);
+    }
+
+    /**
+     * Fails the current subscribers with the given error once they consumed their buffers, later submits fail.
+     */
+    public void closeExceptionally(Throwable error) {
+        List<BufferedSubscription> completed;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closedException = error;
+            closed = true;
+            completed = new ArrayList<BufferedSubscription>(subscriptions);
+        }
+        for (BufferedSubscription subscription : completed) {
+            subscription.complete();
+            subscription.signal();
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return the error given to {@link #closeExceptionally(Throwable)}, null if none
+     */
+    public Throwable getClosedException() {
+        return closedException;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public int getMaxBufferCapacity() {
+        return maxBufferCapacity;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * @param maxBatchSize how many items an executor task delivers at most before giving its thread back
+     */
+    public void setMaxBatchSize(int maxBatchSize) {
+        Preconditions.checkArgument(maxBatchSize > 0, "maxBatchSize must be > 0");
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    public int getNumberOfSubscribers() {
+        return subscriptions.size();
+    }
+
+    public List<Flow.Subscriber<? super T>> getSubscribers() {
+        List<Flow.Subscriber<? super T>> subscribers = new ArrayList<Flow.Subscriber<? super T>>();
+        for (BufferedSubscription subscription : subscriptions) {
+            subscribers.add(subscription.subscriber);
+        }
+        return subscribers;
+    }
+
+    public boolean isSubscribed(Flow.Subscriber<? super T> subscriber) {
+        for (BufferedSubscription subscription : subscriptions) {
+            if (subscription.subscriber == subscriber) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the count of items buffered but not delivered of the most lagging subscriber
+     */
+    public int getEstimatedMaximumLag() {
+        int lag = 0;
+        for (BufferedSubscription subscription : subscriptions) {
+            lag = Math.max(lag, subscription.buffer.size());
+        }
+        return lag;
+    }
+
+    /**
+     * @return the smallest demand of the subscribers, 0 if there is none
+     */
+    public long getEstimatedMinimumDemand() {
+        long demand = Long.MAX_VALUE;
+        for (BufferedSubscription subscription : subscriptions) {
+            demand = Math.min(demand, subscription.demand.get());
+        }
+        return demand == Long.MAX_VALUE && subscriptions.isEmpty() ? 0 : demand;
+    }
+
+    /**
+     * @return the count of items dropped for full buffers, one per subscriber
+     */
+    public long getDroppedItems() {
+        return droppedItems.get();
+    }
+
+    /**
+     * The subscription of a subscriber: its buffer, its demand, and the executor task delivering them.
+     */
+    private final class BufferedSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super T> subscriber;
+        private final BoundedBuffer<T> buffer = new BoundedBuffer<T>(maxBufferCapacity);
+        private final AtomicLong demand = new AtomicLong();
+        /**
+         * the count of signals not handled by the delivery task, which runs while it is not 0
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notFull = lock.newCondition();
+        private volatile int waiters;
+        private volatile boolean completed;
+        private volatile boolean cancelled;
+        private volatile Throwable requestError;
+        // accessed by the delivery task only
+        private boolean subscribed;
+
+        private BufferedSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        private boolean offer(T item) {
+            if (cancelled) {
+                return true;
+            }
+            if (!buffer.offer(item)) {
+                if (overflowPolicy == OverflowPolicy.DROP || !awaitOffer(item)) {
+                    return false;
+                }
+            }
+            signal();
+            return true;
+        }
+
+        private boolean awaitOffer(T item) {
+            lock.lock();
+            try {
+                // the consumer reads the waiters after it frees a slot, the waiter offers after it is counted
+                waiters++;
+                while (!buffer.offer(item)) {
+                    if (cancelled) {
+                        return true;
+                    }
+                    notFull.await();
+                }
+                return true;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                waiters--;
+                lock.unlock();
+            }
+        }
+
+        private void wakeUpWaiters() {
+            if (waiters > 0) {
+                lock.lock();
+                try {
+                    notFull.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        private void complete() {
+            completed = true;
+        }
+
+        private void signal() {
+            if (pending.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (Throwable ex) {
+                    cancel();
+                    logger.warn("Failed to deliver to the subscriber {}: {}", subscriber, ex.getMessage(), ex);
+                    subscriber.onError(ex);
+                }
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                requestError = new IllegalArgumentException("non-positive subscription request: " + n);
+            } else {
+                while (true) {
+                    long current = demand.get();
+                    long next = current + n;
+                    if (next < 0) {
+                        next = Long.MAX_VALUE;
+                    }
+                    if (current == Long.MAX_VALUE || demand.compareAndSet(current, next)) {
+                        break;
+                    }
+                }
+            }
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                subscriptions.remove(this);
+                wakeUpWaiters();
+                signal();
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            while (true) {
+                if (!subscribed) {
+                    subscribed = true;
+                    try {
+                        subscriber.onSubscribe(this);
+                    } catch (Throwable ex) {
+                        fail(ex);
+                    }
+                }
+                if (cancelled) {
+                    buffer.clear();
+                    wakeUpWaiters();
+                    return;
+                }
+                Throwable error = requestError;
+                if (error != null) {
+                    fail(error);
+                    return;
+                }
+
+                int batchSize = maxBatchSize;
+                long requested = demand.get();
+                long emitted = 0;
+                while (emitted != requested && emitted < batchSize && !cancelled) {
+                    T item = buffer.poll();
+                    if (item == null) {
+                        break;
+                    }
+                    wakeUpWaiters();
+                    try {
+                        subscriber.onNext(item);
+                    } catch (Throwable ex) {
+                        fail(ex);
+                        return;
+                    }
+                    emitted++;
+                }
+                if (emitted > 0 && requested != Long.MAX_VALUE) {
+                    demand.addAndGet(-emitted);
+                }
+                if (completed && !cancelled && buffer.isEmpty()) {
+                    cancelled = true;
+                    subscriptions.remove(this);
+                    Throwable closedError = closedException;
+                    try {
+                        if (closedError == null) {
+                            subscriber.onComplete();
+                        } else {
+                            subscriber.onError(closedError);
+                        }
+                    } catch (Throwable ex) {
+                        logger.warn("An exception was thrown by the subscriber {}", subscriber, ex);
+                    }
+                    return;
+                }
+                if (emitted == batchSize && demand.get() > 0 && !buffer.isEmpty()) {
+                    // more to deliver: give the thread back, the signals stay pending so no other task starts
+                    try {
+                        executor.execute(this);
+                        return;
+                    } catch (Throwable ex) {
+                        // rejected, go on in this task
+                        continue;
+                    }
+                }
+                missed = pending.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void fail(Throwable error) {
+            cancelled = true;
+            subscriptions.remove(this);
+            buffer.clear();
+            wakeUpWaiters();
+            try {
+                subscriber.onError(error);
+            } catch (Throwable ex) {
+                logger.warn("An exception was thrown by the subscriber {}", subscriber, ex);
+            }
+        }
+    }
+
+    private static final class DefaultExecutorHolder {
+        static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(new CommonThreadFactory("FlowPublisher", true));
+    }
+}
@@ -0,0 +1,120 @@
+package com.jn.langx.util.concurrent.flow;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.concurrent.Flow;
+import com.jn.langx.util.timing.timer.Timeout;
+import com.jn.langx.util.timing.timer.Timer;
+import com.jn.langx.util.timing.timer.TimerTask;
+import com.jn.langx.util.timing.timer.WheelTimers;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes at most a count of upstream items per period.
+ * <p>
+ * The rate is enforced by the demand: the processor requests the permits of a period from the upstream, and at the
+ * end of each period requests again as many items as it received. So the items are never buffered nor dropped here,
+ * the upstream holds them back.
+ */
+public class ThrottlingProcessor<T> extends AbstractProcessor<T, T> implements TimerTask {
+    private final int permits;
+    private final long periodMillis;
+    private final Timer timer;
+    private final AtomicLong received = new AtomicLong();
+    private volatile Timeout periodTimeout;
+    private volatile boolean stopped;
+
+    public ThrottlingProcessor(int permits, long period, @NonNull TimeUnit unit) {
+        super();
+        Preconditions.checkArgument(permits > 0, "permits must be > 0");
+        Preconditions.checkArgument(period > 0, "period must be > 0");
+        this.permits = permits;
+        this.periodMillis = Math.max(1, unit.toMillis(period));
+        this.timer = WheelTimers.sharedTimer();
+    }
+
+    public ThrottlingProcessor(Executor executor, int maxBufferCapacity, OverflowPolicy overflowPolicy, @NonNull Timer timer, int permits, long period, @NonNull TimeUnit unit) {
+        super(executor, maxBufferCapacity, overflowPolicy);
+        Preconditions.checkNotNull(timer, "timer cannot be null");
+        Preconditions.checkArgument(permits > 0, "permits must be > 0");
+        Preconditions.checkArgument(period > 0, "period must be > 0");
+        this.permits = permits;
+        this.periodMillis = Math.max(1, unit.toMillis(period));
+        this.timer = timer;
+    }
+
+    @Override
+    protected void onUpstreamSubscribed(Flow.Subscription subscription) {
+        subscription.request(permits);
+        schedule();
+    }
+
+    @Override
+    protected void onProcessed() {
+        received.incrementAndGet();
+    }
+
+    @Override
+    protected void process(T item) {
+        submit(item);
+    }
+
+    /**
+     * The end of a period.
+     */
+    @Override
+    public void run(Timeout timeout) {
+        if (stopped || isClosed()) {
+            return;
+        }
+        long count = received.getAndSet(0);
+        if (count > 0) {
+            getUpstream().request(count);
+        }
+        schedule();
+    }
+
+    private void schedule() {
+        periodTimeout = timer.newTimeout(this, periodMillis, TimeUnit.MILLISECONDS);
+        if (stopped) {
+            // stopped meanwhile
+            periodTimeout.cancel();
+        }
+    }
+
+    /**
+     * Stops the periods, their task is removed from the timer.
+     */
+    private void stop() {
+        stopped = true;
+        Timeout timeout = periodTimeout;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    @Override
+    public void cancel() {
+        stop();
+        super.cancel();
+    }
+
+    @Override
+    public void onComplete() {
+        stop();
+        super.onComplete();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        stop();
+        super.onError(throwable);
+    }
+
+    public int getPermits() {
+        return permits;
+    }
+}
@@ -0,0 +1,86 @@
+package com.jn.langx.util.concurrent.interceptor;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.concurrent.TaskInterceptor;
+import com.jn.langx.util.concurrent.limiter.AdaptiveConcurrencyLimiter;
+import com.jn.langx.util.concurrent.limiter.LimitExceededException;
+
+/**
+ * Runs a task only if an {@link AdaptiveConcurrencyLimiter} grants it, else the task fails with a
+ * {@link LimitExceededException}. The run time of a successful task is sampled by the limiter; a failed task is
+ * released without a sample, or as dropped when its exception is one of the drop types, a timeout for instance.
+ * <p>
+ * An interceptor keeps the state of the run of its task, so create one per task, like an
+ * {@link InstrumentationInterceptor}:
+ * <pre>
+ *  executor.execute(WrappedTasks.wrap(task, new ConcurrencyLimiterInterceptor(limiter)));
+ * </pre>
+ * The doAfter of a task whose run this interceptor did not acquire, because an interceptor before it rejected the
+ * task, releases nothing; a task running another one inline, through a caller-runs policy for instance, does not
+ * mix their permits up. The runs of a task must not overlap.
+ */
+public class ConcurrencyLimiterInterceptor implements TaskInterceptor {
+    private static final int IDLE = 0;
+    private static final int ACQUIRED = 1;
+    private static final int FAILED = 2;
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Class<? extends Throwable>[] dropTypes;
+    private int state = IDLE;
+    private long startNanos;
+
+    public ConcurrencyLimiterInterceptor(@NonNull AdaptiveConcurrencyLimiter limiter, Class<? extends Throwable>... dropTypes) {
+        Preconditions.checkNotNull(limiter, "limiter cannot be null");
+        this.limiter = limiter;
+        this.dropTypes = dropTypes;
+    }
+
+    @Override
+    public void doBefore() {
+        if (!limiter.tryAcquire()) {
+            throw new LimitExceededException("the concurrency limit " + limiter.getLimit() + " is exceeded");
+        }
+        startNanos = System.nanoTime();
+        state = ACQUIRED;
+    }
+
+    @Override
+    public void doError(Throwable ex) {
+        if (state != ACQUIRED) {
+            return;
+        }
+        if (isDrop(ex)) {
+            state = IDLE;
+            limiter.releaseDropped();
+        } else {
+            state = FAILED;
+        }
+    }
+
+    @Override
+    public void doAfter() {
+        int s = state;
+        state = IDLE;
+        if (s == ACQUIRED) {
+            limiter.release(System.nanoTime() - startNanos);
+        } else if (s == FAILED) {
+            limiter.releaseIgnored();
+        }
+    }
+
+    private boolean isDrop(Throwable ex) {
+        if (dropTypes != null) {
+            for (Class<? extends Throwable> type : dropTypes) {
+                if (type.isInstance(ex)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+}
@@ -0,0 +1,72 @@
+package com.jn.langx.util.concurrent.interceptor;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.concurrent.TaskInterceptor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records the run of a task into the {@link TaskStats} of its type: the time it waited since its submission, that
+ * is the creation of the interceptor, its run time and its failure.
+ * <p>
+ * An interceptor records one run of one task, create it with {@link TaskMetrics#newInterceptor(String)} when the
+ * task is submitted. It is recorded once: as run when it starts, or as abandoned when {@link #abandon()} comes
+ * first, so a task may be abandoned from another thread while a thread of the executor is about to start it.
+ */
+public class InstrumentationInterceptor implements TaskInterceptor {
+    private final TaskStats stats;
+    private final long submitNanos;
+    private static final int NEW = 0;
+    private static final int STARTED = 1;
+    private static final int DONE = 2;
+
+    private final AtomicInteger state = new AtomicInteger(NEW);
+    private long startNanos;
+    private boolean failed;
+
+    public InstrumentationInterceptor(@NonNull TaskStats stats) {
+        Preconditions.checkNotNull(stats, "stats cannot be null");
+        this.stats = stats;
+        this.submitNanos = System.nanoTime();
+        stats.onSubmitted();
+    }
+
+    @Override
+    public void doBefore() {
+        long now = System.nanoTime();
+        if (state.compareAndSet(NEW, STARTED)) {
+            startNanos = now;
+            stats.onStarted(now - submitNanos);
+        }
+    }
+
+    @Override
+    public void doError(Throwable ex) {
+        failed = true;
+    }
+
+    @Override
+    public void doAfter() {
+        if (state.compareAndSet(STARTED, DONE)) {
+            stats.onFinished(System.nanoTime() - startNanos, !failed);
+        } else if (state.compareAndSet(NEW, DONE)) {
+            // an interceptor before this one failed
+            stats.onAbandoned();
+        }
+    }
+
+    /**
+     * Records that the task will not run, when the executor rejects it or it is cancelled for instance; nothing is
+     * recorded if the task has started.
+     */
+    public void abandon() {
+        if (state.compareAndSet(NEW, DONE)) {
+            stats.onAbandoned();
+        }
+    }
+
+    public TaskStats getStats() {
+        return stats;
+    }
+}
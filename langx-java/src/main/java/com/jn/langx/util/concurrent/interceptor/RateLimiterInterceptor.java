@@ -0,0 +1,55 @@
+package com.jn.langx.util.concurrent.interceptor;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.concurrent.TaskInterceptor;
+import com.jn.langx.util.concurrent.limiter.LimitExceededException;
+import com.jn.langx.util.concurrent.limiter.RateLimiter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Acquires a permit of a {@link RateLimiter} before a task runs, waiting for it at most the timeout; the task fails
+ * with a {@link LimitExceededException} when there is none.
+ * <p>
+ * An interceptor can be shared by many tasks.
+ */
+public class RateLimiterInterceptor implements TaskInterceptor {
+    private final RateLimiter rateLimiter;
+    private final long timeoutNanos;
+
+    /**
+     * The tasks wait for their permit.
+     */
+    public RateLimiterInterceptor(@NonNull RateLimiter rateLimiter) {
+        this(rateLimiter, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param timeout how long a task waits for its permit at most, 0 to not wait
+     */
+    public RateLimiterInterceptor(@NonNull RateLimiter rateLimiter, long timeout, @NonNull TimeUnit unit) {
+        Preconditions.checkNotNull(rateLimiter, "rateLimiter cannot be null");
+        this.rateLimiter = rateLimiter;
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+
+    @Override
+    public void doBefore() {
+        if (!rateLimiter.tryAcquire(1, timeoutNanos, TimeUnit.NANOSECONDS)) {
+            throw new LimitExceededException("the rate " + rateLimiter.getRate() + "/s is exceeded");
+        }
+    }
+
+    @Override
+    public void doAfter() {
+    }
+
+    @Override
+    public void doError(Throwable ex) {
+    }
+
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+}
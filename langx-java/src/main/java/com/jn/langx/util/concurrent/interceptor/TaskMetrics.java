@@ -0,0 +1,69 @@
+package com.jn.langx.util.concurrent.interceptor;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link TaskStats} of the task types, and the factory of the interceptors that record them.
+ * <p>
+ * Usage:
+ * <pre>
+ *  TaskMetrics metrics = new TaskMetrics();
+ *  executor.submit(WrappedTasks.wrap(task, metrics.newInterceptor("report")));
+ *  ...
+ *  metrics.getStats("report").getQueueWaits().getPercentile(99);
+ * </pre>
+ */
+public class TaskMetrics {
+    private final ConcurrentHashMap<String, TaskStats> stats = new ConcurrentHashMap<String, TaskStats>();
+
+    /**
+     * Creates the interceptor of a task when it is submitted, it must not be shared by other tasks.
+     */
+    public InstrumentationInterceptor newInterceptor(@NonNull String taskType) {
+        return new InstrumentationInterceptor(getStats(taskType));
+    }
+
+    public TaskStats getStats(@NonNull String taskType) {
+        Preconditions.checkNotNull(taskType, "taskType cannot be null");
+        TaskStats taskStats = stats.get(taskType);
+        if (taskStats == null) {
+            taskStats = new TaskStats(taskType);
+            TaskStats existing = stats.putIfAbsent(taskType, taskStats);
+            if (existing != null) {
+                taskStats = existing;
+            }
+        }
+        return taskStats;
+    }
+
+    public List<TaskStats> getAllStats() {
+        return new ArrayList<TaskStats>(stats.values());
+    }
+
+    /**
+     * @return the count of tasks running now, of all the types
+     */
+    public int getRunning() {
+        int running = 0;
+        for (TaskStats taskStats : stats.values()) {
+            running += taskStats.getRunning();
+        }
+        return running;
+    }
+
+    /**
+     * @return the count of tasks submitted but not started yet, of all the types
+     */
+    public long getWaiting() {
+        long waiting = 0;
+        for (TaskStats taskStats : stats.values()) {
+            waiting += taskStats.getWaiting();
+        }
+        return waiting;
+    }
+}
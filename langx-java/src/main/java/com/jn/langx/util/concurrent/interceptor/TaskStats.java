@@ -0,0 +1,123 @@
+package com.jn.langx.util.concurrent.interceptor;
+
+import com.jn.langx.util.struct.counter.LongAdder;
+import com.jn.langx.util.struct.counter.SlidingWindowPercentiles;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The statistics of a task type, recorded by the {@link InstrumentationInterceptor}s: the counts of tasks, the tasks
+ * running, and the histograms of the queue wait times and the run times over the last minute, in nanoseconds.
+ */
+public class TaskStats {
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.HOURS.toNanos(1);
+
+    private final String name;
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private final SlidingWindowPercentiles queueWaits = new SlidingWindowPercentiles(1, TimeUnit.MINUTES, 12, HIGHEST_TRACKABLE_NANOS);
+    private final SlidingWindowPercentiles runTimes = new SlidingWindowPercentiles(1, TimeUnit.MINUTES, 12, HIGHEST_TRACKABLE_NANOS);
+
+    TaskStats(String name) {
+        this.name = name;
+    }
+
+    void onSubmitted() {
+        submitted.add(1L);
+    }
+
+    void onStarted(long queueWaitNanos) {
+        queueWaits.record(queueWaitNanos);
+        int current = running.incrementAndGet();
+        int max = maxRunning.get();
+        while (current > max && !maxRunning.compareAndSet(max, current)) {
+            max = maxRunning.get();
+        }
+    }
+
+    void onFinished(long runNanos, boolean success) {
+        running.decrementAndGet();
+        runTimes.record(runNanos);
+        if (success) {
+            completed.add(1L);
+        } else {
+            failed.add(1L);
+        }
+    }
+
+    void onAbandoned() {
+        abandoned.add(1L);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * @return the count of tasks submitted that never ran: rejected by the executor or by another interceptor
+     */
+    public long getAbandoned() {
+        return abandoned.sum();
+    }
+
+    /**
+     * @return the count of tasks running now
+     */
+    public int getRunning() {
+        return running.get();
+    }
+
+    /**
+     * @return the highest count of tasks running at once
+     */
+    public int getMaxRunning() {
+        return maxRunning.get();
+    }
+
+    /**
+     * @return the count of tasks submitted but neither started nor abandoned yet
+     */
+    public long getWaiting() {
+        return Math.max(0, submitted.sum() - completed.sum() - failed.sum() - abandoned.sum() - running.get());
+    }
+
+    /**
+     * @return the times from the submission to the start of the tasks, in nanoseconds
+     */
+    public SlidingWindowPercentiles getQueueWaits() {
+        return queueWaits;
+    }
+
+    /**
+     * @return the run times of the tasks, in nanoseconds
+     */
+    public SlidingWindowPercentiles getRunTimes() {
+        return runTimes;
+    }
+
+    @Override
+    public String toString() {
+        long[] waits = queueWaits.getPercentiles(50, 99);
+        long[] runs = runTimes.getPercentiles(50, 99);
+        return name + "[submitted=" + getSubmitted() + ", completed=" + getCompleted() + ", failed=" + getFailed()
+                + ", running=" + getRunning() + ", queueWait(p50/p99)=" + waits[0] + "/" + waits[1] + "ns"
+                + ", runTime(p50/p99)=" + runs[0] + "/" + runs[1] + "ns]";
+    }
+}
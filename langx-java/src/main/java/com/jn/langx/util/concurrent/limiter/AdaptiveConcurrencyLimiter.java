@@ -0,0 +1,129 @@
+package com.jn.langx.util.concurrent.limiter;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.struct.counter.LongAdder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the count of concurrent requests, the limit being adjusted by a {@link ConcurrencyLimit} with the latency
+ * measured when the requests complete: see {@link AimdLimit} and {@link VegasLimit}.
+ * <p>
+ * Usage:
+ * <pre>
+ *  if (limiter.tryAcquire()) {
+ *      long start = System.nanoTime();
+ *      try {
+ *          call();
+ *          limiter.release(System.nanoTime() - start);
+ *      } catch (TimeoutException ex) {
+ *          limiter.releaseDropped();
+ *      } catch (Exception ex) {
+ *          limiter.releaseIgnored();
+ *      }
+ *  }
+ * </pre>
+ * Each granted request must be released exactly once. The limiter never locks, a request is granted with a CAS on
+ * the count of requests in flight.
+ */
+public class AdaptiveConcurrencyLimiter {
+    private final ConcurrencyLimit limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong minRtt = new AtomicLong(Long.MAX_VALUE);
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public AdaptiveConcurrencyLimiter() {
+        this(new VegasLimit());
+    }
+
+    public AdaptiveConcurrencyLimiter(@NonNull ConcurrencyLimit limit) {
+        Preconditions.checkNotNull(limit, "limit cannot be null");
+        this.limit = limit;
+    }
+
+    /**
+     * @return true if the request is granted, it must be released
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.getLimit()) {
+                rejected.add(1L);
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.add(1L);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a request which succeeded, its latency is sampled.
+     */
+    public void release(long rttNanos) {
+        int current = inFlight.getAndDecrement();
+        long min = minRtt.get();
+        while (rttNanos > 0 && rttNanos < min && !minRtt.compareAndSet(min, rttNanos)) {
+            min = minRtt.get();
+        }
+        limit.onSample(rttNanos, current, false);
+    }
+
+    /**
+     * Releases a request which was dropped or timed out, the limit is reduced.
+     */
+    public void releaseDropped() {
+        int current = inFlight.getAndDecrement();
+        dropped.add(1L);
+        limit.onSample(0, current, true);
+    }
+
+    /**
+     * Releases a request whose latency tells nothing about the load, a failed one for instance.
+     */
+    public void releaseIgnored() {
+        inFlight.decrementAndGet();
+    }
+
+    public ConcurrencyLimit getConcurrencyLimit() {
+        return limit;
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return the minimum latency sampled, -1 before the first sample
+     */
+    public long getMinRtt() {
+        long min = minRtt.get();
+        return min == Long.MAX_VALUE ? -1 : min;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveConcurrencyLimiter[limit=" + limit.getLimit() + ", inFlight=" + inFlight.get() + "]";
+    }
+}
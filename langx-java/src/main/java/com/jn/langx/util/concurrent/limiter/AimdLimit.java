@@ -0,0 +1,81 @@
+package com.jn.langx.util.concurrent.limiter;
+
+import com.jn.langx.util.Preconditions;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Additive increase, multiplicative decrease: the limit grows by one after a successful request which used at least
+ * half of it, it is multiplied by the backoff ratio after a dropped request or a request slower than the timeout.
+ */
+public class AimdLimit implements ConcurrencyLimit {
+    private final AtomicInteger limit;
+    private int minLimit = 1;
+    private int maxLimit = 1000;
+    private double backoffRatio = 0.9d;
+    private long timeoutNanos = TimeUnit.SECONDS.toNanos(5);
+
+    public AimdLimit() {
+        this(20);
+    }
+
+    public AimdLimit(int initialLimit) {
+        Preconditions.checkArgument(initialLimit > 0, "initialLimit must be > 0");
+        this.limit = new AtomicInteger(initialLimit);
+    }
+
+    @Override
+    public int getLimit() {
+        return limit.get();
+    }
+
+    @Override
+    public void onSample(long rttNanos, int inFlight, boolean dropped) {
+        while (true) {
+            int current = limit.get();
+            int next;
+            if (dropped || rttNanos > timeoutNanos) {
+                next = Math.max(minLimit, (int) (current * backoffRatio));
+            } else if (inFlight * 2 >= current) {
+                next = Math.min(maxLimit, current + 1);
+            } else {
+                return;
+            }
+            if (next == current || limit.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    public void setMinLimit(int minLimit) {
+        Preconditions.checkArgument(minLimit > 0, "minLimit must be > 0");
+        this.minLimit = minLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        Preconditions.checkArgument(maxLimit > 0, "maxLimit must be > 0");
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * @param backoffRatio the ratio applied to the limit on an overload, in [0.5, 1)
+     */
+    public void setBackoffRatio(double backoffRatio) {
+        Preconditions.checkArgument(backoffRatio >= 0.5d && backoffRatio < 1.0d, "backoffRatio must be in [0.5, 1)");
+        this.backoffRatio = backoffRatio;
+    }
+
+    /**
+     * @param timeout a request slower than it counts as dropped
+     */
+    public void setTimeout(long timeout, TimeUnit unit) {
+        Preconditions.checkArgument(timeout > 0, "timeout must be > 0");
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+
+    @Override
+    public String toString() {
+        return "AimdLimit[limit=" + limit.get() + "]";
+    }
+}
@@ -0,0 +1,21 @@
+package com.jn.langx.util.concurrent.limiter;
+
+/**
+ * The strategy of an {@link AdaptiveConcurrencyLimiter}: it adjusts the limit of concurrent requests with the
+ * samples of the completed requests.
+ * <p>
+ * The implementations are called concurrently by the completing threads.
+ */
+public interface ConcurrencyLimit {
+    /**
+     * @return the current limit, > 0
+     */
+    int getLimit();
+
+    /**
+     * @param rttNanos the round trip time of the request
+     * @param inFlight the count of requests in flight when the request completed, itself included
+     * @param dropped  true if the request was dropped or timed out, a sign of overload
+     */
+    void onSample(long rttNanos, int inFlight, boolean dropped);
+}
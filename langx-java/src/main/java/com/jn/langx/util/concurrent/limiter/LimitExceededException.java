@@ -0,0 +1,10 @@
+package com.jn.langx.util.concurrent.limiter;
+
+/**
+ * Thrown when a rate or a concurrency limit rejects a task.
+ */
+public class LimitExceededException extends RuntimeException {
+    public LimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,208 @@
+package com.jn.langx.util.concurrent.limiter;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.struct.counter.LongAdder;
+import com.jn.langx.util.timing.clock.Ticker;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A token bucket rate limiter, with the semantics of the Guava RateLimiter: permits are handed out at a stable rate,
+ * the unused permits are stored up to a maximum, and a request is granted at once, its cost being paid by the
+ * requests after it.
+ * <ul>
+ * <li>{@link #create(double, double)}: smooth bursty, the stored permits are free, so up to that many permits
+ * can be granted in a burst after an idle time.</li>
+ * <li>{@link #create(double, long, TimeUnit)}: smooth warming up, the stored permits are expensive, so after an idle
+ * time the rate starts at a third of the stable rate and reaches it in the warm-up period.</li>
+ * </ul>
+ * The state is updated with a CAS, the limiter never locks: {@link #tryAcquire()} is a read of the ticker and a CAS
+ * when it grants the permit. The rate is fixed at creation.
+ */
+public abstract class RateLimiter {
+    private final Ticker ticker;
+    final double stableIntervalNanos;
+    private final LongAdder acquiredPermits = new LongAdder();
+    private final LongAdder rejectedRequests = new LongAdder();
+    private final LongAdder waitedNanos = new LongAdder();
+
+    RateLimiter(Ticker ticker, double permitsPerSecond) {
+        Preconditions.checkNotNull(ticker, "ticker cannot be null");
+        Preconditions.checkArgument(permitsPerSecond > 0.0 && !Double.isNaN(permitsPerSecond), "permitsPerSecond must be > 0");
+        this.ticker = ticker;
+        this.stableIntervalNanos = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+    }
+
+    /**
+     * @return a smooth bursty limiter, storing up to one second of permits
+     */
+    public static RateLimiter create(double permitsPerSecond) {
+        return create(permitsPerSecond, 1.0d);
+    }
+
+    /**
+     * @param maxBurstSeconds how many seconds of permits are stored at most
+     * @return a smooth bursty limiter
+     */
+    public static RateLimiter create(double permitsPerSecond, double maxBurstSeconds) {
+        return create(Ticker.systemTicker(), permitsPerSecond, maxBurstSeconds);
+    }
+
+    public static RateLimiter create(@NonNull Ticker ticker, double permitsPerSecond, double maxBurstSeconds) {
+        return new SmoothBurstyRateLimiter(ticker, permitsPerSecond, maxBurstSeconds);
+    }
+
+    /**
+     * @param warmupPeriod how long the limiter takes from a third of the rate to the rate, after an idle time
+     * @return a smooth warming up limiter, starting cold
+     */
+    public static RateLimiter create(double permitsPerSecond, long warmupPeriod, @NonNull TimeUnit unit) {
+        return create(Ticker.systemTicker(), permitsPerSecond, warmupPeriod, unit);
+    }
+
+    public static RateLimiter create(@NonNull Ticker ticker, double permitsPerSecond, long warmupPeriod, @NonNull TimeUnit unit) {
+        Preconditions.checkArgument(warmupPeriod >= 0, "warmupPeriod must be >= 0");
+        return new SmoothWarmingUpRateLimiter(ticker, permitsPerSecond, unit.toNanos(warmupPeriod), 3.0d);
+    }
+
+    /**
+     * Reserves permits if they can be granted within the timeout.
+     *
+     * @return the nanoseconds to wait before using the permits, -1 if the wait would exceed the timeout, then nothing
+     * is reserved
+     */
+    abstract long reserve(int permits, long nowNanos, long timeoutNanos);
+
+    /**
+     * @return the permits stored now
+     */
+    abstract double storedPermits(long nowNanos);
+
+    /**
+     * Acquires a permit, waiting for it if needed.
+     *
+     * @return the seconds waited
+     */
+    public double acquire() {
+        return acquire(1);
+    }
+
+    /**
+     * Acquires permits, waiting for them if needed; the waiting thread is not interrupted.
+     *
+     * @return the seconds waited
+     */
+    public double acquire(int permits) {
+        checkPermits(permits);
+        long wait = reserve(permits, ticker.read(), Long.MAX_VALUE);
+        acquired(permits, wait);
+        return wait / 1e9d;
+    }
+
+    /**
+     * @return true if a permit is granted without waiting
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(1, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return true if the permits are granted without waiting
+     */
+    public boolean tryAcquire(int permits) {
+        return tryAcquire(permits, 0, TimeUnit.NANOSECONDS);
+    }
+
+    public boolean tryAcquire(long timeout, @NonNull TimeUnit unit) {
+        return tryAcquire(1, timeout, unit);
+    }
+
+    /**
+     * Acquires permits if they can be granted within the timeout, waiting for them; it does not wait if they cannot.
+     *
+     * @return true if the permits are granted
+     */
+    public boolean tryAcquire(int permits, long timeout, @NonNull TimeUnit unit) {
+        checkPermits(permits);
+        long wait = reserve(permits, ticker.read(), Math.max(0, unit.toNanos(timeout)));
+        if (wait < 0) {
+            rejectedRequests.add(1L);
+            return false;
+        }
+        acquired(permits, wait);
+        return true;
+    }
+
+    private void acquired(int permits, long wait) {
+        acquiredPermits.add(permits);
+        if (wait > 0) {
+            waitedNanos.add(wait);
+            sleepUninterruptibly(wait);
+        }
+    }
+
+    private static void checkPermits(int permits) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("permits must be > 0: " + permits);
+        }
+    }
+
+    private static void sleepUninterruptibly(long nanos) {
+        boolean interrupted = false;
+        long deadline = System.nanoTime() + nanos;
+        long remaining = nanos;
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                interrupted = true;
+            }
+            remaining = deadline - System.nanoTime();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    long now() {
+        return ticker.read();
+    }
+
+    /**
+     * @return the stable rate, in permits per second
+     */
+    public double getRate() {
+        return TimeUnit.SECONDS.toNanos(1) / stableIntervalNanos;
+    }
+
+    /**
+     * @return the permits stored now, granted at once or at a reduced cost
+     */
+    public double getStoredPermits() {
+        return storedPermits(ticker.read());
+    }
+
+    public long getAcquiredPermits() {
+        return acquiredPermits.sum();
+    }
+
+    /**
+     * @return the count of the tryAcquire calls which got no permit
+     */
+    public long getRejectedRequests() {
+        return rejectedRequests.sum();
+    }
+
+    /**
+     * @return the total time waited for permits, in nanoseconds
+     */
+    public long getWaitedNanos() {
+        return waitedNanos.sum();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[rate=" + getRate() + "]";
+    }
+}
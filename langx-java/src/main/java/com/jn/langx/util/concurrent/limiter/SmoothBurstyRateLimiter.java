@@ -0,0 +1,51 @@
+package com.jn.langx.util.concurrent.limiter;
+
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.timing.clock.Ticker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The stored permits are free. The state is a single time in the manner of the generic cell rate algorithm: after
+ * it, the permits accumulated since are stored; before it, it is the time the next permit is free.
+ */
+final class SmoothBurstyRateLimiter extends RateLimiter {
+    private final double maxPermits;
+    /**
+     * the nanoseconds of {@link #maxPermits} permits
+     */
+    private final long maxStoredNanos;
+    private final AtomicLong state;
+
+    SmoothBurstyRateLimiter(Ticker ticker, double permitsPerSecond, double maxBurstSeconds) {
+        super(ticker, permitsPerSecond);
+        Preconditions.checkArgument(maxBurstSeconds >= 0, "maxBurstSeconds must be >= 0");
+        this.maxPermits = maxBurstSeconds * permitsPerSecond;
+        this.maxStoredNanos = (long) (maxPermits * stableIntervalNanos);
+        // starts with no stored permit
+        this.state = new AtomicLong(now());
+    }
+
+    @Override
+    long reserve(int permits, long nowNanos, long timeoutNanos) {
+        long cost = (long) (permits * stableIntervalNanos);
+        while (true) {
+            long current = state.get();
+            long wait = current - nowNanos;
+            if (wait > timeoutNanos) {
+                return -1;
+            }
+            // the permits stored beyond the maximum are lost
+            long base = Math.max(current, nowNanos - maxStoredNanos);
+            if (state.compareAndSet(current, base + cost)) {
+                return Math.max(0, wait);
+            }
+        }
+    }
+
+    @Override
+    double storedPermits(long nowNanos) {
+        long stored = nowNanos - state.get();
+        return stored <= 0 ? 0.0d : Math.min(maxPermits, stored / stableIntervalNanos);
+    }
+}
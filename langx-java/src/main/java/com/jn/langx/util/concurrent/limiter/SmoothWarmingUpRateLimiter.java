@@ -0,0 +1,92 @@
+package com.jn.langx.util.concurrent.limiter;
+
+import com.jn.langx.util.timing.clock.Ticker;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The stored permits cost more than the fresh ones: above the threshold, the interval of a stored permit grows
+ * linearly from the stable interval to the cold interval, so taking all the stored permits of a cold limiter takes
+ * the warm-up period. The permits are stored at the rate that fills the bucket in the warm-up period.
+ * <p>
+ * The state is two values, swapped as an immutable pair with a CAS.
+ */
+final class SmoothWarmingUpRateLimiter extends RateLimiter {
+    private final double maxPermits;
+    private final double thresholdPermits;
+    private final double coldIntervalNanos;
+    private final double slope;
+    private final double coolDownIntervalNanos;
+    private final AtomicReference<State> state;
+
+    SmoothWarmingUpRateLimiter(Ticker ticker, double permitsPerSecond, long warmupNanos, double coldFactor) {
+        super(ticker, permitsPerSecond);
+        this.coldIntervalNanos = stableIntervalNanos * coldFactor;
+        this.thresholdPermits = 0.5 * warmupNanos / stableIntervalNanos;
+        this.maxPermits = thresholdPermits + 2.0 * warmupNanos / (stableIntervalNanos + coldIntervalNanos);
+        this.slope = maxPermits > thresholdPermits ? (coldIntervalNanos - stableIntervalNanos) / (maxPermits - thresholdPermits) : 0.0d;
+        this.coolDownIntervalNanos = maxPermits > 0 ? warmupNanos / maxPermits : stableIntervalNanos;
+        // starts cold
+        this.state = new AtomicReference<State>(new State(maxPermits, now()));
+    }
+
+    @Override
+    long reserve(int permits, long nowNanos, long timeoutNanos) {
+        while (true) {
+            State current = state.get();
+            long wait = current.nextFreeNanos - nowNanos;
+            if (wait > timeoutNanos) {
+                return -1;
+            }
+            double stored = stored(current, nowNanos);
+            long nextFree = Math.max(current.nextFreeNanos, nowNanos);
+            double fromStored = Math.min(permits, stored);
+            double fresh = permits - fromStored;
+            long cost = (long) (storedPermitsToWaitTime(stored, fromStored) + fresh * stableIntervalNanos);
+            if (state.compareAndSet(current, new State(stored - fromStored, nextFree + cost))) {
+                return Math.max(0, wait);
+            }
+        }
+    }
+
+    private double stored(State state, long nowNanos) {
+        if (nowNanos <= state.nextFreeNanos) {
+            return state.storedPermits;
+        }
+        return Math.min(maxPermits, state.storedPermits + (nowNanos - state.nextFreeNanos) / coolDownIntervalNanos);
+    }
+
+    /**
+     * @return the area under the interval function, from the stored permits down to the stored permits less the taken
+     */
+    private double storedPermitsToWaitTime(double storedPermits, double permitsToTake) {
+        double availableAboveThreshold = storedPermits - thresholdPermits;
+        double nanos = 0;
+        if (availableAboveThreshold > 0.0) {
+            double aboveThreshold = Math.min(availableAboveThreshold, permitsToTake);
+            double length = permitsToInterval(availableAboveThreshold) + permitsToInterval(availableAboveThreshold - aboveThreshold);
+            nanos = aboveThreshold * length / 2.0;
+            permitsToTake -= aboveThreshold;
+        }
+        return nanos + stableIntervalNanos * permitsToTake;
+    }
+
+    private double permitsToInterval(double permitsAboveThreshold) {
+        return stableIntervalNanos + permitsAboveThreshold * slope;
+    }
+
+    @Override
+    double storedPermits(long nowNanos) {
+        return stored(state.get(), nowNanos);
+    }
+
+    private static final class State {
+        private final double storedPermits;
+        private final long nextFreeNanos;
+
+        private State(double storedPermits, long nextFreeNanos) {
+            this.storedPermits = storedPermits;
+            this.nextFreeNanos = nextFreeNanos;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.jn.langx.util.concurrent.limiter;
+
+import com.jn.langx.util.Preconditions;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Delay based, in the manner of TCP Vegas: the minimum round trip time observed is taken as the no load time, and
+ * the queue size is estimated as {@code limit * (1 - rttNoLoad / rtt)}. The limit grows while the queue is small,
+ * and shrinks when it is large; the thresholds grow with the logarithm of the limit.
+ * <p>
+ * The no load time is measured again every {@link #setProbeInterval(int) probe interval} samples, so a lasting change
+ * of the latency is followed. A sample that comes while another one is applied is only used for the no load time:
+ * the limit changes slowly, losing some samples is cheaper than serializing the completing threads.
+ */
+public class VegasLimit implements ConcurrencyLimit {
+    private volatile int limit;
+    private volatile long rttNoLoad;
+    private final AtomicBoolean updating = new AtomicBoolean();
+    private int minLimit = 1;
+    private int maxLimit = 1000;
+    private int probeInterval = 1000;
+    private double smoothing = 1.0d;
+    // accessed under the updating flag
+    private int samples;
+
+    public VegasLimit() {
+        this(20);
+    }
+
+    public VegasLimit(int initialLimit) {
+        Preconditions.checkArgument(initialLimit > 0, "initialLimit must be > 0");
+        this.limit = initialLimit;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return the no load round trip time, 0 before the first sample
+     */
+    public long getRttNoLoad() {
+        return rttNoLoad;
+    }
+
+    @Override
+    public void onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (!dropped && rttNanos <= 0) {
+            return;
+        }
+        if (!updating.compareAndSet(false, true)) {
+            long noLoad = rttNoLoad;
+            if (!dropped && (noLoad == 0 || rttNanos < noLoad)) {
+                rttNoLoad = rttNanos;
+            }
+            return;
+        }
+        try {
+            int current = limit;
+            double log = Math.max(1.0d, Math.log10(current));
+            double next;
+            long noLoad = rttNoLoad;
+            if (dropped) {
+                next = current - log;
+            } else if (++samples >= probeInterval) {
+                // measure the no load time again
+                samples = 0;
+                rttNoLoad = rttNanos;
+                return;
+            } else if (noLoad == 0 || rttNanos < noLoad) {
+                rttNoLoad = rttNanos;
+                return;
+            } else if (inFlight * 2 < current) {
+                // not enough load to judge the limit
+                return;
+            } else {
+                int queue = (int) Math.ceil(current * (1.0d - (double) noLoad / rttNanos));
+                double alpha = 3 * log;
+                double beta = 6 * log;
+                if (queue <= log) {
+                    // threshold: far from the limit, grow faster
+                    next = current + beta;
+                } else if (queue < alpha) {
+                    next = current + log;
+                } else if (queue > beta) {
+                    next = current - log;
+                } else {
+                    return;
+                }
+            }
+            next = current + (next - current) * smoothing;
+            limit = Math.max(minLimit, Math.min(maxLimit, (int) next));
+        } finally {
+            updating.set(false);
+        }
+    }
+
+    public void setMinLimit(int minLimit) {
+        Preconditions.checkArgument(minLimit > 0, "minLimit must be > 0");
+        this.minLimit = minLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        Preconditions.checkArgument(maxLimit > 0, "maxLimit must be > 0");
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * @param probeInterval the count of samples after which the no load time is measured again
+     */
+    public void setProbeInterval(int probeInterval) {
+        Preconditions.checkArgument(probeInterval > 0, "probeInterval must be > 0");
+        this.probeInterval = probeInterval;
+    }
+
+    /**
+     * @param smoothing the part of a change applied to the limit, in (0, 1]
+     */
+    public void setSmoothing(double smoothing) {
+        Preconditions.checkArgument(smoothing > 0.0d && smoothing <= 1.0d, "smoothing must be in (0, 1]");
+        this.smoothing = smoothing;
+    }
+
+    @Override
+    public String toString() {
+        return "VegasLimit[limit=" + limit + ", rttNoLoad=" + rttNoLoad + "]";
+    }
+}
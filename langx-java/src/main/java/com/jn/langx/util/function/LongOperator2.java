@@ -0,0 +1,10 @@
+package com.jn.langx.util.function;
+
+/**
+ * A binary operator of primitive longs, it is similar to Java 8 LongBinaryOperator.
+ *
+ * @see Operator2
+ */
+public interface LongOperator2 {
+    long apply(long left, long right);
+}
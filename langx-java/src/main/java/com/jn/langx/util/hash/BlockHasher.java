@@ -0,0 +1,135 @@
+package com.jn.langx.util.hash;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The base of the {@link Hasher}s of the block-based hashes: the input is processed by blocks of a fixed size
+ * directly from the given arrays or buffers, only a partial block is buffered.
+ */
+abstract class BlockHasher implements Hasher {
+    private final int blockSize;
+    /**
+     * the partial block
+     */
+    protected final byte[] buffer;
+    protected int bufferLength;
+    protected long totalLength;
+
+    protected BlockHasher(int blockSize) {
+        this.blockSize = blockSize;
+        this.buffer = new byte[blockSize];
+    }
+
+    protected abstract void processBlock(byte[] bytes, int offset);
+
+    protected abstract void processBlock(ByteBuffer bytes, int index);
+
+    /**
+     * Computes the hash from the state, the partial block is <code>buffer[0, bufferLength)</code>.
+     * It must not change the state.
+     */
+    protected abstract long finish();
+
+    protected abstract void resetState();
+
+    @Override
+    public Hasher update(byte b) {
+        buffer[bufferLength++] = b;
+        totalLength++;
+        if (bufferLength == blockSize) {
+            processBlock(buffer, 0);
+            bufferLength = 0;
+        }
+        return this;
+    }
+
+    @Override
+    public Hasher update(byte[] bytes) {
+        return update(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public Hasher update(byte[] bytes, int offset, int length) {
+        LittleEndian.checkRange(bytes, offset, length);
+        totalLength += length;
+        if (bufferLength > 0) {
+            int n = Math.min(length, blockSize - bufferLength);
+            System.arraycopy(bytes, offset, buffer, bufferLength, n);
+            bufferLength += n;
+            offset += n;
+            length -= n;
+            if (bufferLength < blockSize) {
+                return this;
+            }
+            processBlock(buffer, 0);
+            bufferLength = 0;
+        }
+        while (length >= blockSize) {
+            processBlock(bytes, offset);
+            offset += blockSize;
+            length -= blockSize;
+        }
+        System.arraycopy(bytes, offset, buffer, 0, length);
+        bufferLength = length;
+        return this;
+    }
+
+    @Override
+    public Hasher update(ByteBuffer bytes) {
+        int index = bytes.position();
+        int limit = bytes.limit();
+        totalLength += limit - index;
+        while (bufferLength > 0 && index < limit) {
+            buffer[bufferLength++] = bytes.get(index++);
+            if (bufferLength == blockSize) {
+                processBlock(buffer, 0);
+                bufferLength = 0;
+            }
+        }
+        while (limit - index >= blockSize) {
+            processBlock(bytes, index);
+            index += blockSize;
+        }
+        while (index < limit) {
+            buffer[bufferLength++] = bytes.get(index++);
+        }
+        return this;
+    }
+
+    @Override
+    public Hasher update(CharSequence chars) {
+        int length = chars.length();
+        for (int i = 0; i < length; i++) {
+            char c = chars.charAt(i);
+            update((byte) c);
+            update((byte) (c >>> 8));
+        }
+        return this;
+    }
+
+    @Override
+    public Hasher update(long value) {
+        for (int i = 0; i < 8; i++) {
+            update((byte) (value >>> (i * 8)));
+        }
+        return this;
+    }
+
+    @Override
+    public long hash64() {
+        return finish();
+    }
+
+    @Override
+    public long length() {
+        return totalLength;
+    }
+
+    @Override
+    public Hasher reset() {
+        bufferLength = 0;
+        totalLength = 0;
+        resetState();
+        return this;
+    }
+}
@@ -0,0 +1,183 @@
+package com.jn.langx.util.hash;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.function.Function;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A consistent hash ring with virtual nodes and weights.
+ * <p>
+ * Every node owns <code>weight * virtualNodesPerWeight</code> points of a ring of 64-bit hashes, a key belongs to
+ * the owner of the first point at or after its hash. Adding or removing a node only moves the keys between the
+ * points of that node and their predecessors, that is about <code>1/n</code> of the keys, and the virtual nodes
+ * spread every node evenly over the ring.
+ * <p>
+ * The points are kept in a sorted <code>long[]</code>, a lookup is a binary search: <code>O(log(n * v))</code>
+ * without allocation. Changes rebuild the ring and publish it with a compare-and-set, they are meant to be rare.
+ *
+ * @param <N> the node type
+ * @see <a href="https://www.akamai.com/us/en/multimedia/documents/technical-publication/consistent-hashing-and-random-trees-distributed-caching-protocols-for-relieving-hot-spots-on-the-world-wide-web-technical-publication.pdf">Consistent Hashing and Random Trees</a>
+ */
+public class ConsistentHashRing<N> implements NodeLocator<N> {
+    public static final int DEFAULT_VIRTUAL_NODES_PER_WEIGHT = 160;
+
+    private final Hash64 hash;
+    private final int virtualNodesPerWeight;
+    private final Function<N, String> nodeKeyFunction;
+    private final AtomicReference<Ring<N>> ring = new AtomicReference<Ring<N>>(new Ring<N>(new LinkedHashMap<N, Integer>(), new long[0], new Object[0]));
+
+    public ConsistentHashRing() {
+        this(DEFAULT_VIRTUAL_NODES_PER_WEIGHT);
+    }
+
+    public ConsistentHashRing(int virtualNodesPerWeight) {
+        this(XxHash64.getInstance(), virtualNodesPerWeight, null);
+    }
+
+    /**
+     * @param hash                  the hash of the keys and of the nodes
+     * @param virtualNodesPerWeight the number of points of a node of weight 1
+     * @param nodeKeyFunction       the stable identity of a node, which places its points; {@link Object#toString()} when null
+     */
+    public ConsistentHashRing(@NonNull Hash64 hash, int virtualNodesPerWeight, Function<N, String> nodeKeyFunction) {
+        Preconditions.checkNotNull(hash, "hash cannot be null");
+        Preconditions.checkArgument(virtualNodesPerWeight > 0, "virtualNodesPerWeight must be > 0");
+        this.hash = hash;
+        this.virtualNodesPerWeight = virtualNodesPerWeight;
+        this.nodeKeyFunction = nodeKeyFunction;
+    }
+
+    @Override
+    public N locate(CharSequence key) {
+        return locate(hash.hash64(key, 0));
+    }
+
+    @Override
+    public N locate(byte[] key) {
+        return locate(hash.hash64(key, 0, key.length, 0));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public N locate(long keyHash) {
+        Ring<N> r = ring.get();
+        long[] points = r.points;
+        if (points.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(points, keyHash);
+        if (index < 0) {
+            index = -index - 1;
+            if (index == points.length) {
+                // wraps around the ring
+                index = 0;
+            }
+        }
+        return (N) r.owners[index];
+    }
+
+    public void addNode(@NonNull N node) {
+        addNode(node, 1);
+    }
+
+    @Override
+    public void addNode(@NonNull N node, int weight) {
+        Preconditions.checkNotNull(node, "node cannot be null");
+        Preconditions.checkArgument(weight > 0, "weight must be > 0");
+        while (true) {
+            Ring<N> current = ring.get();
+            Integer oldWeight = current.weights.get(node);
+            if (oldWeight != null && oldWeight == weight) {
+                return;
+            }
+            Map<N, Integer> weights = new LinkedHashMap<N, Integer>(current.weights);
+            weights.put(node, weight);
+            if (ring.compareAndSet(current, build(weights))) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public boolean removeNode(@NonNull N node) {
+        while (true) {
+            Ring<N> current = ring.get();
+            if (!current.weights.containsKey(node)) {
+                return false;
+            }
+            Map<N, Integer> weights = new LinkedHashMap<N, Integer>(current.weights);
+            weights.remove(node);
+            if (ring.compareAndSet(current, build(weights))) {
+                return true;
+            }
+        }
+    }
+
+    private Ring<N> build(Map<N, Integer> weights) {
+        int total = 0;
+        for (Integer weight : weights.values()) {
+            total += weight * virtualNodesPerWeight;
+        }
+        final long[] unsortedPoints = new long[total];
+        Object[] unsortedOwners = new Object[total];
+        int count = 0;
+        for (Map.Entry<N, Integer> entry : weights.entrySet()) {
+            N node = entry.getKey();
+            long base = hash.hash64(nodeKeyFunction == null ? node.toString() : nodeKeyFunction.apply(node), 0);
+            int virtualNodes = entry.getValue() * virtualNodesPerWeight;
+            for (int i = 0; i < virtualNodes; i++) {
+                // the points of a node only depend on its key, so they do not move when other nodes change
+                unsortedPoints[count] = Murmur3Hash128.fmix64(base + i * 0x9E3779B97F4A7C15L);
+                unsortedOwners[count] = node;
+                count++;
+            }
+        }
+        Integer[] order = new Integer[total];
+        for (int i = 0; i < total; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                long pa = unsortedPoints[a];
+                long pb = unsortedPoints[b];
+                return pa < pb ? -1 : (pa == pb ? 0 : 1);
+            }
+        });
+        long[] points = new long[total];
+        Object[] owners = new Object[total];
+        for (int i = 0; i < total; i++) {
+            points[i] = unsortedPoints[order[i]];
+            owners[i] = unsortedOwners[order[i]];
+        }
+        return new Ring<N>(weights, points, owners);
+    }
+
+    @Override
+    public Set<N> getNodes() {
+        return Collections.unmodifiableSet(ring.get().weights.keySet());
+    }
+
+    /**
+     * @return the weight of the node, 0 if it is not in the ring
+     */
+    public int getWeight(N node) {
+        Integer weight = ring.get().weights.get(node);
+        return weight == null ? 0 : weight;
+    }
+
+    private static final class Ring<N> {
+        private final Map<N, Integer> weights;
+        private final long[] points;
+        private final Object[] owners;
+
+        private Ring(Map<N, Integer> weights, long[] points, Object[] owners) {
+            this.weights = weights;
+            this.points = points;
+            this.owners = owners;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.jn.langx.util.hash;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A fast 64-bit hash for short keys such as identifiers, names and map keys.
+ * <p>
+ * It consumes 8 bytes (4 chars) per step with a single MurmurHash3 lane, packs the last partial word into
+ * one step, and finishes with the MurmurHash3 avalanche, so short strings take only a few multiplications.
+ * For long inputs, {@link XxHash64} is faster since it runs four independent lanes.
+ * <p>
+ * The algorithm is specific to this library, its values are stable across versions.
+ */
+public class FastHash64 extends Hash64 {
+    private static final long C1 = 0x87C37B91114253D5L;
+    private static final long C2 = 0x4CF5AD432745937FL;
+
+    private static FastHash64 _instance = new FastHash64();
+
+    public static FastHash64 getInstance() {
+        return _instance;
+    }
+
+    @Override
+    public long hash64(byte[] bytes, int offset, int length, long seed) {
+        LittleEndian.checkRange(bytes, offset, length);
+        long h = seed;
+        int p = offset;
+        int end = offset + length;
+        while (end - p >= 8) {
+            h = mix(h, LittleEndian.getLong(bytes, p));
+            p += 8;
+        }
+        if (p < end) {
+            h = mix(h, LittleEndian.getTail(bytes, p, end));
+        }
+        return Murmur3Hash128.fmix64(h ^ length);
+    }
+
+    @Override
+    public long hash64(ByteBuffer buffer, long seed) {
+        long h = seed;
+        int p = buffer.position();
+        int end = buffer.limit();
+        while (end - p >= 8) {
+            h = mix(h, LittleEndian.getLong(buffer, p));
+            p += 8;
+        }
+        if (p < end) {
+            h = mix(h, LittleEndian.getTail(buffer, p, end));
+        }
+        return Murmur3Hash128.fmix64(h ^ (end - buffer.position()));
+    }
+
+    @Override
+    public long hash64(CharSequence chars, long seed) {
+        long h = seed;
+        int p = 0;
+        int end = chars.length();
+        while (end - p >= 4) {
+            h = mix(h, LittleEndian.getLong(chars, p));
+            p += 4;
+        }
+        if (p < end) {
+            h = mix(h, LittleEndian.getTail(chars, p, end));
+        }
+        return Murmur3Hash128.fmix64(h ^ (2L * end));
+    }
+
+    private static long mix(long h, long k) {
+        k *= C1;
+        k = Long.rotateLeft(k, 31);
+        k *= C2;
+        h ^= k;
+        h = Long.rotateLeft(h, 27);
+        return h * 5 + 0x52DCE729;
+    }
+
+    @Override
+    public Hasher newHasher(long seed) {
+        return new FastHasher(seed);
+    }
+
+    private static final class FastHasher extends BlockHasher {
+        private final long seed;
+        private long h;
+
+        FastHasher(long seed) {
+            super(8);
+            this.seed = seed;
+            this.h = seed;
+        }
+
+        @Override
+        protected void resetState() {
+            h = seed;
+        }
+
+        @Override
+        protected void processBlock(byte[] bytes, int offset) {
+            h = mix(h, LittleEndian.getLong(bytes, offset));
+        }
+
+        @Override
+        protected void processBlock(ByteBuffer bytes, int index) {
+            h = mix(h, LittleEndian.getLong(bytes, index));
+        }
+
+        @Override
+        protected long finish() {
+            long result = h;
+            if (bufferLength > 0) {
+                result = mix(result, LittleEndian.getTail(buffer, 0, bufferLength));
+            }
+            return Murmur3Hash128.fmix64(result ^ totalLength);
+        }
+    }
+}
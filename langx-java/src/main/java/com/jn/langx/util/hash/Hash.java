@@ -13,11 +13,23 @@ public abstract class Hash {
      * Constant to denote {@link MurmurHash}.
      */
     public static final int MURMUR_HASH = 1;
+    /**
+     * Constant to denote {@link XxHash64}.
+     */
+    public static final int XXHASH64_HASH = 2;
+    /**
+     * Constant to denote {@link Murmur3Hash128}.
+     */
+    public static final int MURMUR3_128_HASH = 3;
+    /**
+     * Constant to denote {@link FastHash64}.
+     */
+    public static final int FAST64_HASH = 4;
 
     /**
      * This utility method converts String representation of hash function name
-     * to a symbolic constant. Currently two function types are supported,
-     * "jenkins" and "murmur".
+     * to a symbolic constant. Currently the function types "jenkins", "murmur",
+     * "xxhash64", "murmur3_128" and "fast64" are supported.
      *
      * @param name hash function name
      * @return one of the predefined constants
@@ -27,6 +39,12 @@ public abstract class Hash {
             return JENKINS_HASH;
         } else if ("murmur".equalsIgnoreCase(name)) {
             return MURMUR_HASH;
+        } else if ("xxhash64".equalsIgnoreCase(name) || "xxhash".equalsIgnoreCase(name)) {
+            return XXHASH64_HASH;
+        } else if ("murmur3_128".equalsIgnoreCase(name) || "murmur3".equalsIgnoreCase(name)) {
+            return MURMUR3_128_HASH;
+        } else if ("fast64".equalsIgnoreCase(name)) {
+            return FAST64_HASH;
         } else {
             return INVALID_HASH;
         }
@@ -45,6 +63,12 @@ public abstract class Hash {
                 return JenkinsHash.getInstance();
             case MURMUR_HASH:
                 return MurmurHash.getInstance();
+            case XXHASH64_HASH:
+                return XxHash64.getInstance();
+            case MURMUR3_128_HASH:
+                return Murmur3Hash128.getInstance();
+            case FAST64_HASH:
+                return FastHash64.getInstance();
             default:
                 return null;
         }
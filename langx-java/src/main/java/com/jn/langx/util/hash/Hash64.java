@@ -0,0 +1,54 @@
+package com.jn.langx.util.hash;
+
+import com.jn.langx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The base of the 64-bit hash functions. Besides <code>byte[]</code> ranges, they hash {@link ByteBuffer}s,
+ * heap or direct, and {@link CharSequence}s in place, and can hash chunked input with a {@link Hasher}.
+ * <p>
+ * A {@link CharSequence} is hashed as its UTF-16LE bytes, whatever its implementation, so a String and a
+ * StringBuilder of the same chars have the same hash. All the methods are stateless and thread-safe.
+ */
+public abstract class Hash64 extends Hash {
+
+    /**
+     * The lower 32 bits of the 64-bit hash, with the initial value as the seed.
+     */
+    @Override
+    public int hash(byte[] bytes, int length, int initval) {
+        return (int) hash64(bytes, 0, length, initval);
+    }
+
+    public long hash64(@NonNull byte[] bytes) {
+        return hash64(bytes, 0, bytes.length, 0);
+    }
+
+    public abstract long hash64(@NonNull byte[] bytes, int offset, int length, long seed);
+
+    public long hash64(@NonNull ByteBuffer buffer) {
+        return hash64(buffer, 0);
+    }
+
+    /**
+     * Hashes the bytes from the position to the limit of the buffer, the position does not change.
+     */
+    public abstract long hash64(@NonNull ByteBuffer buffer, long seed);
+
+    public long hash64(@NonNull CharSequence chars) {
+        return hash64(chars, 0);
+    }
+
+    /**
+     * Hashes the UTF-16LE representation of the chars, the result equals
+     * <code>hash64(s.toString().getBytes("UTF-16LE"), 0, 2 * s.length(), seed)</code>.
+     */
+    public abstract long hash64(@NonNull CharSequence chars, long seed);
+
+    public Hasher newHasher() {
+        return newHasher(0);
+    }
+
+    public abstract Hasher newHasher(long seed);
+}
@@ -0,0 +1,52 @@
+package com.jn.langx.util.hash;
+
+import com.jn.langx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A streaming 64-bit hash: the input is given in chunks, the hash equals the one-shot hash of the
+ * concatenated chunks.
+ * <p>
+ * A hasher buffers at most one block of the algorithm, the chunks are not copied otherwise.
+ * It is not thread-safe.
+ *
+ * @see Hash64#newHasher(long)
+ */
+public interface Hasher {
+    Hasher update(byte b);
+
+    Hasher update(@NonNull byte[] bytes);
+
+    Hasher update(@NonNull byte[] bytes, int offset, int length);
+
+    /**
+     * Updates with the bytes from the position to the limit of the buffer, the position does not change.
+     */
+    Hasher update(@NonNull ByteBuffer buffer);
+
+    /**
+     * Updates with the UTF-16LE bytes of the chars.
+     */
+    Hasher update(@NonNull CharSequence chars);
+
+    /**
+     * Updates with the 8 little-endian bytes of the value.
+     */
+    Hasher update(long value);
+
+    /**
+     * @return the hash of the input so far, more input may be given afterwards
+     */
+    long hash64();
+
+    /**
+     * @return the number of bytes given so far
+     */
+    long length();
+
+    /**
+     * Forgets the input, the hasher can be used again with the same seed.
+     */
+    Hasher reset();
+}
@@ -0,0 +1,45 @@
+package com.jn.langx.util.hash;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+
+/**
+ * Jump consistent hash: maps a key to one of <code>n</code> numbered buckets in <code>O(log n)</code>, with no
+ * memory and no allocation.
+ * <p>
+ * When the number of buckets grows from <code>n</code> to <code>n + 1</code>, only <code>1/(n + 1)</code> of the
+ * keys move, all of them to the new bucket. Buckets can only be added or removed at the end, so it suits
+ * numbered shards or partitions; use a {@link NodeLocator} when arbitrary nodes come and go.
+ *
+ * @see <a href="https://arxiv.org/abs/1406.2294">A Fast, Minimal Memory, Consistent Hash Algorithm</a>
+ */
+public class JumpConsistentHash {
+    private JumpConsistentHash() {
+    }
+
+    /**
+     * @param keyHash a well distributed 64-bit hash of the key
+     * @param buckets the number of buckets, > 0
+     * @return the bucket of the key, in <code>[0, buckets)</code>
+     */
+    public static int bucket(long keyHash, int buckets) {
+        Preconditions.checkArgument(buckets > 0, "buckets must be > 0");
+        long key = keyHash;
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    public static int bucket(@NonNull CharSequence key, int buckets) {
+        return bucket(XxHash64.getInstance().hash64(key, 0), buckets);
+    }
+
+    public static int bucket(@NonNull byte[] key, int buckets) {
+        return bucket(XxHash64.getInstance().hash64(key), buckets);
+    }
+}
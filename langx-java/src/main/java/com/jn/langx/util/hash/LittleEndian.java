@@ -0,0 +1,87 @@
+package com.jn.langx.util.hash;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Little-endian reads of <code>byte[]</code>s, {@link ByteBuffer}s and {@link CharSequence}s (as UTF-16LE),
+ * with absolute indexes so that nothing is copied and no buffer state changes.
+ */
+final class LittleEndian {
+    private LittleEndian() {
+    }
+
+    static long getLong(byte[] b, int i) {
+        return (b[i] & 0xFFL)
+                | ((b[i + 1] & 0xFFL) << 8)
+                | ((b[i + 2] & 0xFFL) << 16)
+                | ((b[i + 3] & 0xFFL) << 24)
+                | ((b[i + 4] & 0xFFL) << 32)
+                | ((b[i + 5] & 0xFFL) << 40)
+                | ((b[i + 6] & 0xFFL) << 48)
+                | ((b[i + 7] & 0xFFL) << 56);
+    }
+
+    static int getInt(byte[] b, int i) {
+        return (b[i] & 0xFF)
+                | ((b[i + 1] & 0xFF) << 8)
+                | ((b[i + 2] & 0xFF) << 16)
+                | ((b[i + 3] & 0xFF) << 24);
+    }
+
+    static long getLong(ByteBuffer b, int i) {
+        long value = b.getLong(i);
+        return b.order() == ByteOrder.LITTLE_ENDIAN ? value : Long.reverseBytes(value);
+    }
+
+    static int getInt(ByteBuffer b, int i) {
+        int value = b.getInt(i);
+        return b.order() == ByteOrder.LITTLE_ENDIAN ? value : Integer.reverseBytes(value);
+    }
+
+    /**
+     * @return the 4 chars from <code>i</code> as 8 UTF-16LE bytes
+     */
+    static long getLong(CharSequence s, int i) {
+        return (long) s.charAt(i)
+                | ((long) s.charAt(i + 1) << 16)
+                | ((long) s.charAt(i + 2) << 32)
+                | ((long) s.charAt(i + 3) << 48);
+    }
+
+    /**
+     * @return the bytes from <code>i</code> to <code>end</code>, at most 8, packed in a long
+     */
+    static long getTail(byte[] b, int i, int end) {
+        long value = 0;
+        for (int shift = 0; i < end; i++, shift += 8) {
+            value |= (b[i] & 0xFFL) << shift;
+        }
+        return value;
+    }
+
+    static long getTail(ByteBuffer b, int i, int end) {
+        long value = 0;
+        for (int shift = 0; i < end; i++, shift += 8) {
+            value |= (b.get(i) & 0xFFL) << shift;
+        }
+        return value;
+    }
+
+    /**
+     * @return the chars from <code>i</code> to <code>end</code>, at most 4, packed in a long as UTF-16LE
+     */
+    static long getTail(CharSequence s, int i, int end) {
+        long value = 0;
+        for (int shift = 0; i < end; i++, shift += 16) {
+            value |= (long) s.charAt(i) << shift;
+        }
+        return value;
+    }
+
+    static void checkRange(byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > bytes.length) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length + ", array length: " + bytes.length);
+        }
+    }
+}
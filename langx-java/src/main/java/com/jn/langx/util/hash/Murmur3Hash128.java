@@ -0,0 +1,217 @@
+package com.jn.langx.util.hash;
+
+import com.jn.langx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The x64 128-bit variant of MurmurHash3.
+ * <p>
+ * The <code>hash64</code> methods return the first 64 bits of the 128-bit hash, the <code>hash128</code>
+ * methods write both halves into a caller-provided array so that nothing is allocated.
+ * The seed is used for both halves of the initial state, the hashes equal the reference implementation
+ * for the seeds from 0 to 2<sup>32</sup> - 1.
+ *
+ * @see <a href="https://github.com/aappleby/smhasher/blob/master/src/MurmurHash3.cpp">MurmurHash3</a>
+ */
+public class Murmur3Hash128 extends Hash64 {
+    private static final long C1 = 0x87C37B91114253D5L;
+    private static final long C2 = 0x4CF5AD432745937FL;
+
+    private static Murmur3Hash128 _instance = new Murmur3Hash128();
+
+    public static Murmur3Hash128 getInstance() {
+        return _instance;
+    }
+
+    @Override
+    public long hash64(byte[] bytes, int offset, int length, long seed) {
+        return hash128(bytes, offset, length, seed, null);
+    }
+
+    @Override
+    public long hash64(ByteBuffer buffer, long seed) {
+        return hash128(buffer, seed, null);
+    }
+
+    @Override
+    public long hash64(CharSequence chars, long seed) {
+        return hash128(chars, seed, null);
+    }
+
+    /**
+     * @param out the array that receives the two 64-bit halves, may be null
+     * @return the first half of the hash
+     */
+    public long hash128(@NonNull byte[] bytes, int offset, int length, long seed, long[] out) {
+        LittleEndian.checkRange(bytes, offset, length);
+        long h1 = seed;
+        long h2 = seed;
+        int p = offset;
+        int end = offset + length;
+        while (end - p >= 16) {
+            h1 = mixH1(h1, h2, LittleEndian.getLong(bytes, p));
+            h2 = mixH2(h2, h1, LittleEndian.getLong(bytes, p + 8));
+            p += 16;
+        }
+        int tail = end - p;
+        if (tail > 8) {
+            h2 ^= mixK2(LittleEndian.getTail(bytes, p + 8, end));
+        }
+        if (tail > 0) {
+            h1 ^= mixK1(LittleEndian.getTail(bytes, p, Math.min(end, p + 8)));
+        }
+        return finish(h1, h2, length, out);
+    }
+
+    /**
+     * Hashes the bytes from the position to the limit of the buffer, the position does not change.
+     *
+     * @param out the array that receives the two 64-bit halves, may be null
+     * @return the first half of the hash
+     */
+    public long hash128(@NonNull ByteBuffer buffer, long seed, long[] out) {
+        long h1 = seed;
+        long h2 = seed;
+        int p = buffer.position();
+        int end = buffer.limit();
+        while (end - p >= 16) {
+            h1 = mixH1(h1, h2, LittleEndian.getLong(buffer, p));
+            h2 = mixH2(h2, h1, LittleEndian.getLong(buffer, p + 8));
+            p += 16;
+        }
+        int tail = end - p;
+        if (tail > 8) {
+            h2 ^= mixK2(LittleEndian.getTail(buffer, p + 8, end));
+        }
+        if (tail > 0) {
+            h1 ^= mixK1(LittleEndian.getTail(buffer, p, Math.min(end, p + 8)));
+        }
+        return finish(h1, h2, end - buffer.position(), out);
+    }
+
+    /**
+     * Hashes the UTF-16LE representation of the chars.
+     *
+     * @param out the array that receives the two 64-bit halves, may be null
+     * @return the first half of the hash
+     */
+    public long hash128(@NonNull CharSequence chars, long seed, long[] out) {
+        long h1 = seed;
+        long h2 = seed;
+        int p = 0;
+        int end = chars.length();
+        while (end - p >= 8) {
+            h1 = mixH1(h1, h2, LittleEndian.getLong(chars, p));
+            h2 = mixH2(h2, h1, LittleEndian.getLong(chars, p + 4));
+            p += 8;
+        }
+        int tail = end - p;
+        if (tail > 4) {
+            h2 ^= mixK2(LittleEndian.getTail(chars, p + 4, end));
+        }
+        if (tail > 0) {
+            h1 ^= mixK1(LittleEndian.getTail(chars, p, Math.min(end, p + 4)));
+        }
+        return finish(h1, h2, 2L * end, out);
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        return k1 * C2;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        return k2 * C1;
+    }
+
+    private static long mixH1(long h1, long h2, long k1) {
+        h1 ^= mixK1(k1);
+        h1 = Long.rotateLeft(h1, 27);
+        h1 += h2;
+        return h1 * 5 + 0x52DCE729;
+    }
+
+    private static long mixH2(long h2, long h1, long k2) {
+        h2 ^= mixK2(k2);
+        h2 = Long.rotateLeft(h2, 31);
+        h2 += h1;
+        return h2 * 5 + 0x38495AB5;
+    }
+
+    private static long finish(long h1, long h2, long length, long[] out) {
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+        if (out != null) {
+            out[0] = h1;
+            out[1] = h2;
+        }
+        return h1;
+    }
+
+    static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    @Override
+    public Hasher newHasher(long seed) {
+        return new Murmur3Hasher(seed);
+    }
+
+    private static final class Murmur3Hasher extends BlockHasher {
+        private final long seed;
+        private long h1;
+        private long h2;
+
+        Murmur3Hasher(long seed) {
+            super(16);
+            this.seed = seed;
+            resetState();
+        }
+
+        @Override
+        protected void resetState() {
+            h1 = seed;
+            h2 = seed;
+        }
+
+        @Override
+        protected void processBlock(byte[] bytes, int offset) {
+            h1 = mixH1(h1, h2, LittleEndian.getLong(bytes, offset));
+            h2 = mixH2(h2, h1, LittleEndian.getLong(bytes, offset + 8));
+        }
+
+        @Override
+        protected void processBlock(ByteBuffer bytes, int index) {
+            h1 = mixH1(h1, h2, LittleEndian.getLong(bytes, index));
+            h2 = mixH2(h2, h1, LittleEndian.getLong(bytes, index + 8));
+        }
+
+        @Override
+        protected long finish() {
+            long k1 = h1;
+            long k2 = h2;
+            if (bufferLength > 8) {
+                k2 ^= mixK2(LittleEndian.getTail(buffer, 8, bufferLength));
+            }
+            if (bufferLength > 0) {
+                k1 ^= mixK1(LittleEndian.getTail(buffer, 0, Math.min(bufferLength, 8)));
+            }
+            return Murmur3Hash128.finish(k1, k2, totalLength, null);
+        }
+    }
+}
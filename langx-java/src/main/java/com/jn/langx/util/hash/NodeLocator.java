@@ -0,0 +1,52 @@
+package com.jn.langx.util.hash;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.annotation.Nullable;
+
+import java.util.Set;
+
+/**
+ * Maps keys to the nodes of a cluster, such as cache or worker nodes, so that a change of the nodes only moves
+ * the keys of the nodes involved, unlike the modulo of a hash.
+ * <p>
+ * Lookups do not allocate and do not lock, the nodes are changed with lock-free copy-on-write updates:
+ * a lookup concurrent with a change sees the nodes either before or after it.
+ *
+ * @param <N> the node type, nodes are compared with {@link Object#equals(Object)}
+ * @see ConsistentHashRing
+ * @see RendezvousHashing
+ * @see JumpConsistentHash
+ */
+public interface NodeLocator<N> {
+    /**
+     * @return the node of the key, null if there is no node
+     */
+    @Nullable
+    N locate(@NonNull CharSequence key);
+
+    @Nullable
+    N locate(@NonNull byte[] key);
+
+    /**
+     * Locates a key by its 64-bit hash, the hash must be well distributed.
+     */
+    @Nullable
+    N locate(long keyHash);
+
+    /**
+     * Adds a node, or changes its weight.
+     *
+     * @param weight the relative share of the keys of the node, > 0
+     */
+    void addNode(@NonNull N node, int weight);
+
+    /**
+     * @return true if the node was removed
+     */
+    boolean removeNode(@NonNull N node);
+
+    /**
+     * @return a snapshot of the nodes
+     */
+    Set<N> getNodes();
+}
@@ -0,0 +1,164 @@
+package com.jn.langx.util.hash;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.function.Function;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Rendezvous, or highest random weight (HRW), hashing: every node scores the key with a hash of the key and
+ * of the node, the key belongs to the node with the highest score.
+ * <p>
+ * Adding a node only takes the keys it wins, removing one only moves its own keys, and the keys spread evenly
+ * without virtual nodes. A weighted node scores <code>-weight / ln(u)</code>, <code>u</code> being the hash
+ * mapped to (0, 1), which gives it a share of the keys proportional to its weight.
+ * <p>
+ * A lookup scores every node, <code>O(n)</code> without allocation, which is the fastest choice for up to a few
+ * dozen nodes; use a {@link ConsistentHashRing} for more. Changes are lock-free copy-on-write updates.
+ *
+ * @param <N> the node type
+ * @see <a href="https://en.wikipedia.org/wiki/Rendezvous_hashing">Rendezvous hashing</a>
+ */
+public class RendezvousHashing<N> implements NodeLocator<N> {
+    private final Hash64 hash;
+    private final Function<N, String> nodeKeyFunction;
+    private final AtomicReference<Nodes<N>> nodes = new AtomicReference<Nodes<N>>(new Nodes<N>(new LinkedHashMap<N, Integer>(), new Object[0], new long[0], new double[0], true));
+
+    public RendezvousHashing() {
+        this(XxHash64.getInstance(), null);
+    }
+
+    /**
+     * @param hash            the hash of the keys and of the nodes
+     * @param nodeKeyFunction the stable identity of a node; {@link Object#toString()} when null
+     */
+    public RendezvousHashing(@NonNull Hash64 hash, Function<N, String> nodeKeyFunction) {
+        Preconditions.checkNotNull(hash, "hash cannot be null");
+        this.hash = hash;
+        this.nodeKeyFunction = nodeKeyFunction;
+    }
+
+    @Override
+    public N locate(CharSequence key) {
+        return locate(hash.hash64(key, 0));
+    }
+
+    @Override
+    public N locate(byte[] key) {
+        return locate(hash.hash64(key, 0, key.length, 0));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public N locate(long keyHash) {
+        Nodes<N> current = nodes.get();
+        long[] nodeHashes = current.hashes;
+        int best = -1;
+        if (current.uniform) {
+            long bestScore = 0;
+            for (int i = 0; i < nodeHashes.length; i++) {
+                // unsigned comparison
+                long score = Murmur3Hash128.fmix64(keyHash ^ nodeHashes[i]) + Long.MIN_VALUE;
+                if (best < 0 || score > bestScore) {
+                    best = i;
+                    bestScore = score;
+                }
+            }
+        } else {
+            double bestScore = 0;
+            double[] weights = current.weights;
+            for (int i = 0; i < nodeHashes.length; i++) {
+                long h = Murmur3Hash128.fmix64(keyHash ^ nodeHashes[i]);
+                // 53 random bits to (0, 1)
+                double u = ((h >>> 11) + 0.5) * 0x1.0p-53;
+                double score = -weights[i] / Math.log(u);
+                if (best < 0 || score > bestScore) {
+                    best = i;
+                    bestScore = score;
+                }
+            }
+        }
+        return best < 0 ? null : (N) current.nodes[best];
+    }
+
+    public void addNode(@NonNull N node) {
+        addNode(node, 1);
+    }
+
+    @Override
+    public void addNode(@NonNull N node, int weight) {
+        Preconditions.checkNotNull(node, "node cannot be null");
+        Preconditions.checkArgument(weight > 0, "weight must be > 0");
+        while (true) {
+            Nodes<N> current = nodes.get();
+            Integer oldWeight = current.weightMap.get(node);
+            if (oldWeight != null && oldWeight == weight) {
+                return;
+            }
+            Map<N, Integer> weights = new LinkedHashMap<N, Integer>(current.weightMap);
+            weights.put(node, weight);
+            if (nodes.compareAndSet(current, build(weights))) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public boolean removeNode(@NonNull N node) {
+        while (true) {
+            Nodes<N> current = nodes.get();
+            if (!current.weightMap.containsKey(node)) {
+                return false;
+            }
+            Map<N, Integer> weights = new LinkedHashMap<N, Integer>(current.weightMap);
+            weights.remove(node);
+            if (nodes.compareAndSet(current, build(weights))) {
+                return true;
+            }
+        }
+    }
+
+    private Nodes<N> build(Map<N, Integer> weightMap) {
+        int size = weightMap.size();
+        Object[] nodeArray = new Object[size];
+        long[] hashes = new long[size];
+        double[] weights = new double[size];
+        boolean uniform = true;
+        int i = 0;
+        for (Map.Entry<N, Integer> entry : weightMap.entrySet()) {
+            N node = entry.getKey();
+            nodeArray[i] = node;
+            hashes[i] = hash.hash64(nodeKeyFunction == null ? node.toString() : nodeKeyFunction.apply(node), 0);
+            weights[i] = entry.getValue();
+            uniform &= weights[i] == weights[0];
+            i++;
+        }
+        return new Nodes<N>(weightMap, nodeArray, hashes, weights, uniform);
+    }
+
+    @Override
+    public Set<N> getNodes() {
+        return Collections.unmodifiableSet(nodes.get().weightMap.keySet());
+    }
+
+    private static final class Nodes<N> {
+        private final Map<N, Integer> weightMap;
+        private final Object[] nodes;
+        private final long[] hashes;
+        private final double[] weights;
+        /**
+         * all the weights are equal, the scores are the hashes
+         */
+        private final boolean uniform;
+
+        private Nodes(Map<N, Integer> weightMap, Object[] nodes, long[] hashes, double[] weights, boolean uniform) {
+            this.weightMap = weightMap;
+            this.nodes = nodes;
+            this.hashes = hashes;
+            this.weights = weights;
+            this.uniform = uniform;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.jn.langx.util.hash;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The 64-bit xxHash, a very fast non-cryptographic hash with good distribution.
+ * <p>
+ * Besides <code>byte[]</code> ranges, {@link ByteBuffer}s and {@link CharSequence}s (as their UTF-16LE bytes),
+ * it hashes a <code>long</code> (as its 8 little-endian bytes) directly, without creating a byte array.
+ * All methods are stateless and thread-safe.
+ *
+ * @see <a href="https://github.com/Cyan4973/xxHash">xxHash</a>
+ */
+public class XxHash64 extends Hash64 {
+    private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME64_3 = 0x165667B19E3779F9L;
+    private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+
+    private static XxHash64 _instance = new XxHash64();
+
+    public static XxHash64 getInstance() {
+        return _instance;
+    }
+
+    @Override
+    public long hash64(byte[] bytes, int offset, int length, long seed) {
+        LittleEndian.checkRange(bytes, offset, length);
+        int end = offset + length;
+        int p = offset;
+        long h64;
+        if (length >= 32) {
+            int limit = end - 32;
+            long v1 = seed + PRIME64_1 + PRIME64_2;
+            long v2 = seed + PRIME64_2;
+            long v3 = seed;
+            long v4 = seed - PRIME64_1;
+            do {
+                v1 = round(v1, LittleEndian.getLong(bytes, p));
+                v2 = round(v2, LittleEndian.getLong(bytes, p + 8));
+                v3 = round(v3, LittleEndian.getLong(bytes, p + 16));
+                v4 = round(v4, LittleEndian.getLong(bytes, p + 24));
+                p += 32;
+            } while (p <= limit);
+            h64 = mergeAccumulators(v1, v2, v3, v4);
+        } else {
+            h64 = seed + PRIME64_5;
+        }
+        h64 += length;
+
+        while (p + 8 <= end) {
+            h64 = mixLong(h64, LittleEndian.getLong(bytes, p));
+            p += 8;
+        }
+        if (p + 4 <= end) {
+            h64 = mixInt(h64, LittleEndian.getInt(bytes, p) & 0xFFFFFFFFL);
+            p += 4;
+        }
+        while (p < end) {
+            h64 = mixByte(h64, bytes[p] & 0xFF);
+            p++;
+        }
+        return avalanche(h64);
+    }
+
+    @Override
+    public long hash64(ByteBuffer buffer, long seed) {
+        int p = buffer.position();
+        int end = buffer.limit();
+        int length = end - p;
+        long h64;
+        if (length >= 32) {
+            int limit = end - 32;
+            long v1 = seed + PRIME64_1 + PRIME64_2;
+            long v2 = seed + PRIME64_2;
+            long v3 = seed;
+            long v4 = seed - PRIME64_1;
+            do {
+                v1 = round(v1, LittleEndian.getLong(buffer, p));
+                v2 = round(v2, LittleEndian.getLong(buffer, p + 8));
+                v3 = round(v3, LittleEndian.getLong(buffer, p + 16));
+                v4 = round(v4, LittleEndian.getLong(buffer, p + 24));
+                p += 32;
+            } while (p <= limit);
+            h64 = mergeAccumulators(v1, v2, v3, v4);
+        } else {
+            h64 = seed + PRIME64_5;
+        }
+        h64 += length;
+
+        while (p + 8 <= end) {
+            h64 = mixLong(h64, LittleEndian.getLong(buffer, p));
+            p += 8;
+        }
+        if (p + 4 <= end) {
+            h64 = mixInt(h64, LittleEndian.getInt(buffer, p) & 0xFFFFFFFFL);
+            p += 4;
+        }
+        while (p < end) {
+            h64 = mixByte(h64, buffer.get(p) & 0xFF);
+            p++;
+        }
+        return avalanche(h64);
+    }
+
+    @Override
+    public long hash64(CharSequence chars, long seed) {
+        int length = chars.length();
+        int p = 0;
+        long h64;
+        if (length >= 16) {
+            int limit = length - 16;
+            long v1 = seed + PRIME64_1 + PRIME64_2;
+            long v2 = seed + PRIME64_2;
+            long v3 = seed;
+            long v4 = seed - PRIME64_1;
+            do {
+                v1 = round(v1, LittleEndian.getLong(chars, p));
+                v2 = round(v2, LittleEndian.getLong(chars, p + 4));
+                v3 = round(v3, LittleEndian.getLong(chars, p + 8));
+                v4 = round(v4, LittleEndian.getLong(chars, p + 12));
+                p += 16;
+            } while (p <= limit);
+            h64 = mergeAccumulators(v1, v2, v3, v4);
+        } else {
+            h64 = seed + PRIME64_5;
+        }
+        h64 += (long) length << 1;
+
+        while (p + 4 <= length) {
+            h64 = mixLong(h64, LittleEndian.getLong(chars, p));
+            p += 4;
+        }
+        if (p + 2 <= length) {
+            h64 = mixInt(h64, (chars.charAt(p) | ((long) chars.charAt(p + 1) << 16)) & 0xFFFFFFFFL);
+            p += 2;
+        }
+        if (p < length) {
+            char c = chars.charAt(p);
+            h64 = mixByte(h64, c & 0xFF);
+            h64 = mixByte(h64, c >>> 8);
+        }
+        return avalanche(h64);
+    }
+
+    /**
+     * Hashes the 8 little-endian bytes of a long.
+     */
+    public long hash64(long value, long seed) {
+        long h64 = seed + PRIME64_5 + 8;
+        h64 = mixLong(h64, value);
+        return avalanche(h64);
+    }
+
+    static long round(long acc, long input) {
+        acc += input * PRIME64_2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * PRIME64_1;
+    }
+
+    static long mergeAccumulators(long v1, long v2, long v3, long v4) {
+        long h64 = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+        h64 = mergeRound(h64, v1);
+        h64 = mergeRound(h64, v2);
+        h64 = mergeRound(h64, v3);
+        return mergeRound(h64, v4);
+    }
+
+    private static long mergeRound(long acc, long val) {
+        acc ^= round(0, val);
+        return acc * PRIME64_1 + PRIME64_4;
+    }
+
+    static long mixLong(long h64, long k) {
+        h64 ^= round(0, k);
+        return Long.rotateLeft(h64, 27) * PRIME64_1 + PRIME64_4;
+    }
+
+    static long mixInt(long h64, long unsignedInt) {
+        h64 ^= unsignedInt * PRIME64_1;
+        return Long.rotateLeft(h64, 23) * PRIME64_2 + PRIME64_3;
+    }
+
+    static long mixByte(long h64, int unsignedByte) {
+        h64 ^= unsignedByte * PRIME64_5;
+        return Long.rotateLeft(h64, 11) * PRIME64_1;
+    }
+
+    static long avalanche(long h64) {
+        h64 ^= h64 >>> 33;
+        h64 *= PRIME64_2;
+        h64 ^= h64 >>> 29;
+        h64 *= PRIME64_3;
+        h64 ^= h64 >>> 32;
+        return h64;
+    }
+
+    @Override
+    public Hasher newHasher(long seed) {
+        return new XxHasher(seed);
+    }
+
+    private static final class XxHasher extends BlockHasher {
+        private final long seed;
+        private long v1;
+        private long v2;
+        private long v3;
+        private long v4;
+
+        XxHasher(long seed) {
+            super(32);
+            this.seed = seed;
+            resetState();
+        }
+
+        @Override
+        protected void resetState() {
+            v1 = seed + PRIME64_1 + PRIME64_2;
+            v2 = seed + PRIME64_2;
+            v3 = seed;
+            v4 = seed - PRIME64_1;
+        }
+
+        @Override
+        protected void processBlock(byte[] bytes, int offset) {
+            v1 = round(v1, LittleEndian.getLong(bytes, offset));
+            v2 = round(v2, LittleEndian.getLong(bytes, offset + 8));
+            v3 = round(v3, LittleEndian.getLong(bytes, offset + 16));
+            v4 = round(v4, LittleEndian.getLong(bytes, offset + 24));
+        }
+
+        @Override
+        protected void processBlock(ByteBuffer bytes, int index) {
+            v1 = round(v1, LittleEndian.getLong(bytes, index));
+            v2 = round(v2, LittleEndian.getLong(bytes, index + 8));
+            v3 = round(v3, LittleEndian.getLong(bytes, index + 16));
+            v4 = round(v4, LittleEndian.getLong(bytes, index + 24));
+        }
+
+        @Override
+        protected long finish() {
+            long h64 = totalLength >= 32 ? mergeAccumulators(v1, v2, v3, v4) : seed + PRIME64_5;
+            h64 += totalLength;
+            int p = 0;
+            while (p + 8 <= bufferLength) {
+                h64 = mixLong(h64, LittleEndian.getLong(buffer, p));
+                p += 8;
+            }
+            if (p + 4 <= bufferLength) {
+                h64 = mixInt(h64, LittleEndian.getInt(buffer, p) & 0xFFFFFFFFL);
+                p += 4;
+            }
+            while (p < bufferLength) {
+                h64 = mixByte(h64, buffer[p] & 0xFF);
+                p++;
+            }
+            return avalanche(h64);
+        }
+    }
+}
@@ -1,10 +1,8 @@
 package com.jn.langx.util.id;
 
-import com.jn.langx.IdGenerator;
-
 import java.util.concurrent.atomic.AtomicLong;
 
-public class AutoIncrementIdGenerator implements IdGenerator {
+public class AutoIncrementIdGenerator implements LongIdGenerator {
     private final AtomicLong value;
 
     public AutoIncrementIdGenerator() {
@@ -20,6 +18,19 @@ public class AutoIncrementIdGenerator implements IdGenerator {
         return value.getAndIncrement() + "";
     }
 
+    @Override
+    public long nextId() {
+        return value.getAndIncrement();
+    }
+
+    @Override
+    public void nextIds(long[] out) {
+        long first = value.getAndAdd(out.length);
+        for (int i = 0; i < out.length; i++) {
+            out[i] = first + i;
+        }
+    }
+
     @Override
     public String get() {
         return get(null);
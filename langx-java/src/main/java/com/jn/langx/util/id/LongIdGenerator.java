@@ -0,0 +1,16 @@
+package com.jn.langx.util.id;
+
+import com.jn.langx.IdGenerator;
+
+/**
+ * An {@link IdGenerator} of numeric ids, which can be taken as primitive <code>long</code>s,
+ * without creating a String per id.
+ */
+public interface LongIdGenerator<E> extends IdGenerator<E> {
+    long nextId();
+
+    /**
+     * Fills the array with new ids, in increasing order.
+     */
+    void nextIds(long[] out);
+}
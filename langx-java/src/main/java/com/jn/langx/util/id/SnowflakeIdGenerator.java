@@ -1,9 +1,8 @@
 package com.jn.langx.util.id;
 
-import com.jn.langx.IdGenerator;
 import com.jn.langx.util.id.snowflake.SnowflakeIdWorkerProviderLoader;
 
-public class SnowflakeIdGenerator implements IdGenerator {
+public class SnowflakeIdGenerator implements LongIdGenerator {
     @Override
     public String get(Object object) {
         return SnowflakeIdWorkerProviderLoader.getProvider().get().get();
@@ -13,4 +12,14 @@ public class SnowflakeIdGenerator implements IdGenerator {
     public String get() {
         return get(null);
     }
+
+    @Override
+    public long nextId() {
+        return SnowflakeIdWorkerProviderLoader.getProvider().get().nextId();
+    }
+
+    @Override
+    public void nextIds(long[] out) {
+        SnowflakeIdWorkerProviderLoader.getProvider().get().nextIds(out);
+    }
 }
@@ -0,0 +1,176 @@
+package com.jn.langx.util.id;
+
+import com.jn.langx.IdGenerator;
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.random.ThreadLocalRandom;
+import com.jn.langx.util.timing.clock.Clock;
+import com.jn.langx.util.timing.clock.SystemClock;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The base of the 128-bit ids that start with a 48-bit Unix timestamp in milliseconds, followed by a 12-bit counter
+ * and random bits: the ids sort by creation time, as numbers and as strings, which keeps database indexes compact.
+ * <p>
+ * The timestamp and the counter of the last id are packed into one {@link AtomicLong} and advanced with a single
+ * compare-and-set, so the ids of a generator are strictly increasing, even within a millisecond and across threads.
+ * On a new millisecond the counter starts at a random value below 2048, it leaves at least 2048 ids per millisecond.
+ * When the counter is exhausted it carries into the timestamp: the ids borrow the next millisecond instead of
+ * waiting for it. When the clock moves backwards, the generator keeps counting from its last timestamp.
+ * <p>
+ * The random bits come from the thread-local {@link ThreadLocalRandom}, no shared random generator is contended.
+ * They are not meant to be unguessable, use {@link Base64IdGenerator} for security tokens.
+ *
+ * @see UuidV7Generator
+ * @see UlidGenerator
+ */
+public abstract class TimeOrderedIdGenerator implements IdGenerator<Object> {
+    static final int COUNTER_BITS = 12;
+    private static final long COUNTER_MASK = ~(-1L << COUNTER_BITS);
+    private static final int COUNTER_SEED_BOUND = 1 << (COUNTER_BITS - 1);
+
+    private final Clock clock;
+    /**
+     * <code>millis &lt;&lt; 12 | counter</code> of the last id
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    protected TimeOrderedIdGenerator() {
+        this(new SystemClock());
+    }
+
+    /**
+     * @param clock the time source, in milliseconds since 1970-01-01T00:00:00Z
+     */
+    protected TimeOrderedIdGenerator(@NonNull Clock clock) {
+        Preconditions.checkNotNull(clock, "clock cannot be null");
+        this.clock = clock;
+    }
+
+    @Override
+    public String get(Object object) {
+        return get();
+    }
+
+    @Override
+    public String get() {
+        long packed = nextState(1);
+        Random random = ThreadLocalRandom.current();
+        char[] chars = new char[length()];
+        encode(mostSignificantBits(packed >>> COUNTER_BITS, (int) (packed & COUNTER_MASK), random), leastSignificantBits(random), chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * Creates <code>count</code> increasing ids, the range is reserved with a single compare-and-set.
+     */
+    public String[] get(int count) {
+        Preconditions.checkArgument(count >= 0, "count must be >= 0");
+        String[] ids = new String[count];
+        if (count == 0) {
+            return ids;
+        }
+        long first = nextState(count);
+        Random random = ThreadLocalRandom.current();
+        char[] chars = new char[length()];
+        for (int i = 0; i < count; i++) {
+            long packed = first + i;
+            encode(mostSignificantBits(packed >>> COUNTER_BITS, (int) (packed & COUNTER_MASK), random), leastSignificantBits(random), chars, 0);
+            ids[i] = new String(chars);
+        }
+        return ids;
+    }
+
+    public UUID nextUuid() {
+        long packed = nextState(1);
+        Random random = ThreadLocalRandom.current();
+        return new UUID(mostSignificantBits(packed >>> COUNTER_BITS, (int) (packed & COUNTER_MASK), random), leastSignificantBits(random));
+    }
+
+    /**
+     * Fills the arrays with the bits of increasing ids, without creating any object.
+     *
+     * @param mostSigBits  the higher 64 bits of the ids
+     * @param leastSigBits the lower 64 bits of the ids, of the same length
+     */
+    public void nextIds(long[] mostSigBits, long[] leastSigBits) {
+        Preconditions.checkArgument(mostSigBits.length == leastSigBits.length, "the arrays have different lengths");
+        int count = mostSigBits.length;
+        if (count == 0) {
+            return;
+        }
+        long first = nextState(count);
+        Random random = ThreadLocalRandom.current();
+        for (int i = 0; i < count; i++) {
+            long packed = first + i;
+            mostSigBits[i] = mostSignificantBits(packed >>> COUNTER_BITS, (int) (packed & COUNTER_MASK), random);
+            leastSigBits[i] = leastSignificantBits(random);
+        }
+    }
+
+    /**
+     * Encodes the bits of an id, as {@link #get()} does.
+     */
+    public String toString(long mostSigBits, long leastSigBits) {
+        char[] chars = new char[length()];
+        encode(mostSigBits, leastSigBits, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * Reserves <code>count</code> consecutive states.
+     *
+     * @return the first reserved state
+     */
+    private long nextState(int count) {
+        while (true) {
+            long current = state.get();
+            long millis = clock.getTime();
+            long first;
+            if (millis > (current >>> COUNTER_BITS)) {
+                // a new millisecond, the counter restarts at a random value
+                first = (millis << COUNTER_BITS) | ThreadLocalRandom.current().nextInt(COUNTER_SEED_BOUND);
+            } else {
+                // the same millisecond, or the clock moved backwards: the counter carries into the timestamp
+                first = current + 1;
+            }
+            if (state.compareAndSet(current, first + count - 1)) {
+                return first;
+            }
+        }
+    }
+
+    /**
+     * @return how many milliseconds the timestamp of the last id is ahead of the clock, 0 when it is not
+     */
+    public long getBorrowedMillis() {
+        long ahead = (state.get() >>> COUNTER_BITS) - clock.getTime();
+        return ahead > 0 ? ahead : 0;
+    }
+
+    /**
+     * @param millis  the 48-bit timestamp
+     * @param counter the 12-bit counter
+     * @param random  the random generator of the current thread
+     * @return the higher 64 bits of an id
+     */
+    protected abstract long mostSignificantBits(long millis, int counter, Random random);
+
+    /**
+     * @return the lower 64 bits of an id
+     */
+    protected abstract long leastSignificantBits(Random random);
+
+    /**
+     * @return the number of characters of an encoded id
+     */
+    protected abstract int length();
+
+    /**
+     * Writes the {@link #length()} characters of an id into <code>out</code>, from <code>offset</code>.
+     */
+    protected abstract void encode(long mostSigBits, long leastSigBits, char[] out, int offset);
+}
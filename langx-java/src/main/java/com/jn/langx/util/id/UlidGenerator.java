@@ -0,0 +1,98 @@
+package com.jn.langx.util.id;
+
+import com.jn.langx.util.timing.clock.Clock;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Creates ULIDs: a 48-bit Unix timestamp in milliseconds and 80 bits of randomness, written as 26 characters of
+ * Crockford's base32, for example <code>01ARZ3NDEKTSV4RRFFQ69G5FAV</code>.
+ * <p>
+ * The first 12 of the 80 random bits are the counter of {@link TimeOrderedIdGenerator}, so the ids are monotonic
+ * within a millisecond, and their strings sort in creation order.
+ *
+ * @see <a href="https://github.com/ulid/spec">ULID specification</a>
+ */
+public class UlidGenerator extends TimeOrderedIdGenerator {
+    private static final char[] ENCODING = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final byte[] DECODING = new byte[128];
+    private static final int LENGTH = 26;
+
+    static {
+        Arrays.fill(DECODING, (byte) -1);
+        for (int i = 0; i < ENCODING.length; i++) {
+            DECODING[ENCODING[i]] = (byte) i;
+            DECODING[Character.toLowerCase(ENCODING[i])] = (byte) i;
+        }
+        // the aliases of Crockford's base32
+        DECODING['I'] = DECODING['i'] = DECODING['L'] = DECODING['l'] = 1;
+        DECODING['O'] = DECODING['o'] = 0;
+    }
+
+    public UlidGenerator() {
+        super();
+    }
+
+    public UlidGenerator(Clock clock) {
+        super(clock);
+    }
+
+    @Override
+    protected long mostSignificantBits(long millis, int counter, Random random) {
+        return (millis << 16) | ((long) counter << 4) | random.nextInt(16);
+    }
+
+    @Override
+    protected long leastSignificantBits(Random random) {
+        return random.nextLong();
+    }
+
+    @Override
+    protected int length() {
+        return LENGTH;
+    }
+
+    @Override
+    protected void encode(long mostSigBits, long leastSigBits, char[] out, int offset) {
+        // 26 characters hold 130 bits, the 2 highest are 0
+        long high = mostSigBits;
+        long low = leastSigBits;
+        for (int i = offset + LENGTH - 1; i >= offset; i--) {
+            out[i] = ENCODING[(int) (low & 31)];
+            low = (low >>> 5) | (high << 59);
+            high >>>= 5;
+        }
+    }
+
+    /**
+     * Parses a ULID, lower case letters and the aliases <code>I</code>, <code>L</code> and <code>O</code> are accepted.
+     *
+     * @return the 128 bits of the ULID
+     */
+    public static UUID toUuid(CharSequence ulid) {
+        if (ulid.length() != LENGTH) {
+            throw new IllegalArgumentException("a ULID has " + LENGTH + " characters: " + ulid);
+        }
+        long high = 0;
+        long low = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            char c = ulid.charAt(i);
+            int value = c < 128 ? DECODING[c] : -1;
+            if (value < 0 || (i == 0 && value > 7)) {
+                throw new IllegalArgumentException("illegal ULID: " + ulid);
+            }
+            high = (high << 5) | (low >>> 59);
+            low = (low << 5) | value;
+        }
+        return new UUID(high, low);
+    }
+
+    /**
+     * @return the creation time of a ULID, in milliseconds
+     */
+    public static long getTimestamp(CharSequence ulid) {
+        return toUuid(ulid).getMostSignificantBits() >>> 16;
+    }
+}
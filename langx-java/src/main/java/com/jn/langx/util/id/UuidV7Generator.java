@@ -0,0 +1,73 @@
+package com.jn.langx.util.id;
+
+import com.jn.langx.util.timing.clock.Clock;
+
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Creates version 7 UUIDs (RFC 9562): a 48-bit Unix timestamp in milliseconds, the version, a 12-bit counter in
+ * <code>rand_a</code> (the "fixed bit-length dedicated counter" method), the variant and 62 random bits.
+ * <p>
+ * The ids are formatted as <code>xxxxxxxx-xxxx-7xxx-xxxx-xxxxxxxxxxxx</code> in lower case, they are encoded straight
+ * into a char array instead of going through {@link UUID#toString()}.
+ *
+ * @see TimeOrderedIdGenerator
+ */
+public class UuidV7Generator extends TimeOrderedIdGenerator {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int LENGTH = 36;
+
+    public UuidV7Generator() {
+        super();
+    }
+
+    public UuidV7Generator(Clock clock) {
+        super(clock);
+    }
+
+    @Override
+    protected long mostSignificantBits(long millis, int counter, Random random) {
+        return (millis << 16) | 0x7000L | counter;
+    }
+
+    @Override
+    protected long leastSignificantBits(Random random) {
+        return (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+    }
+
+    @Override
+    protected int length() {
+        return LENGTH;
+    }
+
+    @Override
+    protected void encode(long mostSigBits, long leastSigBits, char[] out, int offset) {
+        hex(mostSigBits >>> 32, 8, out, offset);
+        out[offset + 8] = '-';
+        hex(mostSigBits >>> 16, 4, out, offset + 9);
+        out[offset + 13] = '-';
+        hex(mostSigBits, 4, out, offset + 14);
+        out[offset + 18] = '-';
+        hex(leastSigBits >>> 48, 4, out, offset + 19);
+        out[offset + 23] = '-';
+        hex(leastSigBits, 12, out, offset + 24);
+    }
+
+    private static void hex(long value, int digits, char[] out, int offset) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            out[i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    /**
+     * @return the creation time of a version 7 UUID, in milliseconds
+     */
+    public static long getTimestamp(UUID uuid) {
+        if (uuid.version() != 7) {
+            throw new IllegalArgumentException("not a version 7 UUID: " + uuid);
+        }
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
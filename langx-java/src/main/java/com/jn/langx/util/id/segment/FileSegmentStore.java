@@ -0,0 +1,80 @@
+package com.jn.langx.util.id.segment;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.Throwables;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+
+/**
+ * A {@link SegmentStore} that keeps the highest reserved id of each sequence in a file <code>&lt;key&gt;.segment</code>
+ * of a directory, as 8 big-endian bytes.
+ * <p>
+ * An allocation holds an exclusive {@link FileLock} on the file and forces the new value to the disk before
+ * returning, so several processes on the same host can share the directory.
+ */
+public class FileSegmentStore implements SegmentStore {
+    private static final String SUFFIX = ".segment";
+
+    private final File directory;
+
+    public FileSegmentStore(@NonNull File directory) {
+        Preconditions.checkNotNull(directory, "directory cannot be null");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalArgumentException("can't create the directory " + directory);
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * The key is a file name, it may contain letters, digits, <code>'_'</code>, <code>'-'</code> and <code>'.'</code>.
+     */
+    @Override
+    public synchronized long allocate(String key, int size) {
+        checkKey(key);
+        Preconditions.checkArgument(size > 0, "size must be > 0");
+        RandomAccessFile file = null;
+        try {
+            file = new RandomAccessFile(new File(directory, key + SUFFIX), "rw");
+            FileChannel channel = file.getChannel();
+            // file locks are held by the process, the method is synchronized for the threads of this process
+            FileLock lock = channel.lock();
+            try {
+                long maxId = file.length() >= 8 ? file.readLong() : 0;
+                long newMaxId = maxId + size;
+                file.seek(0);
+                file.writeLong(newMaxId);
+                channel.force(true);
+                return maxId + 1;
+            } finally {
+                lock.release();
+            }
+        } catch (IOException ex) {
+            throw Throwables.wrapAsRuntimeException(ex);
+        } finally {
+            if (file != null) {
+                try {
+                    file.close();
+                } catch (IOException ex) {
+                    // ignore it
+                }
+            }
+        }
+    }
+
+    private static void checkKey(String key) {
+        Preconditions.checkNotNull(key, "key cannot be null");
+        boolean valid = key.length() > 0 && !key.startsWith(".");
+        for (int i = 0; valid && i < key.length(); i++) {
+            char c = key.charAt(i);
+            valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '-' || c == '.';
+        }
+        if (!valid) {
+            throw new IllegalArgumentException("illegal sequence key: " + key);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.jn.langx.util.id.segment;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.Strings;
+import com.jn.langx.util.Throwables;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A {@link SegmentStore} that keeps the highest reserved id of each sequence in a table, one row per sequence:
+ * <pre>
+ * CREATE TABLE langx_id_segment (
+ *     seq_key VARCHAR(128) NOT NULL PRIMARY KEY,
+ *     max_id  BIGINT       NOT NULL
+ * )
+ * </pre>
+ * A range is reserved in one transaction: <code>UPDATE ... SET max_id = max_id + ?</code> locks the row, so any number
+ * of processes can share the table. The row of a new sequence is inserted on its first allocation.
+ */
+public class JdbcSegmentStore implements SegmentStore {
+    public static final String DEFAULT_TABLE = "langx_id_segment";
+
+    private final DataSource dataSource;
+    private final String updateSql;
+    private final String insertSql;
+    private final String selectSql;
+
+    public JdbcSegmentStore(@NonNull DataSource dataSource) {
+        this(dataSource, DEFAULT_TABLE);
+    }
+
+    /**
+     * @param table a table with the columns <code>seq_key</code> and <code>max_id</code>
+     */
+    public JdbcSegmentStore(@NonNull DataSource dataSource, String table) {
+        Preconditions.checkNotNull(dataSource, "dataSource cannot be null");
+        Preconditions.checkArgument(Strings.isNotBlank(table), "table cannot be blank");
+        this.dataSource = dataSource;
+        this.updateSql = "UPDATE " + table + " SET max_id = max_id + ? WHERE seq_key = ?";
+        this.insertSql = "INSERT INTO " + table + " (seq_key, max_id) VALUES (?, ?)";
+        this.selectSql = "SELECT max_id FROM " + table + " WHERE seq_key = ?";
+    }
+
+    @Override
+    public long allocate(String key, int size) {
+        Preconditions.checkNotNull(key, "key cannot be null");
+        Preconditions.checkArgument(size > 0, "size must be > 0");
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                long maxId = allocate(connection, key, size);
+                connection.commit();
+                return maxId - size + 1;
+            } catch (SQLException ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException ex) {
+            throw Throwables.wrapAsRuntimeException(ex);
+        } finally {
+            close(connection);
+        }
+    }
+
+    /**
+     * @return the new highest reserved id
+     */
+    private long allocate(Connection connection, String key, int size) throws SQLException {
+        if (update(connection, key, size) == 0) {
+            try {
+                insert(connection, key, size);
+                return size;
+            } catch (SQLException ex) {
+                // another process inserted the row in the meantime
+                connection.rollback();
+                if (update(connection, key, size) == 0) {
+                    throw ex;
+                }
+            }
+        }
+        PreparedStatement statement = connection.prepareStatement(selectSql);
+        try {
+            statement.setString(1, key);
+            ResultSet resultSet = statement.executeQuery();
+            try {
+                if (!resultSet.next()) {
+                    throw new SQLException("no row for the sequence " + key);
+                }
+                return resultSet.getLong(1);
+            } finally {
+                resultSet.close();
+            }
+        } finally {
+            statement.close();
+        }
+    }
+
+    private int update(Connection connection, String key, int size) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(updateSql);
+        try {
+            statement.setLong(1, size);
+            statement.setString(2, key);
+            return statement.executeUpdate();
+        } finally {
+            statement.close();
+        }
+    }
+
+    private void insert(Connection connection, String key, int size) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(insertSql);
+        try {
+            statement.setString(1, key);
+            statement.setLong(2, size);
+            statement.executeUpdate();
+        } finally {
+            statement.close();
+        }
+    }
+
+    private static void close(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException ex) {
+                // ignore it
+            }
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.jn.langx.util.id.segment;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.concurrent.CommonThreadFactory;
+import com.jn.langx.util.id.LongIdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serves the ids of a database-backed (or file-backed) sequence from memory, like the segment mode of Meituan's Leaf:
+ * a range of ids, a segment, is reserved in the {@link SegmentStore} at once, and the ids of the segment are taken
+ * with an {@link AtomicLong} increment, without any round trip to the store.
+ * <p>
+ * Two segments are kept: once 10% of the current segment is consumed, the next one is reserved asynchronously, so
+ * that it is usually ready when the current one runs out. A caller only waits for the store when the next segment
+ * is not ready in time, or on the first call.
+ * <p>
+ * The size of the segments adapts to the consumption rate: it doubles, up to {@link #setMaxStep(int)}, when a segment
+ * lasts less than {@link #setSegmentDuration(long)}, and halves, down to {@link #setMinStep(int)}, when it lasts more
+ * than twice that. A restart loses the unused ids of the reserved segments, the ids are unique and increasing but
+ * not gap-free.
+ */
+public class SegmentIdGenerator implements LongIdGenerator<Object> {
+    private static final Logger logger = LoggerFactory.getLogger(SegmentIdGenerator.class);
+
+    public static final int DEFAULT_MIN_STEP = 1000;
+    public static final int DEFAULT_MAX_STEP = 1000000;
+    public static final long DEFAULT_SEGMENT_DURATION = 15 * 60 * 1000L;
+
+    private final SegmentStore store;
+    private final String key;
+    private Executor executor;
+    private int minStep = DEFAULT_MIN_STEP;
+    private int maxStep = DEFAULT_MAX_STEP;
+    private long segmentDuration = DEFAULT_SEGMENT_DURATION;
+
+    private volatile Segment current;
+    private final AtomicReference<Segment> next = new AtomicReference<Segment>();
+    /**
+     * a segment is being reserved, at most one reservation runs at a time
+     */
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private final Object switchLock = new Object();
+    private volatile RuntimeException loadFailure;
+
+    // guarded by loading
+    private volatile int step;
+    private long lastLoadTime;
+
+    /**
+     * @param store the store of the sequence
+     * @param key   the name of the sequence in the store
+     */
+    public SegmentIdGenerator(@NonNull SegmentStore store, @NonNull String key) {
+        Preconditions.checkNotNull(store, "store cannot be null");
+        Preconditions.checkNotNull(key, "key cannot be null");
+        this.store = store;
+        this.key = key;
+    }
+
+    @Override
+    public String get(Object object) {
+        return get();
+    }
+
+    @Override
+    public String get() {
+        return Long.toString(nextId());
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            Segment segment = current;
+            if (segment != null) {
+                long id = segment.cursor.getAndIncrement();
+                if (id < segment.end) {
+                    if (id >= segment.prefetchAt && next.get() == null) {
+                        prefetch();
+                    }
+                    return id;
+                }
+            }
+            switchSegment(segment);
+        }
+    }
+
+    @Override
+    public void nextIds(long[] out) {
+        int filled = 0;
+        while (filled < out.length) {
+            Segment segment = current;
+            if (segment != null) {
+                int wanted = out.length - filled;
+                long first = segment.cursor.getAndAdd(wanted);
+                long end = Math.min(first + wanted, segment.end);
+                for (long id = first; id < end; id++) {
+                    out[filled++] = id;
+                }
+                if (end > segment.prefetchAt && next.get() == null) {
+                    prefetch();
+                }
+                if (filled == out.length) {
+                    return;
+                }
+            }
+            switchSegment(segment);
+        }
+    }
+
+    private void prefetch() {
+        if (!loading.compareAndSet(false, true)) {
+            return;
+        }
+        if (next.get() != null) {
+            // reserved by a prefetch completed meanwhile
+            loadingDone();
+            return;
+        }
+        try {
+            getExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Segment loaded = load();
+                        if (!next.compareAndSet(null, loaded)) {
+                            logger.debug("Dropped the segment [{}, {}) of the sequence {}, the next one is ready already", loaded.cursor.get(), loaded.end, key);
+                        }
+                        loadFailure = null;
+                    } catch (RuntimeException ex) {
+                        logger.warn("Failed to reserve the next segment of the sequence {}: {}", key, ex.getMessage(), ex);
+                        loadFailure = ex;
+                    } finally {
+                        loadingDone();
+                    }
+                }
+            });
+        } catch (RuntimeException ex) {
+            // rejected, the segment will be reserved when the current one runs out
+            loadingDone();
+        }
+    }
+
+    private void loadingDone() {
+        synchronized (switchLock) {
+            loading.set(false);
+            switchLock.notifyAll();
+        }
+    }
+
+    /**
+     * Replaces an exhausted segment with the next one, waits for it or reserves it.
+     */
+    private void switchSegment(Segment exhausted) {
+        synchronized (switchLock) {
+            while (current == exhausted) {
+                Segment ready = next.getAndSet(null);
+                if (ready != null) {
+                    current = ready;
+                    return;
+                }
+                if (loading.compareAndSet(false, true)) {
+                    try {
+                        current = load();
+                    } finally {
+                        loading.set(false);
+                    }
+                    return;
+                }
+                // a prefetch is running, it notifies when it is done
+                try {
+                    switchLock.wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("interrupted while waiting for a segment of the sequence " + key);
+                }
+            }
+        }
+    }
+
+    private Segment load() {
+        long now = System.currentTimeMillis();
+        if (lastLoadTime == 0) {
+            step = minStep;
+        } else {
+            long elapsed = now - lastLoadTime;
+            if (elapsed < segmentDuration) {
+                step = (int) Math.min((long) step * 2, maxStep);
+            } else if (elapsed > segmentDuration * 2) {
+                step = Math.max(step / 2, minStep);
+            }
+        }
+        long first = store.allocate(key, step);
+        lastLoadTime = now;
+        logger.debug("Reserved the segment [{}, {}) of the sequence {}", first, first + step, key);
+        return new Segment(first, step);
+    }
+
+    private Executor getExecutor() {
+        Executor executor = this.executor;
+        return executor != null ? executor : DefaultExecutorHolder.EXECUTOR;
+    }
+
+    /**
+     * @param executor the executor that reserves the next segments, a shared pool of daemon threads by default
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public void setMinStep(int minStep) {
+        Preconditions.checkArgument(minStep > 0, "minStep must be > 0");
+        this.minStep = minStep;
+    }
+
+    public void setMaxStep(int maxStep) {
+        Preconditions.checkArgument(maxStep > 0, "maxStep must be > 0");
+        this.maxStep = maxStep;
+    }
+
+    /**
+     * @param segmentDuration how long a segment should last, in milliseconds
+     */
+    public void setSegmentDuration(long segmentDuration) {
+        Preconditions.checkArgument(segmentDuration > 0, "segmentDuration must be > 0");
+        this.segmentDuration = segmentDuration;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return the size of the last reserved segment, 0 before the first one
+     */
+    public int getStep() {
+        return step;
+    }
+
+    /**
+     * @return the number of ids left in the current segment, not counting a prefetched one
+     */
+    public long getRemaining() {
+        Segment segment = current;
+        return segment == null ? 0 : Math.max(0, segment.end - segment.cursor.get());
+    }
+
+    /**
+     * @return true if the next segment has been reserved already
+     */
+    public boolean isNextReady() {
+        return next.get() != null;
+    }
+
+    /**
+     * @return the failure of the last asynchronous reservation, null if it succeeded
+     */
+    public RuntimeException getLoadFailure() {
+        return loadFailure;
+    }
+
+    private static final class Segment {
+        final long end;
+        final long prefetchAt;
+        final AtomicLong cursor;
+
+        Segment(long first, int size) {
+            this.end = first + size;
+            this.prefetchAt = first + size / 10;
+            this.cursor = new AtomicLong(first);
+        }
+    }
+
+    private static final class DefaultExecutorHolder {
+        static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(new CommonThreadFactory("IdSegmentLoader", true));
+    }
+}
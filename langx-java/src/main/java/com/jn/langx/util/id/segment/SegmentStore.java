@@ -0,0 +1,21 @@
+package com.jn.langx.util.id.segment;
+
+/**
+ * The durable side of a {@link SegmentIdGenerator}: it hands out disjoint ranges of ids, the generator serves the
+ * ids of a range from memory.
+ * <p>
+ * Implementations must be safe to call from several threads, and from several processes sharing the same storage.
+ *
+ * @see JdbcSegmentStore
+ * @see FileSegmentStore
+ */
+public interface SegmentStore {
+    /**
+     * Reserves the next <code>size</code> ids of a sequence. A sequence that does not exist yet starts at 1.
+     *
+     * @param key  the name of the sequence
+     * @param size the number of ids to reserve, &gt; 0
+     * @return the first reserved id, the range is <code>[first, first + size)</code>
+     */
+    long allocate(String key, int size);
+}
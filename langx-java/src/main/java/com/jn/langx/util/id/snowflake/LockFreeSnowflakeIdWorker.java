@@ -0,0 +1,126 @@
+package com.jn.langx.util.id.snowflake;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.timing.clock.Clock;
+import com.jn.langx.util.timing.clock.SystemClock;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free Snowflake id worker, with the id layout of {@link CnblogsSnowflakeIdWorker}:
+ * 41 bits of milliseconds since the epoch, 5 bits of data center id, 5 bits of worker id and a 12-bit sequence.
+ * <p>
+ * The timestamp and the sequence of the last id are packed into one {@link AtomicLong}, an id is taken with a
+ * single compare-and-set: threads never block each other, and {@link #nextIds(long[])} reserves a whole range
+ * with one compare-and-set too.
+ * <p>
+ * When the sequence of a millisecond is exhausted, it carries into the timestamp: the ids borrow the next
+ * milliseconds instead of waiting for them. When the clock moves backwards, the worker keeps counting from its
+ * last timestamp instead of failing, it catches up once the clock is past it again. Either way the ids stay
+ * unique and increasing, {@link #getBorrowedMillis()} tells how far the worker runs ahead of the clock.
+ */
+public class LockFreeSnowflakeIdWorker extends SnowflakeIdWorker {
+    /**
+     * 2015-01-01, the epoch of {@link CnblogsSnowflakeIdWorker}
+     */
+    public static final long DEFAULT_EPOCH = 1420041600000L;
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final int WORKER_ID_BITS = 5;
+    private static final int DATACENTER_ID_BITS = 5;
+    private static final long MAX_WORKER_ID = ~(-1L << WORKER_ID_BITS);
+    private static final long MAX_DATACENTER_ID = ~(-1L << DATACENTER_ID_BITS);
+    private static final int WORKER_ID_SHIFT = SEQUENCE_BITS;
+    private static final int DATACENTER_ID_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS;
+    private static final int TIMESTAMP_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS + DATACENTER_ID_BITS;
+    private static final long SEQUENCE_MASK = ~(-1L << SEQUENCE_BITS);
+
+    private final long epoch;
+    private final Clock clock;
+    private final long nodeBits;
+    /**
+     * <code>(timestamp - epoch) &lt;&lt; 12 | sequence</code> of the last id
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    public LockFreeSnowflakeIdWorker(long workerId, long dataCenterId) {
+        this(workerId, dataCenterId, DEFAULT_EPOCH, new SystemClock());
+    }
+
+    /**
+     * @param workerId     the worker id, from 0 to 31
+     * @param dataCenterId the data center id, from 0 to 31
+     * @param epoch        the time of the timestamp 0, in milliseconds
+     * @param clock        the time source, in milliseconds
+     */
+    public LockFreeSnowflakeIdWorker(long workerId, long dataCenterId, long epoch, @NonNull Clock clock) {
+        Preconditions.checkArgument(workerId >= 0 && workerId <= MAX_WORKER_ID, "worker Id can't be greater than " + MAX_WORKER_ID + " or less than 0");
+        Preconditions.checkArgument(dataCenterId >= 0 && dataCenterId <= MAX_DATACENTER_ID, "datacenter Id can't be greater than " + MAX_DATACENTER_ID + " or less than 0");
+        Preconditions.checkNotNull(clock, "clock cannot be null");
+        this.epoch = epoch;
+        this.clock = clock;
+        this.nodeBits = (dataCenterId << DATACENTER_ID_SHIFT) | (workerId << WORKER_ID_SHIFT);
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            long current = state.get();
+            long next = nextState(current);
+            if (state.compareAndSet(current, next)) {
+                return toId(next);
+            }
+        }
+    }
+
+    /**
+     * Reserves <code>out.length</code> consecutive ids with a single compare-and-set.
+     */
+    @Override
+    public void nextIds(long[] out) {
+        int count = out.length;
+        if (count == 0) {
+            return;
+        }
+        while (true) {
+            long current = state.get();
+            long first = nextState(current);
+            if (state.compareAndSet(current, first + count - 1)) {
+                for (int i = 0; i < count; i++) {
+                    out[i] = toId(first + i);
+                }
+                return;
+            }
+        }
+    }
+
+    private long nextState(long current) {
+        long tick = clock.getTime() - epoch;
+        if (tick > (current >>> SEQUENCE_BITS)) {
+            // a new millisecond, the sequence restarts
+            return tick << SEQUENCE_BITS;
+        }
+        // the same millisecond, or the clock moved backwards: the sequence carries into the timestamp when exhausted
+        return current + 1;
+    }
+
+    private long toId(long packed) {
+        return ((packed >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT) | nodeBits | (packed & SEQUENCE_MASK);
+    }
+
+    /**
+     * @return how many milliseconds the timestamp of the last id is ahead of the clock, 0 when it is not
+     */
+    public long getBorrowedMillis() {
+        long ahead = (state.get() >>> SEQUENCE_BITS) - (clock.getTime() - epoch);
+        return ahead > 0 ? ahead : 0;
+    }
+
+    /**
+     * @return the time of an id, in milliseconds
+     */
+    public long getTimestamp(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + epoch;
+    }
+}
@@ -1,6 +1,6 @@
 package com.jn.langx.util.id.snowflake;
 
-import com.jn.langx.IdGenerator;
+import com.jn.langx.util.id.LongIdGenerator;
 
 /**
  * reference: https://github.com/twitter/snowflake
@@ -17,16 +17,27 @@ import com.jn.langx.IdGenerator;
  * 加起来刚好64位，为一个Long型。<br>
  * SnowFlake的优点是，整体上按照时间自增排序，并且整个分布式系统内不会产生ID碰撞(由数据中心ID和机器ID作区分)，并且效率较高，经测试，SnowFlake每秒能够产生26万ID左右。
  */
-public abstract class SnowflakeIdWorker implements IdGenerator {
+public abstract class SnowflakeIdWorker implements LongIdGenerator {
     @Override
     public String get(Object object) {
         return get();
     }
 
+    /**
+     * @return the id as a binary string, prefer {@link #nextId()} which does not create a String
+     */
     @Override
     public String get() {
         return Long.toBinaryString(nextId());
     }
 
+    @Override
     public abstract long nextId();
+
+    @Override
+    public void nextIds(long[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = nextId();
+        }
+    }
 }
@@ -21,7 +21,7 @@ public final class SystemEnvironmentSnowflakeIdWorkerProvider implements Snowfla
                     long workId = environmentAccessor.getLong("idgen.snowflake.workerId", 0L);
                     long dataCenterId = environmentAccessor.getLong("idgen.snowflake.dataCenterId", 0L);
 
-                    worker = new CnblogsSnowflakeIdWorker(workId, dataCenterId);
+                    worker = new LockFreeSnowflakeIdWorker(workId, dataCenterId);
                     return worker;
                 }
             }
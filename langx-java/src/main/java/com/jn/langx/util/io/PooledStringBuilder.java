@@ -0,0 +1,58 @@
+package com.jn.langx.util.io;
+
+import com.jn.langx.util.Recycler;
+
+/**
+ * A {@link StringBuilder} taken from a {@link Recycler}, for the temporary buffers of the hot paths.
+ * <pre>
+ *  PooledStringBuilder pooled = PooledStringBuilder.acquire();
+ *  try {
+ *      StringBuilder builder = pooled.get();
+ *      ...
+ *  } finally {
+ *      pooled.release();
+ *  }
+ * </pre>
+ * A builder grown beyond {@link #MAX_RETAINED_CAPACITY} chars is not retained by the pool.
+ */
+public final class PooledStringBuilder {
+    public static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private static final Recycler<PooledStringBuilder> RECYCLER = new Recycler<PooledStringBuilder>(256, Recycler.DEFAULT_RATIO, PooledStringBuilder.class) {
+        @Override
+        protected PooledStringBuilder newObject(Handle<PooledStringBuilder> handle) {
+            return new PooledStringBuilder(handle);
+        }
+    };
+
+    private final Recycler.Handle<PooledStringBuilder> handle;
+    private StringBuilder builder = new StringBuilder(INITIAL_CAPACITY);
+
+    private PooledStringBuilder(Recycler.Handle<PooledStringBuilder> handle) {
+        this.handle = handle;
+    }
+
+    public static PooledStringBuilder acquire() {
+        return RECYCLER.get();
+    }
+
+    /**
+     * @return the builder, empty when acquired
+     */
+    public StringBuilder get() {
+        return builder;
+    }
+
+    /**
+     * Gives the builder back to the pool, neither this object nor the builder must be used anymore.
+     */
+    public void release() {
+        if (builder.capacity() > MAX_RETAINED_CAPACITY) {
+            builder = new StringBuilder(INITIAL_CAPACITY);
+        } else {
+            builder.setLength(0);
+        }
+        handle.recycle(this);
+    }
+}
@@ -0,0 +1,223 @@
+package com.jn.langx.util.sketch;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.io.Writable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * A Count-Min sketch: estimates the frequency of the items of a stream in a <code>depth x width</code> table of
+ * counters.
+ * <p>
+ * An estimate never underestimates the true count, and overestimates it by more than
+ * <code>epsilon * size()</code> with a probability of at most <code>1 - confidence</code>, where
+ * <code>epsilon = e / width</code> and <code>confidence = 1 - e<sup>-depth</sup></code>.
+ * <p>
+ * With the conservative update (the default), an add only raises the counters of the item that are below its new
+ * estimate, which reduces the overestimation a lot on skewed streams; the counts must then be positive.
+ * Sketches of the same shape and seed can be merged, the merged estimates still never underestimate.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @see <a href="http://dimacs.rutgers.edu/~graham/pubs/papers/cm-full.pdf">An Improved Data Stream Summary: The Count-Min Sketch</a>
+ */
+public class CountMinSketch implements Writable {
+    private static final int VERSION = 1;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private int depth;
+    private int width;
+    private long seed;
+    private boolean conservative = true;
+    private long[] table;
+    private long size;
+
+    /**
+     * Default constructor - use with readFields
+     */
+    public CountMinSketch() {
+    }
+
+    /**
+     * @param depth the number of rows, that is of hash functions
+     * @param width the number of counters of a row
+     * @param seed  the hash seed, only sketches with the same seed can be merged
+     */
+    public CountMinSketch(int depth, int width, long seed) {
+        Preconditions.checkArgument(depth > 0, "depth must be > 0");
+        Preconditions.checkArgument(width > 0, "width must be > 0");
+        Preconditions.checkArgument((long) depth * width <= Integer.MAX_VALUE, "depth * width is too large");
+        this.depth = depth;
+        this.width = width;
+        this.seed = seed;
+        this.table = new long[depth * width];
+    }
+
+    /**
+     * @param epsilon    the relative error, as a fraction of the total count
+     * @param confidence the probability that an estimate is within the error
+     */
+    public CountMinSketch(double epsilon, double confidence, long seed) {
+        this((int) Math.ceil(-Math.log(1 - confidence)), (int) Math.ceil(Math.E / epsilon), seed);
+        Preconditions.checkArgument(epsilon > 0 && epsilon < 1, "epsilon must be in (0, 1)");
+        Preconditions.checkArgument(confidence > 0 && confidence < 1, "confidence must be in (0, 1)");
+    }
+
+    public void add(@NonNull byte[] item, long count) {
+        addHash(SketchSupport.hash64(item, seed), count);
+    }
+
+    public void add(@NonNull String item, long count) {
+        add(item.getBytes(UTF_8), count);
+    }
+
+    public void add(long item, long count) {
+        addHash(SketchSupport.hash64(item, seed), count);
+    }
+
+    /**
+     * Adds an item by its 64-bit hash, the hash must be well distributed.
+     */
+    public void addHash(long hash64, long count) {
+        if (count < 0) {
+            Preconditions.checkArgument(!conservative, "the conservative update does not support negative counts");
+        }
+        int h1 = (int) hash64;
+        int h2 = (int) (hash64 >>> 32);
+        if (conservative) {
+            long estimate = estimateCountHash(hash64) + count;
+            for (int row = 0; row < depth; row++) {
+                int index = row * width + column(h1, h2, row);
+                if (table[index] < estimate) {
+                    table[index] = estimate;
+                }
+            }
+        } else {
+            for (int row = 0; row < depth; row++) {
+                table[row * width + column(h1, h2, row)] += count;
+            }
+        }
+        size += count;
+    }
+
+    private int column(int h1, int h2, int row) {
+        int combined = h1 + row * h2;
+        return (combined & Integer.MAX_VALUE) % width;
+    }
+
+    public long estimateCount(@NonNull byte[] item) {
+        return estimateCountHash(SketchSupport.hash64(item, seed));
+    }
+
+    public long estimateCount(@NonNull String item) {
+        return estimateCount(item.getBytes(UTF_8));
+    }
+
+    public long estimateCount(long item) {
+        return estimateCountHash(SketchSupport.hash64(item, seed));
+    }
+
+    public long estimateCountHash(long hash64) {
+        int h1 = (int) hash64;
+        int h2 = (int) (hash64 >>> 32);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, table[row * width + column(h1, h2, row)]);
+        }
+        return min;
+    }
+
+    /**
+     * Merges another sketch into <i>this</i> one, which then estimates the counts of both streams.
+     */
+    public void merge(@NonNull CountMinSketch other) {
+        Preconditions.checkNotNull(other, "other cannot be null");
+        if (other.depth != depth || other.width != width || other.seed != seed) {
+            throw new IllegalArgumentException("sketches of different shapes or seeds cannot be merged");
+        }
+        for (int i = 0; i < table.length; i++) {
+            table[i] += other.table[i];
+        }
+        size += other.size;
+    }
+
+    /**
+     * @return the total of the counts added
+     */
+    public long size() {
+        return size;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public double getRelativeError() {
+        return Math.E / width;
+    }
+
+    public double getConfidence() {
+        return 1 - Math.exp(-depth);
+    }
+
+    public boolean isConservative() {
+        return conservative;
+    }
+
+    /**
+     * Sets whether the conservative update is used, it should be chosen before adding anything.
+     */
+    public void setConservative(boolean conservative) {
+        this.conservative = conservative;
+    }
+
+    // Writable
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeByte(VERSION);
+        out.writeInt(depth);
+        out.writeInt(width);
+        out.writeLong(seed);
+        out.writeBoolean(conservative);
+        SketchSupport.writeVarLong(out, size);
+        // most counters are small
+        for (long counter : table) {
+            SketchSupport.writeVarLong(out, counter);
+        }
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        int ver = in.readByte();
+        if (ver != VERSION) {
+            throw new IOException("Unsupported version: " + ver);
+        }
+        int depth = in.readInt();
+        int width = in.readInt();
+        long seed = in.readLong();
+        boolean conservative = in.readBoolean();
+        long size = SketchSupport.readVarLong(in);
+        if (depth <= 0 || width <= 0 || (long) depth * width > Integer.MAX_VALUE) {
+            throw new IOException("Illegal dimensions: " + depth + " x " + width);
+        }
+        long[] newTable = new long[depth * width];
+        for (int i = 0; i < newTable.length; i++) {
+            newTable[i] = SketchSupport.readVarLong(in);
+        }
+        this.depth = depth;
+        this.width = width;
+        this.seed = seed;
+        this.conservative = conservative;
+        this.size = size;
+        this.table = newTable;
+    }
+}
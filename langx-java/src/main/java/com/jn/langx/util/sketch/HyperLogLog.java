@@ -0,0 +1,422 @@
+package com.jn.langx.util.sketch;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.io.Writable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * A HyperLogLog++ cardinality estimator: it counts the distinct items of a stream with a few kilobytes,
+ * the relative standard error is <code>1.04 / sqrt(2<sup>p</sup>)</code>, that is 0.8% for the default precision 14.
+ * <p>
+ * As in HyperLogLog++, items are hashed to 64 bits and small cardinalities are kept in a sparse representation,
+ * the sorted list of the non-empty registers at precision 25, which is exact enough to count a few thousand items
+ * almost without error and takes far less memory than the <code>2<sup>p</sup></code> dense registers. The sketch
+ * switches to the dense registers when the list would take more memory than them.
+ * <p>
+ * The cardinality is estimated with the improved estimator of Ertl, computed from the histogram of the register
+ * values, which is unbiased over the whole range and does not need the empirical bias correction tables of
+ * HyperLogLog++.
+ * <p>
+ * Sketches of the same precision and seed can be merged, the result estimates the cardinality of the union.
+ * The serialized form is compact: delta-encoded varints when sparse, 6 bits per register when dense.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @see <a href="https://research.google/pubs/pub40671/">HyperLogLog in Practice</a>
+ * @see <a href="https://arxiv.org/abs/1702.01284">New cardinality estimation algorithms for HyperLogLog sketches</a>
+ */
+public class HyperLogLog implements Writable {
+    private static final int VERSION = 1;
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 18;
+    public static final int DEFAULT_PRECISION = 14;
+    private static final int SPARSE_PRECISION = 25;
+    private static final int BUFFER_SIZE = 256;
+    private static final int REGISTER_BITS = 6;
+    private static final double ALPHA_INF = 0.5 / Math.log(2);
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private int precision;
+    private long seed;
+    /**
+     * the dense registers, null while sparse
+     */
+    private byte[] registers;
+    /**
+     * the sparse entries <code>index &lt;&lt; 6 | rank</code> at precision 25, sorted with unique indexes
+     */
+    private int[] sparse;
+    private int sparseSize;
+    /**
+     * the sparse entries not merged into {@link #sparse} yet
+     */
+    private int[] buffer;
+    private int bufferSize;
+
+    /**
+     * Default constructor - use with readFields
+     */
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        this(precision, 0);
+    }
+
+    /**
+     * @param precision the number of bits of the register index, from 4 to 18
+     * @param seed      the hash seed, only sketches with the same seed can be merged
+     */
+    public HyperLogLog(int precision, long seed) {
+        Preconditions.checkArgument(precision >= MIN_PRECISION && precision <= MAX_PRECISION, "precision must be in [" + MIN_PRECISION + ", " + MAX_PRECISION + "]");
+        this.precision = precision;
+        this.seed = seed;
+        this.sparse = new int[16];
+        this.buffer = new int[BUFFER_SIZE];
+    }
+
+    public void offer(@NonNull byte[] bytes) {
+        offerHash(SketchSupport.hash64(bytes, seed));
+    }
+
+    public void offer(@NonNull String value) {
+        offer(value.getBytes(UTF_8));
+    }
+
+    public void offer(long value) {
+        offerHash(SketchSupport.hash64(value, seed));
+    }
+
+    /**
+     * Offers an item by its 64-bit hash, the hash must be well distributed.
+     */
+    public void offerHash(long hash64) {
+        if (registers != null) {
+            int index = (int) (hash64 >>> (64 - precision));
+            // the rank is the position of the first 1 bit after the index, capped at 65 - p
+            int rank = Long.numberOfLeadingZeros((hash64 << precision) | (1L << (precision - 1))) + 1;
+            if (rank > registers[index]) {
+                registers[index] = (byte) rank;
+            }
+            return;
+        }
+        int index = (int) (hash64 >>> (64 - SPARSE_PRECISION));
+        int rank = Long.numberOfLeadingZeros((hash64 << SPARSE_PRECISION) | (1L << (SPARSE_PRECISION - 1))) + 1;
+        buffer[bufferSize++] = (index << REGISTER_BITS) | rank;
+        if (bufferSize == BUFFER_SIZE) {
+            flushBuffer();
+        }
+    }
+
+    private int sparseLimit() {
+        // the sparse list takes 4 bytes per entry, the dense registers 6 bits each
+        return (1 << precision) * REGISTER_BITS / 8 / 4;
+    }
+
+    /**
+     * Merges the buffer into the sorted sparse list, switches to the dense registers when the list is too large.
+     */
+    private void flushBuffer() {
+        if (bufferSize == 0) {
+            return;
+        }
+        Arrays.sort(buffer, 0, bufferSize);
+        mergeSparse(buffer, bufferSize);
+        bufferSize = 0;
+        if (sparseSize > sparseLimit()) {
+            toDense();
+        }
+    }
+
+    /**
+     * Merges sorted entries into the sparse list, keeping the highest rank of every index.
+     */
+    private void mergeSparse(int[] entries, int count) {
+        int[] merged = new int[Math.max(16, sparseSize + count)];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < sparseSize || j < count) {
+            int next;
+            if (j >= count || (i < sparseSize && sparse[i] <= entries[j])) {
+                next = sparse[i++];
+            } else {
+                next = entries[j++];
+            }
+            // sorted entries of the same index are adjacent, by increasing rank
+            if (size > 0 && (merged[size - 1] >>> REGISTER_BITS) == (next >>> REGISTER_BITS)) {
+                merged[size - 1] = next;
+            } else {
+                merged[size++] = next;
+            }
+        }
+        sparse = merged;
+        sparseSize = size;
+    }
+
+    private void toDense() {
+        registers = new byte[1 << precision];
+        for (int i = 0; i < sparseSize; i++) {
+            applySparseEntry(sparse[i]);
+        }
+        for (int i = 0; i < bufferSize; i++) {
+            applySparseEntry(buffer[i]);
+        }
+        sparse = null;
+        sparseSize = 0;
+        buffer = null;
+        bufferSize = 0;
+    }
+
+    private void applySparseEntry(int entry) {
+        int sparseIndex = entry >>> REGISTER_BITS;
+        int extraBits = SPARSE_PRECISION - precision;
+        int index = sparseIndex >>> extraBits;
+        int low = sparseIndex & ((1 << extraBits) - 1);
+        int rank = low != 0
+                ? Integer.numberOfLeadingZeros(low) - (32 - extraBits) + 1
+                : extraBits + (entry & ((1 << REGISTER_BITS) - 1));
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * @return the estimated number of distinct items
+     */
+    public long cardinality() {
+        int[] histogram;
+        int q;
+        int m;
+        if (registers != null) {
+            q = 64 - precision;
+            m = 1 << precision;
+            histogram = new int[q + 2];
+            for (byte register : registers) {
+                histogram[register]++;
+            }
+        } else {
+            flushBuffer();
+            if (registers != null) {
+                return cardinality();
+            }
+            q = 64 - SPARSE_PRECISION;
+            m = 1 << SPARSE_PRECISION;
+            histogram = new int[q + 2];
+            histogram[0] = m - sparseSize;
+            for (int i = 0; i < sparseSize; i++) {
+                histogram[sparse[i] & ((1 << REGISTER_BITS) - 1)]++;
+            }
+        }
+        return Math.round(estimate(histogram, q, m));
+    }
+
+    private static double estimate(int[] histogram, int q, int m) {
+        double z = m * tau(1 - (double) histogram[q + 1] / m);
+        for (int k = q; k >= 1; k--) {
+            z += histogram[k];
+            z *= 0.5;
+        }
+        z += m * sigma((double) histogram[0] / m);
+        return ALPHA_INF * m * m / z;
+    }
+
+    private static double sigma(double x) {
+        if (x == 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double y = 1;
+        double z = x;
+        double previous;
+        do {
+            x *= x;
+            previous = z;
+            z += x * y;
+            y += y;
+        } while (z != previous);
+        return z;
+    }
+
+    private static double tau(double x) {
+        if (x == 0 || x == 1) {
+            return 0;
+        }
+        double y = 1;
+        double z = 1 - x;
+        double previous;
+        do {
+            x = Math.sqrt(x);
+            previous = z;
+            y *= 0.5;
+            z -= (1 - x) * (1 - x) * y;
+        } while (z != previous);
+        return z / 3;
+    }
+
+    /**
+     * Merges another sketch into <i>this</i> one, which then estimates the cardinality of the union.
+     */
+    public void merge(@NonNull HyperLogLog other) {
+        Preconditions.checkNotNull(other, "other cannot be null");
+        if (other.precision != precision || other.seed != seed) {
+            throw new IllegalArgumentException("sketches of different precisions or seeds cannot be merged");
+        }
+        if (other.registers == null) {
+            other.flushBuffer();
+        }
+        if (registers == null && other.registers == null) {
+            flushBuffer();
+            if (registers == null) {
+                mergeSparse(other.sparse, other.sparseSize);
+                if (sparseSize > sparseLimit()) {
+                    toDense();
+                }
+                return;
+            }
+        }
+        if (registers == null) {
+            toDense();
+        }
+        if (other.registers == null) {
+            for (int i = 0; i < other.sparseSize; i++) {
+                applySparseEntry(other.sparse[i]);
+            }
+        } else {
+            for (int i = 0; i < registers.length; i++) {
+                if (other.registers[i] > registers[i]) {
+                    registers[i] = other.registers[i];
+                }
+            }
+        }
+    }
+
+    public boolean isSparse() {
+        return registers == null;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * @return the relative standard error of the estimates
+     */
+    public double getRelativeError() {
+        return 1.04 / Math.sqrt(1 << precision);
+    }
+
+    // Writable
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        if (registers == null) {
+            flushBuffer();
+        }
+        out.writeByte(VERSION);
+        out.writeByte(precision);
+        out.writeLong(seed);
+        out.writeBoolean(registers == null);
+        if (registers == null) {
+            SketchSupport.writeVarLong(out, sparseSize);
+            int previous = 0;
+            for (int i = 0; i < sparseSize; i++) {
+                SketchSupport.writeVarLong(out, sparse[i] - previous);
+                previous = sparse[i];
+            }
+        } else {
+            // 6 bits per register, most significant bits first
+            int bits = 0;
+            int pending = 0;
+            for (byte register : registers) {
+                bits = (bits << REGISTER_BITS) | register;
+                pending += REGISTER_BITS;
+                while (pending >= 8) {
+                    pending -= 8;
+                    out.writeByte(bits >>> pending);
+                }
+                bits &= (1 << pending) - 1;
+            }
+            if (pending > 0) {
+                out.writeByte(bits << (8 - pending));
+            }
+        }
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        int ver = in.readByte();
+        if (ver != VERSION) {
+            throw new IOException("Unsupported version: " + ver);
+        }
+        int precision = in.readByte();
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IOException("Illegal precision: " + precision);
+        }
+        long seed = in.readLong();
+        if (in.readBoolean()) {
+            long sparseSize = SketchSupport.readVarLong(in);
+            // the writer flushes the buffer, a larger list would have been dense
+            if (sparseSize < 0 || sparseSize > (1 << precision) * REGISTER_BITS / 8 / 4) {
+                throw new IOException("Illegal sparse size: " + sparseSize);
+            }
+            int[] newSparse = new int[Math.max(16, (int) sparseSize)];
+            int maxRank = 64 - SPARSE_PRECISION + 1;
+            long previous = 0;
+            for (int i = 0; i < sparseSize; i++) {
+                long delta = SketchSupport.readVarLong(in);
+                long entry = previous + delta;
+                // sorted with unique indexes
+                if (delta <= 0 || delta > Integer.MAX_VALUE || entry > Integer.MAX_VALUE
+                        || (i > 0 && (entry >>> REGISTER_BITS) == (previous >>> REGISTER_BITS))) {
+                    throw new IOException("Illegal sparse entry: " + entry);
+                }
+                int rank = (int) entry & ((1 << REGISTER_BITS) - 1);
+                if (rank < 1 || rank > maxRank) {
+                    throw new IOException("Illegal sparse rank: " + rank);
+                }
+                newSparse[i] = (int) entry;
+                previous = entry;
+            }
+            this.precision = precision;
+            this.seed = seed;
+            this.registers = null;
+            this.sparse = newSparse;
+            this.sparseSize = (int) sparseSize;
+            this.buffer = new int[BUFFER_SIZE];
+            this.bufferSize = 0;
+        } else {
+            int m = 1 << precision;
+            int maxRank = 64 - precision + 1;
+            byte[] newRegisters = new byte[m];
+            int bits = 0;
+            int pending = 0;
+            for (int i = 0; i < m; i++) {
+                while (pending < REGISTER_BITS) {
+                    bits = (bits << 8) | (in.readByte() & 0xFF);
+                    pending += 8;
+                }
+                pending -= REGISTER_BITS;
+                int register = (bits >>> pending) & ((1 << REGISTER_BITS) - 1);
+                if (register > maxRank) {
+                    throw new IOException("Illegal register: " + register);
+                }
+                newRegisters[i] = (byte) register;
+                bits &= (1 << pending) - 1;
+            }
+            this.precision = precision;
+            this.seed = seed;
+            this.registers = newRegisters;
+            this.sparse = null;
+            this.sparseSize = 0;
+            this.buffer = null;
+            this.bufferSize = 0;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.jn.langx.util.sketch;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.io.Writable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A KLL quantile sketch: estimates the quantiles and ranks of a stream of <code>double</code>s with a bounded
+ * number of retained items.
+ * <p>
+ * The items are kept in a hierarchy of compactors, an item of level <code>h</code> stands for
+ * <code>2<sup>h</sup></code> items of the stream. When a level is full it is sorted and every other item,
+ * starting at a random offset, is promoted to the next level. The level capacities decrease geometrically
+ * with a ratio of 2/3 from the top level, which holds <code>k</code> items, so the sketch retains about
+ * <code>3k</code> items. The rank error is about 1.65% for <code>k = 200</code> (with 99% confidence) and
+ * does not depend on the value distribution.
+ * <p>
+ * Sketches of the same <code>k</code> can be merged, the result summarizes both streams.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @see <a href="https://arxiv.org/abs/1603.05346">Optimal Quantile Approximation in Streams</a>
+ */
+public class KllSketch implements Writable {
+    private static final int VERSION = 1;
+    public static final int DEFAULT_K = 200;
+    private static final int MIN_K = 8;
+    private static final double CAPACITY_RATIO = 2.0 / 3.0;
+
+    private int k;
+    private long n;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private double[][] levels;
+    private int[] sizes;
+    private int numLevels;
+    private int totalSize;
+    private int maxSize;
+    private long random = 0x2545F4914F6CDD1DL;
+
+    public KllSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * @param k the capacity of the top level, the larger the more accurate, from 8
+     */
+    public KllSketch(int k) {
+        Preconditions.checkArgument(k >= MIN_K, "k must be >= " + MIN_K);
+        this.k = k;
+        reset();
+    }
+
+    private void reset() {
+        this.levels = new double[4][];
+        this.sizes = new int[4];
+        this.numLevels = 0;
+        this.totalSize = 0;
+        grow();
+    }
+
+    private int capacity(int level) {
+        return (int) Math.ceil(k * Math.pow(CAPACITY_RATIO, numLevels - level - 1)) + 1;
+    }
+
+    private void grow() {
+        if (numLevels == levels.length) {
+            levels = Arrays.copyOf(levels, numLevels * 2);
+            sizes = Arrays.copyOf(sizes, numLevels * 2);
+        }
+        levels[numLevels] = new double[8];
+        numLevels++;
+        int size = 0;
+        for (int level = 0; level < numLevels; level++) {
+            size += capacity(level);
+        }
+        maxSize = size;
+    }
+
+    private void append(int level, double value) {
+        double[] items = levels[level];
+        if (sizes[level] == items.length) {
+            items = Arrays.copyOf(items, items.length * 2);
+            levels[level] = items;
+        }
+        items[sizes[level]++] = value;
+    }
+
+    /**
+     * Adds a value, <code>NaN</code>s are ignored.
+     */
+    public void update(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (n == 0) {
+            min = value;
+            max = value;
+        } else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        n++;
+        append(0, value);
+        totalSize++;
+        if (totalSize >= maxSize) {
+            compress();
+        }
+    }
+
+    private void compress() {
+        for (int level = 0; level < numLevels; level++) {
+            if (sizes[level] >= capacity(level)) {
+                if (level + 1 >= numLevels) {
+                    grow();
+                }
+                compact(level);
+                if (totalSize < maxSize) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Promotes every other item of a sorted level to the next one, an odd item out stays.
+     */
+    private void compact(int level) {
+        double[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+        int start = size & 1;
+        for (int i = start + nextBit(); i < size; i += 2) {
+            append(level + 1, items[i]);
+        }
+        sizes[level] = start;
+        totalSize -= (size - start) / 2;
+    }
+
+    private int nextBit() {
+        long x = random;
+        x ^= x << 13;
+        x ^= x >>> 7;
+        x ^= x << 17;
+        random = x;
+        return (int) (x >>> 63);
+    }
+
+    /**
+     * @param fraction the normalized rank, from 0 to 1
+     * @return the approximate value at the rank, NaN if the sketch is empty
+     */
+    public double getQuantile(double fraction) {
+        return getQuantiles(new double[]{fraction})[0];
+    }
+
+    /**
+     * @param fractions the normalized ranks, from 0 to 1, in increasing order
+     * @return the approximate values at the ranks
+     */
+    public double[] getQuantiles(@NonNull double[] fractions) {
+        double[] quantiles = new double[fractions.length];
+        if (n == 0) {
+            Arrays.fill(quantiles, Double.NaN);
+            return quantiles;
+        }
+        double[] values = new double[totalSize];
+        long[] cumulativeWeights = new long[totalSize];
+        int count = sortedView(values, cumulativeWeights);
+        int position = 0;
+        for (int i = 0; i < fractions.length; i++) {
+            double fraction = fractions[i];
+            Preconditions.checkArgument(fraction >= 0 && fraction <= 1, "fraction must be in [0, 1]");
+            Preconditions.checkArgument(i == 0 || fraction >= fractions[i - 1], "fractions must be in increasing order");
+            if (fraction == 0) {
+                quantiles[i] = min;
+            } else if (fraction == 1) {
+                quantiles[i] = max;
+            } else {
+                double target = fraction * n;
+                while (position < count - 1 && cumulativeWeights[position] < target) {
+                    position++;
+                }
+                quantiles[i] = values[position];
+            }
+        }
+        return quantiles;
+    }
+
+    /**
+     * @return the approximate fraction of the values that are lower or equal to the given one
+     */
+    public double getRank(double value) {
+        if (n == 0) {
+            return Double.NaN;
+        }
+        long weight = 0;
+        for (int level = 0; level < numLevels; level++) {
+            double[] items = levels[level];
+            for (int i = 0; i < sizes[level]; i++) {
+                if (items[i] <= value) {
+                    weight += 1L << level;
+                }
+            }
+        }
+        return (double) weight / n;
+    }
+
+    /**
+     * Sorts the retained items and computes their cumulative weights.
+     *
+     * @return the number of items
+     */
+    private int sortedView(double[] values, long[] cumulativeWeights) {
+        int[] positions = new int[numLevels];
+        for (int level = 0; level < numLevels; level++) {
+            Arrays.sort(levels[level], 0, sizes[level]);
+        }
+        long cumulative = 0;
+        int count = 0;
+        while (true) {
+            int best = -1;
+            for (int level = 0; level < numLevels; level++) {
+                if (positions[level] < sizes[level]
+                        && (best < 0 || levels[level][positions[level]] < levels[best][positions[best]])) {
+                    best = level;
+                }
+            }
+            if (best < 0) {
+                return count;
+            }
+            values[count] = levels[best][positions[best]++];
+            cumulative += 1L << best;
+            cumulativeWeights[count++] = cumulative;
+        }
+    }
+
+    /**
+     * Merges another sketch into <i>this</i> one, which then summarizes both streams.
+     */
+    public void merge(@NonNull KllSketch other) {
+        Preconditions.checkNotNull(other, "other cannot be null");
+        if (other.k != k) {
+            throw new IllegalArgumentException("sketches of different k cannot be merged");
+        }
+        if (other.n == 0) {
+            return;
+        }
+        while (numLevels < other.numLevels) {
+            grow();
+        }
+        for (int level = 0; level < other.numLevels; level++) {
+            for (int i = 0; i < other.sizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+            totalSize += other.sizes[level];
+        }
+        min = n == 0 ? other.min : Math.min(min, other.min);
+        max = n == 0 ? other.max : Math.max(max, other.max);
+        n += other.n;
+        while (totalSize >= maxSize) {
+            compress();
+        }
+    }
+
+    /**
+     * @return the number of values added
+     */
+    public long getN() {
+        return n;
+    }
+
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * @return the number of values retained
+     */
+    public int getRetainedItems() {
+        return totalSize;
+    }
+
+    // Writable
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeByte(VERSION);
+        out.writeInt(k);
+        SketchSupport.writeVarLong(out, n);
+        out.writeDouble(min);
+        out.writeDouble(max);
+        out.writeByte(numLevels);
+        for (int level = 0; level < numLevels; level++) {
+            SketchSupport.writeVarLong(out, sizes[level]);
+            for (int i = 0; i < sizes[level]; i++) {
+                out.writeDouble(levels[level][i]);
+            }
+        }
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        int ver = in.readByte();
+        if (ver != VERSION) {
+            throw new IOException("Unsupported version: " + ver);
+        }
+        this.k = in.readInt();
+        if (k < MIN_K) {
+            throw new IOException("Illegal k: " + k);
+        }
+        reset();
+        this.n = SketchSupport.readVarLong(in);
+        this.min = in.readDouble();
+        this.max = in.readDouble();
+        int levelCount = in.readByte();
+        while (numLevels < levelCount) {
+            grow();
+        }
+        for (int level = 0; level < levelCount; level++) {
+            int size = (int) SketchSupport.readVarLong(in);
+            for (int i = 0; i < size; i++) {
+                append(level, in.readDouble());
+            }
+            totalSize += size;
+        }
+    }
+}
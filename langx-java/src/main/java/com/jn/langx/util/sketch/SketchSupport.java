@@ -0,0 +1,61 @@
+package com.jn.langx.util.sketch;
+
+import com.jn.langx.util.hash.MurmurHash;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Hashing and variable-length encoding shared by the sketches.
+ */
+final class SketchSupport {
+    private static final int SEED_HIGH = 0x9747B28C;
+    private static final int SEED_LOW = 0x5BD1E995;
+
+    private SketchSupport() {
+    }
+
+    /**
+     * A 64-bit hash made of two {@link MurmurHash} values with different seeds.
+     */
+    static long hash64(byte[] bytes, long seed) {
+        int s = (int) (seed ^ (seed >>> 32));
+        long high = MurmurHash.getInstance().hash(bytes, bytes.length, SEED_HIGH ^ s);
+        long low = MurmurHash.getInstance().hash(bytes, bytes.length, SEED_LOW ^ s);
+        return (high << 32) | (low & 0xFFFFFFFFL);
+    }
+
+    /**
+     * The 64-bit finalizer of MurmurHash3, a bijection that spreads every bit of the value.
+     */
+    static long hash64(long value, long seed) {
+        long h = value ^ seed;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length long");
+    }
+}
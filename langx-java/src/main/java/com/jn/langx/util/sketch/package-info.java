@@ -0,0 +1,6 @@
+/**
+ * Probabilistic sketches: cardinality ({@link com.jn.langx.util.sketch.HyperLogLog}),
+ * frequency ({@link com.jn.langx.util.sketch.CountMinSketch}) and quantiles ({@link com.jn.langx.util.sketch.KllSketch})
+ * of streams that do not fit in memory. All of them are mergeable and {@link com.jn.langx.util.io.Writable}.
+ */
+package com.jn.langx.util.sketch;
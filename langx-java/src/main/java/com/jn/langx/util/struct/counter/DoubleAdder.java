@@ -0,0 +1,149 @@
+package com.jn.langx.util.struct.counter;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+
+/**
+ * A sum of doubles for many writers, a backport of the DoubleAdder of Java 8. The values are kept as the bits of the
+ * doubles, see {@link LongAdder} for the striping.
+ * <p>
+ * The order of the additions is not defined, so the sum of values of very different magnitudes may differ from one
+ * run to another in the last bits.
+ */
+public class DoubleAdder extends Striped64 implements Counter<Double> {
+    private static final long serialVersionUID = 1L;
+
+    public DoubleAdder() {
+        this.base = Double.doubleToRawLongBits(0.0d);
+    }
+
+    @Override
+    final long combine(long value, long x) {
+        return Double.doubleToRawLongBits(Double.longBitsToDouble(value) + Double.longBitsToDouble(x));
+    }
+
+    @Override
+    final long identity() {
+        return Double.doubleToRawLongBits(0.0d);
+    }
+
+    public void add(double x) {
+        update(Double.doubleToRawLongBits(x));
+    }
+
+    public double sum() {
+        double sum = Double.longBitsToDouble(base);
+        for (long value : cellValues()) {
+            sum += Double.longBitsToDouble(value);
+        }
+        return sum;
+    }
+
+    /**
+     * Sets the sum to 0, the updates concurrent with it may be lost.
+     */
+    public void reset() {
+        resetTo(identity());
+    }
+
+    /**
+     * @return the sum replaced by 0
+     */
+    public double sumThenReset() {
+        double sum = 0.0d;
+        for (long value : getThenResetTo(identity())) {
+            sum += Double.longBitsToDouble(value);
+        }
+        return sum;
+    }
+
+    @Override
+    public Double increment() {
+        add(1.0d);
+        return sum();
+    }
+
+    @Override
+    public Double increment(Double delta) {
+        add(delta);
+        return sum();
+    }
+
+    @Override
+    public Double decrement() {
+        add(-1.0d);
+        return sum();
+    }
+
+    @Override
+    public Double decrement(Double delta) {
+        add(-delta);
+        return sum();
+    }
+
+    @Override
+    public Double get() {
+        return sum();
+    }
+
+    /**
+     * Sets the sum, the updates concurrent with it may be lost.
+     */
+    @Override
+    public void set(Double value) {
+        resetTo(identity());
+        base = Double.doubleToRawLongBits(value);
+    }
+
+    @Override
+    public int intValue() {
+        return (int) sum();
+    }
+
+    @Override
+    public long longValue() {
+        return (long) sum();
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) sum();
+    }
+
+    @Override
+    public double doubleValue() {
+        return sum();
+    }
+
+    @Override
+    public String toString() {
+        return Double.toString(sum());
+    }
+
+    /**
+     * Serialized as its {@link #sum()}, the cells are not serializable.
+     */
+    private Object writeReplace() {
+        return new SerializationProxy(sum());
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("a serialization proxy is required");
+    }
+
+    private static final class SerializationProxy implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final double value;
+
+        private SerializationProxy(double value) {
+            this.value = value;
+        }
+
+        private Object readResolve() {
+            DoubleAdder adder = new DoubleAdder();
+            adder.base = Double.doubleToRawLongBits(value);
+            return adder;
+        }
+    }
+}
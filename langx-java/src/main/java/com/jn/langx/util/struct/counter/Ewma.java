@@ -0,0 +1,72 @@
+package com.jn.langx.util.struct.counter;
+
+/**
+ * An exponentially weighted moving average of a rate, like the load averages of UNIX: each tick adds the events
+ * counted since the previous tick and decays the older ones.
+ * <p>
+ * {@link #update(long)} may be called by any thread; {@link #tick()} by one thread at a time, {@link RateMeter} takes
+ * care of it.
+ */
+public class Ewma {
+    private static final int SECONDS_PER_MINUTE = 60;
+    public static final long DEFAULT_TICK_INTERVAL_SECONDS = 5;
+
+    private final double alpha;
+    private final double intervalNanos;
+    private final LongAdder uncounted = new LongAdder();
+    private volatile boolean initialized;
+    private volatile double rate;
+
+    /**
+     * @param alpha          the weight of a new tick, in (0, 1]
+     * @param intervalMillis the interval of the ticks
+     */
+    public Ewma(double alpha, long intervalMillis) {
+        this.alpha = alpha;
+        this.intervalNanos = intervalMillis * 1000000d;
+    }
+
+    /**
+     * @return the moving average of the last minutes, ticked every 5 seconds
+     */
+    public static Ewma minutes(int minutes) {
+        return new Ewma(1 - Math.exp(-DEFAULT_TICK_INTERVAL_SECONDS / (double) SECONDS_PER_MINUTE / minutes), DEFAULT_TICK_INTERVAL_SECONDS * 1000);
+    }
+
+    public void update(long count) {
+        uncounted.add(count);
+    }
+
+    /**
+     * Adds the events counted since the previous tick.
+     */
+    public void tick() {
+        double instantRate = uncounted.sumThenReset() / intervalNanos;
+        if (initialized) {
+            rate += alpha * (instantRate - rate);
+        } else {
+            rate = instantRate;
+            initialized = true;
+        }
+    }
+
+    /**
+     * Ticks several times at once: the events are added by the first tick, the next ones only decay the average.
+     */
+    public void tick(long ticks) {
+        if (ticks <= 0) {
+            return;
+        }
+        tick();
+        if (ticks > 1) {
+            rate *= Math.pow(1 - alpha, ticks - 1);
+        }
+    }
+
+    /**
+     * @return the average count of events per second
+     */
+    public double getRate() {
+        return rate * 1000000000d;
+    }
+}
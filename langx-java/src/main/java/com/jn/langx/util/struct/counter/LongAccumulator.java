@@ -0,0 +1,202 @@
+package com.jn.langx.util.struct.counter;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.function.LongOperator2;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+
+/**
+ * A value of many writers combined by a function, a backport of the LongAccumulator of Java 8: a maximum, a minimum,
+ * or a sum like {@link LongAdder}.
+ * <p>
+ * The function must be associative and commutative and have no side effect, since it may be applied several times to
+ * the same update and in any order. The cells start from the identity of the function.
+ * <p>
+ * {@link #accumulate(long)} is the write path. {@link #increment()} and the other methods of {@link Counter} accumulate
+ * the given delta with the function, and return the current value.
+ * <p>
+ * An accumulator is serialized as its value, its function and its identity, so it is serializable only when its
+ * function is, like the functions of {@link #max()} and {@link #min()}.
+ */
+public class LongAccumulator extends Striped64 implements Counter<Long> {
+    private static final long serialVersionUID = 1L;
+    private final LongOperator2 function;
+    private final long identity;
+
+    /**
+     * @param function the accumulator function
+     * @param identity the identity of the function, the initial value
+     */
+    public LongAccumulator(@NonNull LongOperator2 function, long identity) {
+        Preconditions.checkNotNull(function, "function cannot be null");
+        this.function = function;
+        this.identity = identity;
+        this.base = identity;
+    }
+
+    public static LongAccumulator max() {
+        return new LongAccumulator(new MaxOperator(), Long.MIN_VALUE);
+    }
+
+    public static LongAccumulator min() {
+        return new LongAccumulator(new MinOperator(), Long.MAX_VALUE);
+    }
+
+    @Override
+    final long combine(long value, long x) {
+        return function.apply(value, x);
+    }
+
+    @Override
+    final long identity() {
+        return identity;
+    }
+
+    public void accumulate(long x) {
+        update(x);
+    }
+
+    /**
+     * @return the accumulation of the base and the cells
+     */
+    public long getValue() {
+        long result = base;
+        for (long value : cellValues()) {
+            result = function.apply(result, value);
+        }
+        return result;
+    }
+
+    /**
+     * Sets the value to the identity, the updates concurrent with it may be lost.
+     */
+    public void reset() {
+        resetTo(identity);
+    }
+
+    /**
+     * @return the value replaced by the identity
+     */
+    public long getThenReset() {
+        long[] values = getThenResetTo(identity);
+        long result = values[0];
+        for (int i = 1; i < values.length; i++) {
+            result = function.apply(result, values[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public Long increment() {
+        update(1L);
+        return getValue();
+    }
+
+    @Override
+    public Long increment(Long delta) {
+        update(delta);
+        return getValue();
+    }
+
+    @Override
+    public Long decrement() {
+        update(-1L);
+        return getValue();
+    }
+
+    @Override
+    public Long decrement(Long delta) {
+        update(-delta);
+        return getValue();
+    }
+
+    @Override
+    public Long get() {
+        return getValue();
+    }
+
+    /**
+     * Sets the value, the updates concurrent with it may be lost.
+     */
+    @Override
+    public void set(Long value) {
+        resetTo(identity);
+        base = value;
+    }
+
+    @Override
+    public int intValue() {
+        return (int) getValue();
+    }
+
+    @Override
+    public long longValue() {
+        return getValue();
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) getValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        return (double) getValue();
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(getValue());
+    }
+
+    /**
+     * Serialized as its {@link #getValue()}, the cells are not serializable.
+     */
+    private Object writeReplace() {
+        return new SerializationProxy(getValue(), function, identity);
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("a serialization proxy is required");
+    }
+
+    private static final class SerializationProxy implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final long value;
+        private final LongOperator2 function;
+        private final long identity;
+
+        private SerializationProxy(long value, LongOperator2 function, long identity) {
+            this.value = value;
+            this.function = function;
+            this.identity = identity;
+        }
+
+        private Object readResolve() {
+            LongAccumulator accumulator = new LongAccumulator(function, identity);
+            accumulator.base = value;
+            return accumulator;
+        }
+    }
+
+    private static final class MaxOperator implements LongOperator2, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public long apply(long left, long right) {
+            return Math.max(left, right);
+        }
+    }
+
+    private static final class MinOperator implements LongOperator2, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public long apply(long left, long right) {
+            return Math.min(left, right);
+        }
+    }
+}
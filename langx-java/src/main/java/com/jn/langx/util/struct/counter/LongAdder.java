@@ -0,0 +1,161 @@
+package com.jn.langx.util.struct.counter;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+
+/**
+ * A sum of longs for many writers, a backport of the LongAdder of Java 8.
+ * <p>
+ * Under contention the updates are spread over padded cells, so the writers do not fight for one cache line, and
+ * {@link #sum()} adds the cells up. The sum is not an atomic snapshot: the updates concurrent with it may or may not
+ * be counted. Use it for statistics, not for sequence numbers.
+ * <p>
+ * {@link #add(long)}, {@link #inc()} and {@link #dec()} are the write path. The methods of {@link Counter} return the
+ * sum after the update, which costs a read of all the cells.
+ */
+public class LongAdder extends Striped64 implements Counter<Long> {
+    private static final long serialVersionUID = 1L;
+
+    public LongAdder() {
+    }
+
+    public LongAdder(long initialValue) {
+        this.base = initialValue;
+    }
+
+    @Override
+    final long combine(long value, long x) {
+        return value + x;
+    }
+
+    @Override
+    final long identity() {
+        return 0L;
+    }
+
+    public void add(long x) {
+        update(x);
+    }
+
+    public void inc() {
+        update(1L);
+    }
+
+    public void dec() {
+        update(-1L);
+    }
+
+    public long sum() {
+        long sum = base;
+        for (long value : cellValues()) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    /**
+     * Sets the sum to 0, the updates concurrent with it may be lost.
+     */
+    public void reset() {
+        resetTo(0L);
+    }
+
+    /**
+     * @return the sum replaced by 0
+     */
+    public long sumThenReset() {
+        long sum = 0;
+        for (long value : getThenResetTo(0L)) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Override
+    public Long increment() {
+        update(1L);
+        return sum();
+    }
+
+    @Override
+    public Long increment(Long delta) {
+        update(delta);
+        return sum();
+    }
+
+    @Override
+    public Long decrement() {
+        update(-1L);
+        return sum();
+    }
+
+    @Override
+    public Long decrement(Long delta) {
+        update(-delta);
+        return sum();
+    }
+
+    @Override
+    public Long get() {
+        return sum();
+    }
+
+    /**
+     * Sets the sum, the updates concurrent with it may be lost.
+     */
+    @Override
+    public void set(Long value) {
+        resetTo(0L);
+        base = value;
+    }
+
+    @Override
+    public int intValue() {
+        return (int) sum();
+    }
+
+    @Override
+    public long longValue() {
+        return sum();
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) sum();
+    }
+
+    @Override
+    public double doubleValue() {
+        return (double) sum();
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(sum());
+    }
+
+    /**
+     * Serialized as its {@link #sum()}, the cells are not serializable.
+     */
+    private Object writeReplace() {
+        return new SerializationProxy(sum());
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("a serialization proxy is required");
+    }
+
+    private static final class SerializationProxy implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final long value;
+
+        private SerializationProxy(long value) {
+            this.value = value;
+        }
+
+        private Object readResolve() {
+            return new LongAdder(value);
+        }
+    }
+}
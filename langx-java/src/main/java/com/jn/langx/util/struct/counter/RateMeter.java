@@ -0,0 +1,91 @@
+package com.jn.langx.util.struct.counter;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.timing.clock.Clock;
+import com.jn.langx.util.timing.clock.SystemClock;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the rate of events: the count and the mean rate since the meter was created, and the 1, 5 and 15 minutes
+ * exponentially weighted moving averages, in events per second.
+ * <p>
+ * The averages tick every 5 seconds, lazily: the first call after the end of a tick interval moves the tick with a
+ * CAS and ticks the averages, the other calls do not wait. A gap of many intervals is decayed at once, so marking and
+ * reading take a constant time.
+ */
+public class RateMeter {
+    private static final long TICK_INTERVAL_MILLIS = Ewma.DEFAULT_TICK_INTERVAL_SECONDS * 1000;
+
+    private final Ewma m1 = Ewma.minutes(1);
+    private final Ewma m5 = Ewma.minutes(5);
+    private final Ewma m15 = Ewma.minutes(15);
+    private final LongAdder count = new LongAdder();
+    private final Clock clock;
+    private final long startTime;
+    private final AtomicLong lastTick;
+
+    public RateMeter() {
+        this(new SystemClock());
+    }
+
+    public RateMeter(@NonNull Clock clock) {
+        Preconditions.checkNotNull(clock, "clock cannot be null");
+        this.clock = clock;
+        this.startTime = clock.getTime();
+        this.lastTick = new AtomicLong(startTime);
+    }
+
+    public void mark() {
+        mark(1L);
+    }
+
+    public void mark(long n) {
+        tickIfNecessary();
+        count.add(n);
+        m1.update(n);
+        m5.update(n);
+        m15.update(n);
+    }
+
+    private void tickIfNecessary() {
+        long oldTick = lastTick.get();
+        long age = clock.getTime() - oldTick;
+        if (age >= TICK_INTERVAL_MILLIS) {
+            long ticks = age / TICK_INTERVAL_MILLIS;
+            if (lastTick.compareAndSet(oldTick, oldTick + ticks * TICK_INTERVAL_MILLIS)) {
+                m1.tick(ticks);
+                m5.tick(ticks);
+                m15.tick(ticks);
+            }
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the count of events per second since the meter was created
+     */
+    public double getMeanRate() {
+        long elapsed = clock.getTime() - startTime;
+        return elapsed <= 0 ? 0.0d : count.sum() * 1000d / elapsed;
+    }
+
+    public double getOneMinuteRate() {
+        tickIfNecessary();
+        return m1.getRate();
+    }
+
+    public double getFiveMinuteRate() {
+        tickIfNecessary();
+        return m5.getRate();
+    }
+
+    public double getFifteenMinuteRate() {
+        tickIfNecessary();
+        return m15.getRate();
+    }
+}
@@ -0,0 +1,140 @@
+package com.jn.langx.util.struct.counter;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.timing.clock.Clock;
+import com.jn.langx.util.timing.clock.SystemClock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts the events of the last time window, to compute a QPS or an error rate.
+ * <p>
+ * The window is a ring of buckets of equal durations. Each bucket is a single long holding its count and the lap of
+ * the window it counts, so a bucket is rotated lazily: the first update of a bucket in a new lap replaces the count
+ * of the previous lap with a CAS, there is no timer and no lock. Reading sums the buckets of the current lap, in a
+ * time that depends on the count of buckets only. The window moves bucket by bucket, so the oldest bucket may be
+ * partly outside the window.
+ * <p>
+ * A bucket counts up to 2<sup>40</sup> events.
+ */
+public class SlidingWindowCounter {
+    private static final int COUNT_BITS = 40;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long LAP_MASK = (1L << (64 - COUNT_BITS)) - 1;
+
+    private final long bucketMillis;
+    private final int buckets;
+    private final AtomicLongArray slots;
+    private final Clock clock;
+
+    public SlidingWindowCounter(long window, @NonNull TimeUnit unit, int buckets) {
+        this(window, unit, buckets, new SystemClock());
+    }
+
+    /**
+     * @param window  the duration of the window, at least one millisecond per bucket
+     * @param buckets the count of buckets of the window
+     * @param clock   the clock of the events
+     */
+    public SlidingWindowCounter(long window, @NonNull TimeUnit unit, int buckets, @NonNull Clock clock) {
+        Preconditions.checkNotNull(unit, "unit cannot be null");
+        Preconditions.checkNotNull(clock, "clock cannot be null");
+        Preconditions.checkArgument(buckets > 0, "buckets must be > 0");
+        long windowMillis = unit.toMillis(window);
+        Preconditions.checkArgument(windowMillis >= buckets, "the window must be at least 1 millisecond per bucket");
+        this.bucketMillis = windowMillis / buckets;
+        this.buckets = buckets;
+        this.slots = new AtomicLongArray(buckets);
+        this.clock = clock;
+    }
+
+    public void increment() {
+        add(1L);
+    }
+
+    /**
+     * @param count a count of events, >= 0
+     */
+    public void add(long count) {
+        Preconditions.checkArgument(count >= 0, "count must be >= 0");
+        long period = clock.getTime() / bucketMillis;
+        int index = (int) (period % buckets);
+        long lap = (period / buckets) & LAP_MASK;
+        while (true) {
+            long slot = slots.get(index);
+            long next;
+            if ((slot >>> COUNT_BITS) == lap) {
+                next = (slot & ~COUNT_MASK) | Math.min(COUNT_MASK, (slot & COUNT_MASK) + count);
+            } else if (isNewerLap(slot >>> COUNT_BITS, period)) {
+                // the period was computed before a stall, the bucket is already reused: dropped
+                return;
+            } else {
+                next = (lap << COUNT_BITS) | Math.min(COUNT_MASK, count);
+            }
+            if (slots.compareAndSet(index, slot, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return true if a bucket lap is newer than the lap of the period, according to the current time; the laps are
+     * compared by their distance to the current lap of the bucket, so their wrapping does not matter
+     */
+    private boolean isNewerLap(long slotLap, long period) {
+        long now = clock.getTime() / bucketMillis;
+        if (now <= period) {
+            return false;
+        }
+        // the last period of the same bucket
+        long latest = now - (now - period) % buckets;
+        long behind = latest / buckets - period / buckets;
+        return ((latest / buckets - slotLap) & LAP_MASK) < behind;
+    }
+
+    /**
+     * @return the count of events of the window
+     */
+    public long get() {
+        long period = clock.getTime() / bucketMillis;
+        long sum = 0;
+        // the buckets of the periods (period - buckets, period]
+        for (int i = 0; i < buckets; i++) {
+            long p = period - i;
+            if (p < 0) {
+                break;
+            }
+            long slot = slots.get((int) (p % buckets));
+            if ((slot >>> COUNT_BITS) == ((p / buckets) & LAP_MASK)) {
+                sum += slot & COUNT_MASK;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @return the count of events of the window per time unit
+     */
+    public double getRate(@NonNull TimeUnit unit) {
+        return (double) get() * unit.toNanos(1) / TimeUnit.MILLISECONDS.toNanos(getWindowMillis());
+    }
+
+    public long getWindowMillis() {
+        return bucketMillis * buckets;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    /**
+     * Forgets all the events.
+     */
+    public void reset() {
+        for (int i = 0; i < buckets; i++) {
+            slots.set(i, 0L);
+        }
+    }
+}
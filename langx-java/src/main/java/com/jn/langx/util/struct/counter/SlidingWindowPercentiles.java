@@ -0,0 +1,220 @@
+package com.jn.langx.util.struct.counter;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.timing.clock.Clock;
+import com.jn.langx.util.timing.clock.SystemClock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records values, such as latencies, and computes their percentiles over the last time window.
+ * <p>
+ * The window is a ring of buckets, like {@link SlidingWindowCounter}, each bucket a histogram of log-linear bins:
+ * the values below 64 have a bin each, the higher ones are split in 32 bins per power of two, so a percentile is
+ * accurate to about 3%. Recording is a bin increment: a bucket of a past lap is replaced by a new histogram with a
+ * CAS, there is no lock. Computing a percentile merges the bins of the buckets, in a time that does not depend on the
+ * count of values.
+ * <p>
+ * The values are longs >= 0, the values above the highest trackable value are recorded as it.
+ */
+public class SlidingWindowPercentiles {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+
+    private final long bucketMillis;
+    private final int buckets;
+    private final long highestTrackableValue;
+    private final int binCount;
+    private final AtomicReferenceArray<Histogram> histograms;
+    private final Clock clock;
+
+    public SlidingWindowPercentiles(long window, @NonNull TimeUnit unit, int buckets, long highestTrackableValue) {
+        this(window, unit, buckets, highestTrackableValue, new SystemClock());
+    }
+
+    /**
+     * @param window                the duration of the window, at least one millisecond per bucket
+     * @param buckets               the count of buckets of the window
+     * @param highestTrackableValue the highest value recorded, it sets the count of bins
+     * @param clock                 the clock of the values
+     */
+    public SlidingWindowPercentiles(long window, @NonNull TimeUnit unit, int buckets, long highestTrackableValue, @NonNull Clock clock) {
+        Preconditions.checkNotNull(unit, "unit cannot be null");
+        Preconditions.checkNotNull(clock, "clock cannot be null");
+        Preconditions.checkArgument(buckets > 0, "buckets must be > 0");
+        Preconditions.checkArgument(highestTrackableValue > 0, "highestTrackableValue must be > 0");
+        long windowMillis = unit.toMillis(window);
+        Preconditions.checkArgument(windowMillis >= buckets, "the window must be at least 1 millisecond per bucket");
+        this.bucketMillis = windowMillis / buckets;
+        this.buckets = buckets;
+        this.highestTrackableValue = highestTrackableValue;
+        this.binCount = binIndex(highestTrackableValue) + 1;
+        this.histograms = new AtomicReferenceArray<Histogram>(buckets);
+        this.clock = clock;
+    }
+
+    static int binIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKET_COUNT + (shift - 1) * HALF_COUNT + (int) ((value >>> shift) - HALF_COUNT);
+    }
+
+    /**
+     * @return the highest value of a bin
+     */
+    static long binHighestValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / HALF_COUNT + 1;
+        long mantissa = (index - SUB_BUCKET_COUNT) % HALF_COUNT + HALF_COUNT;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    public void record(long value) {
+        Preconditions.checkArgument(value >= 0, "value must be >= 0");
+        long period = clock.getTime() / bucketMillis;
+        int index = (int) (period % buckets);
+        Histogram histogram = histograms.get(index);
+        while (histogram == null || histogram.period < period) {
+            Histogram created = new Histogram(period, binCount);
+            if (histograms.compareAndSet(index, histogram, created)) {
+                histogram = created;
+            } else {
+                histogram = histograms.get(index);
+            }
+        }
+        if (histogram.period > period) {
+            // the period was computed before a stall, the bucket is already reused: dropped
+            return;
+        }
+        histogram.record(Math.min(value, highestTrackableValue));
+    }
+
+    /**
+     * @param percentile in [0, 100]
+     * @return the value at the percentile, as the highest value of its bin, 0 if there is no value in the window
+     */
+    public long getPercentile(double percentile) {
+        return getPercentiles(percentile)[0];
+    }
+
+    /**
+     * @return the values at several percentiles, from one merge of the buckets
+     */
+    public long[] getPercentiles(double... percentiles) {
+        long[] bins = new long[binCount];
+        long total = merge(bins, null);
+        long[] values = new long[percentiles.length];
+        if (total == 0) {
+            return values;
+        }
+        for (int p = 0; p < percentiles.length; p++) {
+            double percentile = Math.max(0d, Math.min(100d, percentiles[p]));
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100d * total));
+            long seen = 0;
+            for (int i = 0; i < binCount; i++) {
+                seen += bins[i];
+                if (seen >= rank) {
+                    values[p] = Math.min(binHighestValue(i), highestTrackableValue);
+                    break;
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @return the count of values of the window
+     */
+    public long getCount() {
+        return merge(null, null);
+    }
+
+    /**
+     * @return the mean of the values of the window, 0 if there is none
+     */
+    public double getMean() {
+        long[] sum = new long[1];
+        long count = merge(null, sum);
+        return count == 0 ? 0d : (double) sum[0] / count;
+    }
+
+    /**
+     * @return the highest value of the window, 0 if there is none
+     */
+    public long getMax() {
+        long period = clock.getTime() / bucketMillis;
+        long max = 0;
+        for (int i = 0; i < buckets; i++) {
+            Histogram histogram = histograms.get(i);
+            if (isInWindow(histogram, period)) {
+                max = Math.max(max, histogram.max.get());
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Adds up the buckets of the window.
+     *
+     * @return the count of values
+     */
+    private long merge(long[] bins, long[] sum) {
+        long period = clock.getTime() / bucketMillis;
+        long count = 0;
+        for (int i = 0; i < buckets; i++) {
+            Histogram histogram = histograms.get(i);
+            if (!isInWindow(histogram, period)) {
+                continue;
+            }
+            count += histogram.count.get();
+            if (sum != null) {
+                sum[0] += histogram.sum.get();
+            }
+            if (bins != null) {
+                for (int b = 0; b < binCount; b++) {
+                    bins[b] += histogram.bins.get(b);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return true if the bucket is one of the periods (period - buckets, period]
+     */
+    private boolean isInWindow(Histogram histogram, long period) {
+        return histogram != null && histogram.period > period - buckets && histogram.period <= period;
+    }
+
+    private static final class Histogram {
+        private final long period;
+        private final AtomicLongArray bins;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        private Histogram(long period, int binCount) {
+            this.period = period;
+            this.bins = new AtomicLongArray(binCount);
+        }
+
+        private void record(long value) {
+            bins.incrementAndGet(binIndex(value));
+            count.incrementAndGet();
+            sum.addAndGet(value);
+            long current;
+            while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+                // retry
+            }
+        }
+    }
+}
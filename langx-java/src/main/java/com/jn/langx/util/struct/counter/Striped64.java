@@ -0,0 +1,229 @@
+package com.jn.langx.util.struct.counter;
+
+import com.jn.langx.util.random.ThreadLocalRandom;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * The striping of {@link LongAdder}, {@link LongAccumulator} and {@link DoubleAdder}, a backport of the Striped64 of
+ * Java 8 without <code>sun.misc.Unsafe</code>.
+ * <p>
+ * A value is a base and a table of cells, combined when it is read. An update goes to the base while it is not
+ * contended; once a CAS on the base fails, the updates go to the cell of the thread, picked by a per-thread hash. A
+ * contended cell moves the thread to another cell, then doubles the table, up to the count of CPUs. The cells are
+ * padded so two cells never share a cache line.
+ * <p>
+ * The value is stored as a long, subclasses define how an update combines with it. The cells are not serializable,
+ * a subclass serializes a proxy of its value instead.
+ */
+abstract class Striped64 extends Number {
+    private static final long serialVersionUID = 1L;
+    static final int NCPU = Runtime.getRuntime().availableProcessors();
+
+    private static final AtomicLongFieldUpdater<Striped64> BASE = AtomicLongFieldUpdater.newUpdater(Striped64.class, "base");
+    private static final AtomicIntegerFieldUpdater<Striped64> CELLS_BUSY = AtomicIntegerFieldUpdater.newUpdater(Striped64.class, "cellsBusy");
+
+    /**
+     * the hash of a thread, never 0 once initialized
+     */
+    private static final ThreadLocal<int[]> PROBE = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            int probe = ThreadLocalRandom.current().nextInt();
+            return new int[]{probe == 0 ? 1 : probe};
+        }
+    };
+
+    volatile long base;
+    private transient volatile Cell[] cells;
+    private transient volatile int cellsBusy;
+
+    /**
+     * @return the value of a cell updated by x
+     */
+    abstract long combine(long value, long x);
+
+    /**
+     * @return the value of a new cell
+     */
+    abstract long identity();
+
+    final void update(long x) {
+        Cell[] cs = cells;
+        long b;
+        if (cs == null && BASE.compareAndSet(this, b = base, combine(b, x))) {
+            return;
+        }
+        int[] probe = PROBE.get();
+        boolean uncontended = true;
+        Cell cell;
+        long v;
+        if (cs == null || (cell = cs[probe[0] & (cs.length - 1)]) == null
+                || !(uncontended = cell.cas(v = cell.value, combine(v, x)))) {
+            accumulate(x, probe, uncontended);
+        }
+    }
+
+    private void accumulate(long x, int[] probe, boolean wasUncontended) {
+        int h = probe[0];
+        boolean collide = false;
+        while (true) {
+            Cell[] cs = cells;
+            int n;
+            if (cs != null && (n = cs.length) > 0) {
+                Cell cell = cs[h & (n - 1)];
+                long v;
+                if (cell == null) {
+                    if (cellsBusy == 0) {
+                        Cell created = new Cell(combine(identity(), x));
+                        if (cellsBusy == 0 && CELLS_BUSY.compareAndSet(this, 0, 1)) {
+                            try {
+                                Cell[] current = cells;
+                                int j;
+                                if (current != null && current[j = h & (current.length - 1)] == null) {
+                                    current[j] = created;
+                                    return;
+                                }
+                            } finally {
+                                cellsBusy = 0;
+                            }
+                            // the slot is now taken, retry
+                            continue;
+                        }
+                    }
+                    collide = false;
+                } else if (!wasUncontended) {
+                    // the CAS of the caller failed, rehash first
+                    wasUncontended = true;
+                } else if (cell.cas(v = cell.value, combine(v, x))) {
+                    return;
+                } else if (n >= NCPU || cells != cs) {
+                    // at max size, or stale
+                    collide = false;
+                } else if (!collide) {
+                    collide = true;
+                } else if (cellsBusy == 0 && CELLS_BUSY.compareAndSet(this, 0, 1)) {
+                    try {
+                        if (cells == cs) {
+                            Cell[] expanded = new Cell[n << 1];
+                            System.arraycopy(cs, 0, expanded, 0, n);
+                            cells = expanded;
+                        }
+                    } finally {
+                        cellsBusy = 0;
+                    }
+                    collide = false;
+                    continue;
+                }
+                // xorshift to another cell
+                h ^= h << 13;
+                h ^= h >>> 17;
+                h ^= h << 5;
+                probe[0] = h;
+            } else if (cellsBusy == 0 && cells == cs && CELLS_BUSY.compareAndSet(this, 0, 1)) {
+                try {
+                    if (cells == cs) {
+                        Cell[] created = new Cell[2];
+                        created[h & 1] = new Cell(combine(identity(), x));
+                        cells = created;
+                        return;
+                    }
+                } finally {
+                    cellsBusy = 0;
+                }
+            } else {
+                long b = base;
+                if (BASE.compareAndSet(this, b, combine(b, x))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the values of the cells, the base excluded
+     */
+    final long[] cellValues() {
+        Cell[] cs = cells;
+        if (cs == null) {
+            return new long[0];
+        }
+        long[] values = new long[cs.length];
+        int count = 0;
+        for (Cell cell : cs) {
+            if (cell != null) {
+                values[count++] = cell.value;
+            }
+        }
+        if (count < values.length) {
+            long[] trimmed = new long[count];
+            System.arraycopy(values, 0, trimmed, 0, count);
+            return trimmed;
+        }
+        return values;
+    }
+
+    /**
+     * Sets the base and the cells to a value, not atomically.
+     */
+    final void resetTo(long value) {
+        Cell[] cs = cells;
+        base = value;
+        if (cs != null) {
+            for (Cell cell : cs) {
+                if (cell != null) {
+                    cell.value = value;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the base and the cells to a value, not atomically.
+     *
+     * @return the values replaced, the base first
+     */
+    final long[] getThenResetTo(long value) {
+        Cell[] cs = cells;
+        int length = cs == null ? 0 : cs.length;
+        long[] values = new long[length + 1];
+        values[0] = BASE.getAndSet(this, value);
+        for (int i = 0; i < length; i++) {
+            Cell cell = cs[i];
+            values[i + 1] = cell == null ? identity() : cell.getAndSet(value);
+        }
+        return values;
+    }
+
+    /**
+     * The padding before the value of a cell.
+     */
+    static class CellLeftPadding {
+        long p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    static class CellValue extends CellLeftPadding {
+        volatile long value;
+    }
+
+    /**
+     * A cell, on its own cache line: the fields of a super class come first, so the value is between the paddings.
+     */
+    static final class Cell extends CellValue {
+        private static final AtomicLongFieldUpdater<CellValue> VALUE = AtomicLongFieldUpdater.newUpdater(CellValue.class, "value");
+        long p11, p12, p13, p14, p15, p16, p17;
+
+        Cell(long value) {
+            this.value = value;
+        }
+
+        boolean cas(long expected, long value) {
+            return VALUE.compareAndSet(this, expected, value);
+        }
+
+        long getAndSet(long value) {
+            return VALUE.getAndSet(this, value);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.jn.langx.util.struct.counter;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counters by key, each one a {@link LongAdder}: counting a key is a lookup in a concurrent map and an addition to
+ * its adder, there is no boxing and no lock once the key exists.
+ * <p>
+ * A key removed while it is counted may lose the concurrent counts.
+ */
+public class StripedCounterMap<K> {
+    private final ConcurrentHashMap<K, LongAdder> counters = new ConcurrentHashMap<K, LongAdder>();
+
+    public void increment(@NonNull K key) {
+        adder(key).add(1L);
+    }
+
+    public void decrement(@NonNull K key) {
+        adder(key).add(-1L);
+    }
+
+    public void add(@NonNull K key, long delta) {
+        adder(key).add(delta);
+    }
+
+    /**
+     * @return the adder of a key, created if needed
+     */
+    public LongAdder adder(@NonNull K key) {
+        LongAdder adder = counters.get(key);
+        if (adder == null) {
+            Preconditions.checkNotNull(key, "key cannot be null");
+            LongAdder created = new LongAdder();
+            adder = counters.putIfAbsent(key, created);
+            if (adder == null) {
+                adder = created;
+            }
+        }
+        return adder;
+    }
+
+    /**
+     * @return the count of a key, 0 if it was never counted
+     */
+    public long get(K key) {
+        LongAdder adder = key == null ? null : counters.get(key);
+        return adder == null ? 0L : adder.sum();
+    }
+
+    /**
+     * @return the count of a key, which is removed
+     */
+    public long remove(K key) {
+        LongAdder adder = key == null ? null : counters.remove(key);
+        return adder == null ? 0L : adder.sum();
+    }
+
+    /**
+     * @return the sum of the counts of all the keys
+     */
+    public long sum() {
+        long sum = 0;
+        for (LongAdder adder : counters.values()) {
+            sum += adder.sum();
+        }
+        return sum;
+    }
+
+    public Set<K> keySet() {
+        return counters.keySet();
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    /**
+     * Sets all the counts to 0, the keys are kept.
+     */
+    public void reset() {
+        for (LongAdder adder : counters.values()) {
+            adder.reset();
+        }
+    }
+
+    public void clear() {
+        counters.clear();
+    }
+
+    /**
+     * @return the counts of all the keys
+     */
+    public Map<K, Long> snapshot() {
+        Map<K, Long> snapshot = new HashMap<K, Long>();
+        for (Map.Entry<K, LongAdder> entry : counters.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().sum());
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return the counts of all the keys, which are set to 0
+     */
+    public Map<K, Long> snapshotThenReset() {
+        Map<K, Long> snapshot = new HashMap<K, Long>();
+        for (Map.Entry<K, LongAdder> entry : counters.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().sumThenReset());
+        }
+        return snapshot;
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+}
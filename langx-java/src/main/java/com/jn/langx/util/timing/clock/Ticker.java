@@ -0,0 +1,23 @@
+package com.jn.langx.util.timing.clock;
+
+/**
+ * A source of nanoseconds for measuring elapsed time, unrelated to the wall clock; {@link System#nanoTime()} by
+ * default. Tests give their own ticker to control the time.
+ */
+public abstract class Ticker {
+    private static final Ticker SYSTEM_TICKER = new Ticker() {
+        @Override
+        public long read() {
+            return System.nanoTime();
+        }
+    };
+
+    /**
+     * @return the current nanoseconds, from an arbitrary origin
+     */
+    public abstract long read();
+
+    public static Ticker systemTicker() {
+        return SYSTEM_TICKER;
+    }
+}
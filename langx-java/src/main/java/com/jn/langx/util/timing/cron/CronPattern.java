@@ -0,0 +1,522 @@
+package com.jn.langx.util.timing.cron;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.util.Preconditions;
+
+import java.text.ParseException;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.TimeZone;
+
+/**
+ * A {@link CronExpression} compiled into bit masks, one <code>long</code> per field (and a few words for the years),
+ * which computes the next and the previous fire times of the expression in a time zone.
+ * <p>
+ * The fire times are found field by field: the next set bit of a field is found with a couple of bit operations,
+ * when a field has no more value the next higher field is moved on and the lower fields restart from their lowest
+ * values. So finding a fire time takes a few steps per field, whatever the distance, there is no iteration second
+ * by second. The day of month field is resolved per month, into a mask of the matching days, for <code>L</code>,
+ * <code>W</code>, <code>L</code> in the day of week and <code>#</code>.
+ * <p>
+ * The fields are matched against the wall-clock time of the time zone. A wall-clock time skipped by a daylight saving
+ * transition fires at the same time after the transition, like {@link java.util.Calendar} resolves it; a wall-clock
+ * time repeated by a transition fires once, at its first occurrence.
+ * <p>
+ * Instances are immutable and thread-safe.
+ */
+public final class CronPattern {
+    private static final long SECOND_MILLIS = 1000L;
+    private static final long DAY_MILLIS = 86400000L;
+    private static final int MIN_YEAR = 1969;
+    private static final int MAX_YEAR = CronExpression.YEAR_TO_GIVEUP_SCHEDULING_AT;
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final String expression;
+    private final TimeZone timeZone;
+
+    private final long seconds;
+    private final long minutes;
+    private final long hours;
+    private final long daysOfMonth;
+    private final long months;
+    private final long daysOfWeek;
+    /**
+     * bit <code>year - 1969</code>
+     */
+    private final long[] years;
+    /**
+     * true if the day of month is '?', the days are given by the day of week
+     */
+    private final boolean dayOfWeekMode;
+    private final boolean lastDayOfMonth;
+    private final boolean nearestWeekday;
+    private final boolean lastDayOfWeek;
+    private final int nthDayOfWeek;
+
+    private CronPattern(CronExpression cron, TimeZone timeZone) {
+        this.expression = cron.getCronExpression();
+        this.timeZone = timeZone;
+        this.seconds = toMask(cron.seconds);
+        this.minutes = toMask(cron.minutes);
+        this.hours = toMask(cron.hours);
+        this.daysOfMonth = toMask(cron.daysOfMonth);
+        this.months = toMask(cron.months);
+        this.daysOfWeek = toMask(cron.daysOfWeek);
+        this.years = new long[((MAX_YEAR - MIN_YEAR) >>> 6) + 1];
+        for (Iterator<?> iterator = cron.years.iterator(); iterator.hasNext(); ) {
+            int year = (Integer) iterator.next();
+            if (year >= MIN_YEAR && year <= MAX_YEAR) {
+                int bit = year - MIN_YEAR;
+                years[bit >>> 6] |= 1L << bit;
+            }
+        }
+        this.dayOfWeekMode = cron.daysOfMonth.contains(CronExpression.NO_SPEC);
+        this.lastDayOfMonth = cron.lastdayOfMonth;
+        this.nearestWeekday = cron.nearestWeekday;
+        this.lastDayOfWeek = cron.lastdayOfWeek;
+        this.nthDayOfWeek = cron.nthdayOfWeek;
+    }
+
+    private static long toMask(Set<?> values) {
+        long mask = 0;
+        for (Object value : values) {
+            int v = (Integer) value;
+            if (v != CronExpression.ALL_SPEC_INT && v != CronExpression.NO_SPEC_INT) {
+                mask |= 1L << v;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Compiles an expression in the default time zone.
+     */
+    public static CronPattern compile(String expression) throws ParseException {
+        return compile(expression, TimeZone.getDefault());
+    }
+
+    public static CronPattern compile(String expression, @NonNull TimeZone timeZone) throws ParseException {
+        return compile(new CronExpression(expression), timeZone);
+    }
+
+    public static CronPattern compile(@NonNull CronExpression expression, @NonNull TimeZone timeZone) {
+        Preconditions.checkNotNull(expression, "expression cannot be null");
+        Preconditions.checkNotNull(timeZone, "timeZone cannot be null");
+        return new CronPattern(expression, timeZone);
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    public TimeZone getTimeZone() {
+        return timeZone;
+    }
+
+    /**
+     * @return the first fire time strictly after the given time, in milliseconds, -1 if there is none
+     */
+    public long nextFireTime(long afterMillis) {
+        long local = floorDiv(afterMillis + timeZone.getOffset(afterMillis), SECOND_MILLIS) * SECOND_MILLIS + SECOND_MILLIS;
+        while (true) {
+            long match = nextLocal(local);
+            if (match == NONE) {
+                return -1;
+            }
+            long fireTime = toInstant(match, afterMillis, true);
+            if (fireTime != NONE) {
+                return fireTime;
+            }
+            local = match + SECOND_MILLIS;
+        }
+    }
+
+    /**
+     * @return the last fire time strictly before the given time, in milliseconds, -1 if there is none
+     */
+    public long previousFireTime(long beforeMillis) {
+        long local = floorDiv(beforeMillis + timeZone.getOffset(beforeMillis) - 1, SECOND_MILLIS) * SECOND_MILLIS;
+        while (true) {
+            long match = previousLocal(local);
+            if (match == NONE) {
+                return -1;
+            }
+            long fireTime = toInstant(match, beforeMillis, false);
+            if (fireTime != NONE) {
+                return fireTime;
+            }
+            local = match - SECOND_MILLIS;
+        }
+    }
+
+    /**
+     * @return the first fire time strictly after the given date, null if there is none
+     */
+    public Date getNextValidTimeAfter(Date date) {
+        long next = nextFireTime(date.getTime());
+        return next < 0 ? null : new Date(next);
+    }
+
+    /**
+     * @return true if the expression fires at the second of the given time
+     */
+    public boolean matches(long millis) {
+        long second = floorDiv(millis, SECOND_MILLIS) * SECOND_MILLIS;
+        return nextFireTime(second - 1) == second;
+    }
+
+    /**
+     * @param local  a wall-clock time, as milliseconds since 1970-01-01T00:00:00 of the time zone
+     * @param bound  the exclusive bound of the result
+     * @param after  true if the result must be after the bound, false before it
+     * @return the instant of the wall-clock time, {@link #NONE} if it is not beyond the bound
+     */
+    private long toInstant(long local, long bound, boolean after) {
+        // the offset can only change at a transition, there is at most one within a day
+        int offsetBefore = timeZone.getOffset(local - DAY_MILLIS);
+        int offsetAfter = timeZone.getOffset(local + DAY_MILLIS);
+        long early = local - Math.max(offsetBefore, offsetAfter);
+        long late = local - Math.min(offsetBefore, offsetAfter);
+        boolean earlyValid = timeZone.getOffset(early) + early == local;
+        boolean lateValid = timeZone.getOffset(late) + late == local;
+        if (!earlyValid && !lateValid) {
+            // skipped by a transition: shifted forward by the length of the gap, as Calendar resolves it
+            return (after ? late > bound : late < bound) ? late : NONE;
+        }
+        // repeated by a transition: the first occurrence only
+        long instant = earlyValid ? early : late;
+        return (after ? instant > bound : instant < bound) ? instant : NONE;
+    }
+
+    /**
+     * @return the first matching wall-clock time at or after the given one, {@link #NONE} if there is none
+     */
+    private long nextLocal(long local) {
+        long days = floorDiv(local, DAY_MILLIS);
+        int secondOfDay = (int) ((local - days * DAY_MILLIS) / SECOND_MILLIS);
+        int[] date = civilFromDays(days);
+        int year = date[0];
+        int month = date[1];
+        int day = date[2];
+        int hour = secondOfDay / 3600;
+        int minute = secondOfDay / 60 % 60;
+        int second = secondOfDay % 60;
+
+        // a field stepped beyond its range has no bit at or above it, so the next higher field steps on in turn
+        while (true) {
+            int nextYear = nextYear(year);
+            if (nextYear < 0) {
+                return NONE;
+            }
+            if (nextYear != year) {
+                year = nextYear;
+                month = 1;
+                day = 1;
+                hour = minute = second = 0;
+            }
+
+            int nextMonth = nextBit(months, month);
+            if (nextMonth > 12) {
+                year++;
+                month = 1;
+                day = 1;
+                hour = minute = second = 0;
+                continue;
+            }
+            if (nextMonth != month) {
+                month = nextMonth;
+                day = 1;
+                hour = minute = second = 0;
+            }
+
+            int nextDay = nextBit(dayMask(year, month), day);
+            if (nextDay > 31) {
+                month++;
+                day = 1;
+                hour = minute = second = 0;
+                continue;
+            }
+            if (nextDay != day) {
+                day = nextDay;
+                hour = minute = second = 0;
+            }
+
+            int nextHour = nextBit(hours, hour);
+            if (nextHour > 23) {
+                day++;
+                hour = minute = second = 0;
+                continue;
+            }
+            if (nextHour != hour) {
+                hour = nextHour;
+                minute = second = 0;
+            }
+
+            int nextMinute = nextBit(minutes, minute);
+            if (nextMinute > 59) {
+                hour++;
+                minute = second = 0;
+                continue;
+            }
+            if (nextMinute != minute) {
+                minute = nextMinute;
+                second = 0;
+            }
+
+            int nextSecond = nextBit(seconds, second);
+            if (nextSecond > 59) {
+                minute++;
+                second = 0;
+                continue;
+            }
+            return toLocal(year, month, day, hour, minute, nextSecond);
+        }
+    }
+
+    /**
+     * @return the last matching wall-clock time at or before the given one, {@link #NONE} if there is none
+     */
+    private long previousLocal(long local) {
+        long days = floorDiv(local, DAY_MILLIS);
+        int secondOfDay = (int) ((local - days * DAY_MILLIS) / SECOND_MILLIS);
+        int[] date = civilFromDays(days);
+        int year = date[0];
+        int month = date[1];
+        int day = date[2];
+        int hour = secondOfDay / 3600;
+        int minute = secondOfDay / 60 % 60;
+        int second = secondOfDay % 60;
+
+        // a field stepped below its range has no bit at or below it, so the next higher field steps back in turn
+        while (true) {
+            int previousYear = previousYear(year);
+            if (previousYear < 0) {
+                return NONE;
+            }
+            if (previousYear != year) {
+                year = previousYear;
+                month = 12;
+                day = 31;
+                hour = 23;
+                minute = second = 59;
+            }
+
+            int previousMonth = previousBit(months, month);
+            if (previousMonth < 1) {
+                year--;
+                month = 12;
+                day = 31;
+                hour = 23;
+                minute = second = 59;
+                continue;
+            }
+            if (previousMonth != month) {
+                month = previousMonth;
+                day = 31;
+                hour = 23;
+                minute = second = 59;
+            }
+
+            int previousDay = previousBit(dayMask(year, month), day);
+            if (previousDay < 1) {
+                month--;
+                day = 31;
+                hour = 23;
+                minute = second = 59;
+                continue;
+            }
+            if (previousDay != day) {
+                day = previousDay;
+                hour = 23;
+                minute = second = 59;
+            }
+
+            int previousHour = previousBit(hours, hour);
+            if (previousHour < 0) {
+                day--;
+                hour = 23;
+                minute = second = 59;
+                continue;
+            }
+            if (previousHour != hour) {
+                hour = previousHour;
+                minute = second = 59;
+            }
+
+            int previousMinute = previousBit(minutes, minute);
+            if (previousMinute < 0) {
+                hour--;
+                minute = second = 59;
+                continue;
+            }
+            if (previousMinute != minute) {
+                minute = previousMinute;
+                second = 59;
+            }
+
+            int previousSecond = previousBit(seconds, second);
+            if (previousSecond < 0) {
+                minute--;
+                second = 59;
+                continue;
+            }
+            return toLocal(year, month, day, hour, minute, previousSecond);
+        }
+    }
+
+    private static long toLocal(int year, int month, int day, int hour, int minute, int second) {
+        return daysFromCivil(year, month, day) * DAY_MILLIS + (hour * 3600L + minute * 60L + second) * SECOND_MILLIS;
+    }
+
+    /**
+     * @return the bits 1 to 31 of the days of a month which match the day of month and day of week fields
+     */
+    private long dayMask(int year, int month) {
+        int lengthOfMonth = lengthOfMonth(year, month);
+        long daysOfMonthMask = (1L << (lengthOfMonth + 1)) - 2;
+        if (!dayOfWeekMode) {
+            if (lastDayOfMonth) {
+                int day = lengthOfMonth;
+                if (nearestWeekday) {
+                    int dayOfWeek = dayOfWeek(year, month, day);
+                    day -= dayOfWeek == 7 ? 1 : dayOfWeek == 1 ? 2 : 0;
+                }
+                return 1L << day;
+            }
+            if (nearestWeekday) {
+                int day = Long.numberOfTrailingZeros(daysOfMonth);
+                if (day > lengthOfMonth) {
+                    return 0;
+                }
+                int dayOfWeek = dayOfWeek(year, month, day);
+                if (dayOfWeek == 7) {
+                    day = day == 1 ? 3 : day - 1;
+                } else if (dayOfWeek == 1) {
+                    day = day == lengthOfMonth ? day - 2 : day + 1;
+                }
+                return 1L << day;
+            }
+            return daysOfMonth & daysOfMonthMask;
+        }
+
+        int firstDayOfWeek = dayOfWeek(year, month, 1);
+        long mask = 0;
+        for (int dayOfWeek = 1; dayOfWeek <= 7; dayOfWeek++) {
+            if ((daysOfWeek & (1L << dayOfWeek)) == 0) {
+                continue;
+            }
+            int first = 1 + (dayOfWeek - firstDayOfWeek + 7) % 7;
+            if (nthDayOfWeek > 0) {
+                int day = first + 7 * (nthDayOfWeek - 1);
+                if (day <= lengthOfMonth) {
+                    mask |= 1L << day;
+                }
+            } else if (lastDayOfWeek) {
+                mask |= 1L << (first + 7 * ((lengthOfMonth - first) / 7));
+            } else {
+                for (int day = first; day <= lengthOfMonth; day += 7) {
+                    mask |= 1L << day;
+                }
+            }
+        }
+        return mask;
+    }
+
+    private int nextYear(int year) {
+        for (int bit = Math.max(year, MIN_YEAR) - MIN_YEAR; bit <= MAX_YEAR - MIN_YEAR; ) {
+            long word = years[bit >>> 6] & (-1L << bit);
+            if (word != 0) {
+                return MIN_YEAR + (bit & ~63) + Long.numberOfTrailingZeros(word);
+            }
+            bit = (bit | 63) + 1;
+        }
+        return -1;
+    }
+
+    private int previousYear(int year) {
+        for (int bit = Math.min(year, MAX_YEAR) - MIN_YEAR; bit >= 0; ) {
+            long word = years[bit >>> 6] & (-1L >>> (63 - (bit & 63)));
+            if (word != 0) {
+                return MIN_YEAR + (bit & ~63) + 63 - Long.numberOfLeadingZeros(word);
+            }
+            bit = (bit & ~63) - 1;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the lowest set bit at or above <code>from</code>, 64 if there is none
+     */
+    private static int nextBit(long mask, int from) {
+        return from > 63 ? 64 : Long.numberOfTrailingZeros(mask & (-1L << from));
+    }
+
+    /**
+     * @return the highest set bit at or below <code>from</code>, -1 if there is none
+     */
+    private static int previousBit(long mask, int from) {
+        return from < 0 ? -1 : 63 - Long.numberOfLeadingZeros(mask & (-1L >>> (63 - from)));
+    }
+
+    private static long floorDiv(long x, long y) {
+        long q = x / y;
+        return (x % y != 0 && ((x ^ y) < 0)) ? q - 1 : q;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * @return 1 for Sunday to 7 for Saturday, as in the expressions
+     */
+    private static int dayOfWeek(int year, int month, int day) {
+        long days = daysFromCivil(year, month, day);
+        // 1970-01-01 is a Thursday
+        return (int) (days + 4 - floorDiv(days + 4, 7) * 7) + 1;
+    }
+
+    /**
+     * The days since 1970-01-01 of a date of the proleptic Gregorian calendar.
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    /**
+     * @return year, month and day of the date <code>days</code> after 1970-01-01
+     */
+    private static int[] civilFromDays(long days) {
+        long z = days + 719468;
+        long era = (z >= 0 ? z : z - 146096) / 146097;
+        int dayOfEra = (int) (z - era * 146097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = (int) (yearOfEra + era * 400) + (month <= 2 ? 1 : 0);
+        return new int[]{year, month, day};
+    }
+
+    @Override
+    public String toString() {
+        return expression + " (" + timeZone.getID() + ")";
+    }
+}
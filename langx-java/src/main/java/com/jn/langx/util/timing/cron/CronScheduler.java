@@ -0,0 +1,291 @@
+package com.jn.langx.util.timing.cron;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.annotation.Nullable;
+import com.jn.langx.lifecycle.Lifecycle;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.concurrent.CommonThreadFactory;
+import com.jn.langx.util.timing.clock.Clock;
+import com.jn.langx.util.timing.clock.SystemClock;
+import com.jn.langx.util.timing.timer.HashedWheelTimer;
+import com.jn.langx.util.timing.timer.Timeout;
+import com.jn.langx.util.timing.timer.TimerTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.ParseException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs jobs at the fire times of {@link CronPattern}s, on a {@link HashedWheelTimer}: a job waits in the wheel as a
+ * single timeout until its next fire time, so thousands of jobs share the one timer thread.
+ * <p>
+ * The jobs run on the executor given to the constructor, or on the thread of the timer when there is none, in which
+ * case they must be short. A job never runs concurrently with itself when it runs on the timer thread; on an executor
+ * a job that runs longer than the interval between its fire times can overlap its next run.
+ * <p>
+ * A fire time is missed when the job fires later than {@link #setMisfireThreshold(long)}, then the
+ * {@link MisfirePolicy} of the job applies.
+ */
+public class CronScheduler implements Lifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(CronScheduler.class);
+    public static final long DEFAULT_MISFIRE_THRESHOLD = 1000L;
+
+    private final HashedWheelTimer timer;
+    private final boolean ownTimer;
+    private final Executor executor;
+    private final Set<CronJob> jobs = Collections.newSetFromMap(new ConcurrentHashMap<CronJob, Boolean>());
+    private volatile Clock clock = new SystemClock();
+    private volatile long misfireThreshold = DEFAULT_MISFIRE_THRESHOLD;
+    private final Object lifecycleLock = new Object();
+    // guarded by lifecycleLock
+    private boolean running = true;
+
+    /**
+     * Creates a scheduler with its own timer, of 100 milliseconds ticks, the jobs run on its thread.
+     */
+    public CronScheduler() {
+        this(new HashedWheelTimer(new CommonThreadFactory("CronScheduler", true), 100, TimeUnit.MILLISECONDS), true, null);
+    }
+
+    /**
+     * @param timer    a shared timer, it is not stopped by {@link #shutdown()}
+     * @param executor the executor of the jobs, null to run them on the timer thread
+     */
+    public CronScheduler(@NonNull HashedWheelTimer timer, @Nullable Executor executor) {
+        this(timer, false, executor);
+    }
+
+    private CronScheduler(HashedWheelTimer timer, boolean ownTimer, Executor executor) {
+        Preconditions.checkNotNull(timer, "timer cannot be null");
+        this.timer = timer;
+        this.ownTimer = ownTimer;
+        this.executor = executor;
+    }
+
+    public CronJob schedule(String expression, Runnable task) throws ParseException {
+        return schedule(CronPattern.compile(expression), task, MisfirePolicy.FIRE_ONCE_NOW);
+    }
+
+    /**
+     * Schedules a job from its next fire time after now.
+     *
+     * @return the handle of the job, to cancel it
+     * @throws IllegalStateException if the pattern never fires after now, or the scheduler is shut down
+     */
+    public CronJob schedule(@NonNull CronPattern pattern, @NonNull Runnable task, @NonNull MisfirePolicy misfirePolicy) {
+        Preconditions.checkNotNull(pattern, "pattern cannot be null");
+        Preconditions.checkNotNull(task, "task cannot be null");
+        Preconditions.checkNotNull(misfirePolicy, "misfirePolicy cannot be null");
+        long next = pattern.nextFireTime(clock.getTime());
+        if (next < 0) {
+            throw new IllegalStateException("the pattern never fires: " + pattern);
+        }
+        CronJob job = new CronJob(pattern, task, misfirePolicy, next);
+        // under the lock of the shutdown, so no job is armed after it
+        synchronized (lifecycleLock) {
+            if (!running) {
+                throw new IllegalStateException("the scheduler is shut down");
+            }
+            jobs.add(job);
+            job.arm();
+        }
+        return job;
+    }
+
+    @Override
+    public void startup() {
+        // the timer starts with the first job
+    }
+
+    /**
+     * Cancels all the jobs, and stops the timer if the scheduler created it.
+     */
+    @Override
+    public void shutdown() {
+        synchronized (lifecycleLock) {
+            running = false;
+        }
+        for (CronJob job : jobs) {
+            job.cancel();
+        }
+        if (ownTimer) {
+            timer.stop();
+        }
+    }
+
+    /**
+     * @return the scheduled jobs
+     */
+    public Set<CronJob> getJobs() {
+        return Collections.unmodifiableSet(jobs);
+    }
+
+    /**
+     * @param misfireThreshold how late a job can fire before its fire time is missed, in milliseconds
+     */
+    public void setMisfireThreshold(long misfireThreshold) {
+        Preconditions.checkArgument(misfireThreshold >= 0, "misfireThreshold must be >= 0");
+        this.misfireThreshold = misfireThreshold;
+    }
+
+    /**
+     * @param clock the wall clock the fire times are computed with
+     */
+    public void setClock(@NonNull Clock clock) {
+        Preconditions.checkNotNull(clock, "clock cannot be null");
+        this.clock = clock;
+    }
+
+    /**
+     * A job of a {@link CronScheduler}.
+     */
+    public final class CronJob implements TimerTask {
+        private final CronPattern pattern;
+        private final Runnable task;
+        private final MisfirePolicy misfirePolicy;
+        private volatile long nextFireTime;
+        private volatile Timeout timeout;
+        private volatile boolean cancelled;
+        private final AtomicLong runs = new AtomicLong();
+        private final AtomicLong misfires = new AtomicLong();
+
+        private CronJob(CronPattern pattern, Runnable task, MisfirePolicy misfirePolicy, long nextFireTime) {
+            this.pattern = pattern;
+            this.task = task;
+            this.misfirePolicy = misfirePolicy;
+            this.nextFireTime = nextFireTime;
+        }
+
+        private void arm() {
+            long delay = Math.max(0, nextFireTime - clock.getTime());
+            Timeout timeout = timer.newTimeout(this, delay, TimeUnit.MILLISECONDS);
+            this.timeout = timeout;
+            if (cancelled) {
+                timeout.cancel();
+            }
+        }
+
+        @Override
+        public void run(Timeout timeout) {
+            if (cancelled) {
+                return;
+            }
+            long now = clock.getTime();
+            long fireTime = nextFireTime;
+            if (now < fireTime) {
+                // the wall clock moved backwards, or the timer is ahead of it
+                arm();
+                return;
+            }
+
+            int count = 1;
+            long next = pattern.nextFireTime(fireTime);
+            if (now - fireTime > misfireThreshold) {
+                // the fire times missed up to now
+                int missed = 0;
+                while (next >= 0 && next <= now) {
+                    missed++;
+                    next = pattern.nextFireTime(next);
+                }
+                misfires.addAndGet(missed + 1);
+                switch (misfirePolicy) {
+                    case SKIP:
+                        count = 0;
+                        break;
+                    case FIRE_ALL:
+                        count = missed + 1;
+                        break;
+                    default:
+                        count = 1;
+                        break;
+                }
+            }
+
+            if (next < 0) {
+                jobs.remove(this);
+            } else {
+                nextFireTime = next;
+                arm();
+            }
+            if (count > 0) {
+                execute(count);
+            }
+        }
+
+        private void execute(final int count) {
+            Runnable runs = new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < count && !cancelled; i++) {
+                        runOnce();
+                    }
+                }
+            };
+            if (executor == null) {
+                runs.run();
+            } else {
+                try {
+                    executor.execute(runs);
+                } catch (Throwable ex) {
+                    logger.warn("Failed to submit the cron job {}: {}", pattern, ex.getMessage(), ex);
+                }
+            }
+        }
+
+        private void runOnce() {
+            runs.incrementAndGet();
+            try {
+                task.run();
+            } catch (Throwable ex) {
+                logger.warn("An exception was thrown by the cron job {}", pattern, ex);
+            }
+        }
+
+        /**
+         * Cancels the next runs of the job, a running one is not interrupted.
+         */
+        public void cancel() {
+            cancelled = true;
+            jobs.remove(this);
+            Timeout timeout = this.timeout;
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public CronPattern getPattern() {
+            return pattern;
+        }
+
+        /**
+         * @return the next fire time, in milliseconds
+         */
+        public long getNextFireTime() {
+            return nextFireTime;
+        }
+
+        /**
+         * @return how many times the job ran
+         */
+        public long getRuns() {
+            return runs.get();
+        }
+
+        /**
+         * @return how many fire times were missed
+         */
+        public long getMisfires() {
+            return misfires.get();
+        }
+    }
+}
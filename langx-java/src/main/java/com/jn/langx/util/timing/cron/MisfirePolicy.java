@@ -0,0 +1,20 @@
+package com.jn.langx.util.timing.cron;
+
+/**
+ * What a {@link CronScheduler} does when a job fires later than its misfire threshold: the timer thread was busy,
+ * the process was suspended, or the wall clock jumped forward.
+ */
+public enum MisfirePolicy {
+    /**
+     * run the job once now for all the missed fire times, then continue with the schedule
+     */
+    FIRE_ONCE_NOW,
+    /**
+     * do not run the job for the missed fire times, continue with the next fire time after now
+     */
+    SKIP,
+    /**
+     * run the job once for each missed fire time, then continue with the schedule
+     */
+    FIRE_ALL
+}
@@ -10,8 +10,11 @@ import com.jn.langx.util.reflect.Reflects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.*;
@@ -52,6 +55,17 @@ import java.util.concurrent.atomic.AtomicLong;
  * share it across your application.  One of the common mistakes, that makes
  * your application unresponsive, is to create a new instance for every connection.
  * <p>
+ * <h3>Long Delays</h3>
+ * <p>
+ * A timeout further away than one turn of the wheel is kept in an overflow wheel, whose ticks are a whole turn of
+ * the wheel below it; it is moved down when its slot of the overflow wheel comes up. So a timeout hours away is
+ * touched a few times only, instead of on every turn of the wheel.
+ * <p>
+ * <h3>Task Executor</h3>
+ * <p>
+ * By default the expired {@link TimerTask}s run on the worker thread, one slow task delays all the others.
+ * Give a task executor to the constructor to run them off the worker thread.
+ * <p>
  * <h3>Implementation Details</h3>
  * <p>
  * {@link HashedWheelTimer} is based on
@@ -87,6 +101,16 @@ public class HashedWheelTimer implements Timer {
     private final long tickDuration;
     private final HashedWheelTimer.HashedWheelBucket[] wheel;
     private final int mask;
+    /**
+     * log2 of the wheel size, 0 when the wheel has a single bucket and no overflow wheel can be used
+     */
+    private final int wheelBits;
+    /**
+     * the overflow wheels by level, created on demand: a bucket of the level <code>n</code> spans
+     * <code>wheel.length<sup>n</sup></code> ticks. Only the worker thread accesses them.
+     */
+    private HashedWheelTimer.HashedWheelBucket[][] overflowWheels;
+    private final Executor taskExecutor;
     private final CountDownLatch startTimeInitialized = new CountDownLatch(1);
     private final Queue<HashedWheelTimer.HashedWheelTimeout> timeouts = new LinkedBlockingQueue<HashedWheelTimeout>();
     private final Queue<HashedWheelTimer.HashedWheelTimeout> cancelledTimeouts = new LinkedBlockingQueue<HashedWheelTimeout>();
@@ -95,6 +119,14 @@ public class HashedWheelTimer implements Timer {
 
     private volatile long startTime;
 
+    // metrics, written by the worker thread only
+    private volatile long ticks;
+    private volatile long lastTickLag;
+    private volatile long maxTickLag;
+    private volatile int lastExpireBatchSize;
+    private volatile int maxExpireBatchSize;
+    private volatile long expiredTimeouts;
+
     /**
      * Creates a new timer with the default thread factory
      * ({@link Executors#defaultThreadFactory()}), default tick duration, and
@@ -216,6 +248,32 @@ public class HashedWheelTimer implements Timer {
      * @throws IllegalArgumentException if either of {@code tickDuration} and {@code ticksPerWheel} is &lt;= 0
      */
     public HashedWheelTimer(ThreadFactory threadFactory, long tickDuration, TimeUnit unit, int ticksPerWheel, boolean leakDetection, long maxPendingTimeouts) {
+        this(threadFactory, tickDuration, unit, ticksPerWheel, leakDetection, maxPendingTimeouts, null);
+    }
+
+    /**
+     * Creates a new timer.
+     *
+     * @param threadFactory      a {@link ThreadFactory} that creates a
+     *                           background {@link Thread} which is dedicated to
+     *                           advance the wheel.
+     * @param tickDuration       the duration between tick
+     * @param unit               the time unit of the {@code tickDuration}
+     * @param ticksPerWheel      the size of the wheel
+     * @param leakDetection      {@code true} if leak detection should be enabled always,
+     *                           if false it will only be enabled if the worker thread is not
+     *                           a daemon thread.
+     * @param maxPendingTimeouts The maximum number of pending timeouts after which call to
+     *                           {@code newTimeout} will result in
+     *                           {@link java.util.concurrent.RejectedExecutionException}
+     *                           being thrown. No maximum pending timeouts limit is assumed if
+     *                           this value is 0 or negative.
+     * @param taskExecutor       the {@link Executor} that runs the expired {@link TimerTask}s,
+     *                           {@code null} to run them on the worker thread.
+     * @throws NullPointerException     if either of {@code threadFactory} and {@code unit} is {@code null}
+     * @throws IllegalArgumentException if either of {@code tickDuration} and {@code ticksPerWheel} is &lt;= 0
+     */
+    public HashedWheelTimer(ThreadFactory threadFactory, long tickDuration, TimeUnit unit, int ticksPerWheel, boolean leakDetection, long maxPendingTimeouts, Executor taskExecutor) {
 
         if (threadFactory == null) {
             throw new NullPointerException("threadFactory");
@@ -233,6 +291,7 @@ public class HashedWheelTimer implements Timer {
         // Normalize ticksPerWheel to power of two and initialize the wheel.
         wheel = createWheel(ticksPerWheel);
         mask = wheel.length - 1;
+        wheelBits = Integer.numberOfTrailingZeros(wheel.length);
 
         // Convert tickDuration to nanos.
         long duration = unit.toNanos(tickDuration);
@@ -259,6 +318,7 @@ public class HashedWheelTimer implements Timer {
         leak = leakDetection || !workerThread.isDaemon() ? leakDetector.track(this) : null;
 
         this.maxPendingTimeouts = maxPendingTimeouts;
+        this.taskExecutor = taskExecutor;
 
         if (INSTANCE_COUNTER.incrementAndGet() > INSTANCE_COUNT_LIMIT &&
                 WARNED_TOO_MANY_INSTANCES.compareAndSet(false, true)) {
@@ -416,6 +476,51 @@ public class HashedWheelTimer implements Timer {
         return timeout;
     }
 
+    /**
+     * Schedules the tasks for one-time execution after the same delay: the pending timeouts are counted,
+     * and the time is read, once for all of them.
+     *
+     * @return the handles of the tasks, in the same order
+     * @throws RejectedExecutionException if the pending timeouts would be more than the maximum,
+     *                                    none of the tasks is scheduled then
+     */
+    public List<Timeout> newTimeouts(Collection<? extends TimerTask> tasks, long delay, TimeUnit unit) {
+        if (tasks == null) {
+            throw new NullPointerException("tasks");
+        }
+        if (unit == null) {
+            throw new NullPointerException("unit");
+        }
+        for (TimerTask task : tasks) {
+            if (task == null) {
+                throw new NullPointerException("task");
+            }
+        }
+        int count = tasks.size();
+        long pendingTimeoutsCount = pendingTimeouts.addAndGet(count);
+
+        if (maxPendingTimeouts > 0 && pendingTimeoutsCount > maxPendingTimeouts) {
+            pendingTimeouts.addAndGet(-count);
+            throw new RejectedExecutionException("Number of pending timeouts ("
+                    + pendingTimeoutsCount + ") is greater than or equal to maximum allowed pending "
+                    + "timeouts (" + maxPendingTimeouts + ")");
+        }
+
+        start();
+
+        long deadline = System.nanoTime() + unit.toNanos(delay) - startTime;
+        if (delay > 0 && deadline < 0) {
+            deadline = Long.MAX_VALUE;
+        }
+        List<Timeout> result = new ArrayList<Timeout>(count);
+        for (TimerTask task : tasks) {
+            HashedWheelTimer.HashedWheelTimeout timeout = new HashedWheelTimer.HashedWheelTimeout(this, task, deadline);
+            timeouts.add(timeout);
+            result.add(timeout);
+        }
+        return result;
+    }
+
     /**
      * Returns the number of pending timeouts of this {@link Timer}.
      */
@@ -423,6 +528,48 @@ public class HashedWheelTimer implements Timer {
         return pendingTimeouts.get();
     }
 
+    /**
+     * @return the number of ticks processed since the start
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * @return how late the last tick was processed, in nanoseconds
+     */
+    public long getLastTickLag() {
+        return lastTickLag;
+    }
+
+    /**
+     * @return the highest tick lag since the start, in nanoseconds
+     */
+    public long getMaxTickLag() {
+        return maxTickLag;
+    }
+
+    /**
+     * @return the number of timeouts expired by the last tick
+     */
+    public int getLastExpireBatchSize() {
+        return lastExpireBatchSize;
+    }
+
+    /**
+     * @return the highest number of timeouts expired by a tick since the start
+     */
+    public int getMaxExpireBatchSize() {
+        return maxExpireBatchSize;
+    }
+
+    /**
+     * @return the number of timeouts expired since the start
+     */
+    public long getExpiredTimeouts() {
+        return expiredTimeouts;
+    }
+
     private static void reportTooManyInstances() {
         if (logger.isErrorEnabled()) {
             String resourceType = Reflects.getSimpleClassName(HashedWheelTimer.class);
@@ -454,10 +601,12 @@ public class HashedWheelTimer implements Timer {
                 if (deadline > 0) {
                     int idx = (int) (tick & mask);
                     processCancelledTasks();
+                    cascadeOverflowWheels();
                     HashedWheelTimer.HashedWheelBucket bucket =
                             wheel[idx];
                     transferTimeoutsToBuckets();
-                    bucket.expireTimeouts(deadline);
+                    int expired = bucket.expireTimeouts(deadline);
+                    recordTick(deadline - tickDuration * (tick + 1), expired);
                     tick++;
                 }
             } while (WORKER_STATE_UPDATER.get(HashedWheelTimer.this) == WORKER_STATE_STARTED);
@@ -466,6 +615,15 @@ public class HashedWheelTimer implements Timer {
             for (HashedWheelTimer.HashedWheelBucket bucket : wheel) {
                 bucket.clearTimeouts(unprocessedTimeouts);
             }
+            if (overflowWheels != null) {
+                for (HashedWheelTimer.HashedWheelBucket[] overflowWheel : overflowWheels) {
+                    if (overflowWheel != null) {
+                        for (HashedWheelTimer.HashedWheelBucket bucket : overflowWheel) {
+                            bucket.clearTimeouts(unprocessedTimeouts);
+                        }
+                    }
+                }
+            }
             for (; ; ) {
                 HashedWheelTimer.HashedWheelTimeout timeout = timeouts.poll();
                 if (timeout == null) {
@@ -492,14 +650,82 @@ public class HashedWheelTimer implements Timer {
                     continue;
                 }
 
-                long calculated = timeout.deadline / tickDuration;
-                timeout.remainingRounds = (calculated - tick) / wheel.length;
+                schedule(timeout);
+            }
+        }
 
-                final long ticks = Math.max(calculated, tick); // Ensure we don't schedule for past.
-                int stopIndex = (int) (ticks & mask);
+        private void schedule(HashedWheelTimer.HashedWheelTimeout timeout) {
+            long calculated = timeout.deadline / tickDuration;
+            final long ticks = Math.max(calculated, tick); // Ensure we don't schedule for past.
+            long delta = ticks - tick;
 
+            if (delta < wheel.length || wheelBits == 0) {
+                timeout.remainingRounds = (calculated - tick) / wheel.length;
+                int stopIndex = (int) (ticks & mask);
                 HashedWheelTimer.HashedWheelBucket bucket = wheel[stopIndex];
                 bucket.addTimeout(timeout);
+                return;
+            }
+
+            // wheel.length^level <= delta < wheel.length^(level + 1)
+            int level = (63 - Long.numberOfLeadingZeros(delta)) / wheelBits;
+            int shift = level * wheelBits;
+            timeout.remainingRounds = 0;
+            overflowWheel(level)[(int) ((ticks >>> shift) & mask)].addTimeout(timeout);
+        }
+
+        private HashedWheelTimer.HashedWheelBucket[] overflowWheel(int level) {
+            if (overflowWheels == null) {
+                overflowWheels = new HashedWheelTimer.HashedWheelBucket[62 / wheelBits + 1][];
+            }
+            HashedWheelTimer.HashedWheelBucket[] overflowWheel = overflowWheels[level];
+            if (overflowWheel == null) {
+                overflowWheel = createWheel(wheel.length);
+                overflowWheels[level] = overflowWheel;
+            }
+            return overflowWheel;
+        }
+
+        /**
+         * Moves the timeouts of the overflow buckets which come up at this tick to the lower wheels,
+         * from the highest level down.
+         */
+        private void cascadeOverflowWheels() {
+            if (overflowWheels == null) {
+                return;
+            }
+            for (int level = overflowWheels.length - 1; level > 0; level--) {
+                HashedWheelTimer.HashedWheelBucket[] overflowWheel = overflowWheels[level];
+                int shift = level * wheelBits;
+                if (overflowWheel == null || (tick & ((1L << shift) - 1)) != 0) {
+                    continue;
+                }
+                HashedWheelTimer.HashedWheelBucket bucket = overflowWheel[(int) ((tick >>> shift) & mask)];
+                for (; ; ) {
+                    HashedWheelTimer.HashedWheelTimeout timeout = bucket.pollTimeout();
+                    if (timeout == null) {
+                        break;
+                    }
+                    // a cancelled timeout is counted down when its cancellation is processed
+                    if (!timeout.isCancelled()) {
+                        schedule(timeout);
+                    }
+                }
+            }
+        }
+
+        private void recordTick(long lag, int expired) {
+            ticks = tick + 1;
+            lastTickLag = lag;
+            if (lag > maxTickLag) {
+                maxTickLag = lag;
+            }
+            lastExpireBatchSize = expired;
+            if (expired > maxExpireBatchSize) {
+                maxExpireBatchSize = expired;
+            }
+            if (expired > 0) {
+                expiredTimeouts += expired;
             }
         }
 
@@ -566,7 +792,7 @@ public class HashedWheelTimer implements Timer {
         }
     }
 
-    private static final class HashedWheelTimeout implements Timeout {
+    private static final class HashedWheelTimeout implements Timeout, Runnable {
 
         private static final int ST_INIT = 0;
         private static final int ST_CANCELLED = 1;
@@ -649,11 +875,33 @@ public class HashedWheelTimer implements Timer {
             return state() == ST_EXPIRED;
         }
 
-        public void expire() {
+        /**
+         * @return true if the task is run, or is handed to the task executor
+         */
+        public boolean expire() {
             if (!compareAndSetState(ST_INIT, ST_EXPIRED)) {
-                return;
+                return false;
             }
 
+            Executor executor = timer.taskExecutor;
+            if (executor == null) {
+                run();
+                return true;
+            }
+            try {
+                executor.execute(this);
+                return true;
+            } catch (Throwable t) {
+                if (logger.isWarnEnabled()) {
+                    logger.warn("An exception was thrown while submitting " + TimerTask.class.getSimpleName()
+                            + " for execution.", t);
+                }
+                return false;
+            }
+        }
+
+        @Override
+        public void run() {
             try {
                 task.run(this);
             } catch (Throwable t) {
@@ -720,9 +968,12 @@ public class HashedWheelTimer implements Timer {
 
         /**
          * Expire all {@link HashedWheelTimer.HashedWheelTimeout}s for the given {@code deadline}.
+         *
+         * @return the number of expired timeouts
          */
-        public void expireTimeouts(long deadline) {
+        public int expireTimeouts(long deadline) {
             HashedWheelTimer.HashedWheelTimeout timeout = head;
+            int expired = 0;
 
             // process all timeouts
             while (timeout != null) {
@@ -730,7 +981,9 @@ public class HashedWheelTimer implements Timer {
                 if (timeout.remainingRounds <= 0) {
                     next = remove(timeout);
                     if (timeout.deadline <= deadline) {
-                        timeout.expire();
+                        if (timeout.expire()) {
+                            expired++;
+                        }
                     } else {
                         // The timeout was placed into a wrong slot. This should never happen.
                         throw new IllegalStateException(String.format(
@@ -743,6 +996,7 @@ public class HashedWheelTimer implements Timer {
                 }
                 timeout = next;
             }
+            return expired;
         }
 
         public HashedWheelTimer.HashedWheelTimeout remove(HashedWheelTimer.HashedWheelTimeout timeout) {
@@ -2,11 +2,19 @@ package com.jn.langx.util.timing.timer;
 
 import com.jn.langx.util.concurrent.CommonThreadFactory;
 
+import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 public class WheelTimers {
 
+    /**
+     * @return a daemon timer of 10 milliseconds ticks shared in the process, for short tasks only; it is never stopped
+     */
+    public static HashedWheelTimer sharedTimer() {
+        return SharedTimerHolder.TIMER;
+    }
+
     public static HashedWheelTimer newHashedWheelTimer() {
         return newHashedWheelTimer(new CommonThreadFactory());
     }
@@ -26,4 +34,12 @@ public class WheelTimers {
     public static HashedWheelTimer newHashedWheelTimer(ThreadFactory threadFactory, long tickDuration, TimeUnit unit, int ticksPerWheel, boolean leakDetection) {
         return new HashedWheelTimer(threadFactory, tickDuration, unit, ticksPerWheel, leakDetection, -1);
     }
+
+    public static HashedWheelTimer newHashedWheelTimer(ThreadFactory threadFactory, long tickDuration, TimeUnit unit, int ticksPerWheel, boolean leakDetection, long maxPendingTimeouts, Executor taskExecutor) {
+        return new HashedWheelTimer(threadFactory, tickDuration, unit, ticksPerWheel, leakDetection, maxPendingTimeouts, taskExecutor);
+    }
+
+    private static final class SharedTimerHolder {
+        static final HashedWheelTimer TIMER = new HashedWheelTimer(new CommonThreadFactory("SharedWheelTimer", true), 10, TimeUnit.MILLISECONDS);
+    }
 }
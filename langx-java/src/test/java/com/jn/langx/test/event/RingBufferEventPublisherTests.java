@@ -0,0 +1,221 @@
+package com.jn.langx.test.event;
+
+import com.jn.langx.event.DomainEvent;
+import com.jn.langx.event.EventListener;
+import com.jn.langx.event.local.RingBufferEventPublisher;
+import com.jn.langx.event.local.SimpleEventPublisher;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class RingBufferEventPublisherTests {
+
+    @Test
+    public void testListenerOrder() {
+        SimpleEventPublisher publisher = new SimpleEventPublisher();
+        final List<String> calls = new ArrayList<String>();
+        EventListener second = new NamedListener("second", calls);
+        publisher.addEventListener("order", second);
+        publisher.addEventListener("order", new NamedListener("third", calls));
+        publisher.addFirst("order", new NamedListener("first", calls));
+        publisher.publish(new DomainEvent<String>("order", "1"));
+        Assert.assertEquals("[first, second, third]", calls.toString());
+
+        Assert.assertTrue(publisher.removeEventListener("order", second));
+        Assert.assertFalse(publisher.removeEventListener("order", second));
+        calls.clear();
+        publisher.publish(new DomainEvent<String>("order", "2"));
+        Assert.assertEquals("[first, third]", calls.toString());
+        // no listener, nothing happens
+        publisher.publish(new DomainEvent<String>("user", "1"));
+    }
+
+    @Test
+    public void testPerDomainOrdering() throws Throwable {
+        final RingBufferEventPublisher publisher = new RingBufferEventPublisher();
+        publisher.setRingSize(1024);
+        publisher.setConsumers(4);
+        final int producers = 4;
+        final int domains = 8;
+        final int eventsPerProducer = 200000;
+        final AtomicInteger disorders = new AtomicInteger();
+        final AtomicLong received = new AtomicLong();
+        for (int d = 0; d < domains; d++) {
+            publisher.addEventListener("domain-" + d, new EventListener<DomainEvent<long[]>>() {
+                // the last sequence of each producer, only the consumer of the domain calls it
+                private final long[] last = new long[]{-1, -1, -1, -1};
+
+                @Override
+                public void on(DomainEvent<long[]> event) {
+                    long[] source = event.getSource();
+                    int producer = (int) source[0];
+                    if (source[1] <= last[producer]) {
+                        disorders.incrementAndGet();
+                    }
+                    last[producer] = source[1];
+                    received.incrementAndGet();
+                }
+            });
+        }
+        // a listener that fails does not stop the others
+        publisher.addFirst("domain-0", new EventListener<DomainEvent<long[]>>() {
+            @Override
+            public void on(DomainEvent<long[]> event) {
+                if (event.getSource()[1] == 0) {
+                    throw new IllegalStateException("expected");
+                }
+            }
+        });
+
+        final CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < eventsPerProducer; i++) {
+                        publisher.publish(new DomainEvent<long[]>("domain-" + (i % domains), new long[]{producer, i}));
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+        publisher.shutdown();
+
+        Assert.assertEquals(producers * eventsPerProducer, received.get());
+        Assert.assertEquals(0, disorders.get());
+        Assert.assertEquals(0, publisher.getPendingEvents());
+        try {
+            publisher.publish(new DomainEvent<String>("domain-0", "late"));
+            Assert.fail();
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testRegisterWhilePublishing() throws Throwable {
+        final RingBufferEventPublisher publisher = new RingBufferEventPublisher();
+        final AtomicLong received = new AtomicLong();
+        publisher.addEventListener("order", new EventListener<DomainEvent>() {
+            @Override
+            public void on(DomainEvent event) {
+                received.incrementAndGet();
+            }
+        });
+        Thread registrar = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 1000; i++) {
+                    publisher.addEventListener("order", new EventListener<DomainEvent>() {
+                        @Override
+                        public void on(DomainEvent event) {
+                        }
+                    });
+                }
+            }
+        });
+        registrar.start();
+        for (int i = 0; i < 10000; i++) {
+            publisher.publish(new DomainEvent<Integer>("order", i));
+        }
+        registrar.join();
+        publisher.shutdown();
+        Assert.assertEquals(10000, received.get());
+        Assert.assertEquals(10000, publisher.getDispatchedEvents());
+    }
+
+    @Test
+    public void testPublishIntoFullRing() throws Throwable {
+        // a listener publishing into the full ring of its own consumer
+        final RingBufferEventPublisher publisher = new RingBufferEventPublisher();
+        publisher.setRingSize(2);
+        final AtomicLong received = new AtomicLong();
+        publisher.addEventListener("a", new EventListener<DomainEvent>() {
+            @Override
+            public void on(DomainEvent event) {
+                for (int i = 0; i < 10; i++) {
+                    publisher.publish(new DomainEvent<Integer>("b", i));
+                }
+            }
+        });
+        publisher.addEventListener("b", new EventListener<DomainEvent>() {
+            @Override
+            public void on(DomainEvent event) {
+                received.incrementAndGet();
+            }
+        });
+        publisher.publish(new DomainEvent<String>("a", "1"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (received.get() < 10 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Assert.assertEquals(10, received.get());
+
+        // a publisher waiting for the full ring is released by the shutdown
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        publisher.addEventListener("c", new EventListener<DomainEvent>() {
+            @Override
+            public void on(DomainEvent event) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < 10; i++) {
+                        publisher.publish(new DomainEvent<Integer>("c", i));
+                    }
+                } catch (Throwable ex) {
+                    failure.set(ex);
+                }
+            }
+        });
+        producer.start();
+        Assert.assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        Thread stopper = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                publisher.shutdown();
+            }
+        });
+        stopper.start();
+        producer.join(5000);
+        Assert.assertFalse(producer.isAlive());
+        Assert.assertTrue(failure.get() instanceof IllegalStateException);
+        release.countDown();
+        stopper.join(5000);
+        Assert.assertFalse(stopper.isAlive());
+    }
+
+    private static class NamedListener implements EventListener<DomainEvent> {
+        private final String name;
+        private final List<String> calls;
+
+        NamedListener(String name, List<String> calls) {
+            this.name = name;
+            this.calls = calls;
+        }
+
+        @Override
+        public void on(DomainEvent event) {
+            calls.add(name);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.jn.langx.test.proxy;
+
+import com.jn.langx.proxy.Proxys;
+import com.jn.langx.proxy.aop.AopInvocationHandler;
+import com.jn.langx.proxy.aop.MethodInterceptor;
+import com.jn.langx.proxy.aop.MethodInterceptorChainProvider;
+import com.jn.langx.proxy.aop.MethodInvocation;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class AopInvocationHandlerTests {
+
+    @Test
+    public void testKeptInvocation() throws Throwable {
+        final List<MethodInvocation> kept = new ArrayList<MethodInvocation>();
+        Greeter greeter = newProxy(kept, false);
+        Assert.assertEquals("hello a", greeter.greet("a"));
+        Assert.assertEquals("hello b", greeter.greet("b"));
+
+        // not pooled by default, an invocation kept by an interceptor can be proceeded later
+        Assert.assertEquals(2, kept.size());
+        Assert.assertNotSame(kept.get(0), kept.get(1));
+        Assert.assertEquals("a", kept.get(0).getArguments()[0]);
+        Assert.assertEquals("hello a", kept.get(0).getJoinPoint().invoke(kept.get(0).getThis(), kept.get(0).getArguments()));
+        Assert.assertEquals("b", kept.get(1).getArguments()[0]);
+    }
+
+    @Test
+    public void testPooledInvocation() throws Throwable {
+        final List<MethodInvocation> kept = new ArrayList<MethodInvocation>();
+        Greeter greeter = newProxy(kept, true);
+        Assert.assertEquals("hello a", greeter.greet("a"));
+        Assert.assertEquals("hello b", greeter.greet("b"));
+        // given back to the pool after each call
+        Assert.assertNull(kept.get(0).getThis());
+        Assert.assertSame(kept.get(0), kept.get(1));
+    }
+
+    private static Greeter newProxy(final List<MethodInvocation> kept, boolean poolInvocations) {
+        final MethodInterceptor keeper = new MethodInterceptor() {
+            @Override
+            public Object intercept(MethodInvocation invocation) throws Throwable {
+                kept.add(invocation);
+                return invocation.proceed();
+            }
+        };
+        AopInvocationHandler handler = new AopInvocationHandler(new SimpleGreeter(), new MethodInterceptorChainProvider() {
+            @Override
+            public List<MethodInterceptor> get(com.jn.langx.proxy.MethodInvocation invocation) {
+                return Collections.singletonList(keeper);
+            }
+        }, poolInvocations);
+        return (Greeter) Proxys.newProxyInstance(handler, new Class<?>[]{Greeter.class});
+    }
+
+    public interface Greeter {
+        String greet(String name);
+    }
+
+    private static class SimpleGreeter implements Greeter {
+        @Override
+        public String greet(String name) {
+            return "hello " + name;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.jn.langx.test.util;
+
+import com.jn.langx.util.Recycler;
+import com.jn.langx.util.io.PooledStringBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RecyclerTests {
+
+    @Test
+    public void testSameThread() {
+        Recycler<Pooled> recycler = new PooledRecycler(4, 1);
+        Pooled first = recycler.get();
+        first.recycle();
+        Assert.assertEquals(1, recycler.threadLocalSize());
+        Assert.assertSame(first, recycler.get());
+        Assert.assertEquals(0, recycler.threadLocalSize());
+
+        try {
+            first.recycle();
+            first.recycle();
+            Assert.fail();
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+
+        // bounded
+        Pooled[] objects = new Pooled[10];
+        for (int i = 0; i < objects.length; i++) {
+            objects[i] = recycler.get();
+        }
+        for (Pooled object : objects) {
+            object.recycle();
+        }
+        Assert.assertEquals(4, recycler.threadLocalSize());
+    }
+
+    @Test
+    public void testRatio() {
+        Recycler<Pooled> recycler = new PooledRecycler(100, 4);
+        Pooled[] objects = new Pooled[16];
+        for (int i = 0; i < objects.length; i++) {
+            objects[i] = recycler.get();
+        }
+        for (Pooled object : objects) {
+            object.recycle();
+        }
+        // one of 4 new objects is retained
+        Assert.assertEquals(4, recycler.threadLocalSize());
+        // a retained object is always retained again
+        Pooled object = recycler.get();
+        object.recycle();
+        Assert.assertEquals(4, recycler.threadLocalSize());
+    }
+
+    @Test
+    public void testOtherThread() throws Throwable {
+        Recycler<Pooled> recycler = new PooledRecycler(16, 1);
+        final Pooled[] objects = new Pooled[4];
+        for (int i = 0; i < objects.length; i++) {
+            objects[i] = recycler.get();
+        }
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (Pooled object : objects) {
+                    object.recycle();
+                }
+            }
+        });
+        thread.start();
+        thread.join();
+        // taken back by the owner thread when its stack is empty
+        Assert.assertEquals(0, recycler.threadLocalSize());
+        Pooled object = recycler.get();
+        Assert.assertEquals(3, recycler.threadLocalSize());
+        boolean found = false;
+        for (Pooled pooled : objects) {
+            found |= pooled == object;
+        }
+        Assert.assertTrue(found);
+    }
+
+    @Test
+    public void testDisabled() {
+        Recycler<Pooled> recycler = new PooledRecycler(0, 1);
+        Pooled object = recycler.get();
+        object.recycle();
+        Assert.assertNotSame(object, recycler.get());
+    }
+
+    @Test
+    public void testPooledStringBuilder() {
+        PooledStringBuilder pooled = PooledStringBuilder.acquire();
+        pooled.get().append("abc");
+        pooled.release();
+        PooledStringBuilder again = PooledStringBuilder.acquire();
+        Assert.assertEquals(0, again.get().length());
+        again.release();
+    }
+
+    private static class PooledRecycler extends Recycler<Pooled> {
+        PooledRecycler(int maxCapacityPerThread, int ratio) {
+            super(maxCapacityPerThread, ratio, Pooled.class);
+        }
+
+        @Override
+        protected Pooled newObject(Handle<Pooled> handle) {
+            return new Pooled(handle);
+        }
+    }
+
+    private static class Pooled {
+        private final Recycler.Handle<Pooled> handle;
+
+        Pooled(Recycler.Handle<Pooled> handle) {
+            this.handle = handle;
+        }
+
+        void recycle() {
+            handle.recycle(this);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.jn.langx.test.util.bloom;
+
+import com.jn.langx.util.bloom.BlockedBloomFilter;
+import com.jn.langx.util.bloom.BloomFilters;
+import com.jn.langx.util.bloom.ConcurrentBloomFilter;
+import com.jn.langx.util.bloom.Hash64Filter;
+import com.jn.langx.util.bloom.ScalableBloomFilter;
+import com.jn.langx.util.io.Writable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+
+public class BloomFilterTests {
+
+    @Test
+    public void testConcurrentBloomFilter() throws Exception {
+        final int n = 100000;
+        // ~1% false positives
+        final ConcurrentBloomFilter filter = new ConcurrentBloomFilter(n * 10L, 7);
+        final int threads = 4;
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final int offset = t;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = offset; i < n; i += threads) {
+                        filter.add((long) i);
+                        filter.add("key-" + i);
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+
+        for (int i = 0; i < n; i++) {
+            Assert.assertTrue(filter.membershipTest((long) i));
+            Assert.assertTrue(filter.membershipTest("key-" + i));
+        }
+        int falsePositives = 0;
+        for (int i = n; i < 2 * n; i++) {
+            if (filter.membershipTest((long) i)) {
+                falsePositives++;
+            }
+        }
+        // 2n keys were added, so expect around 10% here, far below if the bits were lost
+        Assert.assertTrue("false positives: " + falsePositives, falsePositives < n / 5);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        filter.write(new DataOutputStream(bytes));
+        ConcurrentBloomFilter copy = new ConcurrentBloomFilter();
+        copy.readFields(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        Assert.assertEquals(filter.cardinality(), copy.cardinality());
+        Assert.assertTrue(copy.membershipTest("key-42"));
+    }
+
+    @Test
+    public void testCombine() {
+        ConcurrentBloomFilter a = new ConcurrentBloomFilter(1000, 3);
+        ConcurrentBloomFilter b = new ConcurrentBloomFilter(1000, 3);
+        a.add("a");
+        b.add("b");
+        a.or(b);
+        Assert.assertTrue(a.membershipTest("a"));
+        Assert.assertTrue(a.membershipTest("b"));
+        a.and(b);
+        Assert.assertTrue(a.membershipTest("b"));
+        Assert.assertEquals(b.cardinality(), a.cardinality());
+    }
+
+    @Test
+    public void testSizing() {
+        // the usual figures: 9.6 bits per key and 7 hash functions for 1%
+        Assert.assertEquals(958506, BloomFilters.optimalNumOfBits(100000, 0.01));
+        Assert.assertEquals(7, BloomFilters.optimalNumOfHashFunctions(100000, 958506));
+        Assert.assertEquals(0.01, BloomFilters.falsePositiveProbability(100000, 958506, 7), 0.001);
+    }
+
+    @Test
+    public void testBlockedBloomFilter() throws Exception {
+        int n = 100000;
+        BlockedBloomFilter filter = BloomFilters.newBlockedBloomFilter(n, 0.01);
+        for (int i = 0; i < n; i++) {
+            filter.add("key-" + i);
+        }
+        for (int i = 0; i < n; i++) {
+            Assert.assertTrue(filter.membershipTest("key-" + i));
+        }
+        int falsePositives = countFalsePositives(filter, n);
+        Assert.assertTrue("false positives: " + falsePositives, falsePositives < n / 100 * 3 / 2);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        filter.write(new DataOutputStream(bytes));
+        BlockedBloomFilter copy = new BlockedBloomFilter();
+        copy.readFields(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        Assert.assertEquals(filter.cardinality(), copy.cardinality());
+        Assert.assertEquals(falsePositives, countFalsePositives(copy, n));
+    }
+
+    @Test
+    public void testScalableBloomFilter() throws Exception {
+        int n = 200000;
+        ScalableBloomFilter filter = BloomFilters.newScalableBloomFilter(1000, 0.01);
+        for (int i = 0; i < n; i++) {
+            filter.add("key-" + i);
+        }
+        Assert.assertTrue(filter.getFilterCount() > 5);
+        for (int i = 0; i < n; i++) {
+            Assert.assertTrue(filter.membershipTest("key-" + i));
+        }
+        int falsePositives = countFalsePositives(filter, n);
+        Assert.assertTrue("false positives: " + falsePositives, falsePositives < n / 100);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        filter.write(new DataOutputStream(bytes));
+        ScalableBloomFilter copy = new ScalableBloomFilter();
+        copy.readFields(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        Assert.assertEquals(filter.getFilterCount(), copy.getFilterCount());
+        Assert.assertEquals(falsePositives, countFalsePositives(copy, n));
+        Assert.assertFalse(copy.add("key-42"));
+    }
+
+    @Test
+    public void testCorruptedStreams() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new ConcurrentBloomFilter(1000, 3).write(new DataOutputStream(bytes));
+        byte[] valid = bytes.toByteArray();
+        bytes = new ByteArrayOutputStream();
+        new BlockedBloomFilter(1000, 3).write(new DataOutputStream(bytes));
+        byte[] validBlocked = bytes.toByteArray();
+
+        // nbHash at offset 4, the size at offset 16
+        assertCorrupted(new ConcurrentBloomFilter(), corrupt(valid, 4, 0, 0));
+        assertCorrupted(new ConcurrentBloomFilter(), corrupt(valid, 16, 0x7fffffffffffffffL, 8));
+        assertCorrupted(new ConcurrentBloomFilter(), corrupt(valid, 16, -1, 8));
+        assertCorrupted(new BlockedBloomFilter(), corrupt(validBlocked, 4, 0, 0));
+        assertCorrupted(new BlockedBloomFilter(), corrupt(validBlocked, 4, 1000, 0));
+        assertCorrupted(new BlockedBloomFilter(), corrupt(validBlocked, 16, 0x7fffffffffffffffL, 8));
+
+        bytes = new ByteArrayOutputStream();
+        new ScalableBloomFilter(1000, 0.01).write(new DataOutputStream(bytes));
+        byte[] validScalable = bytes.toByteArray();
+        // the capacity at offset 12, fpp at 20, growth at 28, tightening at 32, the filter count at 48
+        assertCorrupted(new ScalableBloomFilter(), corrupt(validScalable, 12, 0, 8));
+        assertCorrupted(new ScalableBloomFilter(), corrupt(validScalable, 20, Double.doubleToLongBits(1.5), 8));
+        assertCorrupted(new ScalableBloomFilter(), corrupt(validScalable, 20, Double.doubleToLongBits(Double.NaN), 8));
+        assertCorrupted(new ScalableBloomFilter(), corrupt(validScalable, 28, 0, 0));
+        assertCorrupted(new ScalableBloomFilter(), corrupt(validScalable, 32, Double.doubleToLongBits(1.0), 8));
+        assertCorrupted(new ScalableBloomFilter(), corrupt(validScalable, 48, 0, 0));
+        assertCorrupted(new ScalableBloomFilter(), corrupt(validScalable, 48, -1, 0));
+
+        ScalableBloomFilter scalable = new ScalableBloomFilter(1000, 0.01);
+        scalable.add("key");
+        assertCorrupted(scalable, corrupt(validScalable, 48, 0, 0));
+        Assert.assertTrue(scalable.membershipTest("key"));
+        Assert.assertEquals(0.01, scalable.getFpp(), 0.0);
+    }
+
+    /**
+     * @param size 0 for an int, 8 for a long
+     */
+    private static byte[] corrupt(byte[] bytes, int offset, long value, int size) {
+        byte[] copy = bytes.clone();
+        ByteBuffer buffer = ByteBuffer.wrap(copy);
+        if (size == 8) {
+            buffer.putLong(offset, value);
+        } else {
+            buffer.putInt(offset, (int) value);
+        }
+        return copy;
+    }
+
+    private static void assertCorrupted(Writable filter, byte[] bytes) {
+        try {
+            filter.readFields(new DataInputStream(new ByteArrayInputStream(bytes)));
+            Assert.fail();
+        } catch (IOException ex) {
+            // expected
+        }
+    }
+
+    private static int countFalsePositives(Hash64Filter filter, int n) {
+        int falsePositives = 0;
+        for (int i = n; i < 2 * n; i++) {
+            if (filter.membershipTest("key-" + i)) {
+                falsePositives++;
+            }
+        }
+        return falsePositives;
+    }
+}
@@ -0,0 +1,166 @@
+package com.jn.langx.test.util.bloom;
+
+import com.jn.langx.util.bloom.ConcurrentCuckooFilter;
+import com.jn.langx.util.bloom.CuckooFilter;
+import com.jn.langx.util.bloom.Key;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CuckooFilterTests {
+
+    @Test
+    public void testAddContainsDelete() throws Exception {
+        int n = 100000;
+        CuckooFilter filter = new CuckooFilter(n);
+        for (int i = 0; i < n; i++) {
+            Assert.assertTrue(filter.add("key-" + i));
+        }
+        Assert.assertEquals(n, filter.size());
+        for (int i = 0; i < n; i++) {
+            Assert.assertTrue(filter.membershipTest("key-" + i));
+        }
+        int falsePositives = 0;
+        for (int i = n; i < 2 * n; i++) {
+            if (filter.membershipTest("key-" + i)) {
+                falsePositives++;
+            }
+        }
+        // below 2b / 2^f = 0.2%
+        Assert.assertTrue("false positives: " + falsePositives, falsePositives < n / 500);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        filter.write(new DataOutputStream(bytes));
+        CuckooFilter copy = new CuckooFilter();
+        copy.readFields(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        Assert.assertEquals(n, copy.size());
+        Assert.assertTrue(copy.membershipTest("key-42"));
+
+        for (int i = 0; i < n; i += 2) {
+            Assert.assertTrue(filter.delete("key-" + i));
+        }
+        Assert.assertEquals(n / 2, filter.size());
+        // no false negatives after deletions
+        for (int i = 1; i < n; i += 2) {
+            Assert.assertTrue(filter.membershipTest("key-" + i));
+        }
+        int stillPresent = 0;
+        for (int i = 0; i < n; i += 2) {
+            if (filter.membershipTest("key-" + i)) {
+                stillPresent++;
+            }
+        }
+        Assert.assertTrue("still present: " + stillPresent, stillPresent < n / 500);
+    }
+
+    @Test
+    public void testDuplicatesAndBulk() {
+        CuckooFilter filter = new CuckooFilter(100, 16, 2, 7);
+        Assert.assertTrue(filter.add(42L));
+        Assert.assertTrue(filter.add(42L));
+        Assert.assertTrue(filter.delete(42L));
+        Assert.assertTrue(filter.membershipTest(42L));
+        Assert.assertTrue(filter.delete(42L));
+        Assert.assertFalse(filter.membershipTest(42L));
+        Assert.assertFalse(filter.delete(42L));
+
+        Key[] keys = new Key[]{new Key("a".getBytes()), new Key("b".getBytes()), new Key("c".getBytes())};
+        Assert.assertEquals(3, filter.add(keys));
+        Assert.assertTrue(filter.membershipTest(new Key("b".getBytes())));
+        Assert.assertEquals(3, filter.delete(keys));
+        Assert.assertEquals(0, filter.size());
+    }
+
+    @Test
+    public void testFull() {
+        CuckooFilter filter = new CuckooFilter(1000);
+        long added = 0;
+        while (filter.add(added)) {
+            added++;
+        }
+        Assert.assertTrue("load factor: " + filter.loadFactor(), filter.loadFactor() > 0.9);
+        // the last key went into the victim slot, no key is lost
+        for (long i = 0; i < added; i++) {
+            Assert.assertTrue(filter.membershipTest(i));
+        }
+        Assert.assertTrue(filter.delete(0L));
+        Assert.assertTrue(filter.add(added));
+    }
+
+    @Test
+    public void testCorruptedStreams() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new CuckooFilter(1000).write(new DataOutputStream(bytes));
+        byte[] valid = bytes.toByteArray();
+
+        // fingerprintBits at offset 12, bucketSize at 16, numBuckets at 20, victimIndex at 33
+        assertCorrupted(valid, 12, 1);
+        assertCorrupted(valid, 12, 33);
+        assertCorrupted(valid, 16, 0);
+        assertCorrupted(valid, 16, 17);
+        assertCorrupted(valid, 20, 0);
+        assertCorrupted(valid, 20, 1000);
+        assertCorrupted(valid, 20, -1024);
+        assertCorrupted(valid, 33, -1);
+        assertCorrupted(valid, 33, Integer.MAX_VALUE);
+
+        CuckooFilter filter = new CuckooFilter(1000);
+        filter.add("key");
+        byte[] corrupted = valid.clone();
+        ByteBuffer.wrap(corrupted).putInt(20, 1000);
+        try {
+            filter.readFields(new DataInputStream(new ByteArrayInputStream(corrupted)));
+            Assert.fail();
+        } catch (IOException ex) {
+            // expected
+        }
+        Assert.assertTrue(filter.membershipTest("key"));
+    }
+
+    private static void assertCorrupted(byte[] valid, int offset, int value) {
+        byte[] corrupted = valid.clone();
+        ByteBuffer.wrap(corrupted).putInt(offset, value);
+        try {
+            new CuckooFilter().readFields(new DataInputStream(new ByteArrayInputStream(corrupted)));
+            Assert.fail();
+        } catch (IOException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testConcurrentCuckooFilter() throws Exception {
+        final int n = 100000;
+        final ConcurrentCuckooFilter filter = new ConcurrentCuckooFilter(n * 2);
+        final int threads = 4;
+        final CountDownLatch done = new CountDownLatch(threads);
+        final AtomicInteger failures = new AtomicInteger();
+        for (int t = 0; t < threads; t++) {
+            final int offset = t;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = offset; i < n; i += threads) {
+                        if (!filter.add("key-" + i) || !filter.add("tmp-" + i)) {
+                            failures.incrementAndGet();
+                        }
+                        if (!filter.delete("tmp-" + i)) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+        Assert.assertEquals(0, failures.get());
+        Assert.assertEquals(n, filter.size());
+        for (int i = 0; i < n; i++) {
+            Assert.assertTrue(filter.membershipTest("key-" + i));
+        }
+    }
+}
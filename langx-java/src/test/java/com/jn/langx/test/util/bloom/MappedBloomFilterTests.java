@@ -0,0 +1,124 @@
+package com.jn.langx.test.util.bloom;
+
+import com.jn.langx.util.bloom.ConcurrentBloomFilter;
+import com.jn.langx.util.bloom.MappedBloomFilter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.*;
+
+public class MappedBloomFilterTests {
+
+    private static File newTempFile() throws IOException {
+        File file = File.createTempFile("bloom", ".bf");
+        file.deleteOnExit();
+        return file;
+    }
+
+    @Test
+    public void testCreateAndOpen() throws Exception {
+        int n = 10000;
+        ConcurrentBloomFilter heap = new ConcurrentBloomFilter(n * 10L, 7, 42);
+        for (int i = 0; i < n; i++) {
+            heap.add("key-" + i);
+        }
+        File file = newTempFile();
+        MappedBloomFilter.create(file, heap).close();
+
+        MappedBloomFilter mapped = MappedBloomFilter.open(file);
+        try {
+            Assert.assertTrue(mapped.isReadOnly());
+            Assert.assertEquals(heap.getVectorSize(), mapped.getVectorSize());
+            Assert.assertEquals(7, mapped.getNbHash());
+            Assert.assertEquals(42, mapped.getSeed());
+            Assert.assertEquals(heap.cardinality(), mapped.cardinality());
+            for (int i = 0; i < 2 * n; i++) {
+                Assert.assertEquals(heap.membershipTest("key-" + i), mapped.membershipTest("key-" + i));
+            }
+            try {
+                mapped.add("other");
+                Assert.fail();
+            } catch (UnsupportedOperationException expected) {
+                // read-only
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            mapped.writeTo(new DataOutputStream(bytes));
+            ConcurrentBloomFilter copy = new ConcurrentBloomFilter();
+            copy.readFields(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+            Assert.assertEquals(heap.cardinality(), copy.cardinality());
+        } finally {
+            mapped.close();
+        }
+    }
+
+    @Test
+    public void testSharedAndMerged() throws Exception {
+        File a = newTempFile();
+        File b = newTempFile();
+        MappedBloomFilter writer = MappedBloomFilter.create(a, 1000, 0.01);
+        MappedBloomFilter reader = MappedBloomFilter.open(a);
+        try {
+            Assert.assertFalse(reader.membershipTest("a"));
+            Assert.assertTrue(writer.add("a"));
+            Assert.assertFalse(writer.add("a"));
+            // both map the same pages
+            Assert.assertTrue(reader.membershipTest("a"));
+        } finally {
+            writer.close();
+            reader.close();
+        }
+
+        MappedBloomFilter other = MappedBloomFilter.create(b, 1000, 0.01);
+        other.add("b");
+        other.close();
+
+        MappedBloomFilter.or(a, b);
+        MappedBloomFilter merged = MappedBloomFilter.open(a);
+        try {
+            Assert.assertTrue(merged.membershipTest("a"));
+            Assert.assertTrue(merged.membershipTest("b"));
+        } finally {
+            merged.close();
+        }
+
+        MappedBloomFilter.and(a, b);
+        merged = MappedBloomFilter.open(a);
+        try {
+            Assert.assertTrue(merged.membershipTest("b"));
+            Assert.assertFalse(merged.membershipTest("a"));
+        } finally {
+            merged.close();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotAFilter() throws Exception {
+        File file = newTempFile();
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[128]);
+        out.close();
+        MappedBloomFilter.open(file);
+    }
+
+    @Test
+    public void testHugeVectorSize() throws Exception {
+        File file = newTempFile();
+        MappedBloomFilter.create(file, 1000, 3, 0).close();
+        long length = file.length();
+        // (vectorSize + 63) overflows for the sizes close to Long.MAX_VALUE
+        for (long vectorSize : new long[]{Long.MAX_VALUE, Long.MAX_VALUE - 10, 1L << 62}) {
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            raf.seek(16);
+            raf.writeLong(Long.reverseBytes(vectorSize));
+            raf.close();
+            try {
+                MappedBloomFilter.open(file);
+                Assert.fail();
+            } catch (IOException ex) {
+                // expected
+            }
+            Assert.assertEquals(length, file.length());
+        }
+    }
+}
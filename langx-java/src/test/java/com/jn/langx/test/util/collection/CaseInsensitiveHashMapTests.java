@@ -0,0 +1,57 @@
+package com.jn.langx.test.util.collection;
+
+import com.jn.langx.util.collection.CaseInsensitiveHashMap;
+import com.jn.langx.util.collection.CaseInsensitiveHashSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+
+public class CaseInsensitiveHashMapTests {
+    @Test
+    public void testMap() {
+        CaseInsensitiveHashMap<String> headers = new CaseInsensitiveHashMap<String>(2);
+        headers.put("Content-Type", "text/plain");
+        headers.put("Accept", "*/*");
+        headers.put("X-Forwarded-For", "127.0.0.1");
+        headers.put("CONTENT-TYPE", "application/json");
+
+        Assert.assertEquals(3, headers.size());
+        Assert.assertEquals("application/json", headers.get("content-type"));
+        Assert.assertEquals("Content-Type", headers.getOriginalKey("content-TYPE"));
+        Assert.assertTrue(headers.containsKey("x-forwarded-for"));
+        Assert.assertFalse(headers.containsKey(1));
+        Assert.assertEquals(Arrays.asList("Content-Type", "Accept", "X-Forwarded-For"), new ArrayList<String>(headers.keySet()));
+
+        // non ASCII keys
+        headers.put("Straße", "1");
+        headers.put("ÄPFEL", "2");
+        Assert.assertEquals("2", headers.get("äpfel"));
+        Assert.assertEquals("1", headers.get("STRAßE"));
+
+        Assert.assertEquals("*/*", headers.remove("ACCEPT"));
+        Iterator<String> keys = headers.keySet().iterator();
+        keys.next();
+        keys.next();
+        keys.remove();
+        Assert.assertEquals(Arrays.asList("Content-Type", "Straße", "ÄPFEL"), new ArrayList<String>(headers.keySet()));
+
+        for (int i = 0; i < 1000; i++) {
+            headers.put("Key" + i, "" + i);
+        }
+        Assert.assertEquals("999", headers.get("KEY999"));
+        Assert.assertEquals(1003, headers.size());
+    }
+
+    @Test
+    public void testSet() {
+        CaseInsensitiveHashSet set = new CaseInsensitiveHashSet(Arrays.asList("GET", "Post", "get"));
+        Assert.assertEquals(2, set.size());
+        Assert.assertTrue(set.contains("post"));
+        Assert.assertEquals("GET", set.getOriginal("Get"));
+        Assert.assertTrue(set.remove("get"));
+        Assert.assertFalse(set.contains("GET"));
+    }
+}
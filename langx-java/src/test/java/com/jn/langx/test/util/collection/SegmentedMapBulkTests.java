@@ -0,0 +1,110 @@
+package com.jn.langx.test.util.collection;
+
+import com.jn.langx.util.collection.BoundedConcurrentHashMap;
+import com.jn.langx.util.collection.ConcurrentReferenceHashMap;
+import com.jn.langx.util.function.Consumer2;
+import com.jn.langx.util.function.Function2;
+import com.jn.langx.util.function.Operator2;
+import com.jn.langx.util.function.Predicate2;
+import com.jn.langx.util.reflect.reference.ReferenceType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SegmentedMapBulkTests {
+    private static final int N = 10000;
+
+    private static final Function2<Integer, Integer, Long> TO_LONG = new Function2<Integer, Integer, Long>() {
+        @Override
+        public Long apply(Integer key, Integer value) {
+            return (long) value;
+        }
+    };
+
+    private static final Operator2<Long> SUM = new Operator2<Long>() {
+        @Override
+        public Long apply(Long a, Long b) {
+            return a + b;
+        }
+    };
+
+    private static final Function2<Integer, Integer, Integer> FIND_4242 = new Function2<Integer, Integer, Integer>() {
+        @Override
+        public Integer apply(Integer key, Integer value) {
+            return key == 4242 ? value : null;
+        }
+    };
+
+    private static final Predicate2<Integer, Integer> ODD = new Predicate2<Integer, Integer>() {
+        @Override
+        public boolean test(Integer key, Integer value) {
+            return (key & 1) == 1;
+        }
+    };
+
+    private static final long EXPECTED_SUM = (long) N * (N - 1) / 2;
+
+    @Test
+    public void testBoundedConcurrentHashMap() {
+        BoundedConcurrentHashMap<Integer, Integer> map = new BoundedConcurrentHashMap<Integer, Integer>(N * 2, 16, BoundedConcurrentHashMap.Eviction.NONE);
+        for (int i = 0; i < N; i++) {
+            map.put(i, i);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final AtomicLong sum = new AtomicLong();
+            map.forEach(1, executor, new Consumer2<Integer, Integer>() {
+                @Override
+                public void accept(Integer key, Integer value) {
+                    sum.addAndGet(value);
+                }
+            });
+            Assert.assertEquals(EXPECTED_SUM, sum.get());
+            Assert.assertEquals(EXPECTED_SUM, map.reduce(1, executor, TO_LONG, SUM).longValue());
+            Assert.assertEquals(EXPECTED_SUM, map.reduce(Long.MAX_VALUE, null, TO_LONG, SUM).longValue());
+            Assert.assertEquals(4242, map.search(1, executor, FIND_4242).intValue());
+
+            Assert.assertEquals(N / 2, map.removeIf(1, executor, ODD));
+            Assert.assertEquals(N / 2, map.size());
+            Assert.assertFalse(map.containsKey(4243));
+            Assert.assertNull(map.search(1, executor, new Function2<Integer, Integer, Integer>() {
+                @Override
+                public Integer apply(Integer key, Integer value) {
+                    return ODD.test(key, value) ? key : null;
+                }
+            }));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testConcurrentReferenceHashMap() {
+        ConcurrentReferenceHashMap<Integer, Integer> map = new ConcurrentReferenceHashMap<Integer, Integer>(16, ReferenceType.STRONG, ReferenceType.STRONG);
+        for (int i = 0; i < N; i++) {
+            map.put(i, i);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final AtomicLong sum = new AtomicLong();
+            map.forEach(1, executor, new Consumer2<Integer, Integer>() {
+                @Override
+                public void accept(Integer key, Integer value) {
+                    sum.addAndGet(value);
+                }
+            });
+            Assert.assertEquals(EXPECTED_SUM, sum.get());
+            Assert.assertEquals(EXPECTED_SUM, map.reduce(1, executor, TO_LONG, SUM).longValue());
+            Assert.assertEquals(4242, map.search(1, executor, FIND_4242).intValue());
+
+            Assert.assertEquals(N / 2, map.removeIf(1, executor, ODD));
+            Assert.assertEquals(N / 2, map.size());
+            Assert.assertFalse(map.containsKey(4243));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.jn.langx.test.util.collection;
+
+import com.jn.langx.util.collection.diff.*;
+import com.jn.langx.util.comparator.ComparableComparator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class StreamingDifferTests {
+
+    @Test
+    public void testSortedCollectionDiffer() {
+        SortedCollectionDiffer<Integer> differ = new SortedCollectionDiffer<Integer>();
+        differ.setKeyComparator(new ComparableComparator<Integer>());
+        final List<Integer> adds = new ArrayList<Integer>();
+        final List<Integer> removes = new ArrayList<Integer>();
+        StreamingDiffResult result = differ.diff(Arrays.asList(1, 2, 4, 6), Arrays.asList(2, 3, 4, 7), new DiffListenerAdapter<Integer>() {
+            @Override
+            public void onAdded(Integer newElement) {
+                adds.add(newElement);
+            }
+
+            @Override
+            public void onRemoved(Integer oldElement) {
+                removes.add(oldElement);
+            }
+        });
+        Assert.assertEquals(Arrays.asList(3, 7), adds);
+        Assert.assertEquals(Arrays.asList(1, 6), removes);
+        Assert.assertEquals(2, result.getEquals());
+        Assert.assertTrue(result.hasDifference());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSortedCollectionDifferRejectsUnsortedInput() {
+        SortedCollectionDiffer<Integer> differ = new SortedCollectionDiffer<Integer>();
+        differ.setKeyComparator(new ComparableComparator<Integer>());
+        differ.diff(Arrays.asList(1, 3, 2), Arrays.asList(1, 2, 3), new DiffListenerAdapter<Integer>());
+    }
+
+    @Test
+    public void testSortedMapDiffer() {
+        TreeMap<String, String> oldMap = new TreeMap<String, String>();
+        oldMap.put("a", "1");
+        oldMap.put("b", "2");
+        oldMap.put("c", "3");
+        TreeMap<String, String> newMap = new TreeMap<String, String>();
+        newMap.put("b", "2");
+        newMap.put("c", "30");
+        newMap.put("d", "4");
+
+        final Map<String, String> updates = new HashMap<String, String>();
+        StreamingDiffResult result = new SortedMapDiffer<String, String>().diff(oldMap, newMap, new DiffListenerAdapter<Map.Entry<String, String>>() {
+            @Override
+            public void onUpdated(Map.Entry<String, String> oldElement, Map.Entry<String, String> newElement) {
+                updates.put(newElement.getKey(), newElement.getValue());
+            }
+        });
+        Assert.assertEquals(1, result.getAdds());
+        Assert.assertEquals(1, result.getRemoves());
+        Assert.assertEquals(1, result.getEquals());
+        Assert.assertEquals(Collections.singletonMap("c", "30"), updates);
+    }
+
+    @Test
+    public void testPartitionedCollectionDiffer() {
+        List<long[]> oldRows = new ArrayList<long[]>();
+        List<long[]> newRows = new ArrayList<long[]>();
+        for (long i = 0; i < 10000; i++) {
+            oldRows.add(new long[]{i, i});
+            if (i % 10 != 0) {
+                newRows.add(new long[]{i, i % 10 == 1 ? -i : i});
+            }
+        }
+        newRows.add(new long[]{20000, 0});
+
+        PartitionedCollectionDiffer<Long, long[]> differ = new PartitionedCollectionDiffer<Long, long[]>();
+        differ.setKeyBuilder(new KeyBuilder<Long, long[]>() {
+            @Override
+            public Long getKey(long[] row) {
+                return row[0];
+            }
+        });
+        differ.setValueComparator(new Comparator<long[]>() {
+            @Override
+            public int compare(long[] o1, long[] o2) {
+                return o1[1] == o2[1] ? 0 : 1;
+            }
+        });
+        differ.setPartitions(8);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            differ.setExecutor(executor);
+            final AtomicLong removedKeySum = new AtomicLong();
+            StreamingDiffResult result = differ.diff(oldRows, newRows, new DiffListenerAdapter<long[]>() {
+                @Override
+                public void onRemoved(long[] oldElement) {
+                    removedKeySum.addAndGet(oldElement[0]);
+                }
+            });
+            Assert.assertEquals(1, result.getAdds());
+            Assert.assertEquals(1000, result.getRemoves());
+            Assert.assertEquals(1000, result.getUpdates());
+            Assert.assertEquals(8000, result.getEquals());
+            Assert.assertEquals(4995000, removedKeySum.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testPartitionedCollectionDifferInterrupted() throws Throwable {
+        final List<Integer> rows = new ArrayList<Integer>();
+        for (int i = 0; i < 2000; i++) {
+            rows.add(i);
+        }
+        final PartitionedCollectionDiffer<Integer, Integer> differ = new PartitionedCollectionDiffer<Integer, Integer>();
+        differ.setKeyBuilder(new KeyBuilder<Integer, Integer>() {
+            @Override
+            public Integer getKey(Integer row) {
+                return row;
+            }
+        });
+        differ.setPartitions(2);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            differ.setExecutor(executor);
+            final AtomicLong calls = new AtomicLong();
+            final AtomicLong callsAfterReturn = new AtomicLong(-1);
+            final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+            final CountDownLatch slowStarted = new CountDownLatch(1);
+            final Thread caller = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        differ.diff(rows, rows, new DiffListenerAdapter<Integer>() {
+                            @Override
+                            public void onEqual(Integer oldElement, Integer newElement) {
+                                if (Thread.currentThread().getName().startsWith("pool")) {
+                                    // the partition of the executor is slow
+                                    slowStarted.countDown();
+                                    calls.incrementAndGet();
+                                    try {
+                                        Thread.sleep(1);
+                                    } catch (InterruptedException ex) {
+                                        Thread.currentThread().interrupt();
+                                    }
+                                }
+                            }
+                        });
+                    } catch (Throwable ex) {
+                        failure.set(ex);
+                    }
+                    callsAfterReturn.set(calls.get());
+                }
+            });
+            caller.start();
+            Assert.assertTrue(slowStarted.await(5, TimeUnit.SECONDS));
+            Thread.sleep(20);
+            caller.interrupt();
+            caller.join(5000);
+            Assert.assertFalse(caller.isAlive());
+            Assert.assertTrue(failure.get() instanceof IllegalStateException);
+            Thread.sleep(50);
+            // the listener is not called once diff returned
+            Assert.assertEquals(callsAfterReturn.get(), calls.get());
+            Assert.assertTrue(calls.get() < 1000);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.jn.langx.test.util.collection.tree;
+
+import com.jn.langx.util.collection.tree.CommonTree;
+import com.jn.langx.util.collection.tree.CommonTreeBuilder;
+import com.jn.langx.util.collection.tree.TreeNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class CommonTreeTests {
+
+    @Test
+    public void testBuildAndIndexedQueries() {
+        // a complete binary tree: node i has the parent (i - 1) / 2, listed children first
+        int n = 200000;
+        List<TreeNode> nodes = new ArrayList<TreeNode>(n);
+        for (int i = 0; i < n; i++) {
+            nodes.add(new TreeNode("" + i, i == 0 ? null : "" + ((i - 1) / 2), "node" + i));
+        }
+        Collections.reverse(nodes);
+
+        CommonTree tree = new CommonTreeBuilder().addNodes(nodes).build();
+        Assert.assertEquals(1, tree.getRootNodes().size());
+        Assert.assertEquals(n, tree.getDescendants("0", true).size());
+
+        Assert.assertTrue(tree.isAncestor("0", "199999"));
+        Assert.assertTrue(tree.isAncestor("1", "7"));
+        Assert.assertFalse(tree.isAncestor("2", "7"));
+        Assert.assertFalse(tree.isAncestor("7", "7"));
+        Assert.assertTrue(tree.isDescendant("8", "3"));
+        Assert.assertEquals(3, tree.getDepth("7"));
+        Assert.assertEquals(3, tree.getAncestors("7").size());
+        Assert.assertEquals("3", tree.getAncestors("7").get(0).getId());
+        Assert.assertEquals(1, tree.getDescendants("99999", false).size());
+        Assert.assertEquals("199999", tree.getDescendants("99999", false).get(0).getId());
+
+        tree.removeNode(tree.getNodeById("3"), true);
+        Assert.assertFalse(tree.isAncestor("1", "7"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildRejectsCycles() {
+        List<TreeNode> nodes = new ArrayList<TreeNode>();
+        nodes.add(new TreeNode("root", null, "root"));
+        nodes.add(new TreeNode("a", "b", "a"));
+        nodes.add(new TreeNode("b", "a", "b"));
+        new CommonTreeBuilder().addNodes(nodes).build();
+    }
+}
@@ -1,13 +1,19 @@
 package com.jn.langx.test.util.concurrent;
 
 import com.jn.langx.util.concurrent.completion.CompletableFuture;
+import com.jn.langx.util.concurrent.completion.CompletionException;
+import com.jn.langx.util.concurrent.completion.Deadline;
 import com.jn.langx.util.function.Function;
 import com.jn.langx.util.function.Function2;
 import com.jn.langx.util.function.Supplier0;
 import com.jn.langx.util.struct.Holder;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class CompletableFutureTests {
 
@@ -105,6 +111,107 @@ public class CompletableFutureTests {
         }
     }
 
+    @Test
+    public void testTimeouts() throws Throwable {
+        CompletableFuture<String> timedOut = new CompletableFuture<String>().orTimeout(50, TimeUnit.MILLISECONDS);
+        try {
+            timedOut.get(5, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof TimeoutException);
+        }
+
+        CompletableFuture<String> defaulted = new CompletableFuture<String>().completeOnTimeout("default", 50, TimeUnit.MILLISECONDS);
+        Assert.assertEquals("default", defaulted.get(5, TimeUnit.SECONDS));
+
+        // completed in time, the timeout has no effect
+        CompletableFuture<String> completed = new CompletableFuture<String>().orTimeout(50, TimeUnit.MILLISECONDS);
+        completed.complete("done");
+        Thread.sleep(100);
+        Assert.assertEquals("done", completed.join());
+
+        // the stages bound to a deadline time out together
+        Deadline deadline = Deadline.after(50, TimeUnit.MILLISECONDS);
+        CompletableFuture<String> first = new CompletableFuture<String>().orDeadline(deadline);
+        Thread.sleep(20);
+        CompletableFuture<String> second = new CompletableFuture<String>().orDeadline(deadline);
+        try {
+            second.get(5, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof TimeoutException);
+        }
+        Assert.assertTrue(first.isCompletedExceptionally());
+        Assert.assertTrue(deadline.isExpired());
+        Assert.assertTrue(new CompletableFuture<String>().orDeadline(deadline).isCompletedExceptionally());
+    }
+
+    @Test
+    public void testDelayedExecutor() throws Throwable {
+        final long start = System.nanoTime();
+        final CountDownLatch ran = new CountDownLatch(1);
+        final Holder<Long> delay = new Holder<Long>(0L);
+        CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS).execute(new Runnable() {
+            @Override
+            public void run() {
+                delay.set(System.nanoTime() - start);
+                ran.countDown();
+            }
+        });
+        Assert.assertTrue(ran.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(delay.get() >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void testAllOfFailFast() throws Throwable {
+        CompletableFuture<String> ok = new CompletableFuture<String>();
+        CompletableFuture<String> failing = new CompletableFuture<String>();
+        CompletableFuture<String> slow = new CompletableFuture<String>();
+        CompletableFuture<Void> all = CompletableFuture.allOfFailFast(ok, failing, slow);
+        ok.complete("ok");
+        Assert.assertFalse(all.isDone());
+        failing.completeExceptionally(new IllegalStateException("expected"));
+        // done without waiting for the slow one, which is cancelled
+        Assert.assertTrue(all.isCompletedExceptionally());
+        try {
+            all.join();
+            Assert.fail();
+        } catch (CompletionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof IllegalStateException);
+        }
+        Assert.assertTrue(slow.isCancelled());
+        Assert.assertFalse(ok.isCancelled());
+
+        CompletableFuture<String> a = new CompletableFuture<String>();
+        CompletableFuture<String> b = new CompletableFuture<String>();
+        CompletableFuture<Void> both = CompletableFuture.allOfFailFast(a, b);
+        a.complete("a");
+        b.complete("b");
+        Assert.assertNull(both.join());
+        Assert.assertNull(CompletableFuture.allOfFailFast().join());
+
+        // a timeout of the whole cancels the pending ones
+        CompletableFuture<String> pending = new CompletableFuture<String>();
+        CompletableFuture.allOfFailFast(pending).orTimeout(20, TimeUnit.MILLISECONDS);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!pending.isDone() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Assert.assertTrue(pending.isCancelled());
+    }
+
+    @Test
+    public void testAnyOfCancelOthers() {
+        CompletableFuture<String> winner = new CompletableFuture<String>();
+        CompletableFuture<String> loser = new CompletableFuture<String>();
+        CompletableFuture<Object> any = CompletableFuture.anyOfCancelOthers(winner, loser);
+        Assert.assertFalse(any.isDone());
+        winner.complete("first");
+        Assert.assertEquals("first", any.join());
+        Assert.assertTrue(loser.isCancelled());
+        Assert.assertFalse(winner.isCancelled());
+    }
+
     private void sleep(int seconds) {
         try {
             TimeUnit.SECONDS.sleep(seconds);
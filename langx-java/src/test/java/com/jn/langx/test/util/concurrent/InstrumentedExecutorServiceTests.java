@@ -0,0 +1,214 @@
+package com.jn.langx.test.util.concurrent;
+
+import com.jn.langx.util.concurrent.InstrumentedExecutorService;
+import com.jn.langx.util.concurrent.interceptor.TaskStats;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class InstrumentedExecutorServiceTests {
+
+    @Test
+    public void testSaturationAndQueue() throws Throwable {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(2, 2, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(2));
+        InstrumentedExecutorService executor = new InstrumentedExecutorService("test", pool);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch started = new CountDownLatch(2);
+            for (int i = 0; i < 4; i++) {
+                executor.execute(new BlockingTask(started, release));
+            }
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            try {
+                executor.execute(new BlockingTask(started, release));
+                Assert.fail();
+            } catch (RejectedExecutionException ex) {
+                // expected
+            }
+            Assert.assertEquals(1, executor.getRejected());
+            Assert.assertEquals(2, executor.getActive());
+            Assert.assertEquals(2, executor.getQueueDepth());
+            Assert.assertEquals(1.0, executor.getSaturation(), 0.001);
+
+            TaskStats stats = executor.getStats(BlockingTask.class);
+            Assert.assertEquals(5, stats.getSubmitted());
+            Assert.assertEquals(2, stats.getRunning());
+            Assert.assertEquals(2, stats.getWaiting());
+            Assert.assertEquals(1, stats.getAbandoned());
+
+            Thread.sleep(20);
+            release.countDown();
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            Assert.assertEquals(4, stats.getCompleted());
+            Assert.assertEquals(0, stats.getRunning());
+            Assert.assertEquals(2, stats.getMaxRunning());
+            Assert.assertEquals(4, stats.getRunTimes().getCount());
+            // the queued tasks waited for the running ones
+            Assert.assertTrue(stats.getQueueWaits().getMax() >= TimeUnit.MILLISECONDS.toNanos(20));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailures() throws Throwable {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(10));
+        InstrumentedExecutorService executor = new InstrumentedExecutorService("test", pool);
+        try {
+            Future<?> failed = executor.submit(new FailingTask());
+            try {
+                failed.get();
+                Assert.fail();
+            } catch (ExecutionException ex) {
+                // the exception of the task, not a wrapper
+                Assert.assertTrue(ex.getCause() instanceof IllegalStateException);
+            }
+            Future<String> ok = executor.submit(new Callable<String>() {
+                @Override
+                public String call() {
+                    return "ok";
+                }
+            });
+            Assert.assertEquals("ok", ok.get());
+
+            TaskStats stats = executor.getStats(FailingTask.class);
+            Assert.assertEquals(1, stats.getFailed());
+            Assert.assertEquals(0, stats.getCompleted());
+            Assert.assertEquals(2, executor.getMetrics().getAllStats().size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testDiscardedTasks() throws Throwable {
+        CountDownLatch release = new CountDownLatch(1);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(1), new ThreadPoolExecutor.DiscardPolicy());
+        InstrumentedExecutorService executor = new InstrumentedExecutorService("discard", pool);
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            executor.execute(new BlockingTask(started, release));
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            executor.submit(new BlockingTask(started, release));
+            // discarded silently
+            executor.submit(new BlockingTask(started, release));
+            TaskStats stats = executor.getStats(BlockingTask.class);
+            Assert.assertEquals(1, executor.getRejected());
+            Assert.assertEquals(1, stats.getAbandoned());
+            Assert.assertEquals(1, stats.getWaiting());
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+
+        release = new CountDownLatch(1);
+        pool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(1), new ThreadPoolExecutor.DiscardOldestPolicy());
+        executor = new InstrumentedExecutorService("discardOldest", pool);
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            executor.execute(new BlockingTask(started, release));
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            executor.execute(new BlockingTask(started, release));
+            // the queued task is discarded for this one
+            BlockingTask last = new BlockingTask(started, release);
+            executor.execute(last);
+            TaskStats stats = executor.getStats(BlockingTask.class);
+            Assert.assertEquals(1, executor.getRejected());
+            Assert.assertEquals(1, stats.getAbandoned());
+            Assert.assertEquals(1, stats.getWaiting());
+
+            // the drained tasks are the ones given, and they are not waiting anymore
+            List<Runnable> drained = executor.shutdownNow();
+            Assert.assertEquals(1, drained.size());
+            Assert.assertSame(last, drained.get(0));
+            Assert.assertEquals(0, stats.getWaiting());
+            Assert.assertEquals(2, stats.getAbandoned());
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCancelledTasks() throws Throwable {
+        CountDownLatch release = new CountDownLatch(1);
+        // not a ThreadPoolExecutor, the queue depth is the count of waiting tasks
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        InstrumentedExecutorService executor = new InstrumentedExecutorService("cancel", single);
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            executor.execute(new BlockingTask(started, release));
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            executor.submit(new BlockingTask(started, release));
+            Future<?> cancelled = executor.submit(new BlockingTask(started, release));
+            Assert.assertEquals(2, executor.getQueueDepth());
+            Assert.assertTrue(cancelled.cancel(false));
+            TaskStats stats = executor.getStats(BlockingTask.class);
+            Assert.assertEquals(1, stats.getAbandoned());
+            Assert.assertEquals(1, executor.getQueueDepth());
+
+            List<Future<Integer>> futures = executor.invokeAll(Arrays.asList(new ValueTask(), new ValueTask()), 50, TimeUnit.MILLISECONDS);
+            Assert.assertTrue(futures.get(0).isCancelled());
+            TaskStats valueStats = executor.getStats(ValueTask.class);
+            Assert.assertEquals(2, valueStats.getAbandoned());
+            Assert.assertEquals(1, executor.getQueueDepth());
+
+            release.countDown();
+            Assert.assertEquals(Integer.valueOf(1), executor.invokeAny(Arrays.asList(new ValueTask(), new ValueTask(), new ValueTask())));
+            Assert.assertEquals(0, valueStats.getWaiting());
+            Assert.assertEquals(2 + 3, valueStats.getAbandoned() + valueStats.getCompleted() + valueStats.getRunning());
+        } finally {
+            release.countDown();
+            single.shutdownNow();
+        }
+        Assert.assertTrue(single.awaitTermination(5, TimeUnit.SECONDS));
+        Assert.assertEquals(0, executor.getQueueDepth());
+    }
+
+    private static class ValueTask implements Callable<Integer> {
+        @Override
+        public Integer call() {
+            return 1;
+        }
+    }
+
+    private static class BlockingTask implements Runnable {
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+
+        BlockingTask(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        @Override
+        public void run() {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static class FailingTask implements Runnable {
+        @Override
+        public void run() {
+            throw new IllegalStateException("expected");
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.jn.langx.test.util.concurrent.flow;
+
+import com.jn.langx.util.concurrent.Flow;
+import com.jn.langx.util.concurrent.flow.BatchingProcessor;
+import com.jn.langx.util.concurrent.flow.FilteringProcessor;
+import com.jn.langx.util.concurrent.flow.MappingProcessor;
+import com.jn.langx.util.concurrent.flow.OverflowPolicy;
+import com.jn.langx.util.concurrent.flow.Processors;
+import com.jn.langx.util.concurrent.flow.SubmissionPublisher;
+import com.jn.langx.util.concurrent.flow.ThrottlingProcessor;
+import com.jn.langx.util.function.Function;
+import com.jn.langx.util.function.Predicate;
+import com.jn.langx.util.timing.timer.HashedWheelTimer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class SubmissionPublisherTests {
+
+    @Test
+    public void testDemandAndOrder() throws Throwable {
+        SubmissionPublisher<Integer> publisher = new SubmissionPublisher<Integer>();
+        CollectingSubscriber<Integer> subscriber = new CollectingSubscriber<Integer>(10);
+        publisher.subscribe(subscriber);
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(0, publisher.submit(i));
+        }
+        publisher.close();
+        Assert.assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        Assert.assertNull(subscriber.error);
+        Assert.assertEquals(1000, subscriber.items.size());
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(Integer.valueOf(i), subscriber.items.get(i));
+        }
+        Assert.assertFalse(publisher.hasSubscribers());
+        try {
+            publisher.submit(1);
+            Assert.fail();
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testDropPolicy() throws Throwable {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            SubmissionPublisher<Integer> publisher = new SubmissionPublisher<Integer>(executor, 8, OverflowPolicy.DROP);
+            CollectingSubscriber<Integer> subscriber = new CollectingSubscriber<Integer>(0);
+            publisher.subscribe(subscriber);
+            int drops = 0;
+            for (int i = 0; i < 20; i++) {
+                drops += publisher.submit(i);
+            }
+            Assert.assertEquals(12, drops);
+            Assert.assertEquals(12, publisher.getDroppedItems());
+            Assert.assertEquals(8, publisher.getEstimatedMaximumLag());
+
+            subscriber.awaitSubscription().request(100);
+            publisher.close();
+            Assert.assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(8, subscriber.items.size());
+            Assert.assertEquals(Integer.valueOf(7), subscriber.items.get(7));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBlockPolicy() throws Throwable {
+        final SubmissionPublisher<Integer> publisher = new SubmissionPublisher<Integer>(Executors.newCachedThreadPool(), 4, OverflowPolicy.BLOCK);
+        CollectingSubscriber<Integer> subscriber = new CollectingSubscriber<Integer>(0);
+        publisher.subscribe(subscriber);
+        final CountDownLatch submitted = new CountDownLatch(1);
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 100; i++) {
+                    publisher.submit(i);
+                }
+                submitted.countDown();
+            }
+        }).start();
+        // no demand, the submitter waits for the full buffer
+        Assert.assertFalse(submitted.await(200, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(4, publisher.getEstimatedMaximumLag());
+
+        subscriber.awaitSubscription().request(Long.MAX_VALUE);
+        Assert.assertTrue(submitted.await(5, TimeUnit.SECONDS));
+        publisher.close();
+        Assert.assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(100, subscriber.items.size());
+        Assert.assertEquals(0, publisher.getDroppedItems());
+    }
+
+    @Test
+    public void testInvalidRequest() throws Throwable {
+        SubmissionPublisher<Integer> publisher = new SubmissionPublisher<Integer>();
+        CollectingSubscriber<Integer> subscriber = new CollectingSubscriber<Integer>(0);
+        publisher.subscribe(subscriber);
+        subscriber.awaitSubscription().request(0);
+        Assert.assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(subscriber.error instanceof IllegalArgumentException);
+        Assert.assertFalse(publisher.isSubscribed(subscriber));
+
+        // a subscriber of a closed publisher completes at once
+        publisher.close();
+        CollectingSubscriber<Integer> late = new CollectingSubscriber<Integer>(1);
+        publisher.subscribe(late);
+        Assert.assertTrue(late.done.await(5, TimeUnit.SECONDS));
+        Assert.assertNull(late.error);
+    }
+
+    @Test
+    public void testPipeline() throws Throwable {
+        SubmissionPublisher<Integer> publisher = new SubmissionPublisher<Integer>();
+        FilteringProcessor<Integer> even = Processors.filter(new Predicate<Integer>() {
+            @Override
+            public boolean test(Integer value) {
+                return value % 2 == 0;
+            }
+        });
+        MappingProcessor<Integer, String> format = Processors.map(new Function<Integer, String>() {
+            @Override
+            public String apply(Integer input) {
+                return "#" + input;
+            }
+        });
+        BatchingProcessor<String> batches = Processors.batch(10);
+        CollectingSubscriber<List<String>> subscriber = new CollectingSubscriber<List<String>>(1);
+        Processors.pipe(Processors.pipe(Processors.pipe(publisher, even), format), batches).subscribe(subscriber);
+
+        for (int i = 0; i < 1005; i++) {
+            publisher.submit(i);
+        }
+        publisher.close();
+        Assert.assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        Assert.assertNull(subscriber.error);
+        // 503 even values: 50 full batches, then the rest on completion
+        Assert.assertEquals(51, subscriber.items.size());
+        Assert.assertEquals("#0", subscriber.items.get(0).get(0));
+        Assert.assertEquals("#1004", subscriber.items.get(50).get(2));
+        Assert.assertEquals(3, subscriber.items.get(50).size());
+    }
+
+    @Test
+    public void testBatchMaxDelay() throws Throwable {
+        SubmissionPublisher<Integer> publisher = new SubmissionPublisher<Integer>();
+        BatchingProcessor<Integer> batches = Processors.batch(100, 50, TimeUnit.MILLISECONDS);
+        CollectingSubscriber<List<Integer>> subscriber = new CollectingSubscriber<List<Integer>>(10);
+        Processors.pipe(publisher, batches).subscribe(subscriber);
+        publisher.submit(1);
+        publisher.submit(2);
+        publisher.submit(3);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (subscriber.items.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Assert.assertEquals(1, subscriber.items.size());
+        Assert.assertEquals(3, subscriber.items.get(0).size());
+        Assert.assertEquals(1, subscriber.done.getCount());
+        publisher.close();
+    }
+
+    @Test
+    public void testThrottle() throws Throwable {
+        SubmissionPublisher<Integer> publisher = new SubmissionPublisher<Integer>();
+        ThrottlingProcessor<Integer> throttle = Processors.throttle(10, 100, TimeUnit.MILLISECONDS);
+        CollectingSubscriber<Integer> subscriber = new CollectingSubscriber<Integer>(1000);
+        Processors.pipe(publisher, throttle).subscribe(subscriber);
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 40; i++) {
+            publisher.submit(i);
+        }
+        publisher.close();
+        Assert.assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(40, subscriber.items.size());
+        // 10 at once, then 10 per period
+        Assert.assertTrue(System.currentTimeMillis() - start >= 250);
+    }
+
+    @Test
+    public void testTimeoutsCancelled() throws Throwable {
+        HashedWheelTimer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            // the flush timeout of a full batch is cancelled
+            SubmissionPublisher<Integer> publisher = new SubmissionPublisher<Integer>(executor, 256, OverflowPolicy.BLOCK);
+            BatchingProcessor<Integer> batches = new BatchingProcessor<Integer>(executor, 256, OverflowPolicy.BLOCK, timer, 10, 1, TimeUnit.HOURS);
+            CollectingSubscriber<List<Integer>> subscriber = new CollectingSubscriber<List<Integer>>(1);
+            Processors.pipe(publisher, batches).subscribe(subscriber);
+            for (int i = 0; i < 1000; i++) {
+                publisher.submit(i);
+            }
+            publisher.close();
+            Assert.assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(100, subscriber.items.size());
+            for (int i = 0; i < 100; i++) {
+                Assert.assertEquals(Integer.valueOf(i * 10), subscriber.items.get(i).get(0));
+            }
+            awaitNoPendingTimeouts(timer);
+
+            // the period task is removed when the processor is cancelled
+            SubmissionPublisher<Integer> source = new SubmissionPublisher<Integer>(executor, 16, OverflowPolicy.BLOCK);
+            ThrottlingProcessor<Integer> throttle = new ThrottlingProcessor<Integer>(executor, 16, OverflowPolicy.BLOCK, timer, 10, 50, TimeUnit.MILLISECONDS);
+            Processors.pipe(source, throttle).subscribe(new CollectingSubscriber<Integer>(100));
+            Thread.sleep(120);
+            Assert.assertEquals(1, timer.pendingTimeouts());
+            throttle.cancel();
+            awaitNoPendingTimeouts(timer);
+        } finally {
+            timer.stop();
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitNoPendingTimeouts(HashedWheelTimer timer) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (timer.pendingTimeouts() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(0, timer.pendingTimeouts());
+    }
+
+    private static class CollectingSubscriber<T> implements Flow.Subscriber<T> {
+        private final long batch;
+        private final List<T> items = new CopyOnWriteArrayList<T>();
+        private final CountDownLatch subscribed = new CountDownLatch(1);
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final AtomicBoolean ordered = new AtomicBoolean(true);
+        private volatile Flow.Subscription subscription;
+        private volatile Throwable error;
+        private long remaining;
+
+        /**
+         * @param batch the count of items requested at once, again when they are received; 0 to request none
+         */
+        CollectingSubscriber(long batch) {
+            this.batch = batch;
+        }
+
+        Flow.Subscription awaitSubscription() throws InterruptedException {
+            Assert.assertTrue(subscribed.await(5, TimeUnit.SECONDS));
+            return subscription;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscribed.countDown();
+            if (batch > 0) {
+                remaining = batch;
+                subscription.request(batch);
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done.getCount() == 0) {
+                ordered.set(false);
+            }
+            items.add(item);
+            if (batch > 0 && --remaining == 0) {
+                remaining = batch;
+                subscription.request(batch);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            Assert.assertTrue(ordered.get());
+            done.countDown();
+        }
+    }
+}
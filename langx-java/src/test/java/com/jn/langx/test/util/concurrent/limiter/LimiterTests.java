@@ -0,0 +1,317 @@
+package com.jn.langx.test.util.concurrent.limiter;
+
+import com.jn.langx.util.concurrent.WrappedRunable;
+import com.jn.langx.util.concurrent.WrappedTasks;
+import com.jn.langx.util.concurrent.interceptor.ConcurrencyLimiterInterceptor;
+import com.jn.langx.util.concurrent.interceptor.RateLimiterInterceptor;
+import com.jn.langx.util.concurrent.limiter.AdaptiveConcurrencyLimiter;
+import com.jn.langx.util.concurrent.limiter.AimdLimit;
+import com.jn.langx.util.concurrent.limiter.LimitExceededException;
+import com.jn.langx.util.concurrent.limiter.RateLimiter;
+import com.jn.langx.util.concurrent.limiter.VegasLimit;
+import com.jn.langx.util.timing.clock.Ticker;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class LimiterTests {
+
+    @Test
+    public void testBursty() {
+        ManualTicker ticker = new ManualTicker();
+        RateLimiter limiter = RateLimiter.create(ticker, 10, 1.0);
+        // no stored permit at first: one permit, then the next one is 100ms later
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertFalse(limiter.tryAcquire());
+        Assert.assertFalse(limiter.tryAcquire(50, TimeUnit.MILLISECONDS));
+        ticker.advance(100, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(limiter.tryAcquire());
+
+        // idle for long, up to 1s of permits are stored
+        ticker.advance(10, TimeUnit.SECONDS);
+        Assert.assertEquals(10.0, limiter.getStoredPermits(), 0.01);
+        int granted = 0;
+        while (limiter.tryAcquire()) {
+            granted++;
+        }
+        // the stored permits, then one more paid by the next requests
+        Assert.assertEquals(11, granted);
+        Assert.assertEquals(13, limiter.getAcquiredPermits());
+        Assert.assertEquals(3, limiter.getRejectedRequests());
+
+        // a large request is granted at once, the next ones pay for it
+        ticker.advance(10, TimeUnit.SECONDS);
+        Assert.assertTrue(limiter.tryAcquire(30));
+        Assert.assertFalse(limiter.tryAcquire());
+        ticker.advance(1900, TimeUnit.MILLISECONDS);
+        Assert.assertFalse(limiter.tryAcquire());
+        ticker.advance(100, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void testWarmingUp() {
+        ManualTicker ticker = new ManualTicker();
+        // stable interval 100ms, cold interval 300ms, warmed up in 2s
+        RateLimiter limiter = RateLimiter.create(ticker, 10, 2, TimeUnit.SECONDS);
+        long[] waits = new long[12];
+        long last = 0;
+        for (int i = 0; i < waits.length; i++) {
+            long elapsed = 0;
+            while (!limiter.tryAcquire()) {
+                ticker.advance(1, TimeUnit.MILLISECONDS);
+                elapsed++;
+            }
+            waits[i] = elapsed;
+            last = elapsed;
+        }
+        // the intervals decrease from the cold one to the stable one
+        Assert.assertTrue(waits[1] > 250);
+        for (int i = 2; i < waits.length; i++) {
+            Assert.assertTrue(waits[i] <= waits[i - 1]);
+        }
+        Assert.assertEquals(100, last);
+
+        // cools down when idle
+        ticker.advance(10, TimeUnit.SECONDS);
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertFalse(limiter.tryAcquire(250, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testAcquireWaits() {
+        RateLimiter limiter = RateLimiter.create(50, 0);
+        long start = System.nanoTime();
+        for (int i = 0; i < 6; i++) {
+            limiter.acquire();
+        }
+        // 5 intervals of 20ms
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(95));
+        Assert.assertTrue(limiter.getWaitedNanos() >= TimeUnit.MILLISECONDS.toNanos(95));
+    }
+
+    @Test
+    public void testAimd() {
+        AimdLimit limit = new AimdLimit(10);
+        limit.setMaxLimit(12);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(limit);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(limiter.tryAcquire());
+        }
+        Assert.assertFalse(limiter.tryAcquire());
+        Assert.assertEquals(1, limiter.getRejected());
+
+        // loaded and fast, the limit grows up to the maximum
+        for (int i = 0; i < 5; i++) {
+            limiter.release(1000);
+            Assert.assertTrue(limiter.tryAcquire());
+        }
+        Assert.assertEquals(12, limiter.getLimit());
+        Assert.assertEquals(1000, limiter.getMinRtt());
+
+        limiter.releaseDropped();
+        Assert.assertEquals(10, limiter.getLimit());
+        Assert.assertEquals(1, limiter.getDropped());
+        Assert.assertEquals(9, limiter.getInFlight());
+        for (int i = 0; i < 9; i++) {
+            limiter.release(1000);
+        }
+        Assert.assertEquals(12, limiter.getLimit());
+        Assert.assertEquals(0, limiter.getInFlight());
+        // not loaded enough, no change
+        limit.setMaxLimit(100);
+        Assert.assertTrue(limiter.tryAcquire());
+        limiter.release(1000);
+        Assert.assertEquals(12, limiter.getLimit());
+    }
+
+    @Test
+    public void testVegas() {
+        VegasLimit limit = new VegasLimit(10);
+        limit.setMaxLimit(100);
+        // no queue: grows
+        limit.onSample(1000, 10, false);
+        limit.onSample(1000, 10, false);
+        Assert.assertEquals(16, limit.getLimit());
+        Assert.assertEquals(1000, limit.getRttNoLoad());
+        // the latency doubles, the queue is half the limit: shrinks
+        int before = limit.getLimit();
+        limit.onSample(2000, before, false);
+        Assert.assertTrue(limit.getLimit() < before);
+        before = limit.getLimit();
+        limit.onSample(0, before, true);
+        Assert.assertTrue(limit.getLimit() < before);
+    }
+
+    @Test
+    public void testInterceptors() throws Throwable {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(new AimdLimit(1));
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Thread thread = new Thread(WrappedTasks.wrap(new Runnable() {
+            @Override
+            public void run() {
+                running.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, new ConcurrencyLimiterInterceptor(limiter)));
+        thread.start();
+        running.await();
+
+        WrappedRunable rejected = WrappedTasks.wrap(new Runnable() {
+            @Override
+            public void run() {
+                Assert.fail();
+            }
+        }, new ConcurrencyLimiterInterceptor(limiter));
+        try {
+            rejected.run();
+            Assert.fail();
+        } catch (RuntimeException ex) {
+            Assert.assertTrue(ex.getCause() instanceof LimitExceededException);
+        }
+        // the rejected task released nothing
+        Assert.assertEquals(1, limiter.getInFlight());
+        release.countDown();
+        thread.join();
+        Assert.assertEquals(0, limiter.getInFlight());
+        Assert.assertEquals(1, limiter.getAccepted());
+        Assert.assertEquals(1, limiter.getRejected());
+
+        // a failed task is released without a sample
+        try {
+            WrappedTasks.wrap(new Runnable() {
+                @Override
+                public void run() {
+                    throw new IllegalStateException("expected");
+                }
+            }, new ConcurrencyLimiterInterceptor(limiter, TimeoutException.class)).run();
+            Assert.fail();
+        } catch (RuntimeException ex) {
+            Assert.assertTrue(ex.getCause() instanceof IllegalStateException);
+        }
+        Assert.assertEquals(0, limiter.getInFlight());
+        Assert.assertEquals(0, limiter.getDropped());
+
+        ManualTicker ticker = new ManualTicker();
+        RateLimiterInterceptor rate = new RateLimiterInterceptor(RateLimiter.create(ticker, 1, 1.0), 0, TimeUnit.SECONDS);
+        WrappedRunable task = WrappedTasks.wrap(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, rate);
+        task.run();
+        try {
+            task.run();
+            Assert.fail();
+        } catch (RuntimeException ex) {
+            Assert.assertTrue(ex.getCause() instanceof LimitExceededException);
+        }
+    }
+
+    @Test
+    public void testNestedInterceptors() throws Throwable {
+        // a task running another intercepted task inline, as a caller-runs policy does
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(new AimdLimit(1));
+        WrappedTasks.wrap(new Runnable() {
+            @Override
+            public void run() {
+                Assert.assertEquals(1, limiter.getInFlight());
+                try {
+                    WrappedTasks.wrap(new Runnable() {
+                        @Override
+                        public void run() {
+                            Assert.fail();
+                        }
+                    }, new ConcurrencyLimiterInterceptor(limiter)).run();
+                    Assert.fail();
+                } catch (RuntimeException ex) {
+                    Assert.assertTrue(ex.getCause() instanceof LimitExceededException);
+                }
+                // the outer run is still acquired
+                Assert.assertEquals(1, limiter.getInFlight());
+            }
+        }, new ConcurrencyLimiterInterceptor(limiter)).run();
+        Assert.assertEquals(0, limiter.getInFlight());
+
+        final AdaptiveConcurrencyLimiter wide = new AdaptiveConcurrencyLimiter(new AimdLimit(10));
+        WrappedTasks.wrap(new Runnable() {
+            @Override
+            public void run() {
+                WrappedTasks.wrap(new Runnable() {
+                    @Override
+                    public void run() {
+                        Assert.assertEquals(2, wide.getInFlight());
+                    }
+                }, new ConcurrencyLimiterInterceptor(wide)).run();
+                Assert.assertEquals(1, wide.getInFlight());
+            }
+        }, new ConcurrencyLimiterInterceptor(wide)).run();
+        Assert.assertEquals(0, wide.getInFlight());
+
+        // the rate limiter rejects the inner task before its concurrency limiter runs
+        final RateLimiter rate = RateLimiter.create(new ManualTicker(), 1, 1.0);
+        Assert.assertTrue(rate.tryAcquire());
+        WrappedTasks.wrap(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    WrappedTasks.wrap(new Runnable() {
+                        @Override
+                        public void run() {
+                            Assert.fail();
+                        }
+                    }, new RateLimiterInterceptor(rate, 0, TimeUnit.SECONDS), new ConcurrencyLimiterInterceptor(wide)).run();
+                    Assert.fail();
+                } catch (RuntimeException ex) {
+                    Assert.assertTrue(ex.getCause() instanceof LimitExceededException);
+                }
+                // the inner doAfter released nothing
+                Assert.assertEquals(1, wide.getInFlight());
+            }
+        }, new ConcurrencyLimiterInterceptor(wide)).run();
+        Assert.assertEquals(0, wide.getInFlight());
+        Assert.assertEquals(3, wide.getAccepted());
+    }
+
+    @Test
+    public void testThroughput() throws Throwable {
+        final RateLimiter limiter = RateLimiter.create(1e9, 1.0);
+        final int threads = 4;
+        final int permits = 1000000;
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < permits; i++) {
+                        limiter.tryAcquire();
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        Assert.assertTrue(done.await(30, TimeUnit.SECONDS));
+        Assert.assertEquals(threads * permits, limiter.getAcquiredPermits() + limiter.getRejectedRequests());
+    }
+
+    private static class ManualTicker extends Ticker {
+        private long nanos = 1000000000L;
+
+        void advance(long time, TimeUnit unit) {
+            nanos += unit.toNanos(time);
+        }
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.jn.langx.test.util.hash;
+
+import com.jn.langx.util.hash.ConsistentHashRing;
+import com.jn.langx.util.hash.JumpConsistentHash;
+import com.jn.langx.util.hash.NodeLocator;
+import com.jn.langx.util.hash.RendezvousHashing;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class ConsistentHashingTests {
+    private static final int KEYS = 100000;
+
+    private static Map<String, Integer> countKeys(NodeLocator<String> locator) {
+        Map<String, Integer> counts = new HashMap<String, Integer>();
+        for (int i = 0; i < KEYS; i++) {
+            String node = locator.locate("key-" + i);
+            Integer count = counts.get(node);
+            counts.put(node, count == null ? 1 : count + 1);
+        }
+        return counts;
+    }
+
+    private static void assertConsistent(NodeLocator<String> locator) {
+        for (int i = 0; i < 10; i++) {
+            locator.addNode("node-" + i, 1);
+        }
+        Map<String, Integer> counts = countKeys(locator);
+        Assert.assertEquals(10, counts.size());
+        for (Integer count : counts.values()) {
+            // 10% each, within 20%
+            Assert.assertTrue("count: " + count, Math.abs(count - KEYS / 10) < KEYS / 50);
+        }
+
+        String[] before = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            before[i] = locator.locate("key-" + i);
+        }
+        locator.addNode("node-10", 1);
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String node = locator.locate("key-" + i);
+            if (!node.equals(before[i])) {
+                // keys only move to the new node
+                Assert.assertEquals("node-10", node);
+                moved++;
+            }
+        }
+        Assert.assertTrue("moved: " + moved, Math.abs(moved - KEYS / 11) < KEYS / 50);
+
+        Assert.assertTrue(locator.removeNode("node-10"));
+        Assert.assertFalse(locator.removeNode("node-10"));
+        for (int i = 0; i < KEYS; i++) {
+            Assert.assertEquals(before[i], locator.locate("key-" + i));
+        }
+
+        locator.addNode("node-0", 3);
+        counts = countKeys(locator);
+        // 3 / 12 of the keys
+        Assert.assertTrue("count: " + counts.get("node-0"), Math.abs(counts.get("node-0") - KEYS / 4) < KEYS / 40);
+    }
+
+    @Test
+    public void testConsistentHashRing() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<String>();
+        Assert.assertNull(ring.locate("key"));
+        assertConsistent(ring);
+        Assert.assertEquals(3, ring.getWeight("node-0"));
+        Assert.assertEquals(10, ring.getNodes().size());
+    }
+
+    @Test
+    public void testRendezvousHashing() {
+        RendezvousHashing<String> hrw = new RendezvousHashing<String>();
+        Assert.assertNull(hrw.locate("key"));
+        assertConsistent(hrw);
+    }
+
+    @Test
+    public void testJumpConsistentHash() {
+        int[] counts = new int[10];
+        for (int i = 0; i < KEYS; i++) {
+            int bucket = JumpConsistentHash.bucket("key-" + i, 10);
+            counts[bucket]++;
+            int grown = JumpConsistentHash.bucket("key-" + i, 11);
+            Assert.assertTrue(grown == bucket || grown == 10);
+        }
+        for (int count : counts) {
+            Assert.assertTrue("count: " + count, Math.abs(count - KEYS / 10) < KEYS / 50);
+        }
+        Assert.assertEquals(0, JumpConsistentHash.bucket(42L, 1));
+    }
+}
@@ -0,0 +1,106 @@
+package com.jn.langx.test.util.hash;
+
+import com.jn.langx.util.hash.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+
+public class HashTests {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final Charset UTF_16LE = Charset.forName("UTF-16LE");
+
+    @Test
+    public void testXxHash64() {
+        XxHash64 xxHash = XxHash64.getInstance();
+        Assert.assertEquals(0xEF46DB3751D8E999L, xxHash.hash64(new byte[0]));
+        Assert.assertEquals(0xD24EC4F1A98C6E5BL, xxHash.hash64("a".getBytes(UTF_8)));
+        Assert.assertEquals(0x44BC2CF5AD770999L, xxHash.hash64("abc".getBytes(UTF_8)));
+        Assert.assertEquals(0xFBCEA83C8A378BF1L, xxHash.hash64("Nobody inspects the spammish repetition".getBytes(UTF_8)));
+
+        byte[] framed = "__abc__".getBytes(UTF_8);
+        Assert.assertEquals(0x44BC2CF5AD770999L, xxHash.hash64(framed, 2, 3, 0));
+
+        for (int length = 0; length < 40; length++) {
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < length; i++) {
+                builder.append((char) ('a' + i * 7919 % 1000));
+            }
+            String s = builder.toString();
+            byte[] bytes = s.getBytes(UTF_16LE);
+            Assert.assertEquals(xxHash.hash64(bytes, 0, bytes.length, 42), xxHash.hash64(s, 42));
+        }
+
+        long value = 0x0102030405060708L;
+        byte[] littleEndian = new byte[]{8, 7, 6, 5, 4, 3, 2, 1};
+        Assert.assertEquals(xxHash.hash64(littleEndian, 0, 8, 7), xxHash.hash64(value, 7));
+    }
+
+    @Test
+    public void testMurmur3Hash128() {
+        Murmur3Hash128 murmur = Murmur3Hash128.getInstance();
+        long[] out = new long[2];
+        murmur.hash128("The quick brown fox jumps over the lazy dog".getBytes(UTF_8), 0, 43, 0, out);
+        Assert.assertEquals(0xE34BBC7BBC071B6CL, out[0]);
+        Assert.assertEquals(0x7A433CA9C49A9347L, out[1]);
+        murmur.hash128("hello".getBytes(UTF_8), 0, 5, 0, out);
+        Assert.assertEquals(0xCBD8A7B341BD9B02L, out[0]);
+        Assert.assertEquals(0x5B1E906A48AE1D19L, out[1]);
+        Assert.assertEquals(0L, murmur.hash64(new byte[0]));
+    }
+
+    @Test
+    public void testInputsAndStreaming() {
+        Hash64[] hashes = new Hash64[]{XxHash64.getInstance(), Murmur3Hash128.getInstance(), FastHash64.getInstance()};
+        for (Hash64 hash : hashes) {
+            for (int length = 0; length < 100; length++) {
+                StringBuilder builder = new StringBuilder();
+                for (int i = 0; i < length; i++) {
+                    builder.append((char) ('a' + i * 7919 % 1000));
+                }
+                String s = builder.toString();
+                byte[] bytes = s.getBytes(UTF_16LE);
+                long expected = hash.hash64(bytes, 0, bytes.length, 42);
+                String message = hash.getClass().getSimpleName() + ", length " + length;
+
+                Assert.assertEquals(message, expected, hash.hash64(s, 42));
+                Assert.assertEquals(message, expected, hash.hash64(new StringBuilder(s), 42));
+
+                ByteBuffer heap = ByteBuffer.allocate(bytes.length + 3);
+                heap.position(3);
+                heap.put(bytes);
+                heap.position(3);
+                Assert.assertEquals(message, expected, hash.hash64(heap, 42));
+                Assert.assertEquals(3, heap.position());
+
+                ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).order(ByteOrder.LITTLE_ENDIAN);
+                direct.put(bytes);
+                direct.flip();
+                Assert.assertEquals(message, expected, hash.hash64(direct, 42));
+
+                Hasher hasher = hash.newHasher(42);
+                for (int i = 0; i < bytes.length; i += 7) {
+                    hasher.update(bytes, i, Math.min(7, bytes.length - i));
+                }
+                Assert.assertEquals(message, expected, hasher.hash64());
+                Assert.assertEquals(bytes.length, hasher.length());
+                direct.position(0);
+                Assert.assertEquals(message, expected, hasher.reset().update(direct).hash64());
+                Assert.assertEquals(message, expected, hash.newHasher(42).update(s.substring(0, length / 2)).update(s.substring(length / 2)).hash64());
+            }
+        }
+        Assert.assertEquals(XxHash64.getInstance().hash64(0x0102030405060708L, 7), XxHash64.getInstance().newHasher(7).update(0x0102030405060708L).hash64());
+    }
+
+    @Test
+    public void testRegistration() {
+        Assert.assertEquals(Hash.XXHASH64_HASH, Hash.parseHashType("xxhash64"));
+        Assert.assertEquals(Hash.MURMUR3_128_HASH, Hash.parseHashType("murmur3_128"));
+        Assert.assertEquals(Hash.FAST64_HASH, Hash.parseHashType("fast64"));
+        Assert.assertSame(XxHash64.getInstance(), Hash.getInstance(Hash.XXHASH64_HASH));
+        Assert.assertSame(Murmur3Hash128.getInstance(), Hash.getInstance(Hash.MURMUR3_128_HASH));
+        Assert.assertSame(FastHash64.getInstance(), Hash.getInstance(Hash.FAST64_HASH));
+    }
+}
@@ -0,0 +1,254 @@
+package com.jn.langx.test.util.id;
+
+import com.jn.langx.util.id.segment.FileSegmentStore;
+import com.jn.langx.util.id.segment.JdbcSegmentStore;
+import com.jn.langx.util.id.segment.SegmentIdGenerator;
+import com.jn.langx.util.id.segment.SegmentStore;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class SegmentIdTests {
+
+    @Test
+    public void testJdbcStore() {
+        InMemoryDatabase database = new InMemoryDatabase();
+        JdbcSegmentStore store = new JdbcSegmentStore(database.dataSource());
+        Assert.assertEquals(1, store.allocate("order", 100));
+        Assert.assertEquals(101, store.allocate("order", 50));
+        Assert.assertEquals(1, store.allocate("user", 10));
+        Assert.assertEquals(Long.valueOf(150), database.rows.get("order"));
+        Assert.assertFalse(database.lock.isLocked());
+    }
+
+    @Test
+    public void testFileStore() {
+        File directory = new File(System.getProperty("java.io.tmpdir"), "langx-segment-" + System.nanoTime());
+        FileSegmentStore store = new FileSegmentStore(directory);
+        Assert.assertEquals(1, store.allocate("order", 100));
+        Assert.assertEquals(101, store.allocate("order", 50));
+        // another instance sees the persisted value
+        Assert.assertEquals(151, new FileSegmentStore(directory).allocate("order", 1));
+        try {
+            store.allocate("../order", 1);
+            Assert.fail();
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testGenerator() throws Throwable {
+        final CountingStore store = new CountingStore(new JdbcSegmentStore(new InMemoryDatabase().dataSource()));
+        final SegmentIdGenerator generator = new SegmentIdGenerator(store, "order");
+        generator.setMinStep(100);
+        generator.setMaxStep(10000);
+
+        final int threads = 4;
+        final long[][] ids = new long[threads][20000];
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final long[] out = ids[t];
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long[] batch = new long[9];
+                    for (int i = 0; i < out.length; i += 10) {
+                        out[i] = generator.nextId();
+                        generator.nextIds(batch);
+                        System.arraycopy(batch, 0, out, i + 1, 9);
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+
+        Set<Long> unique = new HashSet<Long>();
+        for (long[] threadIds : ids) {
+            for (int i = 0; i < threadIds.length; i++) {
+                Assert.assertTrue(threadIds[i] > 0);
+                Assert.assertTrue(unique.add(threadIds[i]));
+                if (i > 0) {
+                    Assert.assertTrue(threadIds[i] > threadIds[i - 1]);
+                }
+            }
+        }
+        // the segments are consumed fast, so they grow
+        Assert.assertTrue(generator.getStep() > 100);
+        Assert.assertTrue("allocations: " + store.allocations.get(), store.allocations.get() < 80000 / 100);
+    }
+
+    @Test
+    public void testPrefetch() throws Throwable {
+        CountingStore store = new CountingStore(new JdbcSegmentStore(new InMemoryDatabase().dataSource()));
+        SegmentIdGenerator generator = new SegmentIdGenerator(store, "order");
+        generator.setMinStep(100);
+        generator.setMaxStep(100);
+        Assert.assertEquals(1, generator.nextId());
+        Assert.assertFalse(generator.isNextReady());
+        for (int i = 2; i <= 11; i++) {
+            Assert.assertEquals(i, generator.nextId());
+        }
+        // 10% consumed, the next segment is reserved in the background
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!generator.isNextReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        Assert.assertTrue(generator.isNextReady());
+        Assert.assertEquals(2, store.allocations.get());
+        Assert.assertEquals(89, generator.getRemaining());
+        for (int i = 12; i <= 101; i++) {
+            Assert.assertEquals(i, generator.nextId());
+        }
+        Assert.assertEquals("102", generator.get());
+    }
+
+    private static class CountingStore implements SegmentStore {
+        private final SegmentStore delegate;
+        private final AtomicInteger allocations = new AtomicInteger();
+
+        CountingStore(SegmentStore delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public long allocate(String key, int size) {
+            allocations.incrementAndGet();
+            return delegate.allocate(key, size);
+        }
+    }
+
+    /**
+     * Just enough of a database for {@link JdbcSegmentStore}: one table, a lock held until commit or rollback.
+     */
+    private static class InMemoryDatabase {
+        private final Map<String, Long> rows = new HashMap<String, Long>();
+        private final ReentrantLock lock = new ReentrantLock();
+
+        DataSource dataSource() {
+            return proxy(DataSource.class, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    if (method.getName().equals("getConnection")) {
+                        return connection();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+
+        private Connection connection() {
+            final boolean[] autoCommit = new boolean[]{true};
+            final Map<String, Long> undo = new HashMap<String, Long>();
+            return proxy(Connection.class, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    String name = method.getName();
+                    if (name.equals("getAutoCommit")) {
+                        return autoCommit[0];
+                    } else if (name.equals("setAutoCommit")) {
+                        autoCommit[0] = (Boolean) args[0];
+                    } else if (name.equals("prepareStatement")) {
+                        return statement((String) args[0], undo);
+                    } else if (name.equals("commit") || name.equals("rollback")) {
+                        if (name.equals("rollback")) {
+                            for (Map.Entry<String, Long> row : undo.entrySet()) {
+                                if (row.getValue() == null) {
+                                    rows.remove(row.getKey());
+                                } else {
+                                    rows.put(row.getKey(), row.getValue());
+                                }
+                            }
+                        }
+                        undo.clear();
+                        while (lock.isHeldByCurrentThread()) {
+                            lock.unlock();
+                        }
+                    } else if (!name.equals("close")) {
+                        throw new UnsupportedOperationException(name);
+                    }
+                    return null;
+                }
+            });
+        }
+
+        private PreparedStatement statement(final String sql, final Map<String, Long> undo) {
+            final Map<Integer, Object> parameters = new HashMap<Integer, Object>();
+            return proxy(PreparedStatement.class, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+                    String name = method.getName();
+                    if (name.equals("setString") || name.equals("setLong")) {
+                        parameters.put((Integer) args[0], args[1]);
+                        return null;
+                    }
+                    if (name.equals("close")) {
+                        return null;
+                    }
+                    lock.lock();
+                    if (sql.startsWith("UPDATE")) {
+                        String key = (String) parameters.get(2);
+                        Long value = rows.get(key);
+                        if (value == null) {
+                            return 0;
+                        }
+                        if (!undo.containsKey(key)) {
+                            undo.put(key, value);
+                        }
+                        rows.put(key, value + (Long) parameters.get(1));
+                        return 1;
+                    }
+                    if (sql.startsWith("INSERT")) {
+                        String key = (String) parameters.get(1);
+                        if (rows.containsKey(key)) {
+                            throw new SQLException("duplicate key " + key);
+                        }
+                        undo.put(key, null);
+                        rows.put(key, (Long) parameters.get(2));
+                        return 1;
+                    }
+                    final Long value = rows.get((String) parameters.get(1));
+                    final boolean[] consumed = new boolean[1];
+                    return proxy(ResultSet.class, new InvocationHandler() {
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) {
+                            String name = method.getName();
+                            if (name.equals("next")) {
+                                boolean hasNext = value != null && !consumed[0];
+                                consumed[0] = true;
+                                return hasNext;
+                            }
+                            return name.equals("getLong") ? value : null;
+                        }
+                    });
+                }
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+            return (T) Proxy.newProxyInstance(SegmentIdTests.class.getClassLoader(), new Class[]{type}, handler);
+        }
+    }
+}
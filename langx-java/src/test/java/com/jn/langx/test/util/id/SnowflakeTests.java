@@ -5,11 +5,15 @@ import com.jn.langx.util.collection.Collects;
 import com.jn.langx.util.concurrent.CommonThreadFactory;
 import com.jn.langx.util.function.Consumer;
 import com.jn.langx.util.id.SnowflakeIdGenerator;
+import com.jn.langx.util.id.snowflake.LockFreeSnowflakeIdWorker;
+import com.jn.langx.util.timing.clock.Clock;
+import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class SnowflakeTests {
     @Test
@@ -52,4 +56,73 @@ public class SnowflakeTests {
         countDownLatch.await();
 
     }
+
+    @Test
+    public void testLockFreeWorker() throws Throwable {
+        final LockFreeSnowflakeIdWorker worker = new LockFreeSnowflakeIdWorker(3, 5);
+        final int threads = 4;
+        final int perThread = 50000;
+        final long[][] ids = new long[threads][perThread];
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final long[] out = ids[t];
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < out.length; i += 100) {
+                        out[i] = worker.nextId();
+                        long[] batch = new long[99];
+                        worker.nextIds(batch);
+                        System.arraycopy(batch, 0, out, i + 1, 99);
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+
+        java.util.Set<Long> unique = new java.util.HashSet<Long>();
+        for (long[] threadIds : ids) {
+            for (int i = 0; i < threadIds.length; i++) {
+                Assert.assertTrue(unique.add(threadIds[i]));
+                if (i > 0) {
+                    // increasing within a thread
+                    Assert.assertTrue(threadIds[i] > threadIds[i - 1]);
+                }
+                Assert.assertEquals(3, (threadIds[i] >>> 12) & 31);
+                Assert.assertEquals(5, (threadIds[i] >>> 17) & 31);
+            }
+        }
+    }
+
+    @Test
+    public void testClockRollback() {
+        final AtomicLong time = new AtomicLong(LockFreeSnowflakeIdWorker.DEFAULT_EPOCH + 1000);
+        LockFreeSnowflakeIdWorker worker = new LockFreeSnowflakeIdWorker(0, 0, LockFreeSnowflakeIdWorker.DEFAULT_EPOCH, new Clock() {
+            @Override
+            public long getTime() {
+                return time.get();
+            }
+        });
+        long first = worker.nextId();
+        Assert.assertEquals(time.get(), worker.getTimestamp(first));
+
+        // the clock moves 10ms backwards, the ids keep increasing
+        time.addAndGet(-10);
+        long second = worker.nextId();
+        Assert.assertTrue(second > first);
+        Assert.assertEquals(10, worker.getBorrowedMillis());
+
+        // the sequence is exhausted, the next millisecond is borrowed
+        long[] batch = new long[5000];
+        worker.nextIds(batch);
+        Assert.assertTrue(batch[0] > second);
+        Assert.assertEquals(time.get() + 11, worker.getTimestamp(batch[4999]));
+
+        time.addAndGet(20);
+        long caughtUp = worker.nextId();
+        Assert.assertEquals(time.get(), worker.getTimestamp(caughtUp));
+        Assert.assertEquals(0, caughtUp & 4095);
+        Assert.assertEquals(0, worker.getBorrowedMillis());
+    }
 }
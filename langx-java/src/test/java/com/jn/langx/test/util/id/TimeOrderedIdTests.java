@@ -0,0 +1,118 @@
+package com.jn.langx.test.util.id;
+
+import com.jn.langx.util.id.TimeOrderedIdGenerator;
+import com.jn.langx.util.id.UlidGenerator;
+import com.jn.langx.util.id.UuidV7Generator;
+import com.jn.langx.util.timing.clock.Clock;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TimeOrderedIdTests {
+
+    @Test
+    public void testUuidV7() {
+        long before = System.currentTimeMillis();
+        UuidV7Generator generator = new UuidV7Generator();
+        String id = generator.get();
+        Assert.assertEquals(36, id.length());
+        UUID uuid = UUID.fromString(id);
+        Assert.assertEquals(id, uuid.toString());
+        Assert.assertEquals(7, uuid.version());
+        Assert.assertEquals(2, uuid.variant());
+        long timestamp = UuidV7Generator.getTimestamp(uuid);
+        Assert.assertTrue(timestamp >= before && timestamp <= System.currentTimeMillis());
+
+        UUID next = generator.nextUuid();
+        Assert.assertEquals(next.toString(), generator.toString(next.getMostSignificantBits(), next.getLeastSignificantBits()));
+        Assert.assertTrue(next.toString().compareTo(id) > 0);
+    }
+
+    @Test
+    public void testUlid() {
+        long before = System.currentTimeMillis();
+        UlidGenerator generator = new UlidGenerator();
+        String id = generator.get();
+        Assert.assertEquals(26, id.length());
+        Assert.assertTrue(id.matches("[0-7][0-9A-HJKMNP-TV-Z]{25}"));
+        long timestamp = UlidGenerator.getTimestamp(id);
+        Assert.assertTrue(timestamp >= before && timestamp <= System.currentTimeMillis());
+
+        UUID uuid = UlidGenerator.toUuid(id);
+        Assert.assertEquals(id, generator.toString(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+        Assert.assertEquals(uuid, UlidGenerator.toUuid(id.toLowerCase()));
+
+        // the example of the specification
+        Assert.assertEquals(1469918176385L, UlidGenerator.getTimestamp("01ARYZ6S41TSV4RRFFQ69G5FAV"));
+        Assert.assertEquals("7ZZZZZZZZZZZZZZZZZZZZZZZZZ", generator.toString(-1L, -1L));
+    }
+
+    @Test
+    public void testMonotonicAcrossThreads() throws Throwable {
+        final TimeOrderedIdGenerator[] generators = new TimeOrderedIdGenerator[]{new UuidV7Generator(), new UlidGenerator()};
+        for (final TimeOrderedIdGenerator generator : generators) {
+            final int threads = 4;
+            final String[][] ids = new String[threads][];
+            final CountDownLatch done = new CountDownLatch(threads);
+            for (int t = 0; t < threads; t++) {
+                final int index = t;
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        String[] out = new String[20000];
+                        for (int i = 0; i < out.length; i += 100) {
+                            out[i] = generator.get();
+                            System.arraycopy(generator.get(99), 0, out, i + 1, 99);
+                        }
+                        ids[index] = out;
+                        done.countDown();
+                    }
+                }).start();
+            }
+            done.await();
+
+            Set<String> unique = new HashSet<String>();
+            for (String[] threadIds : ids) {
+                for (int i = 0; i < threadIds.length; i++) {
+                    Assert.assertTrue(unique.add(threadIds[i]));
+                    if (i > 0) {
+                        Assert.assertTrue(threadIds[i].compareTo(threadIds[i - 1]) > 0);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testClockRollback() {
+        final AtomicLong time = new AtomicLong(1700000000000L);
+        UuidV7Generator generator = new UuidV7Generator(new Clock() {
+            @Override
+            public long getTime() {
+                return time.get();
+            }
+        });
+        long[] high = new long[5000];
+        long[] low = new long[5000];
+        generator.nextIds(high, low);
+        for (int i = 1; i < high.length; i++) {
+            Assert.assertTrue(high[i] > high[i - 1]);
+            Assert.assertEquals(7, new UUID(high[i], low[i]).version());
+        }
+        // more than 2048 ids in a millisecond borrow the next one
+        Assert.assertTrue(generator.getBorrowedMillis() > 0);
+
+        time.addAndGet(-10);
+        UUID afterRollback = generator.nextUuid();
+        Assert.assertTrue(afterRollback.getMostSignificantBits() > high[high.length - 1]);
+
+        time.addAndGet(20);
+        Assert.assertEquals(time.get(), UuidV7Generator.getTimestamp(generator.nextUuid()));
+        Assert.assertEquals(0, generator.getBorrowedMillis());
+    }
+}
@@ -0,0 +1,191 @@
+package com.jn.langx.test.util.sketch;
+
+import com.jn.langx.util.io.Writable;
+import com.jn.langx.util.sketch.CountMinSketch;
+import com.jn.langx.util.sketch.HyperLogLog;
+import com.jn.langx.util.sketch.KllSketch;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.Random;
+
+public class SketchTests {
+
+    private static <W extends Writable> W copy(W source, W target) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        source.write(new DataOutputStream(bytes));
+        target.readFields(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        return target;
+    }
+
+    private static void assertRelativeError(long expected, long actual, double error) {
+        Assert.assertTrue("expected " + expected + " but was " + actual, Math.abs(actual - expected) <= expected * error);
+    }
+
+    @Test
+    public void testHyperLogLogSparse() throws Exception {
+        HyperLogLog hll = new HyperLogLog();
+        for (int i = 0; i < 1000; i++) {
+            hll.offer("item-" + i);
+            hll.offer("item-" + i);
+        }
+        Assert.assertTrue(hll.isSparse());
+        assertRelativeError(1000, hll.cardinality(), 0.005);
+
+        HyperLogLog copy = copy(hll, new HyperLogLog());
+        Assert.assertTrue(copy.isSparse());
+        Assert.assertEquals(hll.cardinality(), copy.cardinality());
+    }
+
+    @Test
+    public void testHyperLogLogDense() throws Exception {
+        HyperLogLog a = new HyperLogLog();
+        HyperLogLog b = new HyperLogLog();
+        for (long i = 0; i < 1000000; i++) {
+            a.offer(i);
+        }
+        for (long i = 500000; i < 1500000; i++) {
+            b.offer(i);
+        }
+        Assert.assertFalse(a.isSparse());
+        assertRelativeError(1000000, a.cardinality(), 0.03);
+
+        HyperLogLog copy = copy(a, new HyperLogLog());
+        Assert.assertEquals(a.cardinality(), copy.cardinality());
+
+        a.merge(b);
+        assertRelativeError(1500000, a.cardinality(), 0.03);
+
+        // sparse into dense
+        HyperLogLog small = new HyperLogLog();
+        for (long i = 2000000; i < 2001000; i++) {
+            small.offer(i);
+        }
+        a.merge(small);
+        assertRelativeError(1501000, a.cardinality(), 0.03);
+    }
+
+    @Test
+    public void testCountMinSketch() throws Exception {
+        CountMinSketch sketch = new CountMinSketch(0.001, 0.99, 0);
+        Random random = new Random(1);
+        long[] counts = new long[1000];
+        for (int i = 0; i < 100000; i++) {
+            // skewed: low items are more frequent
+            int item = (int) (Math.abs(random.nextGaussian()) * 100) % counts.length;
+            counts[item]++;
+            sketch.add(item, 1);
+        }
+        Assert.assertEquals(100000, sketch.size());
+        long maxError = (long) (sketch.getRelativeError() * sketch.size());
+        for (int item = 0; item < counts.length; item++) {
+            long estimate = sketch.estimateCount(item);
+            Assert.assertTrue(estimate >= counts[item]);
+            Assert.assertTrue(estimate - counts[item] <= maxError);
+        }
+
+        CountMinSketch other = copy(sketch, new CountMinSketch());
+        Assert.assertEquals(sketch.estimateCount(0), other.estimateCount(0));
+        other.add("word", 3);
+        sketch.merge(other);
+        Assert.assertEquals(200003, sketch.size());
+        Assert.assertTrue(sketch.estimateCount("word") >= 3);
+        Assert.assertTrue(sketch.estimateCount(0) >= 2 * counts[0]);
+    }
+
+    @Test
+    public void testCorruptedStreams() throws Exception {
+        CountMinSketch sketch = new CountMinSketch(4, 100, 0);
+        sketch.add("word", 3);
+        assertCorrupted(sketch, countMinSketchHeader(-1, 100));
+        assertCorrupted(sketch, countMinSketchHeader(1 << 16, 1 << 16));
+        Assert.assertEquals(3, sketch.estimateCount("word"));
+
+        HyperLogLog hll = new HyperLogLog();
+        hll.offer("item");
+        // 14 bits: at most 3072 sparse entries
+        assertCorrupted(hll, sparseHyperLogLog(1 << 30));
+        assertCorrupted(hll, sparseHyperLogLog(-1));
+        // the rank of an entry is 0
+        assertCorrupted(hll, sparseHyperLogLog(1, 1 << 6));
+        // twice the same index
+        assertCorrupted(hll, sparseHyperLogLog(2, (1 << 6) | 1, 1));
+        // not sorted
+        assertCorrupted(hll, sparseHyperLogLog(2, (2 << 6) | 1, -(1 << 6)));
+        assertCorrupted(hll, sparseHyperLogLog(1, 1L << 40));
+        Assert.assertEquals(1, hll.cardinality());
+    }
+
+    private static byte[] countMinSketchHeader(int depth, int width) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(1);
+        out.writeInt(depth);
+        out.writeInt(width);
+        out.writeLong(0);
+        out.writeBoolean(false);
+        writeVarLong(out, 0);
+        return bytes.toByteArray();
+    }
+
+    private static byte[] sparseHyperLogLog(long size, long... deltas) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(1);
+        out.writeByte(HyperLogLog.DEFAULT_PRECISION);
+        out.writeLong(0);
+        out.writeBoolean(true);
+        writeVarLong(out, size);
+        for (long delta : deltas) {
+            writeVarLong(out, delta);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static void assertCorrupted(Writable sketch, byte[] bytes) {
+        try {
+            sketch.readFields(new DataInputStream(new ByteArrayInputStream(bytes)));
+            Assert.fail();
+        } catch (IOException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testKllSketch() throws Exception {
+        int n = 1000000;
+        KllSketch a = new KllSketch();
+        KllSketch b = new KllSketch();
+        Random random = new Random(1);
+        for (int i = 0; i < n; i++) {
+            a.update(random.nextDouble());
+            b.update(1 + random.nextDouble());
+        }
+        Assert.assertEquals(n, a.getN());
+        Assert.assertTrue(a.getRetainedItems() < 4 * a.getK());
+        Assert.assertEquals(0.5, a.getQuantile(0.5), 0.02);
+        Assert.assertEquals(0.99, a.getQuantile(0.99), 0.02);
+        Assert.assertEquals(0.25, a.getRank(0.25), 0.02);
+
+        KllSketch copy = copy(a, new KllSketch());
+        Assert.assertEquals(a.getQuantile(0.5), copy.getQuantile(0.5), 0);
+
+        a.merge(b);
+        Assert.assertEquals(2 * n, a.getN());
+        double[] quantiles = a.getQuantiles(new double[]{0, 0.25, 0.5, 0.75, 1});
+        Assert.assertEquals(0.5, quantiles[1], 0.03);
+        Assert.assertEquals(1, quantiles[2], 0.03);
+        Assert.assertEquals(1.5, quantiles[3], 0.03);
+        Assert.assertEquals(a.getMin(), quantiles[0], 0);
+        Assert.assertEquals(a.getMax(), quantiles[4], 0);
+    }
+}
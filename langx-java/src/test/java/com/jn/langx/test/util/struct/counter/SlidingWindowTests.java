@@ -0,0 +1,162 @@
+package com.jn.langx.test.util.struct.counter;
+
+import com.jn.langx.util.struct.counter.RateMeter;
+import com.jn.langx.util.struct.counter.SlidingWindowCounter;
+import com.jn.langx.util.struct.counter.SlidingWindowPercentiles;
+import com.jn.langx.util.timing.clock.Clock;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SlidingWindowTests {
+
+    @Test
+    public void testSlidingWindowCounter() {
+        ManualClock clock = new ManualClock();
+        // 10 seconds of 1 second buckets
+        SlidingWindowCounter counter = new SlidingWindowCounter(10, TimeUnit.SECONDS, 10, clock);
+        for (int second = 0; second < 10; second++) {
+            counter.add(second + 1);
+            clock.advance(1000);
+        }
+        // at 10s, the bucket of 0s is out of the window
+        Assert.assertEquals(54, counter.get());
+        Assert.assertEquals(5.4d, counter.getRate(TimeUnit.SECONDS), 0.0001d);
+        counter.increment();
+        Assert.assertEquals(55, counter.get());
+
+        clock.advance(5000);
+        // the buckets of 1s to 5s are out
+        Assert.assertEquals(1 + 7 + 8 + 9 + 10, counter.get());
+        clock.advance(60000);
+        Assert.assertEquals(0, counter.get());
+        counter.add(3);
+        Assert.assertEquals(3, counter.get());
+    }
+
+    @Test
+    public void testConcurrentCounting() throws Throwable {
+        final SlidingWindowCounter counter = new SlidingWindowCounter(1, TimeUnit.HOURS, 60);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 100000; i++) {
+                        counter.increment();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(400000, counter.get());
+    }
+
+    @Test
+    public void testRateMeter() {
+        ManualClock clock = new ManualClock();
+        RateMeter meter = new RateMeter(clock);
+        // 10 events per second during 5 minutes
+        for (int second = 0; second < 300; second++) {
+            meter.mark(10);
+            clock.advance(1000);
+        }
+        Assert.assertEquals(3000, meter.getCount());
+        Assert.assertEquals(10d, meter.getMeanRate(), 0.001d);
+        Assert.assertEquals(10d, meter.getOneMinuteRate(), 0.1d);
+        // the averages start from the rate of the first interval
+        Assert.assertEquals(10d, meter.getFiveMinuteRate(), 0.1d);
+        Assert.assertEquals(10d, meter.getFifteenMinuteRate(), 0.1d);
+
+        // an idle hour decays the averages at once
+        clock.advance(TimeUnit.HOURS.toMillis(1));
+        Assert.assertTrue(meter.getOneMinuteRate() < 0.001d);
+        Assert.assertTrue(meter.getFifteenMinuteRate() < 0.5d);
+    }
+
+    @Test
+    public void testPercentiles() {
+        ManualClock clock = new ManualClock();
+        SlidingWindowPercentiles percentiles = new SlidingWindowPercentiles(1, TimeUnit.MINUTES, 6, TimeUnit.SECONDS.toMicros(60), clock);
+        Assert.assertEquals(0, percentiles.getPercentile(99));
+        for (int i = 1; i <= 10000; i++) {
+            percentiles.record(i);
+        }
+        long[] values = percentiles.getPercentiles(50, 90, 99, 100);
+        assertNear(5000, values[0]);
+        assertNear(9000, values[1]);
+        assertNear(9900, values[2]);
+        assertNear(10000, values[3]);
+        Assert.assertEquals(10000, percentiles.getCount());
+        Assert.assertEquals(10000, percentiles.getMax());
+        Assert.assertEquals(5000.5d, percentiles.getMean(), 0.001d);
+
+        // small values are exact
+        clock.advance(TimeUnit.MINUTES.toMillis(2));
+        Assert.assertEquals(0, percentiles.getCount());
+        for (int i = 0; i < 50; i++) {
+            percentiles.record(i);
+        }
+        Assert.assertEquals(24, percentiles.getPercentile(50));
+        // above the highest trackable value
+        percentiles.record(Long.MAX_VALUE);
+        Assert.assertEquals(TimeUnit.SECONDS.toMicros(60), percentiles.getPercentile(100));
+    }
+
+    @Test
+    public void testStalledRecording() {
+        ManualClock clock = new ManualClock();
+        SlidingWindowCounter counter = new SlidingWindowCounter(10, TimeUnit.SECONDS, 10, clock);
+        SlidingWindowPercentiles percentiles = new SlidingWindowPercentiles(10, TimeUnit.SECONDS, 10, 1000, clock);
+        long stale = clock.getTime();
+        clock.advance(10000);
+        counter.add(5);
+        percentiles.record(7);
+        // a thread which read the time before a stall of a window, the bucket now holds the next lap
+        clock.once(stale);
+        counter.add(100);
+        clock.once(stale);
+        percentiles.record(900);
+        Assert.assertEquals(5, counter.get());
+        Assert.assertEquals(1, percentiles.getCount());
+        Assert.assertEquals(7, percentiles.getMax());
+
+        // a thread a bucket late records into its own bucket, still in the window
+        long late = clock.getTime();
+        clock.advance(1000);
+        clock.once(late);
+        counter.add(1);
+        Assert.assertEquals(6, counter.get());
+    }
+
+    private static void assertNear(long expected, long actual) {
+        Assert.assertTrue("expected " + expected + " but was " + actual, Math.abs(actual - expected) <= expected * 0.04d);
+    }
+
+    private static class ManualClock implements Clock {
+        private final AtomicLong time = new AtomicLong(1600000000000L);
+        private final AtomicLong once = new AtomicLong(-1);
+
+        void advance(long millis) {
+            time.addAndGet(millis);
+        }
+
+        /**
+         * The next reading returns the given time, a time read before a stall.
+         */
+        void once(long millis) {
+            once.set(millis);
+        }
+
+        @Override
+        public long getTime() {
+            long value = once.getAndSet(-1);
+            return value >= 0 ? value : time.get();
+        }
+    }
+}
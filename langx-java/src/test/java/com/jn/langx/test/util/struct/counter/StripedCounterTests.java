@@ -0,0 +1,164 @@
+package com.jn.langx.test.util.struct.counter;
+
+import com.jn.langx.util.struct.counter.DoubleAdder;
+import com.jn.langx.util.struct.counter.LongAccumulator;
+import com.jn.langx.util.struct.counter.LongAdder;
+import com.jn.langx.util.struct.counter.StripedCounterMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+public class StripedCounterTests {
+    private static final int THREADS = 8;
+    private static final int UPDATES = 200000;
+
+    @Test
+    public void testLongAdder() throws Throwable {
+        final LongAdder adder = new LongAdder();
+        run(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < UPDATES; i++) {
+                    adder.inc();
+                    adder.add(2);
+                }
+            }
+        });
+        Assert.assertEquals(THREADS * UPDATES * 3L, adder.sum());
+        Assert.assertEquals(Long.valueOf(THREADS * UPDATES * 3L - 1), adder.decrement());
+        Assert.assertEquals(THREADS * UPDATES * 3L - 1, adder.sumThenReset());
+        Assert.assertEquals(0, adder.sum());
+        adder.set(42L);
+        Assert.assertEquals(Long.valueOf(43), adder.increment());
+        Assert.assertEquals(43, adder.intValue());
+    }
+
+    @Test
+    public void testLongAccumulator() throws Throwable {
+        final LongAccumulator max = LongAccumulator.max();
+        final LongAccumulator min = LongAccumulator.min();
+        run(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < UPDATES; i++) {
+                    max.accumulate(i);
+                    min.accumulate(-i);
+                }
+            }
+        });
+        Assert.assertEquals(UPDATES - 1, max.getValue());
+        Assert.assertEquals(-(UPDATES - 1), min.getValue());
+        Assert.assertEquals(UPDATES - 1, max.getThenReset());
+        Assert.assertEquals(Long.MIN_VALUE, max.getValue());
+    }
+
+    @Test
+    public void testDoubleAdder() throws Throwable {
+        final DoubleAdder adder = new DoubleAdder();
+        run(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < UPDATES; i++) {
+                    adder.add(0.5d);
+                }
+            }
+        });
+        Assert.assertEquals(THREADS * UPDATES * 0.5d, adder.sum(), 0.0d);
+        adder.reset();
+        Assert.assertEquals(Double.valueOf(-1.0d), adder.decrement());
+    }
+
+    @Test
+    public void testCounterMap() throws Throwable {
+        final StripedCounterMap<String> counters = new StripedCounterMap<String>();
+        run(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < UPDATES; i++) {
+                    counters.increment(i % 2 == 0 ? "even" : "odd");
+                    if (i % 100 == 0) {
+                        counters.add("hundreds", 100);
+                    }
+                }
+            }
+        });
+        Assert.assertEquals(THREADS * UPDATES / 2, counters.get("even"));
+        Assert.assertEquals(THREADS * UPDATES / 2, counters.get("odd"));
+        Assert.assertEquals(THREADS * UPDATES, counters.get("hundreds"));
+        Assert.assertEquals(0, counters.get("none"));
+        Assert.assertEquals(THREADS * UPDATES * 2L, counters.sum());
+
+        Map<String, Long> snapshot = counters.snapshotThenReset();
+        Assert.assertEquals(Long.valueOf(THREADS * UPDATES / 2), snapshot.get("odd"));
+        Assert.assertEquals(3, counters.size());
+        Assert.assertEquals(0, counters.sum());
+    }
+
+    @Test
+    public void testSerialization() throws Throwable {
+        final LongAdder adder = new LongAdder();
+        final LongAccumulator max = LongAccumulator.max();
+        final DoubleAdder doubles = new DoubleAdder();
+        run(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < UPDATES; i++) {
+                    adder.inc();
+                    max.accumulate(i);
+                    doubles.add(0.5d);
+                }
+            }
+        });
+        LongAdder adderCopy = roundTrip(adder);
+        Assert.assertEquals(THREADS * UPDATES, adderCopy.sum());
+        adderCopy.inc();
+        Assert.assertEquals(THREADS * UPDATES + 1L, adderCopy.sum());
+
+        LongAccumulator maxCopy = roundTrip(max);
+        Assert.assertEquals(UPDATES - 1, maxCopy.getValue());
+        maxCopy.accumulate(UPDATES);
+        Assert.assertEquals(UPDATES, maxCopy.getValue());
+        maxCopy.reset();
+        Assert.assertEquals(Long.MIN_VALUE, maxCopy.getValue());
+
+        Assert.assertEquals(THREADS * UPDATES * 0.5d, roundTrip(doubles).sum(), 0.0d);
+        Assert.assertEquals(Long.MAX_VALUE, roundTrip(LongAccumulator.min()).getValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T roundTrip(T value) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(value);
+        out.close();
+        return (T) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+    }
+
+    private static void run(final Runnable task) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        task.run();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+    }
+}
@@ -0,0 +1,178 @@
+package com.jn.langx.test.util.timing.cron;
+
+import com.jn.langx.util.timing.clock.Clock;
+import com.jn.langx.util.timing.cron.CronPattern;
+import com.jn.langx.util.timing.cron.CronScheduler;
+import com.jn.langx.util.timing.cron.MisfirePolicy;
+import com.jn.langx.util.concurrent.CommonThreadFactory;
+import com.jn.langx.util.timing.timer.HashedWheelTimer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CronPatternTests {
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    @Test
+    public void testNextAndPrevious() throws Throwable {
+        assertNext("0 0 12 * * ?", "2024-01-01 12:00:00", "2024-01-02 12:00:00");
+        assertNext("0 15 10 ? * MON-FRI", "2024-03-08 10:15:00", "2024-03-11 10:15:00");
+        assertNext("0 0 0 L * ?", "2024-02-01 00:00:00", "2024-02-29 00:00:00");
+        // the nearest weekday of Saturday the 15th is Friday the 14th
+        assertNext("0 0 0 15W * ?", "2024-06-01 00:00:00", "2024-06-14 00:00:00");
+        // the nearest weekday of Sunday the 1st is Monday the 2nd, not the previous month
+        assertNext("0 0 0 1W * ?", "2024-08-31 00:00:00", "2024-09-02 00:00:00");
+        assertNext("0 0 0 LW * ?", "2024-08-01 00:00:00", "2024-08-30 00:00:00");
+        assertNext("0 0 0 ? * 6#3", "2024-01-01 00:00:00", "2024-01-19 00:00:00");
+        assertNext("0 0 0 ? * 6L", "2024-01-01 00:00:00", "2024-01-26 00:00:00");
+        assertNext("0 0 0 29 2 ?", "2024-03-01 00:00:00", "2028-02-29 00:00:00");
+        assertNext("30 */5 * * * ? 2030", "2024-03-01 00:00:00", "2030-01-01 00:00:30");
+        assertNext("0 0 0 1 1 ? 2020", "2024-03-01 00:00:00", null);
+
+        CronPattern pattern = CronPattern.compile("0 15 10 ? * MON-FRI", UTC);
+        Assert.assertEquals(parse("2024-03-08 10:15:00"), pattern.previousFireTime(parse("2024-03-11 10:15:00")));
+        Assert.assertEquals(parse("2024-02-29 00:00:00"), CronPattern.compile("0 0 0 L * ?", UTC).previousFireTime(parse("2024-03-31 00:00:00")));
+        Assert.assertEquals(-1, CronPattern.compile("0 0 0 1 1 ? 2030", UTC).previousFireTime(parse("2024-03-01 00:00:00")));
+        Assert.assertTrue(pattern.matches(parse("2024-03-08 10:15:00") + 999));
+        Assert.assertFalse(pattern.matches(parse("2024-03-09 10:15:00")));
+    }
+
+    @Test
+    public void testAgainstBruteForce() throws Throwable {
+        CronPattern pattern = CronPattern.compile("0 */7 9-17 ? * MON-FRI", UTC);
+        Calendar calendar = Calendar.getInstance(UTC);
+        long start = parse("2024-02-20 00:00:00");
+        long end = start + TimeUnit.DAYS.toMillis(20);
+        long previous = -1;
+        for (long minute = start; minute < end; minute += 60000) {
+            calendar.setTimeInMillis(minute);
+            int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
+            int hour = calendar.get(Calendar.HOUR_OF_DAY);
+            boolean fires = calendar.get(Calendar.MINUTE) % 7 == 0 && hour >= 9 && hour <= 17
+                    && dayOfWeek != Calendar.SATURDAY && dayOfWeek != Calendar.SUNDAY;
+            if (fires) {
+                if (previous >= 0) {
+                    Assert.assertEquals(minute, pattern.nextFireTime(previous));
+                    Assert.assertEquals(previous, pattern.previousFireTime(minute));
+                }
+                previous = minute;
+            }
+        }
+    }
+
+    @Test
+    public void testDaylightSavingTime() throws Throwable {
+        TimeZone newYork = TimeZone.getTimeZone("America/New_York");
+        // 2024-03-10 02:30 does not exist, it fires at 03:30 EDT
+        CronPattern pattern = CronPattern.compile("0 30 2 * * ?", newYork);
+        Assert.assertEquals(parse("2024-03-10 07:30:00"), pattern.nextFireTime(parse("2024-03-09 08:00:00")));
+        Assert.assertEquals(parse("2024-03-11 06:30:00"), pattern.nextFireTime(parse("2024-03-10 07:30:00")));
+        // 2024-11-03 01:30 happens twice, it fires once
+        pattern = CronPattern.compile("0 30 1 * * ?", newYork);
+        long first = pattern.nextFireTime(parse("2024-11-03 00:00:00"));
+        Assert.assertEquals(parse("2024-11-03 05:30:00"), first);
+        Assert.assertEquals(parse("2024-11-04 06:30:00"), pattern.nextFireTime(first));
+        Assert.assertEquals(first, pattern.previousFireTime(parse("2024-11-04 06:30:00")));
+        // nor from within the repeated hour
+        Assert.assertEquals(parse("2024-11-04 06:30:00"), pattern.nextFireTime(parse("2024-11-03 06:10:00")));
+        // every hour keeps firing hourly across the transitions
+        pattern = CronPattern.compile("0 0 * * * ?", newYork);
+        long time = parse("2024-03-10 05:00:00");
+        for (int i = 0; i < 5; i++) {
+            long next = pattern.nextFireTime(time);
+            Assert.assertEquals(3600000L, next - time);
+            time = next;
+        }
+    }
+
+    @Test
+    public void testSchedulerRuns() throws Throwable {
+        CronScheduler scheduler = new CronScheduler();
+        try {
+            final AtomicInteger runs = new AtomicInteger();
+            CronScheduler.CronJob job = scheduler.schedule("* * * * * ?", new Runnable() {
+                @Override
+                public void run() {
+                    runs.incrementAndGet();
+                }
+            });
+            long deadline = System.currentTimeMillis() + 5000;
+            while (runs.get() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertTrue(runs.get() >= 2);
+            job.cancel();
+            Assert.assertTrue(scheduler.getJobs().isEmpty());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testMisfirePolicies() throws Throwable {
+        assertRunsAfterMisfire(MisfirePolicy.FIRE_ONCE_NOW, 1);
+        assertRunsAfterMisfire(MisfirePolicy.SKIP, 0);
+        assertRunsAfterMisfire(MisfirePolicy.FIRE_ALL, 6);
+    }
+
+    /**
+     * Schedules a job every minute, then moves the clock 5 minutes and a half after its fire time before it fires.
+     */
+    private void assertRunsAfterMisfire(MisfirePolicy policy, int expectedRuns) throws Throwable {
+        final AtomicLong now = new AtomicLong(parse("2024-01-01 00:00:59") + 900);
+        HashedWheelTimer timer = new HashedWheelTimer(new CommonThreadFactory("cron", true), 10, TimeUnit.MILLISECONDS);
+        CronScheduler scheduler = new CronScheduler(timer, null);
+        try {
+            scheduler.setClock(new Clock() {
+                @Override
+                public long getTime() {
+                    return now.get();
+                }
+            });
+            final AtomicInteger runs = new AtomicInteger();
+            final CronScheduler.CronJob job = scheduler.schedule(CronPattern.compile("0 * * * * ?", UTC), new Runnable() {
+                @Override
+                public void run() {
+                    runs.incrementAndGet();
+                }
+            }, policy);
+            Assert.assertEquals(parse("2024-01-01 00:01:00"), job.getNextFireTime());
+            // the job waits 100 milliseconds in the timer, the clock jumps meanwhile
+            now.set(parse("2024-01-01 00:06:30"));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (job.getNextFireTime() != parse("2024-01-01 00:07:00") && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            Assert.assertEquals(parse("2024-01-01 00:07:00"), job.getNextFireTime());
+            Assert.assertEquals(6, job.getMisfires());
+            // the runs follow the rescheduling
+            while (runs.get() < expectedRuns && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            Thread.sleep(20);
+            Assert.assertEquals(expectedRuns, runs.get());
+            Assert.assertEquals(expectedRuns, job.getRuns());
+        } finally {
+            scheduler.shutdown();
+            timer.stop();
+        }
+    }
+
+    private static void assertNext(String expression, String after, String expected) throws ParseException {
+        long next = CronPattern.compile(expression, UTC).nextFireTime(parse(after));
+        Assert.assertEquals(expression, expected == null ? -1 : parse(expected), next);
+    }
+
+    private static long parse(String time) throws ParseException {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        format.setTimeZone(UTC);
+        return format.parse(time).getTime();
+    }
+}
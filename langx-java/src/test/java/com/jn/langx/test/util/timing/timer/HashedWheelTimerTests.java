@@ -0,0 +1,129 @@
+package com.jn.langx.test.util.timing.timer;
+
+import com.jn.langx.util.concurrent.CommonThreadFactory;
+import com.jn.langx.util.timing.timer.HashedWheelTimer;
+import com.jn.langx.util.timing.timer.Timeout;
+import com.jn.langx.util.timing.timer.TimerTask;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class HashedWheelTimerTests {
+
+    @Test
+    public void testOverflowWheels() throws Throwable {
+        // 8 ticks of 1ms per wheel: 64 ticks need a second level, 512 ticks a third one
+        HashedWheelTimer timer = new HashedWheelTimer(new CommonThreadFactory("timer", true), 1, TimeUnit.MILLISECONDS, 8);
+        try {
+            long[] delays = new long[]{5, 50, 300, 700};
+            final CountDownLatch done = new CountDownLatch(delays.length);
+            final long start = System.nanoTime();
+            final long[] fired = new long[delays.length];
+            for (int i = 0; i < delays.length; i++) {
+                final int index = i;
+                timer.newTimeout(new TimerTask() {
+                    @Override
+                    public void run(Timeout timeout) {
+                        fired[index] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                        done.countDown();
+                    }
+                }, delays[i], TimeUnit.MILLISECONDS);
+            }
+            final AtomicLong cancelledRuns = new AtomicLong();
+            Timeout cancelled = timer.newTimeout(new TimerTask() {
+                @Override
+                public void run(Timeout timeout) {
+                    cancelledRuns.incrementAndGet();
+                }
+            }, 200, TimeUnit.MILLISECONDS);
+            Thread.sleep(20);
+            Assert.assertTrue(cancelled.cancel());
+
+            Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < delays.length; i++) {
+                Assert.assertTrue("fired " + fired[i] + " for " + delays[i], fired[i] >= delays[i]);
+                if (i > 0) {
+                    Assert.assertTrue(fired[i] >= fired[i - 1]);
+                }
+            }
+            Assert.assertEquals(0, cancelledRuns.get());
+            Thread.sleep(10);
+            Assert.assertEquals(0, timer.pendingTimeouts());
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Test
+    public void testTaskExecutor() throws Throwable {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        HashedWheelTimer timer = new HashedWheelTimer(new CommonThreadFactory("timer", true), 10, TimeUnit.MILLISECONDS, 64, false, -1, executor);
+        try {
+            final CountDownLatch slowStarted = new CountDownLatch(1);
+            final CountDownLatch fastDone = new CountDownLatch(1);
+            timer.newTimeout(new TimerTask() {
+                @Override
+                public void run(Timeout timeout) throws Exception {
+                    slowStarted.countDown();
+                    Thread.sleep(2000);
+                }
+            }, 10, TimeUnit.MILLISECONDS);
+            timer.newTimeout(new TimerTask() {
+                @Override
+                public void run(Timeout timeout) {
+                    fastDone.countDown();
+                }
+            }, 50, TimeUnit.MILLISECONDS);
+
+            Assert.assertTrue(slowStarted.await(1, TimeUnit.SECONDS));
+            // the slow task does not hold the worker thread
+            Assert.assertTrue(fastDone.await(1, TimeUnit.SECONDS));
+        } finally {
+            timer.stop();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBatchAndMetrics() throws Throwable {
+        HashedWheelTimer timer = new HashedWheelTimer(new CommonThreadFactory("timer", true), 5, TimeUnit.MILLISECONDS);
+        try {
+            final CountDownLatch done = new CountDownLatch(100);
+            List<TimerTask> tasks = new ArrayList<TimerTask>();
+            for (int i = 0; i < 100; i++) {
+                tasks.add(new TimerTask() {
+                    @Override
+                    public void run(Timeout timeout) {
+                        done.countDown();
+                    }
+                });
+            }
+            List<Timeout> timeouts = timer.newTimeouts(tasks, 20, TimeUnit.MILLISECONDS);
+            Assert.assertEquals(100, timeouts.size());
+            Assert.assertSame(tasks.get(7), timeouts.get(7).task());
+            Assert.assertEquals(100, timer.pendingTimeouts());
+
+            Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(0, timer.pendingTimeouts());
+            // the metrics are recorded once the tick is done
+            long deadline = System.currentTimeMillis() + 1000;
+            while (timer.getExpiredTimeouts() < 100 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+            Assert.assertEquals(100, timer.getExpiredTimeouts());
+            // one deadline for the batch, so one tick expires them all
+            Assert.assertEquals(100, timer.getMaxExpireBatchSize());
+            Assert.assertTrue(timer.getTicks() > 0);
+            Assert.assertTrue(timer.getMaxTickLag() >= timer.getLastTickLag());
+        } finally {
+            timer.stop();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.jn.langx.java21.cache;
+
+import com.jn.langx.cache.AbstractCacheLoader;
+import com.jn.langx.cache.Loader;
+import com.jn.langx.java21.concurrent.StructuredTasks;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.Throwables;
+import com.jn.langx.util.function.Function;
+
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A cache loader which loads the keys of {@link #getAll(Iterable)} in parallel, a virtual thread per key, instead of
+ * one after the other; for the loaders which call a remote resource:
+ * <pre>
+ *  CacheBuilder.newBuilder().loader(new VirtualThreadCacheLoader&lt;String, User&gt;(userLoader, 50))
+ * </pre>
+ */
+public class VirtualThreadCacheLoader<K, V> extends AbstractCacheLoader<K, V> {
+    private final Loader<K, V> delegate;
+    private final int maxConcurrency;
+
+    public VirtualThreadCacheLoader(Loader<K, V> delegate) {
+        this(delegate, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param maxConcurrency the count of keys loaded at once at most
+     */
+    public VirtualThreadCacheLoader(Loader<K, V> delegate, int maxConcurrency) {
+        Preconditions.checkNotNull(delegate, "delegate cannot be null");
+        Preconditions.checkArgument(maxConcurrency > 0, "maxConcurrency must be > 0");
+        this.delegate = delegate;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    @Override
+    public V load(K key) {
+        return delegate.load(key);
+    }
+
+    @Override
+    public Map<K, V> getAll(Iterable<K> keys) {
+        try {
+            return StructuredTasks.loadAll(keys, new Function<K, V>() {
+                @Override
+                public V apply(K key) {
+                    return delegate.load(key);
+                }
+            }, maxConcurrency);
+        } catch (ExecutionException ex) {
+            throw Throwables.wrapAsRuntimeException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        }
+    }
+}
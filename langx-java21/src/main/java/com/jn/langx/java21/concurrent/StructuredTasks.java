@@ -0,0 +1,157 @@
+package com.jn.langx.java21.concurrent;
+
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.function.Function;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The fan-out patterns on a {@link TaskScope}: each task runs in its own virtual thread, the first failure cancels
+ * the others, and no thread outlives the call.
+ * <p>
+ * For example, the loading of the missing keys of a cache in parallel:
+ * <pre>
+ *  Map&lt;String, User&gt; users = StructuredTasks.loadAll(ids, new Function&lt;String, User&gt;() {
+ *      public User apply(String id) {
+ *          return userService.find(id);
+ *      }
+ *  }, 50);
+ * </pre>
+ */
+public class StructuredTasks {
+    private StructuredTasks() {
+    }
+
+    /**
+     * Runs the tasks in parallel, fails fast.
+     *
+     * @return the results, in the order of the tasks
+     * @throws ExecutionException with the first failure as the cause
+     */
+    public static <T> List<T> invokeAll(Collection<? extends Callable<? extends T>> tasks) throws InterruptedException, ExecutionException {
+        try {
+            return invokeAll(tasks, -1, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            // no timeout
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Runs the tasks in parallel, fails fast; the tasks still running at the timeout are cancelled.
+     *
+     * @param timeout the time to wait at most, negative to wait without limit
+     * @return the results, in the order of the tasks
+     * @throws ExecutionException with the first failure as the cause
+     */
+    public static <T> List<T> invokeAll(Collection<? extends Callable<? extends T>> tasks, long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        Preconditions.checkNotNull(tasks, "tasks cannot be null");
+        List<Future<T>> futures = new ArrayList<Future<T>>(tasks.size());
+        try (TaskScope<T> scope = new TaskScope<T>(TaskScope.Policy.SHUTDOWN_ON_FAILURE)) {
+            for (Callable<? extends T> task : tasks) {
+                futures.add(scope.fork(task));
+            }
+            join(scope, timeout, unit).throwIfFailed();
+            List<T> results = new ArrayList<T>(futures.size());
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Runs the tasks in parallel, the first result cancels the others.
+     *
+     * @throws ExecutionException if all the tasks failed, with the first failure as the cause
+     */
+    public static <T> T invokeAny(Collection<? extends Callable<? extends T>> tasks) throws InterruptedException, ExecutionException {
+        try {
+            return invokeAny(tasks, -1, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            // no timeout
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Runs the tasks in parallel, the first result cancels the others; the tasks still running at the timeout are
+     * cancelled.
+     *
+     * @param timeout the time to wait at most, negative to wait without limit
+     * @throws ExecutionException if all the tasks failed, with the first failure as the cause
+     */
+    public static <T> T invokeAny(Collection<? extends Callable<? extends T>> tasks, long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        Preconditions.checkNotNull(tasks, "tasks cannot be null");
+        Preconditions.checkArgument(!tasks.isEmpty(), "tasks cannot be empty");
+        try (TaskScope<T> scope = new TaskScope<T>(TaskScope.Policy.SHUTDOWN_ON_SUCCESS)) {
+            for (Callable<? extends T> task : tasks) {
+                scope.fork(task);
+            }
+            return join(scope, timeout, unit).result();
+        }
+    }
+
+    /**
+     * Loads the values of the keys in parallel, a virtual thread per key.
+     *
+     * @return the values by key, in the order of the keys
+     * @throws ExecutionException with the first failure of the loader as the cause
+     */
+    public static <K, V> Map<K, V> loadAll(Iterable<K> keys, Function<K, V> loader) throws InterruptedException, ExecutionException {
+        return loadAll(keys, loader, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Loads the values of the keys in parallel, a virtual thread per key.
+     *
+     * @param maxConcurrency the count of keys loaded at once at most, to protect the resource the loader calls
+     * @return the values by key, in the order of the keys
+     * @throws ExecutionException with the first failure of the loader as the cause
+     */
+    public static <K, V> Map<K, V> loadAll(Iterable<K> keys, final Function<K, V> loader, int maxConcurrency) throws InterruptedException, ExecutionException {
+        Preconditions.checkNotNull(keys, "keys cannot be null");
+        Preconditions.checkNotNull(loader, "loader cannot be null");
+        Preconditions.checkArgument(maxConcurrency > 0, "maxConcurrency must be > 0");
+        final Semaphore permits = maxConcurrency == Integer.MAX_VALUE ? null : new Semaphore(maxConcurrency);
+        List<K> keyList = new ArrayList<K>();
+        List<Callable<V>> tasks = new ArrayList<Callable<V>>();
+        for (final K key : keys) {
+            keyList.add(key);
+            tasks.add(new Callable<V>() {
+                @Override
+                public V call() throws Exception {
+                    if (permits == null) {
+                        return loader.apply(key);
+                    }
+                    permits.acquire();
+                    try {
+                        return loader.apply(key);
+                    } finally {
+                        permits.release();
+                    }
+                }
+            });
+        }
+        List<V> values = invokeAll(tasks);
+        Map<K, V> map = new LinkedHashMap<K, V>();
+        for (int i = 0; i < keyList.size(); i++) {
+            map.put(keyList.get(i), values.get(i));
+        }
+        return map;
+    }
+
+    private static <T> TaskScope<T> join(TaskScope<T> scope, long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+        return timeout < 0 ? scope.join() : scope.joinUntil(timeout, unit);
+    }
+}
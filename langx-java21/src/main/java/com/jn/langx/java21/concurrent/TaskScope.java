@@ -0,0 +1,255 @@
+package com.jn.langx.java21.concurrent;
+
+import com.jn.langx.util.Preconditions;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Structured concurrency on virtual threads: the subtasks forked in a scope do not outlive it.
+ * <p>
+ * The scope runs each subtask in its own thread, {@link #join()} waits for them, and {@link #close()} interrupts the
+ * ones still running and waits for their end. With {@link Policy#SHUTDOWN_ON_FAILURE}, the first failure shuts the
+ * scope down: the join returns at once and the other subtasks are cancelled; with {@link Policy#SHUTDOWN_ON_SUCCESS},
+ * the first result does. It follows {@code StructuredTaskScope}, a preview API in Java 21:
+ * <pre>
+ *  try (TaskScope&lt;User&gt; scope = new TaskScope&lt;User&gt;(TaskScope.Policy.SHUTDOWN_ON_FAILURE)) {
+ *      Future&lt;User&gt; user = scope.fork(loadUser);
+ *      Future&lt;User&gt; friend = scope.fork(loadFriend);
+ *      scope.join().throwIfFailed();
+ *      ...
+ *  }
+ * </pre>
+ * A scope is owned by the thread which creates it, only this thread forks, joins and closes it.
+ *
+ * @param <T> the result type of the subtasks
+ */
+public class TaskScope<T> implements AutoCloseable {
+    public enum Policy {
+        SHUTDOWN_ON_FAILURE,
+        SHUTDOWN_ON_SUCCESS
+    }
+
+    private final Policy policy;
+    private final ThreadFactory threadFactory;
+    private final Thread owner;
+    private final List<Subtask> subtasks = new CopyOnWriteArrayList<Subtask>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicReference<Throwable> firstFailure = new AtomicReference<Throwable>();
+    private final AtomicReference<Subtask> firstSuccess = new AtomicReference<Subtask>();
+    /**
+     * not a monitor, waiting on it would pin the carrier of a virtual owner thread
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition done = lock.newCondition();
+    private volatile boolean shutdown;
+    private boolean closed;
+
+    public TaskScope(Policy policy) {
+        this(policy, new VirtualThreadFactory("TaskScope"));
+    }
+
+    public TaskScope(Policy policy, ThreadFactory threadFactory) {
+        Preconditions.checkNotNull(policy, "policy cannot be null");
+        Preconditions.checkNotNull(threadFactory, "threadFactory cannot be null");
+        this.policy = policy;
+        this.threadFactory = threadFactory;
+        this.owner = Thread.currentThread();
+    }
+
+    /**
+     * Starts a subtask in a new thread; after the shutdown of the scope, the subtask is cancelled without running.
+     */
+    public Future<T> fork(Callable<? extends T> task) {
+        checkOwner();
+        if (closed) {
+            throw new IllegalStateException("the scope is closed");
+        }
+        Subtask subtask = new Subtask(task);
+        subtask.thread = threadFactory.newThread(subtask);
+        running.incrementAndGet();
+        subtasks.add(subtask);
+        if (shutdown) {
+            subtask.cancel(false);
+        } else {
+            subtask.thread.start();
+        }
+        return subtask;
+    }
+
+    /**
+     * Waits for all the subtasks, or for the shutdown of the scope.
+     */
+    public TaskScope<T> join() throws InterruptedException {
+        checkOwner();
+        lock.lock();
+        try {
+            while (!isDone()) {
+                done.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return this;
+    }
+
+    /**
+     * Waits for all the subtasks, or for the shutdown of the scope, at most the timeout; then shuts the scope down.
+     */
+    public TaskScope<T> joinUntil(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+        checkOwner();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (!isDone()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                done.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!isDone()) {
+            shutdown();
+            throw new TimeoutException();
+        }
+        return this;
+    }
+
+    private boolean isDone() {
+        return shutdown || running.get() == 0;
+    }
+
+    /**
+     * Cancels the subtasks still running, interrupting their threads; the join returns.
+     */
+    public void shutdown() {
+        shutdown = true;
+        signalDone();
+        for (Subtask subtask : subtasks) {
+            if (!subtask.isDone()) {
+                subtask.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * With {@link Policy#SHUTDOWN_ON_FAILURE}, throws the first failure of the subtasks, after the join.
+     */
+    public TaskScope<T> throwIfFailed() throws ExecutionException {
+        Throwable failure = firstFailure.get();
+        if (failure != null) {
+            throw new ExecutionException(failure);
+        }
+        return this;
+    }
+
+    /**
+     * With {@link Policy#SHUTDOWN_ON_SUCCESS}, the first result of the subtasks, after the join.
+     *
+     * @throws ExecutionException if no subtask succeeded, with the first failure as the cause
+     */
+    public T result() throws ExecutionException {
+        Subtask success = firstSuccess.get();
+        if (success == null) {
+            Throwable failure = firstFailure.get();
+            throw new ExecutionException(failure != null ? failure : new CancellationException("no subtask succeeded"));
+        }
+        try {
+            return success.get();
+        } catch (InterruptedException ex) {
+            // the subtask is done
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Shuts the scope down, then waits for the end of the threads of the subtasks.
+     */
+    @Override
+    public void close() {
+        checkOwner();
+        if (closed) {
+            return;
+        }
+        closed = true;
+        shutdown();
+        boolean interrupted = false;
+        for (Subtask subtask : subtasks) {
+            Thread thread = subtask.thread;
+            while (thread != null && thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void signalDone() {
+        lock.lock();
+        try {
+            done.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkOwner() {
+        if (Thread.currentThread() != owner) {
+            throw new IllegalStateException("the scope is owned by " + owner);
+        }
+    }
+
+    private void onDone(Subtask subtask) {
+        if (!subtask.isCancelled()) {
+            try {
+                subtask.get();
+                if (policy == Policy.SHUTDOWN_ON_SUCCESS && firstSuccess.compareAndSet(null, subtask)) {
+                    shutdown();
+                }
+            } catch (ExecutionException ex) {
+                if (firstFailure.compareAndSet(null, ex.getCause()) && policy == Policy.SHUTDOWN_ON_FAILURE) {
+                    shutdown();
+                }
+            } catch (InterruptedException ex) {
+                // the subtask is done
+            }
+        }
+        if (running.decrementAndGet() == 0) {
+            signalDone();
+        }
+    }
+
+    private final class Subtask extends FutureTask<T> {
+        private volatile Thread thread;
+
+        @SuppressWarnings("unchecked")
+        private Subtask(Callable<? extends T> task) {
+            super((Callable<T>) task);
+        }
+
+        @Override
+        protected void done() {
+            onDone(this);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.jn.langx.java21.concurrent;
+
+import com.jn.langx.util.function.Supplier0;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A pinning-safe replacement of the {@code synchronized} sections run by virtual threads.
+ * <p>
+ * On Java 21, a virtual thread which blocks inside a {@code synchronized} section, or which waits to enter one, pins
+ * its carrier thread: the other virtual threads cannot use it meanwhile, and a few such sections stall the whole
+ * scheduler. A {@link ReentrantLock} parks the virtual thread instead, releasing the carrier:
+ * <pre>
+ *  private final VirtualMonitor monitor = new VirtualMonitor();
+ *
+ *  public long next() {
+ *      return monitor.get(new Supplier0&lt;Long&gt;() {
+ *          public Long get() {
+ *              return nextLocked();
+ *          }
+ *      });
+ *  }
+ * </pre>
+ * For the Snowflake ids, {@link com.jn.langx.util.id.snowflake.LockFreeSnowflakeIdWorker} needs no lock at all and is
+ * preferred to the synchronized {@code CnblogsSnowflakeIdWorker}.
+ */
+public class VirtualMonitor {
+    private final ReentrantLock lock;
+
+    public VirtualMonitor() {
+        this(false);
+    }
+
+    public VirtualMonitor(boolean fair) {
+        this.lock = new ReentrantLock(fair);
+    }
+
+    public void run(Runnable section) {
+        lock.lock();
+        try {
+            section.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public <V> V get(Supplier0<V> section) {
+        lock.lock();
+        try {
+            return section.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public <V> V call(Callable<V> section) throws Exception {
+        lock.lock();
+        try {
+            return section.call();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs the section if the monitor is free within the timeout.
+     *
+     * @return true if the section was run
+     */
+    public boolean tryRun(Runnable section, long timeout, TimeUnit unit) throws InterruptedException {
+        if (!lock.tryLock(timeout, unit)) {
+            return false;
+        }
+        try {
+            section.run();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return a condition replacing {@code wait}/{@code notify} on the monitor
+     */
+    public Condition newCondition() {
+        return lock.newCondition();
+    }
+
+    public ReentrantLock getLock() {
+        return lock;
+    }
+}
@@ -0,0 +1,60 @@
+package com.jn.langx.java21.concurrent;
+
+import com.jn.langx.factory.Factory;
+import com.jn.langx.util.Strings;
+import com.jn.langx.util.concurrent.TaskInterceptor;
+import com.jn.langx.util.concurrent.WrappedRunable;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates virtual threads, named ${prefix}-${threadNumber}, in place of a
+ * {@link com.jn.langx.util.concurrent.CommonThreadFactory} for the components taking a {@link ThreadFactory}.
+ * <p>
+ * As the platform threads of {@code CommonThreadFactory}, the tasks are wrapped in a {@link WrappedRunable}, with the
+ * interceptors added to the factory; virtual threads are always daemon threads.
+ */
+public class VirtualThreadFactory implements ThreadFactory, Factory<Runnable, Thread> {
+    private final ThreadFactory delegate;
+    private final List<TaskInterceptor> interceptors = new CopyOnWriteArrayList<TaskInterceptor>();
+
+    public VirtualThreadFactory() {
+        this("VIRTUAL");
+    }
+
+    public VirtualThreadFactory(String prefix) {
+        if (Strings.isBlank(prefix)) {
+            prefix = "VIRTUAL";
+        }
+        this.delegate = Thread.ofVirtual().name(prefix + "-", 0).factory();
+    }
+
+    /**
+     * @param interceptor applied to the tasks of the threads created later
+     */
+    public void addInterceptor(TaskInterceptor interceptor) {
+        if (interceptor != null) {
+            interceptors.add(interceptor);
+        }
+    }
+
+    @Override
+    public Thread newThread(Runnable r) {
+        WrappedRunable task = new WrappedRunable(r);
+        for (TaskInterceptor interceptor : interceptors) {
+            task.addInterceptor(interceptor);
+        }
+        return delegate.newThread(task);
+    }
+
+    @Override
+    public Thread get(Runnable runnable) {
+        return newThread(runnable);
+    }
+
+    public static ThreadFactory create(String prefix) {
+        return new VirtualThreadFactory(prefix);
+    }
+}
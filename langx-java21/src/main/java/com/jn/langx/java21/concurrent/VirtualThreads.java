@@ -0,0 +1,74 @@
+package com.jn.langx.java21.concurrent;
+
+import com.jn.langx.util.Preconditions;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Executors of virtual threads, for the blocking tasks: a virtual thread blocked on I/O or on a lock of
+ * {@code java.util.concurrent} releases its carrier thread, so thousands of them can wait at once.
+ * <p>
+ * Usage with the langx components:
+ * <pre>
+ *  asyncEventPublisher.setExecutor(VirtualThreads.newExecutor("EventPublisher"));
+ *  ringBufferEventPublisher.setThreadFactory(new VirtualThreadFactory("EventPublisher"));
+ *  new InstrumentedExecutorService("loads", VirtualThreads.newBoundedExecutor("loads", 200));
+ * </pre>
+ * A task must not block inside a {@code synchronized} section, which pins the carrier thread; see
+ * {@link VirtualMonitor}.
+ */
+public class VirtualThreads {
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return an executor starting a virtual thread per task
+     */
+    public static ExecutorService newExecutor(String prefix) {
+        return Executors.newThreadPerTaskExecutor(new VirtualThreadFactory(prefix));
+    }
+
+    /**
+     * @param maxConcurrency the count of tasks running at once at most, to protect the resource they call; the other
+     *                       tasks wait in their virtual thread, which is cheap
+     * @return an executor starting a virtual thread per task
+     */
+    public static ExecutorService newBoundedExecutor(String prefix, int maxConcurrency) {
+        Preconditions.checkArgument(maxConcurrency > 0, "maxConcurrency must be > 0");
+        final VirtualThreadFactory factory = new VirtualThreadFactory(prefix);
+        final Semaphore permits = new Semaphore(maxConcurrency);
+        return Executors.newThreadPerTaskExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                return factory.newThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            permits.acquire();
+                        } catch (InterruptedException ex) {
+                            // cancelled while waiting, the task is not run
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        try {
+                            r.run();
+                        } finally {
+                            permits.release();
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    public static Thread start(String name, Runnable task) {
+        return Thread.ofVirtual().name(name).start(task);
+    }
+
+    public static boolean isVirtual(Thread thread) {
+        return thread.isVirtual();
+    }
+}